@@ -0,0 +1,135 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind;
+
+import javax.xml.bind.annotation.adapters.CollapsedStringAdapter;
+import javax.xml.bind.annotation.adapters.HexBinaryAdapter;
+import javax.xml.bind.annotation.adapters.NormalizedStringAdapter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link CollapsedStringAdapter}, {@link NormalizedStringAdapter} and
+ * {@link HexBinaryAdapter}. The string adapters are given text, the hex
+ * adapter hex strings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(Corpus.SIZE)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdapterBenchmark {
+
+    @Param
+    public Corpus.Shape shape;
+
+    private final CollapsedStringAdapter collapsed = new CollapsedStringAdapter();
+    private final NormalizedStringAdapter normalized = new NormalizedStringAdapter();
+    private final HexBinaryAdapter hexBinary = new HexBinaryAdapter();
+
+    private String[] texts;
+    private String[] hex;
+    private byte[][] binaries;
+
+    @Setup
+    public void setUp() {
+        Corpus c = new Corpus(shape);
+        texts = c.strings;
+        hex = c.hex;
+        binaries = new byte[Corpus.SIZE][];
+        for (int i = 0; i < Corpus.SIZE; i++) {
+            binaries[i] = c.binary(shape == Corpus.Shape.LONG ? 2048 : 8);
+        }
+    }
+
+    @Benchmark
+    public void collapsedStringUnmarshal(Blackhole bh) {
+        for (String s : texts) {
+            bh.consume(collapsed.unmarshal(s));
+        }
+    }
+
+    @Benchmark
+    public void collapsedStringMarshal(Blackhole bh) {
+        for (String s : texts) {
+            bh.consume(collapsed.marshal(s));
+        }
+    }
+
+    @Benchmark
+    public void normalizedStringUnmarshal(Blackhole bh) {
+        for (String s : texts) {
+            bh.consume(normalized.unmarshal(s));
+        }
+    }
+
+    @Benchmark
+    public void hexBinaryUnmarshal(Blackhole bh) {
+        for (String s : hex) {
+            try {
+                bh.consume(hexBinary.unmarshal(s));
+            } catch (RuntimeException e) {
+                bh.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void hexBinaryMarshal(Blackhole bh) {
+        for (byte[] b : binaries) {
+            bh.consume(hexBinary.marshal(b));
+        }
+    }
+}
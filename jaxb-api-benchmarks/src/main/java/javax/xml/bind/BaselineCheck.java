@@ -0,0 +1,291 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares JMH results with a baseline.
+ *
+ * <pre>
+ *     java -cp target/benchmarks.jar javax.xml.bind.BaselineCheck baseline result.json [tolerance]
+ * </pre>
+ *
+ * <p>
+ * Both files are JMH results in JSON ({@code -rf json}); the baseline may also
+ * be a directory, whose {@code .json} files are all read. A benchmark regresses
+ * when its score is worse than the baseline score by more than the tolerance,
+ * a fraction defaulting to {@value #DEFAULT_TOLERANCE}, and by more than three
+ * standard deviations of the iterations of both runs. The score errors of JMH,
+ * 99.9% confidence intervals, are too wide to be useful with a few iterations.
+ * Benchmarks missing from either file are ignored. The exit status is 1 if any
+ * benchmark regressed, 2 on bad arguments.
+ */
+public final class BaselineCheck {
+
+    static final double DEFAULT_TOLERANCE = 0.25;
+
+    private BaselineCheck() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("usage: BaselineCheck <baseline.json|directory> <result.json> [tolerance]");
+            System.exit(2);
+        }
+        double tolerance = args.length == 3 ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE;
+        Map<String, Score> baseline = new LinkedHashMap<String, Score>();
+        Path base = Paths.get(args[0]);
+        if (Files.isDirectory(base)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(base, "*.json")) {
+                for (Path file : files) {
+                    baseline.putAll(read(file));
+                }
+            }
+        } else {
+            baseline.putAll(read(base));
+        }
+        Map<String, Score> result = read(Paths.get(args[1]));
+
+        int regressions = 0;
+        for (Map.Entry<String, Score> e : result.entrySet()) {
+            Score before = baseline.get(e.getKey());
+            if (before == null) {
+                continue;
+            }
+            Score after = e.getValue();
+            double change = before.higherIsBetter
+                ? (before.score - after.score) / before.score
+                : (after.score - before.score) / before.score;
+            double noise = Math.sqrt(before.deviation * before.deviation + after.deviation * after.deviation)
+                           / before.score;
+            boolean regressed = change > tolerance && change > 3 * noise;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-12s %-70s %12.3f -> %12.3f %s %+7.1f%%%n",
+                regressed ? "REGRESSION" : "ok", e.getKey(), before.score, after.score, after.unit, change * 100);
+        }
+        System.out.printf("%d benchmark(s) compared, %d regression(s) beyond %.0f%%%n",
+            result.size(), regressions, tolerance * 100);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads the primary scores of a result file, keyed by benchmark and parameters.
+     */
+    static Map<String, Score> read(Path file) throws IOException {
+        String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        Map<String, Score> scores = new LinkedHashMap<String, Score>();
+        for (Object o : (List<?>) new Parser(json).value()) {
+            Map<?, ?> run = (Map<?, ?>) o;
+            StringBuilder key = new StringBuilder((String) run.get("benchmark"));
+            Map<?, ?> params = (Map<?, ?>) run.get("params");
+            if (params != null) {
+                for (Map.Entry<?, ?> p : params.entrySet()) {
+                    key.append(key.indexOf(":") < 0 ? ':' : ',').append(p.getKey()).append('=').append(p.getValue());
+                }
+            }
+            Map<?, ?> metric = (Map<?, ?>) run.get("primaryMetric");
+            String mode = (String) run.get("mode");
+            scores.put(key.toString(), new Score(
+                ((Number) metric.get("score")).doubleValue(),
+                deviation((List<?>) metric.get("rawData")),
+                (String) metric.get("scoreUnit"),
+                "thrpt".equals(mode)));
+        }
+        return scores;
+    }
+
+    /**
+     * Computes the standard deviation of the iterations of all the forks.
+     */
+    private static double deviation(List<?> forks) {
+        List<Double> values = new ArrayList<Double>();
+        if (forks != null) {
+            for (Object fork : forks) {
+                for (Object value : (List<?>) fork) {
+                    values.add(((Number) value).doubleValue());
+                }
+            }
+        }
+        if (values.size() < 2) {
+            return 0;
+        }
+        double mean = 0;
+        for (double v : values) {
+            mean += v;
+        }
+        mean /= values.size();
+        double squares = 0;
+        for (double v : values) {
+            squares += (v - mean) * (v - mean);
+        }
+        return Math.sqrt(squares / (values.size() - 1));
+    }
+
+    static final class Score {
+        final double score;
+        final double deviation;
+        final String unit;
+        final boolean higherIsBetter;
+
+        Score(double score, double deviation, String unit, boolean higherIsBetter) {
+            this.score = score;
+            this.deviation = deviation;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+        }
+    }
+
+    /**
+     * Just enough of a JSON parser for JMH results: objects become maps,
+     * arrays lists, numbers doubles.
+     */
+    private static final class Parser {
+        private final String s;
+        private int i;
+
+        Parser(String s) {
+            this.s = s;
+        }
+
+        Object value() {
+            skip();
+            char c = s.charAt(i);
+            switch (c) {
+                case '{':
+                    Map<String, Object> map = new LinkedHashMap<String, Object>();
+                    i++;
+                    if (!next('}')) {
+                        do {
+                            skip();
+                            String name = string();
+                            expect(':');
+                            map.put(name, value());
+                        } while (next(','));
+                        expect('}');
+                    }
+                    return map;
+                case '[':
+                    List<Object> list = new ArrayList<Object>();
+                    i++;
+                    if (!next(']')) {
+                        do {
+                            list.add(value());
+                        } while (next(','));
+                        expect(']');
+                    }
+                    return list;
+                case '"':
+                    return string();
+                default:
+                    int start = i;
+                    while (i < s.length() && ",]} \t\r\n".indexOf(s.charAt(i)) < 0) {
+                        i++;
+                    }
+                    String literal = s.substring(start, i);
+                    if (literal.equals("true") || literal.equals("false")) {
+                        return Boolean.valueOf(literal);
+                    }
+                    if (literal.equals("null")) {
+                        return null;
+                    }
+                    return Double.valueOf(literal);
+            }
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            for (char c; (c = s.charAt(i++)) != '"'; ) {
+                if (c == '\\') {
+                    c = s.charAt(i++);
+                    switch (c) {
+                        case 'n': c = '\n'; break;
+                        case 't': c = '\t'; break;
+                        case 'r': c = '\r'; break;
+                        case 'b': c = '\b'; break;
+                        case 'f': c = '\f'; break;
+                        case 'u':
+                            c = (char) Integer.parseInt(s.substring(i, i + 4), 16);
+                            i += 4;
+                            break;
+                        default:
+                            break;
+                    }
+                }
+                sb.append(c);
+            }
+            return sb.toString();
+        }
+
+        private void skip() {
+            while (i < s.length() && Character.isWhitespace(s.charAt(i))) {
+                i++;
+            }
+        }
+
+        private boolean next(char c) {
+            skip();
+            if (i < s.length() && s.charAt(i) == c) {
+                i++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!next(c)) {
+                throw new IllegalArgumentException("expected '" + c + "' at offset " + i);
+            }
+        }
+    }
+}
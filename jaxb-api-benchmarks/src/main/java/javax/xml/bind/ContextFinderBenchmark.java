@@ -0,0 +1,108 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link ContextFinder#find(String, String, ClassLoader, Map)} and
+ * {@link ContextFinder#find(Class[], Map)} along each branch of the
+ * discovery, once warmed up, with the stub provider.
+ *
+ * <p>
+ * Each branch pays for the lookups of the branches before it, most of
+ * which scan the whole class path, hence the {@code jars} parameter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ContextFinderBenchmark {
+
+    private static final Map<String, Object> PROPERTIES = Collections.emptyMap();
+
+    @Param
+    public DiscoveryScenario.Branch branch;
+
+    @Param({ "0", "200" })
+    public int jars;
+
+    private DiscoveryScenario scenario;
+
+    @Setup
+    public void setUp() throws Exception {
+        scenario = new DiscoveryScenario(branch, jars);
+        scenario.install();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        scenario.close();
+    }
+
+    @Benchmark
+    public JAXBContext findContextPath() throws JAXBException {
+        return ContextFinder.find(JAXBContext.JAXB_CONTEXT_FACTORY, DiscoveryScenario.CONTEXT_PATH,
+                                  scenario.getClassLoader(), PROPERTIES);
+    }
+
+    @Benchmark
+    public JAXBContext findClasses() throws JAXBException {
+        return ContextFinder.find(scenario.getClasses(), PROPERTIES);
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind;
+
+import javax.xml.namespace.NamespaceContext;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * Lexical values fed to the benchmarks.
+ *
+ * <p>
+ * Each array holds {@link #SIZE} values of one XML Schema type, generated from a
+ * fixed seed so that runs are comparable. The values are iterated over in each
+ * benchmark invocation, so that they can't be constant-folded. The class is
+ * public for the sake of the code generated by JMH, which refers to {@link Shape}.
+ */
+public final class Corpus {
+
+    /** Number of values of each type. */
+    static final int SIZE = 64;
+
+    /**
+     * Shape of the values.
+     */
+    public enum Shape {
+        /** Typical values, a few characters long. */
+        SHORT,
+        /** Values at the end of the range of their type, or kilobytes long. */
+        LONG,
+        /** Short values surrounded and interspersed with whitespace, as in indented documents. */
+        WHITESPACE,
+        /** Values which aren't valid lexical representations of their type. */
+        MALFORMED
+    }
+
+    /** Binds the prefixes {@code p0} to {@code p3}. */
+    static final NamespaceContext NAMESPACES = new NamespaceContext() {
+        @Override
+        public String getNamespaceURI(String prefix) {
+            return prefix.length() == 2 && prefix.charAt(0) == 'p' && prefix.charAt(1) < '4'
+                ? "urn:benchmark:" + prefix : prefix.isEmpty() ? "urn:benchmark" : null;
+        }
+
+        @Override
+        public String getPrefix(String namespaceURI) {
+            return namespaceURI.startsWith("urn:benchmark:") ? namespaceURI.substring(14) : "";
+        }
+
+        @Override
+        public Iterator<String> getPrefixes(String namespaceURI) {
+            return Collections.singleton(getPrefix(namespaceURI)).iterator();
+        }
+    };
+
+    private static final String[] SPACES = { " ", "  ", "\n    ", "\t", "\r\n\t\t", "\n" };
+
+    final String[] strings = new String[SIZE];
+    final String[] integers = new String[SIZE];
+    final String[] ints = new String[SIZE];
+    final String[] longs = new String[SIZE];
+    final String[] shorts = new String[SIZE];
+    final String[] bytes = new String[SIZE];
+    final String[] decimals = new String[SIZE];
+    final String[] floats = new String[SIZE];
+    final String[] doubles = new String[SIZE];
+    final String[] booleans = new String[SIZE];
+    final String[] qnames = new String[SIZE];
+    final String[] dateTimes = new String[SIZE];
+    final String[] dates = new String[SIZE];
+    final String[] times = new String[SIZE];
+    final String[] base64 = new String[SIZE];
+    final String[] hex = new String[SIZE];
+    final String[] unsignedInts = new String[SIZE];
+    final String[] unsignedShorts = new String[SIZE];
+
+    private final Random random = new Random(42);
+
+    Corpus(Shape shape) {
+        for (int i = 0; i < SIZE; i++) {
+            switch (shape) {
+                case SHORT:
+                    shortValues(i);
+                    break;
+                case LONG:
+                    longValues(i);
+                    break;
+                case WHITESPACE:
+                    shortValues(i);
+                    for (String[] values : all()) {
+                        values[i] = space() + values[i] + space();
+                    }
+                    strings[i] = text(8, true);
+                    base64[i] = wrap(base64[i], 4);
+                    break;
+                default:
+                    malformedValues(i);
+                    break;
+            }
+        }
+    }
+
+    private String[][] all() {
+        return new String[][] { strings, integers, ints, longs, shorts, bytes, decimals, floats, doubles,
+                                booleans, qnames, dateTimes, dates, times, base64, hex, unsignedInts, unsignedShorts };
+    }
+
+    private void shortValues(int i) {
+        strings[i] = text(3, false);
+        integers[i] = Integer.toString(random.nextInt(2000) - 1000);
+        ints[i] = Integer.toString(random.nextInt(2000) - 1000);
+        longs[i] = Long.toString(random.nextInt(2000) - 1000);
+        shorts[i] = Integer.toString(random.nextInt(200) - 100);
+        bytes[i] = Integer.toString(random.nextInt(200) - 100);
+        decimals[i] = BigDecimal.valueOf(random.nextInt(100000) - 50000, 2).toPlainString();
+        floats[i] = Float.toString(random.nextInt(1000) / 8f);
+        doubles[i] = Double.toString(random.nextInt(100000) / 16d);
+        booleans[i] = (i & 1) == 0 ? "true" : "false";
+        qnames[i] = "p" + (i & 3) + ":item" + i;
+        dateTimes[i] = date() + "T" + time() + "Z";
+        dates[i] = date();
+        times[i] = time();
+        base64[i] = DatatypeConverterImpl._printBase64Binary(binary(12));
+        hex[i] = DatatypeConverterImpl.theInstance.printHexBinary(binary(8));
+        unsignedInts[i] = Integer.toString(random.nextInt(1000000));
+        unsignedShorts[i] = Integer.toString(random.nextInt(1000));
+    }
+
+    private void longValues(int i) {
+        strings[i] = text(200, false);
+        integers[i] = new BigInteger(160, random).subtract(BigInteger.ONE.shiftLeft(159)).toString();
+        ints[i] = (i & 1) == 0 ? Integer.toString(random.nextInt()) : "+000" + random.nextInt(Integer.MAX_VALUE);
+        longs[i] = Long.toString(random.nextLong());
+        shorts[i] = Integer.toString(random.nextInt(65536) - 32768);
+        bytes[i] = (i & 1) == 0 ? "-128" : "+0127";
+        decimals[i] = new BigDecimal(new BigInteger(128, random), 20).negate().toPlainString();
+        floats[i] = Float.toString(random.nextFloat() * Float.MAX_VALUE / (i + 1));
+        doubles[i] = (i & 7) == 0 ? "-INF" : Double.toString(random.nextDouble() * Double.MIN_NORMAL * (i + 1));
+        booleans[i] = (i & 1) == 0 ? "1" : "0";
+        qnames[i] = "p" + (i & 3) + ":" + text(60, false).replace(' ', '-');
+        dateTimes[i] = (1000 + random.nextInt(9000)) * ((i & 1) == 0 ? 1 : 10) + date().substring(4) + "T" + time()
+            + "." + (100000000 + random.nextInt(900000000)) + ((i & 1) == 0 ? "+05:30" : "-11:00");
+        dates[i] = date() + ((i & 1) == 0 ? "+14:00" : "Z");
+        times[i] = time() + "." + (100 + random.nextInt(900)) + "-08:00";
+        base64[i] = wrap(DatatypeConverterImpl._printBase64Binary(binary(3072)), 76);
+        hex[i] = DatatypeConverterImpl.theInstance.printHexBinary(binary(2048));
+        unsignedInts[i] = Long.toString(4294967295L - random.nextInt(1000));
+        unsignedShorts[i] = Integer.toString(65535 - random.nextInt(1000));
+    }
+
+    private void malformedValues(int i) {
+        // a mix of the common mistakes: empty values, wrong separators, out of range and garbage
+        String[] garbage = { "", "N/A", "12a", "1,5", "--1" };
+        String g = garbage[i % garbage.length];
+        strings[i] = "\u0000" + text(3, false);
+        integers[i] = (i & 1) == 0 ? g : "1e3";
+        ints[i] = (i & 1) == 0 ? g : "2147483648";
+        longs[i] = (i & 1) == 0 ? g : "9223372036854775808";
+        shorts[i] = (i & 1) == 0 ? g : "40000";
+        bytes[i] = (i & 1) == 0 ? g : "128";
+        decimals[i] = (i & 1) == 0 ? g : "1.2.3";
+        floats[i] = (i & 1) == 0 ? g : "Infinity";
+        doubles[i] = (i & 1) == 0 ? g : "1.0d";
+        booleans[i] = (i & 1) == 0 ? g : "yes";
+        qnames[i] = (i & 1) == 0 ? "undeclared:item" : "p0:";
+        dateTimes[i] = (i & 1) == 0 ? g : "2018-13-45T25:61:61Z";
+        dates[i] = (i & 1) == 0 ? g : "01/06/2018";
+        times[i] = (i & 1) == 0 ? g : "25:00";
+        base64[i] = (i & 1) == 0 ? "!!!!" : "QUJD=";
+        hex[i] = (i & 1) == 0 ? "ABC" : "GHIJ";
+        unsignedInts[i] = (i & 1) == 0 ? g : "-1";
+        unsignedShorts[i] = (i & 1) == 0 ? g : "65536";
+    }
+
+    private String date() {
+        return String.format("%04d-%02d-%02d", 1970 + random.nextInt(80), 1 + random.nextInt(12), 1 + random.nextInt(28));
+    }
+
+    private String time() {
+        return String.format("%02d:%02d:%02d", random.nextInt(24), random.nextInt(60), random.nextInt(60));
+    }
+
+    private String space() {
+        return SPACES[random.nextInt(SPACES.length)];
+    }
+
+    /**
+     * Words separated by single spaces, or by runs of whitespace.
+     */
+    String text(int words, boolean messy) {
+        StringBuilder sb = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                sb.append(messy ? space() : " ");
+            }
+            int length = 2 + random.nextInt(8);
+            for (int c = 0; c < length; c++) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+        }
+        return sb.toString();
+    }
+
+    byte[] binary(int length) {
+        byte[] b = new byte[length];
+        random.nextBytes(b);
+        return b;
+    }
+
+    private static String wrap(String s, int width) {
+        StringBuilder sb = new StringBuilder(s.length() + s.length() / width * 2);
+        for (int i = 0; i < s.length(); i += width) {
+            sb.append(s, i, Math.min(s.length(), i + width)).append("\r\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parse methods of {@link DatatypeConverterImpl}.
+ *
+ * <p>
+ * Malformed values are part of the measurements: the exceptions they cause
+ * are consumed like the parsed values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(Corpus.SIZE)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DatatypeConverterParseBenchmark {
+
+    private static final DatatypeConverterInterface CONVERTER = DatatypeConverterImpl.theInstance;
+
+    @Param
+    public Corpus.Shape shape;
+
+    private Corpus corpus;
+
+    @Setup
+    public void setUp() {
+        corpus = new Corpus(shape);
+    }
+
+    @Benchmark
+    public void parseString(Blackhole bh) {
+        for (String s : corpus.strings) {
+            try {
+                bh.consume(CONVERTER.parseString(s));
+            } catch (RuntimeException e) {
+                bh.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseInteger(Blackhole bh) {
+        for (String s : corpus.integers) {
+            try {
+                bh.consume(CONVERTER.parseInteger(s));
+            } catch (RuntimeException e) {
+                bh.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseInt(Blackhole bh) {
+        for (String s : corpus.ints) {
+            try {
+                bh.consume(CONVERTER.parseInt(s));
+            } catch (RuntimeException e) {
+                bh.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseLong(Blackhole bh) {
+        for (String s : corpus.longs) {
+            try {
+                bh.consume(CONVERTER.parseLong(s));
+            } catch (RuntimeException e) {
+                bh.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseShort(Blackhole bh) {
+        for (String s : corpus.shorts) {
+            try {
+                bh.consume(CONVERTER.parseShort(s));
+            } catch (RuntimeException e) {
+                bh.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseDecimal(Blackhole bh) {
+        for (String s : corpus.decimals) {
+            try {
+                bh.consume(CONVERTER.parseDecimal(s));
+            } catch (RuntimeException e) {
+                bh.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseFloat(Blackhole bh) {
+        for (String s : corpus.floats) {
+            try {
+                bh.consume(CONVERTER.parseFloat(s));
+            } catch (RuntimeException e) {
+                bh.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseDouble(Blackhole bh) {
+        for (String s : corpus.doubles) {
+            try {
+                bh.consume(CONVERTER.parseDouble(s));
+            } catch (RuntimeException e) {
+                bh.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseBoolean(Blackhole bh) {
+        for (String s : corpus.booleans) {
+            try {
+                bh.consume(CONVERTER.parseBoolean(s));
+            } catch (RuntimeException e) {
+                bh.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseByte(Blackhole bh) {
+        for (String s : corpus.bytes) {
+            try {
+                bh.consume(CONVERTER.parseByte(s));
+            } catch (RuntimeException e) {
+                bh.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseQName(Blackhole bh) {
+        for (String s : corpus.qnames) {
+            try {
+                bh.consume(CONVERTER.parseQName(s, Corpus.NAMESPACES));
+            } catch (RuntimeException e) {
+                bh.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseDateTime(Blackhole bh) {
+        for (String s : corpus.dateTimes) {
+            try {
+                bh.consume(CONVERTER.parseDateTime(s));
+            } catch (RuntimeException e) {
+                bh.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseBase64Binary(Blackhole bh) {
+        for (String s : corpus.base64) {
+            try {
+                bh.consume(CONVERTER.parseBase64Binary(s));
+            } catch (RuntimeException e) {
+                bh.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseHexBinary(Blackhole bh) {
+        for (String s : corpus.hex) {
+            try {
+                bh.consume(CONVERTER.parseHexBinary(s));
+            } catch (RuntimeException e) {
+                bh.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseUnsignedInt(Blackhole bh) {
+        for (String s : corpus.unsignedInts) {
+            try {
+                bh.consume(CONVERTER.parseUnsignedInt(s));
+            } catch (RuntimeException e) {
+                bh.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseUnsignedShort(Blackhole bh) {
+        for (String s : corpus.unsignedShorts) {
+            try {
+                bh.consume(CONVERTER.parseUnsignedShort(s));
+            } catch (RuntimeException e) {
+                bh.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseTime(Blackhole bh) {
+        for (String s : corpus.times) {
+            try {
+                bh.consume(CONVERTER.parseTime(s));
+            } catch (RuntimeException e) {
+                bh.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseDate(Blackhole bh) {
+        for (String s : corpus.dates) {
+            try {
+                bh.consume(CONVERTER.parseDate(s));
+            } catch (RuntimeException e) {
+                bh.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseAnySimpleType(Blackhole bh) {
+        for (String s : corpus.strings) {
+            try {
+                bh.consume(CONVERTER.parseAnySimpleType(s));
+            } catch (RuntimeException e) {
+                bh.consume(e);
+            }
+        }
+    }
+}
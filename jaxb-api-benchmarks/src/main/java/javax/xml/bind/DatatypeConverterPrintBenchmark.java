@@ -0,0 +1,274 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind;
+
+import javax.xml.namespace.QName;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Print methods of {@link DatatypeConverterImpl}, on the values of the
+ * well-formed corpora.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(Corpus.SIZE)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DatatypeConverterPrintBenchmark {
+
+    private static final DatatypeConverterInterface CONVERTER = DatatypeConverterImpl.theInstance;
+
+    @Param({ "SHORT", "LONG" })
+    public Corpus.Shape shape;
+
+    private String[] strings;
+    private BigInteger[] integers;
+    private int[] ints;
+    private long[] longs;
+    private short[] shorts;
+    private BigDecimal[] decimals;
+    private float[] floats;
+    private double[] doubles;
+    private boolean[] booleans;
+    private byte[] bytes;
+    private QName[] qnames;
+    private Calendar[] dateTimes;
+    private Calendar[] dates;
+    private Calendar[] times;
+    private byte[][] base64;
+    private byte[][] hex;
+    private long[] unsignedInts;
+    private int[] unsignedShorts;
+
+    @Setup
+    public void setUp() {
+        Corpus c = new Corpus(shape);
+        int n = Corpus.SIZE;
+        strings = c.strings;
+        integers = new BigInteger[n];
+        ints = new int[n];
+        longs = new long[n];
+        shorts = new short[n];
+        decimals = new BigDecimal[n];
+        floats = new float[n];
+        doubles = new double[n];
+        booleans = new boolean[n];
+        bytes = new byte[n];
+        qnames = new QName[n];
+        dateTimes = new Calendar[n];
+        dates = new Calendar[n];
+        times = new Calendar[n];
+        base64 = new byte[n][];
+        hex = new byte[n][];
+        unsignedInts = new long[n];
+        unsignedShorts = new int[n];
+        for (int i = 0; i < n; i++) {
+            integers[i] = CONVERTER.parseInteger(c.integers[i]);
+            ints[i] = CONVERTER.parseInt(c.ints[i]);
+            longs[i] = CONVERTER.parseLong(c.longs[i]);
+            shorts[i] = CONVERTER.parseShort(c.shorts[i]);
+            decimals[i] = CONVERTER.parseDecimal(c.decimals[i]);
+            floats[i] = CONVERTER.parseFloat(c.floats[i]);
+            doubles[i] = CONVERTER.parseDouble(c.doubles[i]);
+            booleans[i] = CONVERTER.parseBoolean(c.booleans[i]);
+            bytes[i] = CONVERTER.parseByte(c.bytes[i]);
+            qnames[i] = CONVERTER.parseQName(c.qnames[i], Corpus.NAMESPACES);
+            dateTimes[i] = CONVERTER.parseDateTime(c.dateTimes[i]);
+            dates[i] = CONVERTER.parseDate(c.dates[i]);
+            times[i] = CONVERTER.parseTime(c.times[i]);
+            base64[i] = CONVERTER.parseBase64Binary(c.base64[i]);
+            hex[i] = CONVERTER.parseHexBinary(c.hex[i]);
+            unsignedInts[i] = CONVERTER.parseUnsignedInt(c.unsignedInts[i]);
+            unsignedShorts[i] = CONVERTER.parseUnsignedShort(c.unsignedShorts[i]);
+        }
+    }
+
+    @Benchmark
+    public void printString(Blackhole bh) {
+        for (String v : strings) {
+            bh.consume(CONVERTER.printString(v));
+        }
+    }
+
+    @Benchmark
+    public void printInteger(Blackhole bh) {
+        for (BigInteger v : integers) {
+            bh.consume(CONVERTER.printInteger(v));
+        }
+    }
+
+    @Benchmark
+    public void printInt(Blackhole bh) {
+        for (int v : ints) {
+            bh.consume(CONVERTER.printInt(v));
+        }
+    }
+
+    @Benchmark
+    public void printLong(Blackhole bh) {
+        for (long v : longs) {
+            bh.consume(CONVERTER.printLong(v));
+        }
+    }
+
+    @Benchmark
+    public void printShort(Blackhole bh) {
+        for (short v : shorts) {
+            bh.consume(CONVERTER.printShort(v));
+        }
+    }
+
+    @Benchmark
+    public void printDecimal(Blackhole bh) {
+        for (BigDecimal v : decimals) {
+            bh.consume(CONVERTER.printDecimal(v));
+        }
+    }
+
+    @Benchmark
+    public void printFloat(Blackhole bh) {
+        for (float v : floats) {
+            bh.consume(CONVERTER.printFloat(v));
+        }
+    }
+
+    @Benchmark
+    public void printDouble(Blackhole bh) {
+        for (double v : doubles) {
+            bh.consume(CONVERTER.printDouble(v));
+        }
+    }
+
+    @Benchmark
+    public void printBoolean(Blackhole bh) {
+        for (boolean v : booleans) {
+            bh.consume(CONVERTER.printBoolean(v));
+        }
+    }
+
+    @Benchmark
+    public void printByte(Blackhole bh) {
+        for (byte v : bytes) {
+            bh.consume(CONVERTER.printByte(v));
+        }
+    }
+
+    @Benchmark
+    public void printQName(Blackhole bh) {
+        for (QName v : qnames) {
+            bh.consume(CONVERTER.printQName(v, Corpus.NAMESPACES));
+        }
+    }
+
+    @Benchmark
+    public void printDateTime(Blackhole bh) {
+        for (Calendar v : dateTimes) {
+            bh.consume(CONVERTER.printDateTime(v));
+        }
+    }
+
+    @Benchmark
+    public void printBase64Binary(Blackhole bh) {
+        for (byte[] v : base64) {
+            bh.consume(CONVERTER.printBase64Binary(v));
+        }
+    }
+
+    @Benchmark
+    public void printHexBinary(Blackhole bh) {
+        for (byte[] v : hex) {
+            bh.consume(CONVERTER.printHexBinary(v));
+        }
+    }
+
+    @Benchmark
+    public void printUnsignedInt(Blackhole bh) {
+        for (long v : unsignedInts) {
+            bh.consume(CONVERTER.printUnsignedInt(v));
+        }
+    }
+
+    @Benchmark
+    public void printUnsignedShort(Blackhole bh) {
+        for (int v : unsignedShorts) {
+            bh.consume(CONVERTER.printUnsignedShort(v));
+        }
+    }
+
+    @Benchmark
+    public void printTime(Blackhole bh) {
+        for (Calendar v : times) {
+            bh.consume(CONVERTER.printTime(v));
+        }
+    }
+
+    @Benchmark
+    public void printDate(Blackhole bh) {
+        for (Calendar v : dates) {
+            bh.consume(CONVERTER.printDate(v));
+        }
+    }
+
+    @Benchmark
+    public void printAnySimpleType(Blackhole bh) {
+        for (String v : strings) {
+            bh.consume(CONVERTER.printAnySimpleType(v));
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+/**
+ * Class path on which {@link ContextFinder} discovers the stub provider
+ * through a given branch.
+ *
+ * <p>
+ * The class path is a temporary directory holding the classes of the
+ * {@code jaxb.bench.usr} package and the configuration of the branch,
+ * followed by a number of unrelated jars, each with a few classes and a
+ * service configuration file. The classes of {@code jaxb.bench.usr} are
+ * defined by the class loader of the class path, so that
+ * {@code jaxb.properties} is looked up there. The provider itself, and
+ * the stand-in of the platform default, are loaded by the application
+ * class loader.
+ *
+ * <p>
+ * {@link #install()} sets the context class loader of the current thread,
+ * which is where the service loader looks, and the system property of the
+ * {@link Branch#SYSTEM_PROPERTY} branch; {@link #close()} restores them.
+ * The class is public for the sake of the code generated by JMH, which
+ * refers to {@link Branch}.
+ */
+public final class DiscoveryScenario implements Closeable {
+
+    /**
+     * Branch of the discovery taken, in the order {@link ContextFinder} tries them.
+     */
+    public enum Branch {
+        /** {@code jaxb.properties} in the package of the bound classes. */
+        JAXB_PROPERTIES,
+        /** The {@code javax.xml.bind.JAXBContextFactory} system property. */
+        SYSTEM_PROPERTY,
+        /** A {@link JAXBContextFactory} service found by {@link java.util.ServiceLoader}. */
+        SERVICE_LOADER,
+        /** The deprecated {@code META-INF/services/javax.xml.bind.JAXBContext} resource. */
+        SERVICES_RESOURCE,
+        /** None of the above, the platform default is instantiated. */
+        PLATFORM_DEFAULT
+    }
+
+    static final String CONTEXT_PATH = "jaxb.bench.usr";
+
+    // names rather than class literals, so as not to load the API before it is measured
+    private static final String FACTORY = "jaxb.bench.factory.StubContextFactory";
+    private static final String[] MODEL = { "ObjectFactory", "Item" };
+    private static final int CLASSES_PER_JAR = 16;
+
+    private final Branch branch;
+    private final Path directory;
+    private final URLClassLoader classLoader;
+    private final Class<?>[] classes;
+
+    private String previousProperty;
+    private ClassLoader previousContextClassLoader;
+
+    /**
+     * Creates the class path of a branch.
+     *
+     * @param branch the branch to take
+     * @param jars the number of unrelated jars on the class path
+     */
+    DiscoveryScenario(Branch branch, int jars) throws IOException, ClassNotFoundException {
+        this.branch = branch;
+        this.directory = Files.createTempDirectory("jaxb-bench");
+
+        Path classDirectory = directory.resolve("classes");
+        Path model = classDirectory.resolve(CONTEXT_PATH.replace('.', '/'));
+        Files.createDirectories(model);
+        for (String name : MODEL) {
+            try (InputStream in = DiscoveryScenario.class.getResourceAsStream(
+                    "/" + CONTEXT_PATH.replace('.', '/') + "/" + name + ".class")) {
+                Files.copy(in, model.resolve(name + ".class"));
+            }
+        }
+        switch (branch) {
+            case JAXB_PROPERTIES:
+                write(model.resolve("jaxb.properties"), JAXBContext.JAXB_CONTEXT_FACTORY + "=" + FACTORY);
+                break;
+            case SERVICE_LOADER:
+                write(classDirectory.resolve("META-INF/services/javax.xml.bind.JAXBContextFactory"), FACTORY);
+                break;
+            case SERVICES_RESOURCE:
+                write(classDirectory.resolve("META-INF/services/javax.xml.bind.JAXBContext"), FACTORY);
+                break;
+            default:
+                break;
+        }
+
+        URL[] urls = new URL[jars + 1];
+        urls[0] = classDirectory.toUri().toURL();
+        for (int i = 0; i < jars; i++) {
+            urls[i + 1] = jar(directory.resolve("lib" + i + ".jar"), i).toUri().toURL();
+        }
+        this.classLoader = new ModelClassLoader(urls, DiscoveryScenario.class.getClassLoader());
+        this.classes = new Class<?>[] { classLoader.loadClass(CONTEXT_PATH + ".Item") };
+    }
+
+    /**
+     * Gets the class loader of the class path.
+     */
+    ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    /**
+     * Gets the bound classes, defined by the class loader of the class path.
+     */
+    Class<?>[] getClasses() {
+        return classes;
+    }
+
+    /**
+     * Makes the class path visible to the discovery from the current thread.
+     */
+    void install() {
+        previousContextClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(classLoader);
+        previousProperty = System.getProperty(JAXBContext.JAXB_CONTEXT_FACTORY);
+        if (branch == Branch.SYSTEM_PROPERTY) {
+            System.setProperty(JAXBContext.JAXB_CONTEXT_FACTORY, FACTORY);
+        } else {
+            System.clearProperty(JAXBContext.JAXB_CONTEXT_FACTORY);
+        }
+    }
+
+    /**
+     * Restores the thread and the system property, and deletes the class path.
+     */
+    @Override
+    public void close() throws IOException {
+        if (previousContextClassLoader != null) {
+            Thread.currentThread().setContextClassLoader(previousContextClassLoader);
+            if (previousProperty == null) {
+                System.clearProperty(JAXBContext.JAXB_CONTEXT_FACTORY);
+            } else {
+                System.setProperty(JAXBContext.JAXB_CONTEXT_FACTORY, previousProperty);
+            }
+        }
+        classLoader.close();
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes a jar of a library, which none of the lookups of the discovery match.
+     */
+    private static Path jar(Path file, int n) throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        String pkg = "org/example/lib" + n + "/";
+        try (OutputStream out = Files.newOutputStream(file);
+             JarOutputStream jar = new JarOutputStream(out, manifest)) {
+            jar.putNextEntry(new JarEntry("META-INF/services/org.example.lib" + n + ".Plugin"));
+            jar.write(("org.example.lib" + n + ".Type0").getBytes(StandardCharsets.UTF_8));
+            for (int i = 0; i < CLASSES_PER_JAR; i++) {
+                // never loaded, only the entries count
+                jar.putNextEntry(new JarEntry(pkg + "Type" + i + ".class"));
+                jar.write(new byte[256]);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Defines the classes of the context path itself, and delegates
+     * to its parent for the others.
+     */
+    private static final class ModelClassLoader extends URLClassLoader {
+
+        ModelClassLoader(URL[] urls, ClassLoader parent) {
+            super(urls, parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.startsWith(CONTEXT_PATH + ".")) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> c = findLoadedClass(name);
+                if (c == null) {
+                    c = findClass(name);
+                }
+                if (resolve) {
+                    resolveClass(c);
+                }
+                return c;
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link WhiteSpaceProcessor}, on text which needs no processing
+ * ({@code SHORT} and {@code LONG}) and on indented text ({@code WHITESPACE}).
+ * The {@code CharSequence} variants are given {@code StringBuilder}s.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(Corpus.SIZE)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WhiteSpaceProcessorBenchmark {
+
+    @Param({ "SHORT", "LONG", "WHITESPACE" })
+    public Corpus.Shape shape;
+
+    private String[] texts;
+    private CharSequence[] sequences;
+
+    @Setup
+    public void setUp() {
+        texts = new Corpus(shape).strings;
+        sequences = new CharSequence[texts.length];
+        for (int i = 0; i < texts.length; i++) {
+            sequences[i] = new StringBuilder(texts[i]);
+        }
+    }
+
+    @Benchmark
+    public void trim(Blackhole bh) {
+        for (CharSequence s : sequences) {
+            bh.consume(WhiteSpaceProcessor.trim(s));
+        }
+    }
+
+    @Benchmark
+    public void collapseString(Blackhole bh) {
+        for (String s : texts) {
+            bh.consume(WhiteSpaceProcessor.collapse(s));
+        }
+    }
+
+    @Benchmark
+    public void collapseCharSequence(Blackhole bh) {
+        for (CharSequence s : sequences) {
+            bh.consume(WhiteSpaceProcessor.collapse(s));
+        }
+    }
+
+    @Benchmark
+    public void replaceString(Blackhole bh) {
+        for (String s : texts) {
+            bh.consume(WhiteSpaceProcessor.replace(s));
+        }
+    }
+
+    @Benchmark
+    public void replaceCharSequence(Blackhole bh) {
+        for (CharSequence s : sequences) {
+            bh.consume(WhiteSpaceProcessor.replace(s));
+        }
+    }
+}
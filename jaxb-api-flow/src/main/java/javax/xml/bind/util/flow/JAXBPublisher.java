@@ -0,0 +1,254 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.util.flow;
+
+import javax.xml.bind.util.JAXBStreamReader;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link Flow.Publisher} emitting the objects unmarshalled by a
+ * {@link JAXBStreamReader}.
+ *
+ * <p>
+ * Objects are only read from the underlying reader when the subscriber
+ * has requested them. Reading and signalling happen on the given
+ * {@link Executor}, never on the thread calling
+ * {@link Flow.Subscription#request(long)}, so a subscriber running on an
+ * event loop is never blocked by the parser. Cancelling the subscription
+ * closes the reader.
+ *
+ * <blockquote>
+ *    <pre>
+ *       JAXBStreamReader&lt;Order&gt; orders = JAXBStreamReader.newReader(
+ *               unmarshaller, xsr, new QName("urn:orders", "order"), Order.class);
+ *       new JAXBPublisher&lt;&gt;(orders, executor).subscribe(subscriber);
+ *    </pre>
+ * </blockquote>
+ *
+ * <p>
+ * A publisher wraps a single reader and therefore accepts a single
+ * subscriber. Elements unmarshalled to null, such as nil elements,
+ * are not emitted since {@link Flow} doesn't allow null items.
+ *
+ * <p>
+ * This class is part of the {@code jaxb-api-flow} artifact,
+ * which requires Java SE 9 or later.
+ *
+ * @param <T> the type of the unmarshalled objects
+ * @see JAXBSubscriber
+ * @since JAXB 2.3.2
+ */
+public final class JAXBPublisher<T> implements Flow.Publisher<T> {
+
+    private final JAXBStreamReader<T> reader;
+    private final Executor executor;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    /**
+     * Creates a publisher over the given reader.
+     *
+     * @param reader the source of the objects, must not be null.
+     *      The publisher owns the reader and closes it once the
+     *      subscription terminates.
+     * @param executor runs the reader and signals the subscriber, must not be null
+     * @throws IllegalArgumentException if any of the parameters is null
+     */
+    public JAXBPublisher(JAXBStreamReader<T> reader, Executor executor) {
+        Messages.checkNotNull(reader, "reader");
+        Messages.checkNotNull(executor, "executor");
+        this.reader = reader;
+        this.executor = executor;
+    }
+
+    /**
+     * Adds the subscriber.
+     *
+     * <p>
+     * Any subscriber other than the first one is immediately
+     * signalled an {@link IllegalStateException}.
+     *
+     * @param subscriber the subscriber, must not be null
+     * @throws NullPointerException if {@code subscriber} is null
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException(
+                Messages.format(Messages.MUST_NOT_BE_NULL, "subscriber"));
+        }
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException(
+                Messages.format(Messages.PUBLISHER_ALREADY_SUBSCRIBED)));
+            return;
+        }
+        subscriber.onSubscribe(new ReaderSubscription(subscriber));
+    }
+
+    /**
+     * Drains the reader on the executor, one drain loop at a time.
+     */
+    private final class ReaderSubscription implements Flow.Subscription, Runnable {
+
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+
+        // only accessed by the drain loop
+        private boolean done;
+
+        ReaderSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException(
+                    Messages.format(Messages.FLOW_ILLEGAL_REQUEST, n));
+            } else {
+                long r, u;
+                do {
+                    r = requested.get();
+                    u = r + n;
+                    if (u < 0) {
+                        u = Long.MAX_VALUE;
+                    }
+                } while (!requested.compareAndSet(r, u));
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            // the reader is closed by the drain loop, which may be using it
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    error = e;
+                    run();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (done) {
+                return;
+            }
+            try {
+                long r = requested.get();
+                long emitted = 0;
+                while (true) {
+                    if (cancelled) {
+                        terminate();
+                        return;
+                    }
+                    Throwable t = error;
+                    if (t != null) {
+                        terminate();
+                        subscriber.onError(t);
+                        return;
+                    }
+                    if (!reader.hasNext()) {
+                        terminate();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    if (emitted == r) {
+                        break;
+                    }
+                    T item = reader.next();
+                    if (item != null) {
+                        subscriber.onNext(item);
+                        emitted++;
+                    }
+                }
+                if (r != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+            } catch (RuntimeException e) {
+                if (!done) {
+                    terminate();
+                    subscriber.onError(e);
+                }
+            }
+        }
+
+        private void terminate() {
+            done = true;
+            try {
+                reader.close();
+            } catch (RuntimeException e) {
+                // the subscription is over, nobody to report to
+            }
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.util.flow;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.util.JAXBStreamWriter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link Flow.Subscriber} marshalling the objects it receives
+ * with a {@link JAXBStreamWriter}.
+ *
+ * <p>
+ * Items are queued by {@link #onNext(Object)} and marshalled on the given
+ * {@link Executor}, never on the thread of the publisher, so a publisher
+ * running on an event loop is never blocked by the writer. The subscriber
+ * requests {@code prefetch} items up front, then requests more each time
+ * half of them have been marshalled, so a fast publisher can never get
+ * more than {@code prefetch} items ahead of the writer.
+ *
+ * <blockquote>
+ *    <pre>
+ *       JAXBStreamWriter writer = JAXBStreamWriter.newWriter(
+ *               marshaller, xsw, new QName("urn:orders", "orders"));
+ *       JAXBSubscriber&lt;Order&gt; subscriber = new JAXBSubscriber&lt;&gt;(writer, executor);
+ *       publisher.subscribe(subscriber);
+ *       subscriber.getResult().thenAccept(count -&gt; ...);
+ *    </pre>
+ * </blockquote>
+ *
+ * <p>
+ * When the publisher completes, the queued items are marshalled, the
+ * writer is closed, which ends the document, and {@link #getResult()}
+ * completes with the number of marshalled items. If the publisher fails,
+ * or if an item can't be marshalled, the queued items are dropped and
+ * the result completes exceptionally; in the latter case the subscription
+ * is cancelled. The writer is then left open, since the document is
+ * incomplete.
+ *
+ * <p>
+ * This class is part of the {@code jaxb-api-flow} artifact,
+ * which requires Java SE 9 or later.
+ *
+ * @param <T> the type of the marshalled objects
+ * @see JAXBPublisher
+ * @since JAXB 2.3.2
+ */
+public final class JAXBSubscriber<T> implements Flow.Subscriber<T> {
+
+    /**
+     * Number of items requested ahead unless configured otherwise.
+     */
+    public static final int DEFAULT_PREFETCH = 64;
+
+    private final JAXBStreamWriter writer;
+    private final Executor executor;
+    private final int prefetch;
+    private final int limit;
+    private final CompletableFuture<Long> result = new CompletableFuture<Long>();
+
+    private final ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<T>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    };
+
+    private volatile Flow.Subscription subscription;
+    private volatile boolean terminated;
+    private volatile Throwable error;
+
+    // only accessed by the drain loop
+    private int consumed;
+
+    /**
+     * Creates a subscriber with the {@link #DEFAULT_PREFETCH default prefetch}.
+     *
+     * @param writer the writer receiving the items, must not be null
+     * @param executor runs the writer, must not be null
+     * @throws IllegalArgumentException if any of the parameters is null
+     */
+    public JAXBSubscriber(JAXBStreamWriter writer, Executor executor) {
+        this(writer, executor, DEFAULT_PREFETCH);
+    }
+
+    /**
+     * Creates a subscriber.
+     *
+     * @param writer the writer receiving the items, must not be null
+     * @param executor runs the writer, must not be null
+     * @param prefetch the maximum number of items requested ahead, must be positive
+     * @throws IllegalArgumentException if {@code writer} or {@code executor}
+     *      is null or if {@code prefetch} is not positive
+     */
+    public JAXBSubscriber(JAXBStreamWriter writer, Executor executor, int prefetch) {
+        Messages.checkNotNull(writer, "writer");
+        Messages.checkNotNull(executor, "executor");
+        if (prefetch < 1) {
+            throw new IllegalArgumentException(
+                Messages.format(Messages.SUBSCRIBER_ILLEGAL_PREFETCH, prefetch));
+        }
+        this.writer = writer;
+        this.executor = executor;
+        this.prefetch = prefetch;
+        this.limit = Math.max(1, prefetch / 2);
+    }
+
+    /**
+     * Gets the outcome of the subscription.
+     *
+     * @return a future completed with the number of marshalled items
+     *      once the document has been written, never null
+     */
+    public CompletableFuture<Long> getResult() {
+        return result;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription s) {
+        if (s == null) {
+            throw new NullPointerException(
+                Messages.format(Messages.MUST_NOT_BE_NULL, "subscription"));
+        }
+        if (subscription != null) {
+            s.cancel();
+            return;
+        }
+        subscription = s;
+        s.request(prefetch);
+    }
+
+    @Override
+    public void onNext(T item) {
+        if (item == null) {
+            throw new NullPointerException(
+                Messages.format(Messages.MUST_NOT_BE_NULL, "item"));
+        }
+        queue.offer(item);
+        schedule();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        if (t == null) {
+            throw new NullPointerException(
+                Messages.format(Messages.MUST_NOT_BE_NULL, "throwable"));
+        }
+        error = t;
+        terminated = true;
+        schedule();
+    }
+
+    @Override
+    public void onComplete() {
+        terminated = true;
+        schedule();
+    }
+
+    private void schedule() {
+        if (wip.getAndIncrement() == 0) {
+            try {
+                executor.execute(drain);
+            } catch (RejectedExecutionException e) {
+                fail(e);
+                drain.run();
+            }
+        }
+    }
+
+    /**
+     * Marshals the queued items, then ends the document once the
+     * publisher has completed.
+     */
+    private void drain() {
+        while (!result.isDone()) {
+            Throwable t = error;
+            if (t != null) {
+                result.completeExceptionally(t);
+                break;
+            }
+            boolean last = terminated;
+            T item = queue.poll();
+            if (item == null) {
+                if (last) {
+                    try {
+                        writer.close();
+                        result.complete(writer.getCount());
+                    } catch (JAXBException | RuntimeException e) {
+                        result.completeExceptionally(e);
+                    }
+                }
+                return;
+            }
+            try {
+                writer.write(item);
+            } catch (JAXBException | RuntimeException e) {
+                fail(e);
+                break;
+            }
+            if (++consumed == limit) {
+                consumed = 0;
+                subscription.request(limit);
+            }
+        }
+        queue.clear();
+    }
+
+    private void fail(Throwable t) {
+        if (result.completeExceptionally(t) && !terminated) {
+            subscription.cancel();
+        }
+    }
+}
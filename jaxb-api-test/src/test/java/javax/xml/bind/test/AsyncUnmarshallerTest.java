@@ -0,0 +1,370 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import jaxb.test.fake.FakeUnmarshaller;
+import jaxb.test.fake.Item;
+import org.junit.Test;
+
+import javax.xml.bind.UnmarshalException;
+import javax.xml.bind.UnmarshallerHandler;
+import javax.xml.bind.util.AsyncUnmarshaller;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*
+ * Tests of AsyncUnmarshaller and of its parser: the SAX events reported for
+ * well-formed documents are compared with those of the parser of the JDK,
+ * whatever the size of the chunks, and documents rejected by the parser of
+ * the JDK must be rejected as well.
+ */
+public class AsyncUnmarshallerTest {
+
+    private static final int[] CHUNK_SIZES = {1, 2, 3, 7, Integer.MAX_VALUE};
+
+    private static final String[] WELL_FORMED = {
+        "<a/>",
+        "<?xml version='1.0'?>\n<a>text</a>\n",
+        "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?><a b='1' c=\"2\" ><b/><c>x</c></a>",
+        "<a x='&lt;&gt;&amp;&quot;&apos;&#65;&#x42;&#x1F600;'>&lt;&gt;&amp;&quot;&apos;&#65;&#x42;&#x1F600;</a>",
+        "<a xmlns='urn:a' xmlns:p='urn:p'><p:b p:x='1' x='2'><c xmlns=''/></p:b><d/></a>",
+        "<p:a xmlns:p='urn:p'><p:b xmlns:p='urn:q'/><p:c/></p:a>",
+        "<a><![CDATA[<b>&amp;]]]]><![CDATA[>]]></a>",
+        "<a>]] ]> > ]]</a>",
+        "<a>] ]</a>",
+        "<!-- c1 --><a><!-- c2 - -->x<!---->y</a><!-- c3 -->",
+        "<?pi1 data?><a><?pi2?><?pi3   with  spaces ?></a><?pi4 x?>",
+        "<a\r\nb='1\r\n2\t3\n4'>line1\r\nline2\rline3\n</a>",
+        "<a>café 中文 😀</a>",
+        "<élément été='1'><_a-b.c·d/></élément>",
+        "<a >  <b\t/>\n</a  >",
+        "﻿<a/>",
+    };
+
+    private static final String[] MALFORMED = {
+        "<1a/>",
+        "<a -b='1'/>",
+        "<a:b:c xmlns:a='u'/>",
+        "<a: xmlns:a='u'/>",
+        "<a><b/ ></a>",
+        "<a/b/>",
+        "<?1pi x?><a/>",
+        "<a x='1' x='2'/>",
+        "<a xmlns:p='urn:p' xmlns:q='urn:p' p:x='1' q:x='2'/>",
+        "<a>x]]>y</a>",
+        "<a>]]></a>",
+        "<a><!-- a -- b --></a>",
+        "<a>\u0001</a>",
+        "<a x='\u0002'/>",
+        "<a>￾</a>",
+        "<a></b>",
+        "<a></a b>",
+        "<p:a/>",
+        "<a p:x='1'/>",
+        "<a>&undefined;</a>",
+        "<a>&#xFFFFFFF;</a>",
+        "<a>&#+65;</a>",
+        "<a>&#x+41;</a>",
+        "<a>&#-65;</a>",
+        "<a>&#;</a>",
+        "<a>&#x;</a>",
+        "<a>&#X41;</a>",
+        "<a>&#0;</a>",
+        "<a>&#x1;</a>",
+        "<a>&#xD800;</a>",
+        "<a>&#xFFFE;</a>",
+        "<a>&#1114112;</a>",
+        "<a x='&#+65;'/>",
+        "<a x='&#0;'/>",
+        "<a x='<'/>",
+        "<a x=1/>",
+        "<a x='1'y='2'/>",
+        "text<a/>",
+        "<a/>text",
+        "<a/><b/>",
+        "<a>",
+        "<a><![CDATA[x</a>",
+        "<a><!-- x</a>",
+        "<a><![CDATA[x]]></a><![CDATA[y]]>",
+        "<a/><?xml version='1.0'?>",
+        "<a><b></a></b>",
+        "",
+    };
+
+    /** Records the SAX events, merging adjacent character data. */
+    private static class Recorder extends DefaultHandler implements UnmarshallerHandler {
+        final List<String> events = new ArrayList<>();
+        private final StringBuilder text = new StringBuilder();
+
+        private void flush() {
+            if (text.length() > 0) {
+                events.add("text " + text);
+                text.setLength(0);
+            }
+        }
+
+        @Override
+        public void startDocument() {
+            events.add("startDocument");
+        }
+
+        @Override
+        public void endDocument() {
+            flush();
+            events.add("endDocument");
+        }
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri) {
+            flush();
+            events.add("startPrefixMapping " + prefix + "=" + uri);
+        }
+
+        @Override
+        public void endPrefixMapping(String prefix) {
+            flush();
+            events.add("endPrefixMapping " + prefix);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) {
+            flush();
+            StringBuilder sb = new StringBuilder("start {").append(uri).append('}').append(localName).append(' ').append(qName);
+            for (int i = 0; i < atts.getLength(); i++) {
+                sb.append(" {").append(atts.getURI(i)).append('}').append(atts.getLocalName(i))
+                        .append(' ').append(atts.getQName(i)).append("=[").append(atts.getValue(i)).append(']');
+            }
+            events.add(sb.toString());
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            flush();
+            events.add("end {" + uri + "}" + localName + " " + qName);
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            text.append(ch, start, length);
+        }
+
+        @Override
+        public void ignorableWhitespace(char[] ch, int start, int length) {
+            text.append(ch, start, length);
+        }
+
+        @Override
+        public void processingInstruction(String target, String data) {
+            flush();
+            events.add("pi " + target + " [" + data + "]");
+        }
+
+        @Override
+        public Object getResult() {
+            return events;
+        }
+    }
+
+    private static class RecordingUnmarshaller extends FakeUnmarshaller {
+        @Override
+        public UnmarshallerHandler getUnmarshallerHandler() {
+            return new Recorder();
+        }
+    }
+
+    private static List<String> jdkEvents(byte[] document) throws Exception {
+        SAXParserFactory f = SAXParserFactory.newInstance();
+        f.setNamespaceAware(true);
+        Recorder r = new Recorder();
+        f.newSAXParser().parse(new InputSource(new ByteArrayInputStream(document)), r);
+        return r.events;
+    }
+
+    private static AsyncUnmarshaller<Object> feed(AsyncUnmarshaller<Object> async, byte[] document, int chunkSize) {
+        for (int i = 0; i < document.length; i += chunkSize) {
+            async.feed(ByteBuffer.wrap(document, i, Math.min(chunkSize, document.length - i)));
+        }
+        async.complete();
+        return async;
+    }
+
+    private static Object parse(byte[] document, int chunkSize) throws Exception {
+        return feed(new AsyncUnmarshaller<>(new RecordingUnmarshaller(), Object.class), document, chunkSize)
+                .getResult().get();
+    }
+
+    private static void assertConforms(byte[] document, String description) throws Exception {
+        List<String> expected = jdkEvents(document);
+        for (int chunkSize : CHUNK_SIZES) {
+            assertEquals(description + " in chunks of " + chunkSize, expected, parse(document, chunkSize));
+        }
+    }
+
+    @Test
+    public void wellFormedDocumentsAreReportedAsByTheJdkParser() throws Exception {
+        for (String document : WELL_FORMED) {
+            assertConforms(document.getBytes(StandardCharsets.UTF_8), document);
+        }
+    }
+
+    @Test
+    public void encodingsAreDetected() throws Exception {
+        String document = "<a x='é'>café €</a>";
+        assertConforms(("<?xml version='1.0' encoding='ISO-8859-15'?>" + document)
+                .getBytes(Charset.forName("ISO-8859-15")), "ISO-8859-15");
+        // with a byte order mark
+        assertConforms(document.getBytes(StandardCharsets.UTF_16), "UTF-16");
+        assertConforms(("<?xml version='1.0' encoding='UTF-16LE'?>" + document)
+                .getBytes(StandardCharsets.UTF_16LE), "UTF-16LE");
+        assertConforms(("<?xml version='1.0' encoding='UTF-16'?>" + document)
+                .getBytes(StandardCharsets.UTF_16BE), "UTF-16BE");
+    }
+
+    @Test
+    public void malformedDocumentsAreRejected() throws Exception {
+        for (String document : MALFORMED) {
+            byte[] bytes = document.getBytes(StandardCharsets.UTF_8);
+            try {
+                jdkEvents(bytes);
+                fail("accepted by the JDK: " + document);
+            } catch (SAXParseException expected) {
+            }
+            for (int chunkSize : CHUNK_SIZES) {
+                assertRejected(new AsyncUnmarshaller<>(new RecordingUnmarshaller(), Object.class), bytes, chunkSize,
+                        document + " in chunks of " + chunkSize);
+            }
+        }
+    }
+
+    private static void assertRejected(AsyncUnmarshaller<Object> async, byte[] document, int chunkSize, String description) {
+        try {
+            feed(async, document, chunkSize).getResult().get();
+            fail(description);
+        } catch (ExecutionException e) {
+            assertTrue(description, e.getCause() instanceof UnmarshalException);
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    @Test
+    public void dtdsAreRejected() {
+        assertRejected(new AsyncUnmarshaller<>(new RecordingUnmarshaller(), Object.class),
+                "<!DOCTYPE a [<!ENTITY e 'x'>]><a>&e;</a>".getBytes(StandardCharsets.UTF_8), 4, "DOCTYPE");
+    }
+
+    @Test
+    public void markupLongerThanTheLimitIsRejected() throws Exception {
+        char[] filler = new char[1000];
+        Arrays.fill(filler, 'x');
+        String f = new String(filler);
+
+        for (String document : Arrays.asList(
+                "<a b='" + f + "'/>", "<a><!--" + f + "--></a>", "<a><?pi " + f + "?></a>", "<a>&" + f)) {
+            AsyncUnmarshaller<Object> async = new AsyncUnmarshaller<>(new RecordingUnmarshaller(), Object.class);
+            async.setMaxMarkupLength(100);
+            assertRejected(async, document.getBytes(StandardCharsets.UTF_8), 10, document.substring(0, 10));
+        }
+
+        // character data and CDATA sections are not buffered
+        for (String document : Arrays.asList("<a>" + f + "</a>", "<a><![CDATA[" + f + "]]></a>")) {
+            AsyncUnmarshaller<Object> async = new AsyncUnmarshaller<>(new RecordingUnmarshaller(), Object.class);
+            async.setMaxMarkupLength(100);
+            feed(async, document.getBytes(StandardCharsets.UTF_8), 10).getResult().get();
+        }
+    }
+
+    @Test
+    public void illegalMaxMarkupLengthIsRejected() {
+        AsyncUnmarshaller<Object> async = new AsyncUnmarshaller<>(new RecordingUnmarshaller(), Object.class);
+        assertEquals(AsyncUnmarshaller.DEFAULT_MAX_MARKUP_LENGTH, async.getMaxMarkupLength());
+        try {
+            async.setMaxMarkupLength(0);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void resultIsTheUnmarshalledObject() throws Exception {
+        AsyncUnmarshaller<Item> async = new AsyncUnmarshaller<>(new FakeUnmarshaller(), Item.class);
+        byte[] document = "<a x='1'><b>text</b></a>".getBytes(StandardCharsets.UTF_8);
+        async.feed(ByteBuffer.wrap(document, 0, 5));
+        assertTrue(!async.getResult().isDone());
+        async.feed(ByteBuffer.wrap(document, 5, document.length - 5));
+        async.complete();
+        assertEquals(new Item("a").attr("x", "1").child(new Item("b").text("text")), async.getResult().get());
+    }
+
+    @Test
+    public void unexpectedResultTypeIsRejected() throws Exception {
+        AsyncUnmarshaller<String> async = new AsyncUnmarshaller<>(new FakeUnmarshaller(), String.class);
+        async.feed(ByteBuffer.wrap("<a/>".getBytes(StandardCharsets.UTF_8)));
+        async.complete();
+        assertTrue(async.getResult().isCompletedExceptionally());
+    }
+
+    @Test
+    public void feedAfterCompleteThrows() {
+        AsyncUnmarshaller<Item> async = new AsyncUnmarshaller<>(new FakeUnmarshaller(), Item.class);
+        async.complete();
+        async.complete();
+        try {
+            async.feed(ByteBuffer.allocate(1));
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import org.junit.Test;
+
+import javax.activation.DataHandler;
+import javax.xml.bind.attachment.AttachmentMarshaller;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*
+ * Tests of the default implementations of the ByteBuffer, channel and
+ * file overloads of AttachmentMarshaller.
+ */
+public class AttachmentMarshallerTest {
+
+    private static final byte[] DATA = "attachment content".getBytes(StandardCharsets.US_ASCII);
+
+    private static byte[] read(DataHandler dh) throws IOException {
+        try (InputStream in = dh.getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    public void heapBufferIsPassedAsArray() {
+        Recorder m = new Recorder();
+        byte[] array = new byte[DATA.length + 4];
+        System.arraycopy(DATA, 0, array, 2, DATA.length);
+        ByteBuffer buffer = ByteBuffer.wrap(array, 2, DATA.length);
+
+        assertEquals("cid:array", m.addMtomAttachment(buffer, "application/octet-stream", "", "e"));
+        assertSame(array, m.array);
+        assertEquals(2, m.offset);
+        assertEquals(DATA.length, m.length);
+        assertEquals(2, buffer.position());
+    }
+
+    @Test
+    public void directBufferIsStreamed() throws IOException {
+        Recorder m = new Recorder();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(DATA.length + 1);
+        buffer.put((byte) 0).put(DATA).flip().position(1);
+
+        assertEquals("cid:handler", m.addMtomAttachment(buffer, "text/plain", "", "e"));
+        assertNull(m.array);
+        assertEquals("text/plain", m.handler.getContentType());
+        assertArrayEquals(DATA, read(m.handler));
+        // the buffer can be read again
+        assertArrayEquals(DATA, read(m.handler));
+        assertEquals(1, buffer.position());
+    }
+
+    @Test
+    public void channelIsStreamedAndLeftOpen() throws IOException {
+        Recorder m = new Recorder();
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(DATA));
+
+        assertEquals("cid:handler", m.addMtomAttachment(channel, "text/plain", "", "e"));
+        assertEquals("text/plain", m.handler.getContentType());
+        assertArrayEquals(DATA, read(m.handler));
+        assertTrue(channel.isOpen());
+        channel.close();
+    }
+
+    @Test
+    public void dataSourceIsReadOnly() {
+        Recorder m = new Recorder();
+        m.addMtomAttachment(ByteBuffer.allocateDirect(1), "text/plain", "", "e");
+        try {
+            m.handler.getDataSource().getOutputStream();
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("read-only"));
+        }
+    }
+
+    @Test
+    public void fileIsOpenedForEachRead() throws IOException {
+        Recorder m = new Recorder();
+        Path file = Files.createTempFile("attachment", ".bin");
+        try {
+            Files.write(file, DATA);
+            assertEquals("cid:handler", m.addMtomAttachment(file, "text/plain", "", "e"));
+            assertNotNull(m.handler);
+            assertArrayEquals(DATA, read(m.handler));
+            assertArrayEquals(DATA, read(m.handler));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /** Records the data passed to the original overloads. */
+    private static final class Recorder extends AttachmentMarshaller {
+        DataHandler handler;
+        byte[] array;
+        int offset;
+        int length;
+
+        @Override
+        public String addMtomAttachment(DataHandler data, String elementNamespace, String elementLocalName) {
+            handler = data;
+            return "cid:handler";
+        }
+
+        @Override
+        public String addMtomAttachment(byte[] data, int offset, int length, String mimeType,
+                                        String elementNamespace, String elementLocalName) {
+            this.array = data;
+            this.offset = offset;
+            this.length = length;
+            return "cid:array";
+        }
+
+        @Override
+        public String addSwaRefAttachment(DataHandler data) {
+            return "cid:swaref";
+        }
+    }
+}
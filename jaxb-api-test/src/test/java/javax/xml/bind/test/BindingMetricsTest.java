@@ -0,0 +1,232 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.xml.bind.JAXB;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.helpers.BindingMetrics;
+import javax.xml.bind.helpers.HistogramBindingMetrics;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import jaxb.test.fake.FakeContext;
+import jaxb.test.fake.Item;
+import jaxb.test.metrics.TestBindingMetrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*
+ * Tests of the measurements reported to the BindingMetrics provider, which
+ * is TestBindingMetrics in these tests, and of the handling of a provider
+ * throwing exceptions.
+ */
+public class BindingMetricsTest {
+
+    private static final IllegalStateException FAILURE = new IllegalStateException("failing provider");
+
+    private final List<LogRecord> records = new ArrayList<>();
+    private final Handler recorder = new Handler() {
+        @Override
+        public void publish(LogRecord record) {
+            synchronized (records) {
+                records.add(record);
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    private HistogramBindingMetrics metrics;
+
+    @Before
+    public void setUp() {
+        metrics = (HistogramBindingMetrics) BindingMetrics.getInstance();
+        metrics.reset();
+        Logger.getLogger("javax.xml.bind").addHandler(recorder);
+    }
+
+    @After
+    public void tearDown() {
+        TestBindingMetrics.failWith(null);
+        Logger.getLogger("javax.xml.bind").removeHandler(recorder);
+    }
+
+    @Test
+    public void providerIsDiscovered() {
+        assertTrue(metrics instanceof TestBindingMetrics);
+        assertSame(metrics, BindingMetrics.getInstance());
+    }
+
+    @Test
+    public void marshalAndUnmarshalAreMeasured() throws Exception {
+        byte[] xml = marshal();
+        new FakeContext().createUnmarshaller().unmarshal(new ByteArrayInputStream(xml));
+
+        HistogramBindingMetrics.Statistics marshalled = metrics.getMarshalStatistics().get(Item.class.getName());
+        assertEquals(1, marshalled.getCount());
+        assertEquals(xml.length, marshalled.getBytes());
+        HistogramBindingMetrics.Statistics unmarshalled = metrics.getUnmarshalStatistics().get(Item.class.getName());
+        assertEquals(1, unmarshalled.getCount());
+        assertEquals(xml.length, unmarshalled.getBytes());
+    }
+
+    @Test
+    public void contextCreationAndCacheLookupsAreMeasured() throws Exception {
+        byte[] xml = marshal();
+        // the cache of JAXB is shared by the tests, and keeps the last type
+        JAXB.unmarshal(new ByteArrayInputStream(xml), Item.class);
+        metrics.reset();
+
+        JAXBContext.newInstance(Item.class);
+        JAXB.unmarshal(new ByteArrayInputStream(xml), Item.class);
+        JAXB.unmarshal(new ByteArrayInputStream(xml), Item.class);
+
+        assertEquals(1, metrics.getContextCreationLatency().getCount());
+        assertEquals(2, metrics.getCacheLookupCount());
+        assertEquals(1, metrics.getCacheHitRatio(), 0);
+    }
+
+    @Test
+    public void failingProviderDoesNotFailMarshalling() throws Exception {
+        TestBindingMetrics.failWith(FAILURE);
+        byte[] xml = marshal();
+        Object item = new FakeContext().createUnmarshaller().unmarshal(new ByteArrayInputStream(xml));
+
+        assertEquals("a", ((Item) item).getName().getLocalPart());
+        assertLogged(2);
+    }
+
+    @Test
+    public void failingProviderDoesNotFailContextCreation() throws Exception {
+        TestBindingMetrics.failWith(FAILURE);
+        assertTrue(JAXBContext.newInstance(Item.class) instanceof FakeContext);
+        assertLogged(1);
+    }
+
+    @Test
+    public void failingProviderDoesNotFailCacheLookups() throws Exception {
+        byte[] xml = marshal();
+        JAXB.unmarshal(new ByteArrayInputStream(xml), Item.class);
+        TestBindingMetrics.failWith(FAILURE);
+        Item item = JAXB.unmarshal(new ByteArrayInputStream(xml), Item.class);
+
+        assertEquals("a", item.getName().getLocalPart());
+        assertLogged(1);
+    }
+
+    @Test
+    public void failedOperationsAreNotMeasured() throws Exception {
+        try {
+            new FakeContext().createMarshaller().marshal("not an item", new ByteArrayOutputStream());
+        } catch (IllegalArgumentException expected) {
+        }
+        assertNull(metrics.getMarshalStatistics().get(String.class.getName()));
+        assertTrue(metrics.getMarshalStatistics().isEmpty());
+    }
+
+    @Test
+    public void histogramMetricsBookkeeping() {
+        HistogramBindingMetrics h = new HistogramBindingMetrics();
+        assertTrue(Double.isNaN(h.getCacheHitRatio()));
+        h.marshalled(Item.class, 100, 10);
+        h.marshalled(Item.class, 300, -1);
+        h.unmarshalled(null, 50, 7);
+        h.cacheLookup(true);
+        h.cacheLookup(false);
+        h.cacheLookup(true);
+
+        HistogramBindingMetrics.Statistics items = h.getMarshalStatistics().get(Item.class.getName());
+        assertEquals(2, items.getCount());
+        // -1 when the operation did not use a stream
+        assertEquals(10, items.getBytes());
+        assertEquals(300, items.getLatency().getMax());
+        // unmarshal operations which returned null are counted under the empty name
+        assertEquals(1, h.getUnmarshalStatistics().get("").getCount());
+        assertEquals(3, h.getCacheLookupCount());
+        assertEquals(2.0 / 3, h.getCacheHitRatio(), 1e-9);
+        try {
+            h.getMarshalStatistics().clear();
+            fail();
+        } catch (UnsupportedOperationException expected) {
+        }
+
+        h.reset();
+        assertTrue(h.getMarshalStatistics().isEmpty());
+        assertTrue(h.getUnmarshalStatistics().isEmpty());
+        assertEquals(0, h.getCacheLookupCount());
+    }
+
+    private static byte[] marshal() throws Exception {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new FakeContext().createMarshaller().marshal(new Item("a").text("text"), os);
+        return os.toByteArray();
+    }
+
+    private void assertLogged(int count) {
+        synchronized (records) {
+            assertEquals(records.toString(), count, records.size());
+            for (LogRecord r : records) {
+                assertEquals(Level.WARNING, r.getLevel());
+                assertSame(FAILURE, r.getThrown());
+                assertTrue(r.getMessage(), r.getMessage().contains(TestBindingMetrics.class.getName()));
+            }
+        }
+    }
+}
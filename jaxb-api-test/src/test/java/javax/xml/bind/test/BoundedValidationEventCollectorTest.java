@@ -0,0 +1,209 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import org.junit.Test;
+
+import javax.xml.bind.ValidationEvent;
+import javax.xml.bind.helpers.ValidationEventImpl;
+import javax.xml.bind.util.BoundedValidationEventCollector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.xml.sax.SAXParseException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*
+ * Tests of BoundedValidationEventCollector.
+ */
+public class BoundedValidationEventCollectorTest {
+
+    private static ValidationEvent event(int severity, String message) {
+        return new ValidationEventImpl(severity, message, null);
+    }
+
+    @Test
+    public void firstEventsAreRetained() {
+        BoundedValidationEventCollector c = new BoundedValidationEventCollector(3);
+        assertFalse(c.hasEvents());
+        ValidationEvent[] first = new ValidationEvent[3];
+        for (int i = 0; i < 10; i++) {
+            ValidationEvent e = event(ValidationEvent.ERROR, "e" + i);
+            if (i < 3) {
+                first[i] = e;
+            }
+            assertTrue(c.handleEvent(e));
+        }
+        assertTrue(c.hasEvents());
+        assertArrayEquals(first, c.getEvents());
+        assertEquals(10, c.getTotalCount());
+        assertEquals(10, c.getCount(ValidationEvent.ERROR));
+        assertEquals(7, c.getDroppedCount());
+    }
+
+    @Test
+    public void fatalErrorsHaltProcessing() {
+        BoundedValidationEventCollector c = new BoundedValidationEventCollector(0);
+        assertTrue(c.handleEvent(event(ValidationEvent.WARNING, "w")));
+        assertTrue(c.handleEvent(event(ValidationEvent.ERROR, "e")));
+        assertFalse(c.handleEvent(event(ValidationEvent.FATAL_ERROR, "f")));
+        assertEquals(0, c.getEvents().length);
+        assertEquals(1, c.getCount(ValidationEvent.WARNING));
+        assertEquals(1, c.getCount(ValidationEvent.FATAL_ERROR));
+        assertEquals(3, c.getDroppedCount());
+    }
+
+    @Test
+    public void eventsAreCountedBySeverityAndCause() {
+        BoundedValidationEventCollector c = new BoundedValidationEventCollector(0);
+        for (int i = 0; i < 5000; i++) {
+            // the messages of real events mention names and values from the document
+            c.handleEvent(event(ValidationEvent.ERROR, "unexpected element " + i));
+        }
+        ValidationEventImpl parse = new ValidationEventImpl(ValidationEvent.FATAL_ERROR, "line 3", null,
+                new SAXParseException("line 3", null));
+        c.handleEvent(parse);
+        c.handleEvent(event(ValidationEvent.WARNING, "w"));
+
+        Map<String, Long> counts = c.getCountsByKey();
+        assertEquals(3, counts.size());
+        assertEquals(Long.valueOf(5000), counts.get("ERROR"));
+        assertEquals(Long.valueOf(1), counts.get("FATAL_ERROR " + SAXParseException.class.getName()));
+        assertEquals(Long.valueOf(1), counts.get("WARNING"));
+    }
+
+    @Test
+    public void keysAreBounded() {
+        BoundedValidationEventCollector c = new BoundedValidationEventCollector(0, ValidationEvent::getMessage, null);
+        int n = BoundedValidationEventCollector.MAX_KEYS + 100;
+        for (int i = 0; i < n; i++) {
+            c.handleEvent(event(ValidationEvent.ERROR, "e" + i));
+        }
+        Map<String, Long> counts = c.getCountsByKey();
+        assertEquals(BoundedValidationEventCollector.MAX_KEYS + 1, counts.size());
+        assertEquals(Long.valueOf(100), counts.get(""));
+        assertEquals(Long.valueOf(1), counts.get("e0"));
+    }
+
+    @Test
+    public void nullKeysAreCountedUnderTheEmptyKey() {
+        BoundedValidationEventCollector c = new BoundedValidationEventCollector(0, e -> null, null);
+        c.handleEvent(event(ValidationEvent.ERROR, "e"));
+        assertEquals(Map.of("", 1L), c.getCountsByKey());
+    }
+
+    @Test
+    public void consumerSeesAllTheEvents() {
+        List<ValidationEvent> seen = new ArrayList<>();
+        BoundedValidationEventCollector c = new BoundedValidationEventCollector(1, null, seen::add);
+        for (int i = 0; i < 5; i++) {
+            c.handleEvent(event(ValidationEvent.WARNING, "w" + i));
+        }
+        assertEquals(5, seen.size());
+        assertEquals(1, c.getEvents().length);
+    }
+
+    @Test
+    public void resetClearsEverything() {
+        BoundedValidationEventCollector c = new BoundedValidationEventCollector(2);
+        for (int i = 0; i < 5; i++) {
+            c.handleEvent(event(ValidationEvent.ERROR, "e"));
+        }
+        c.reset();
+        assertFalse(c.hasEvents());
+        assertEquals(0, c.getEvents().length);
+        assertEquals(0, c.getTotalCount());
+        assertEquals(0, c.getDroppedCount());
+        assertTrue(c.getCountsByKey().isEmpty());
+
+        ValidationEvent e = event(ValidationEvent.ERROR, "again");
+        c.handleEvent(e);
+        assertArrayEquals(new ValidationEvent[] {e}, c.getEvents());
+    }
+
+    @Test
+    public void eventsCanBeHandledConcurrently() throws Exception {
+        BoundedValidationEventCollector c = new BoundedValidationEventCollector(100);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                tasks.add(pool.submit(() -> {
+                    for (int i = 0; i < 10000; i++) {
+                        c.handleEvent(event(i % 2 == 0 ? ValidationEvent.WARNING : ValidationEvent.ERROR, "e"));
+                    }
+                }));
+            }
+            for (Future<?> f : tasks) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(40000, c.getTotalCount());
+        assertEquals(20000, c.getCount(ValidationEvent.WARNING));
+        assertEquals(100, c.getEvents().length);
+        assertEquals(39900, c.getDroppedCount());
+        assertEquals(Long.valueOf(20000), c.getCountsByKey().get("ERROR"));
+    }
+
+    @Test
+    public void invalidArgumentsAreRejected() {
+        try {
+            new BoundedValidationEventCollector(-1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("-1"));
+        }
+        try {
+            new BoundedValidationEventCollector(1).getCount(3);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import org.junit.Test;
+
+import javax.xml.bind.ValidationEvent;
+import javax.xml.bind.ValidationEventLocator;
+import javax.xml.bind.helpers.CompactValidationEvent;
+import javax.xml.bind.helpers.CompactValidationEventLocator;
+import javax.xml.bind.helpers.ValidationEventImpl;
+import javax.xml.bind.helpers.ValidationEventLocatorImpl;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.LocatorImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/*
+ * Tests of CompactValidationEvent and CompactValidationEventLocator, which
+ * must report the same values as ValidationEventImpl and
+ * ValidationEventLocatorImpl created from the same arguments.
+ */
+public class CompactValidationEventTest {
+
+    @Test
+    public void locatorFromSaxLocator() {
+        LocatorImpl sax = locator("http://example.com/a.xml", 12, 34);
+        assertSameLocation(new ValidationEventLocatorImpl(sax), new CompactValidationEventLocator(sax));
+        assertEquals("http://example.com/a.xml", new CompactValidationEventLocator(sax).getSystemId());
+    }
+
+    @Test
+    public void locatorFromSaxParseException() {
+        SAXParseException e = new SAXParseException("bad", "public", "file:/tmp/b.xml", 7, 1);
+        assertSameLocation(new ValidationEventLocatorImpl(e), new CompactValidationEventLocator(e));
+    }
+
+    @Test
+    public void unavailablePositionsArePacked() {
+        int[][] positions = {{-1, -1}, {-1, 5}, {5, -1}, {0, 0},
+                             {Integer.MAX_VALUE, Integer.MIN_VALUE}, {Integer.MIN_VALUE, Integer.MAX_VALUE}};
+        for (int[] p : positions) {
+            CompactValidationEventLocator l = new CompactValidationEventLocator(null, p[0], p[1]);
+            assertEquals(p[0], l.getLineNumber());
+            assertEquals(p[1], l.getColumnNumber());
+            assertEquals(-1, l.getOffset());
+        }
+    }
+
+    @Test
+    public void systemIdIsConvertedOnRequest() {
+        CompactValidationEventLocator relative = new CompactValidationEventLocator("a.xml", 1, 2);
+        assertEquals("a.xml", relative.getSystemId());
+        assertNull(relative.getURL());
+        assertNull(new CompactValidationEventLocator(null, 1, 2).getURL());
+        assertEquals("file:/tmp/c.xml", new CompactValidationEventLocator("file:/tmp/c.xml", 1, 2).getURL().toString());
+    }
+
+    @Test
+    public void locatorFromNodeAndObject() throws Exception {
+        Node node = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument().createElement("e");
+        assertSameLocation(new ValidationEventLocatorImpl(node), new CompactValidationEventLocator(node));
+        assertSame(node, new CompactValidationEventLocator(node).getNode());
+
+        Object object = new Object();
+        assertSameLocation(new ValidationEventLocatorImpl(object), new CompactValidationEventLocator(object));
+        assertSame(object, new CompactValidationEventLocator(object).getObject());
+    }
+
+    @Test
+    public void locatorRejectsNull() {
+        try {
+            new CompactValidationEventLocator((org.xml.sax.Locator) null);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            new CompactValidationEventLocator((SAXParseException) null);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            new CompactValidationEventLocator((Node) null);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            new CompactValidationEventLocator((Object) null);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void eventFromSaxLocator() {
+        LocatorImpl sax = locator("http://example.com/a.xml", 3, 4);
+        Exception linked = new Exception();
+        ValidationEvent expected = new ValidationEventImpl(ValidationEvent.ERROR, "message",
+                                                           new ValidationEventLocatorImpl(sax), linked);
+        CompactValidationEvent event = CompactValidationEvent.of(ValidationEvent.ERROR, "message", sax, linked);
+
+        // the event copies the location rather than keeping the locator, which moves on
+        sax.setLineNumber(99);
+        assertSameEvent(expected, event);
+        assertSame(event.getLocator(), event.getLocator());
+    }
+
+    @Test
+    public void eventFromSaxParseException() {
+        SAXParseException e = new SAXParseException("bad", "public", "file:/tmp/b.xml", 7, 1);
+        ValidationEvent expected = new ValidationEventImpl(ValidationEvent.FATAL_ERROR, "bad",
+                                                           new ValidationEventLocatorImpl(e), e);
+        CompactValidationEvent event = CompactValidationEvent.of(ValidationEvent.FATAL_ERROR, e);
+        assertSame(e, event.getLinkedException());
+        assertSameEvent(expected, event);
+    }
+
+    @Test
+    public void eventWithoutLocation() {
+        CompactValidationEvent event = CompactValidationEvent.of(ValidationEvent.WARNING, "message", null, null);
+        assertNull(event.getLocator());
+        assertEquals(new ValidationEventImpl(ValidationEvent.WARNING, "message", null).toString(), event.toString());
+
+        event = CompactValidationEvent.of(ValidationEvent.WARNING, "message", locator(null, -1, -1), null);
+        assertNull(event.getLocator());
+    }
+
+    @Test
+    public void eventKeepsGivenLocator() {
+        ValidationEventLocator locator = new ValidationEventLocatorImpl(new Object());
+        CompactValidationEvent event = new CompactValidationEvent(ValidationEvent.ERROR, "message", locator, null);
+        assertSame(locator, event.getLocator());
+        assertEquals(new ValidationEventImpl(ValidationEvent.ERROR, "message", locator).toString(), event.toString());
+    }
+
+    @Test
+    public void eventRejectsIllegalArguments() {
+        try {
+            new CompactValidationEvent(42, "message", null, null);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            CompactValidationEvent.of(-1, "message", null, null);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            CompactValidationEvent.of(ValidationEvent.ERROR, null);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private static LocatorImpl locator(String systemId, int line, int column) {
+        LocatorImpl l = new LocatorImpl();
+        l.setSystemId(systemId);
+        l.setLineNumber(line);
+        l.setColumnNumber(column);
+        return l;
+    }
+
+    private static void assertSameLocation(ValidationEventLocator expected, ValidationEventLocator actual) {
+        assertEquals(expected.getURL(), actual.getURL());
+        assertEquals(expected.getLineNumber(), actual.getLineNumber());
+        assertEquals(expected.getColumnNumber(), actual.getColumnNumber());
+        assertEquals(expected.getOffset(), actual.getOffset());
+        assertSame(expected.getNode(), actual.getNode());
+        assertSame(expected.getObject(), actual.getObject());
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    private static void assertSameEvent(ValidationEvent expected, ValidationEvent actual) {
+        assertEquals(expected.getSeverity(), actual.getSeverity());
+        assertEquals(expected.getMessage(), actual.getMessage());
+        assertSame(expected.getLinkedException(), actual.getLinkedException());
+        assertSameLocation(expected.getLocator(), actual.getLocator());
+        assertEquals(expected.toString(), actual.toString());
+    }
+}
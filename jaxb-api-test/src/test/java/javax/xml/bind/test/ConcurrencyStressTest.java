@@ -0,0 +1,334 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import jaxb.test.stress.BlockingDatatypeFactory;
+import jaxb.test.stress.StressContextFactory;
+import jaxb.test.stress.Types;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.bind.JAXB;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import javax.xml.transform.stream.StreamSource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Stress test of the static state shared by the threads using the API:
+ * the converter of DatatypeConverter, the context cached by JAXB, and the
+ * static initialization of the discovery.
+ *
+ * First initializations are only racy once per class loader, so the tests
+ * of DatatypeConverter and of the discovery load the API again, from the
+ * jar under test, in a new class loader for each trial. Its parent is the
+ * bootstrap class loader: the platform class loader would delegate to the
+ * java.xml.bind module the tests run with.
+ *
+ * Each test runs on platform threads, and on virtual threads when the JDK
+ * has them (21 and later), found by reflection.
+ */
+@RunWith(Parameterized.class)
+public class ConcurrencyStressTest {
+
+    private static final int TRIALS = 100;
+    private static final int THREADS = 8;
+    private static final int CALLS = 1000;
+    private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+    private static final String CUSTOM = "custom";
+    private static final String DATATYPE_FACTORY = "javax.xml.datatype.DatatypeFactory";
+
+    // the jar of the API, and the classes of the tests
+    private static final URL API = DatatypeConverter.class.getProtectionDomain().getCodeSource().getLocation();
+    private static final URL TESTS = ConcurrencyStressTest.class.getProtectionDomain().getCodeSource().getLocation();
+
+    @Parameterized.Parameters(name = "{0} threads")
+    public static Collection<Object[]> threads() {
+        return Arrays.asList(new Object[][] {
+                {"platform", new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        return new Thread(r);
+                    }
+                }},
+                {"virtual", virtualThreadFactory()},
+        });
+    }
+
+    private final String kind;
+    private final ThreadFactory factory;
+
+    public ConcurrencyStressTest(String kind, ThreadFactory factory) {
+        this.kind = kind;
+        this.factory = factory;
+    }
+
+    @Before
+    public void checkThreads() {
+        Assume.assumeTrue(kind + " threads are not available", factory != null);
+    }
+
+    /**
+     * Threads racing to convert values while a provider sets its converter
+     * must all use the same converter: either the default one, if it was
+     * initialized first, or the provider's. The provider sets its converter
+     * while a reader is in the middle of initializing the default one, held
+     * there by {@link BlockingDatatypeFactory}.
+     */
+    @Test
+    public void datatypeConverterIsInitializedOnce() throws Exception {
+        String previous = System.setProperty(DATATYPE_FACTORY, BlockingDatatypeFactory.class.getName());
+        try {
+            for (int trial = 0; trial < TRIALS / 10; trial++) {
+                try (URLClassLoader api = newApiLoader()) {
+                    Class<?> converter = api.loadClass("javax.xml.bind.DatatypeConverter");
+                    Class<?> spi = api.loadClass("javax.xml.bind.DatatypeConverterInterface");
+                    final Method parse = converter.getMethod("parseString", String.class);
+                    final Method set = converter.getMethod("setDatatypeConverter", spi);
+                    final Object custom = Proxy.newProxyInstance(api, new Class<?>[] { spi }, (proxy, method, args) -> {
+                        if (method.getName().equals("parseString")) {
+                            return CUSTOM;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+                    BlockingDatatypeFactory.reset();
+
+                    // "custom" from the provider's converter, the argument from the default one
+                    final Set<Object> results = ConcurrentHashMap.newKeySet();
+                    Runnable reader = () -> {
+                        for (int i = 0; i < CALLS; i++) {
+                            results.add(invoke(null, parse, "value"));
+                        }
+                    };
+                    Runnable provider = () -> {
+                        try {
+                            assertTrue("default converter not initialized",
+                                       BlockingDatatypeFactory.awaitCreation(TIMEOUT));
+                        } catch (InterruptedException e) {
+                            throw new AssertionError(e);
+                        }
+                        invoke(null, set, custom);
+                        BlockingDatatypeFactory.release();
+                        results.add(invoke(null, parse, "value"));
+                    };
+                    race(reader, reader, provider, reader);
+                    results.add(invoke(null, parse, "value"));
+
+                    assertEquals("results of trial " + trial + ": " + results, 1, results.size());
+                }
+            }
+        } finally {
+            if (previous == null) {
+                System.clearProperty(DATATYPE_FACTORY);
+            } else {
+                System.setProperty(DATATYPE_FACTORY, previous);
+            }
+        }
+    }
+
+    /**
+     * The converter is visible to all the threads, set or not.
+     */
+    @Test
+    public void datatypeConverterIsVisible() throws Exception {
+        final Object expected = DatatypeConverter.parseInt("42");
+        final List<Object> results = new CopyOnWriteArrayList<>();
+        Runnable[] readers = new Runnable[THREADS];
+        Arrays.fill(readers, (Runnable) () -> {
+            for (int i = 0; i < CALLS; i++) {
+                results.add(DatatypeConverter.parseInt("42"));
+                results.add(DatatypeConverter.printBoolean(true));
+            }
+        });
+        race(readers);
+
+        assertEquals(THREADS * CALLS * 2, results.size());
+        for (Object r : results) {
+            assertTrue(r.equals(expected) || r.equals("true"));
+        }
+    }
+
+    /**
+     * Threads alternating between types must never get the cached
+     * context of another type.
+     */
+    @Test
+    public void jaxbCacheReturnsContextOfType() throws Exception {
+        Runnable[] actors = new Runnable[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int offset = t;
+            actors[t] = () -> {
+                for (int i = 0; i < CALLS / 10; i++) {
+                    Class<?> type = Types.ALL[(offset + i) % Types.ALL.length];
+                    // StressContextFactory fails if the context is not the one of the type
+                    Object value = JAXB.unmarshal(new StreamSource(new StringReader("<item/>")), type);
+                    assertSame(type, value.getClass());
+                    JAXB.marshal(value, new StringWriter());
+                }
+            };
+        }
+        int created = StressContextFactory.CREATED.get();
+        race(actors);
+
+        assertTrue(StressContextFactory.CREATED.get() > created);
+    }
+
+    /**
+     * Threads racing to create the first contexts of a class loader, which
+     * initializes the discovery, must all get a context for their type.
+     */
+    @Test
+    public void firstDiscoveryIsThreadSafe() throws Exception {
+        for (int trial = 0; trial < TRIALS / 10; trial++) {
+            try (URLClassLoader api = newApiLoader();
+                 URLClassLoader tests = new URLClassLoader(new URL[] { TESTS }, api)) {
+                final Method newInstance = api.loadClass("javax.xml.bind.JAXBContext")
+                        .getMethod("newInstance", Class[].class);
+                final Class<?> context = tests.loadClass(StressContextFactory.StressContext.class.getName());
+                final Method getType = context.getMethod("getType");
+
+                Runnable[] actors = new Runnable[THREADS];
+                for (int t = 0; t < THREADS; t++) {
+                    final Class<?> type = tests.loadClass(Types.ALL[t % Types.ALL.length].getName());
+                    actors[t] = () -> {
+                        // the factory is loaded from the context class loader
+                        Thread.currentThread().setContextClassLoader(tests);
+                        Object created = invoke(null, newInstance, (Object) new Class<?>[] { type });
+                        assertSame(context, created.getClass());
+                        assertSame(type, invoke(created, getType));
+                    };
+                }
+                race(actors);
+            }
+        }
+    }
+
+    /**
+     * Runs the actors, each in its own thread, starting them at once.
+     * Rethrows the first failure, if any.
+     */
+    private void race(Runnable... actors) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Throwable> failures = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (final Runnable actor : actors) {
+            Thread t = factory.newThread(() -> {
+                try {
+                    start.await();
+                    actor.run();
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+        start.countDown();
+        for (Thread t : threads) {
+            t.join(TIMEOUT);
+            assertFalse("thread still running after " + TIMEOUT + " ms, deadlock?", t.isAlive());
+        }
+        if (!failures.isEmpty()) {
+            Throwable first = failures.get(0);
+            if (first instanceof AssertionError) {
+                throw (AssertionError) first;
+            }
+            throw new AssertionError(failures.size() + " thread(s) failed", first);
+        }
+    }
+
+    private static URLClassLoader newApiLoader() {
+        return new URLClassLoader(new URL[] { API }, null);
+    }
+
+    private static Object invoke(Object target, Method method, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (IllegalAccessException e) {
+            throw new AssertionError(e);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new AssertionError(cause);
+        }
+    }
+
+    /**
+     * Gets a factory of virtual threads, or null if the JDK has none.
+     */
+    static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // before JDK 19, or a preview feature not enabled
+            return null;
+        }
+    }
+}
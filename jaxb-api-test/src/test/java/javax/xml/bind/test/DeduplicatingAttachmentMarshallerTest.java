@@ -0,0 +1,322 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import org.junit.Test;
+
+import javax.activation.DataHandler;
+import javax.activation.DataSource;
+import javax.activation.FileDataSource;
+import javax.activation.FileTypeMap;
+import javax.xml.bind.attachment.AttachmentMarshaller;
+import javax.xml.bind.attachment.DeduplicatingAttachmentMarshaller;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*
+ * Tests of DeduplicatingAttachmentMarshaller.
+ */
+public class DeduplicatingAttachmentMarshallerTest {
+
+    private static final byte[] LOGO = "logo".getBytes(StandardCharsets.US_ASCII);
+    private static final String OCTETS = "application/octet-stream";
+
+    @Test
+    public void identicalArraysAreAttachedOnce() {
+        Delegate d = new Delegate();
+        DeduplicatingAttachmentMarshaller m = new DeduplicatingAttachmentMarshaller(d);
+        byte[] other = new byte[LOGO.length + 2];
+        System.arraycopy(LOGO, 0, other, 1, LOGO.length);
+
+        String cid = m.addMtomAttachment(LOGO, 0, LOGO.length, OCTETS, "", "e");
+        assertEquals(cid, m.addMtomAttachment(other, 1, LOGO.length, OCTETS, "", "e"));
+        assertEquals(1, d.calls.size());
+        assertEquals(1, m.getHitCount());
+
+        assertNotEquals(cid, m.addMtomAttachment(LOGO, 0, LOGO.length, "image/png", "", "e"));
+        assertNotEquals(cid, m.addMtomAttachment(LOGO, 0, 2, OCTETS, "", "e"));
+        assertEquals(3, d.calls.size());
+    }
+
+    @Test
+    public void identicalBuffersAreAttachedOnce() {
+        Delegate d = new Delegate();
+        DeduplicatingAttachmentMarshaller m = new DeduplicatingAttachmentMarshaller(d);
+        ByteBuffer direct = ByteBuffer.allocateDirect(LOGO.length);
+        direct.put(LOGO).flip();
+
+        String cid = m.addMtomAttachment(ByteBuffer.wrap(LOGO), OCTETS, "", "e");
+        assertEquals(cid, m.addMtomAttachment(direct, OCTETS, "", "e"));
+        assertEquals(0, direct.position());
+        assertEquals(1, d.calls.size());
+    }
+
+    @Test
+    public void identicalFilesAreAttachedOnce() throws IOException {
+        Delegate d = new Delegate();
+        DeduplicatingAttachmentMarshaller m = new DeduplicatingAttachmentMarshaller(d);
+        Path a = Files.createTempFile("a", ".bin");
+        Path b = Files.createTempFile("b", ".bin");
+        try {
+            Files.write(a, LOGO);
+            Files.write(b, LOGO);
+            String cid = m.addMtomAttachment(a, OCTETS, "", "e");
+            assertEquals(cid, m.addMtomAttachment(b, OCTETS, "", "e"));
+            String other = m.addMtomAttachment(new DataHandler(fileDataSource(a)), "", "e");
+            assertEquals(other, m.addMtomAttachment(new DataHandler(fileDataSource(b)), "", "e"));
+            assertEquals(2, d.calls.size());
+            assertEquals(2, m.getHitCount());
+        } finally {
+            Files.delete(a);
+            Files.delete(b);
+        }
+    }
+
+    private static FileDataSource fileDataSource(Path file) {
+        FileDataSource ds = new FileDataSource(file.toFile());
+        // the activation API alone has no MIME type registry
+        ds.setFileTypeMap(new FileTypeMap() {
+            @Override
+            public String getContentType(File f) {
+                return "image/png";
+            }
+
+            @Override
+            public String getContentType(String name) {
+                return "image/png";
+            }
+        });
+        return ds;
+    }
+
+    @Test
+    public void dataHandlersOverArraysAreAttachedOnce() {
+        Delegate d = new Delegate();
+        DeduplicatingAttachmentMarshaller m = new DeduplicatingAttachmentMarshaller(d);
+        String cid = m.addSwaRefAttachment(new DataHandler(LOGO.clone(), OCTETS));
+        assertEquals(cid, m.addSwaRefAttachment(new DataHandler(LOGO.clone(), OCTETS)));
+        // swaRef and MTOM attachments are distinct
+        assertNotEquals(cid, m.addMtomAttachment(new DataHandler(LOGO.clone(), OCTETS), "", "e"));
+        assertEquals(2, d.calls.size());
+    }
+
+    @Test
+    public void oneShotStreamsArePassedUnread() throws IOException {
+        Delegate d = new Delegate();
+        DeduplicatingAttachmentMarshaller m = new DeduplicatingAttachmentMarshaller(d);
+        OneShot first = new OneShot();
+        OneShot second = new OneShot();
+
+        String cid = m.addMtomAttachment(new DataHandler(first), "", "e");
+        assertNotEquals(cid, m.addMtomAttachment(new DataHandler(second), "", "e"));
+        assertEquals(0, m.getHitCount());
+        // the delegate got the whole content
+        assertArrayEquals(LOGO, d.contents.get(0));
+        assertArrayEquals(LOGO, d.contents.get(1));
+        assertEquals(1, first.opened);
+        assertEquals(1, second.opened);
+
+        m.addSwaRefAttachment(new DataHandler(new OneShot()));
+        assertArrayEquals(LOGO, d.contents.get(2));
+    }
+
+    @Test
+    public void channelsArePassedThrough() {
+        Delegate d = new Delegate();
+        DeduplicatingAttachmentMarshaller m = new DeduplicatingAttachmentMarshaller(d);
+        String cid = m.addMtomAttachment(Channels.newChannel(new ByteArrayInputStream(LOGO)), OCTETS, "", "e");
+        assertNotEquals(cid, m.addMtomAttachment(Channels.newChannel(new ByteArrayInputStream(LOGO)), OCTETS, "", "e"));
+        assertArrayEquals(LOGO, d.contents.get(0));
+        assertArrayEquals(LOGO, d.contents.get(1));
+    }
+
+    @Test
+    public void inlinedDataIsNotRemembered() {
+        Delegate d = new Delegate();
+        d.inline = true;
+        DeduplicatingAttachmentMarshaller m = new DeduplicatingAttachmentMarshaller(d);
+        assertNull(m.addMtomAttachment(LOGO, 0, LOGO.length, OCTETS, "", "e"));
+        d.inline = false;
+        String cid = m.addMtomAttachment(LOGO, 0, LOGO.length, OCTETS, "", "e");
+        assertEquals(cid, m.addMtomAttachment(LOGO, 0, LOGO.length, OCTETS, "", "e"));
+        assertEquals(2, d.invocations);
+    }
+
+    @Test
+    public void leastRecentlyUsedEntriesAreEvicted() {
+        Delegate d = new Delegate();
+        DeduplicatingAttachmentMarshaller m = new DeduplicatingAttachmentMarshaller(d, 2);
+        byte[] a = {1};
+        byte[] b = {2};
+        byte[] c = {3};
+        String cidA = m.addMtomAttachment(a, 0, 1, OCTETS, "", "e");
+        m.addMtomAttachment(b, 0, 1, OCTETS, "", "e");
+        assertEquals(cidA, m.addMtomAttachment(a, 0, 1, OCTETS, "", "e"));
+        m.addMtomAttachment(c, 0, 1, OCTETS, "", "e");
+        // b was evicted, a was used more recently
+        assertEquals(cidA, m.addMtomAttachment(a, 0, 1, OCTETS, "", "e"));
+        m.addMtomAttachment(b, 0, 1, OCTETS, "", "e");
+        assertEquals(4, d.calls.size());
+
+        m.clear();
+        assertNotEquals(cidA, m.addMtomAttachment(a, 0, 1, OCTETS, "", "e"));
+    }
+
+    @Test
+    public void nullDelegateIsRejected() {
+        try {
+            new DeduplicatingAttachmentMarshaller(null);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("delegate"));
+        }
+    }
+
+    @Test
+    public void nonPositiveMaxEntriesIsRejected() {
+        try {
+            new DeduplicatingAttachmentMarshaller(new Delegate(), 0);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("maxEntries"));
+        }
+    }
+
+    /** Attaches everything it is given, reading it like a MIME processor. */
+    private static final class Delegate extends AttachmentMarshaller {
+        final List<String> calls = new ArrayList<>();
+        final List<byte[]> contents = new ArrayList<>();
+        boolean inline;
+        int invocations;
+
+        private String attach(byte[] content) {
+            invocations++;
+            if (inline) {
+                return null;
+            }
+            contents.add(content);
+            String cid = "cid:" + calls.size();
+            calls.add(cid);
+            return cid;
+        }
+
+        private String attach(DataHandler data) {
+            if (data.getName() == null) {
+                // the activation API alone can't stream a data handler over an object
+                return attach((byte[]) content(data));
+            }
+            try (InputStream in = data.getInputStream()) {
+                return attach(in.readAllBytes());
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        private static Object content(DataHandler data) {
+            try {
+                return data.getContent();
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        @Override
+        public String addMtomAttachment(DataHandler data, String elementNamespace, String elementLocalName) {
+            return attach(data);
+        }
+
+        @Override
+        public String addMtomAttachment(byte[] data, int offset, int length, String mimeType,
+                                        String elementNamespace, String elementLocalName) {
+            byte[] content = new byte[length];
+            System.arraycopy(data, offset, content, 0, length);
+            return attach(content);
+        }
+
+        @Override
+        public String addSwaRefAttachment(DataHandler data) {
+            return attach(data);
+        }
+    }
+
+    /** Data source over a stream that can be read only once. */
+    private static final class OneShot implements DataSource {
+        private final InputStream in = new ByteArrayInputStream(LOGO);
+        int opened;
+
+        @Override
+        public InputStream getInputStream() {
+            opened++;
+            return in;
+        }
+
+        @Override
+        public OutputStream getOutputStream() throws IOException {
+            throw new IOException();
+        }
+
+        @Override
+        public String getContentType() {
+            return OCTETS;
+        }
+
+        @Override
+        public String getName() {
+            return "one-shot";
+        }
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import jaxb.test.fake.FakeContext;
+import jaxb.test.fake.FakeMarshaller;
+import jaxb.test.fake.FakeUnmarshaller;
+import jaxb.test.fake.Item;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.xml.bind.MarshalException;
+import javax.xml.bind.util.JAXBStreamReader;
+import javax.xml.bind.util.JAXBStreamWriter;
+import javax.xml.bind.util.flow.JAXBPublisher;
+import javax.xml.bind.util.flow.JAXBSubscriber;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*
+ * Tests of the Flow adapters of jaxb-api-flow.
+ */
+public class FlowAdaptersTest {
+
+    private static final QName ITEMS = new QName("items");
+    private static final QName ITEM = new QName("item");
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    /** Executor running the tasks only when asked to. */
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void runTasks() {
+        Runnable r;
+        while ((r = tasks.poll()) != null) {
+            r.run();
+        }
+    }
+
+    private static String document(int n) {
+        StringBuilder sb = new StringBuilder("<items>");
+        for (int i = 0; i < n; i++) {
+            sb.append("<item id='").append(i).append("'/>");
+        }
+        return sb.append("</items>").toString();
+    }
+
+    private static JAXBStreamReader<Item> reader(String xml) throws Exception {
+        return JAXBStreamReader.newReader(new FakeUnmarshaller(),
+                XMLInputFactory.newFactory().createXMLStreamReader(new StringReader(xml)), ITEM, Item.class);
+    }
+
+    private static JAXBStreamWriter writer(FakeMarshaller m, StringWriter out) throws Exception {
+        return JAXBStreamWriter.newWriter(m, XMLOutputFactory.newFactory().createXMLStreamWriter(out), ITEMS);
+    }
+
+    @Test
+    public void publisherToSubscriberRoundTrip() throws Exception {
+        StringWriter out = new StringWriter();
+        JAXBSubscriber<Item> subscriber = new JAXBSubscriber<>(writer(new FakeMarshaller(), out), executor, 4);
+        new JAXBPublisher<>(reader(document(100)), executor).subscribe(subscriber);
+
+        assertEquals(Long.valueOf(100), subscriber.getResult().get(10, TimeUnit.SECONDS));
+        List<Item> read = new ArrayList<>();
+        reader(out.toString()).forEachRemaining(read::add);
+        List<Item> expected = new ArrayList<>();
+        reader(document(100)).forEachRemaining(expected::add);
+        assertEquals(expected, read);
+    }
+
+    @Test
+    public void publisherEmitsOnlyWhatIsRequested() throws Exception {
+        RecordingSubscriber s = new RecordingSubscriber();
+        new JAXBPublisher<>(reader(document(10)), tasks::add).subscribe(s);
+        s.subscription.request(3);
+        assertTrue(s.items.isEmpty());
+        runTasks();
+        assertEquals(3, s.items.size());
+        s.subscription.request(Long.MAX_VALUE);
+        runTasks();
+        assertEquals(10, s.items.size());
+        assertTrue(s.completed);
+    }
+
+    @Test
+    public void cancelClosesTheReader() throws Exception {
+        JAXBStreamReader<Item> reader = reader(document(10));
+        RecordingSubscriber s = new RecordingSubscriber();
+        new JAXBPublisher<>(reader, tasks::add).subscribe(s);
+        s.subscription.request(1);
+        s.subscription.cancel();
+        runTasks();
+        assertFalse(reader.hasNext());
+        assertFalse(s.completed);
+    }
+
+    @Test
+    public void illegalRequestIsSignalled() throws Exception {
+        RecordingSubscriber s = new RecordingSubscriber();
+        new JAXBPublisher<>(reader(document(10)), tasks::add).subscribe(s);
+        s.subscription.request(0);
+        runTasks();
+        assertTrue(s.error instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void secondSubscriberIsRejected() throws Exception {
+        JAXBPublisher<Item> publisher = new JAXBPublisher<>(reader(document(1)), tasks::add);
+        publisher.subscribe(new RecordingSubscriber());
+        RecordingSubscriber second = new RecordingSubscriber();
+        publisher.subscribe(second);
+        assertTrue(second.error instanceof IllegalStateException);
+    }
+
+    @Test
+    public void subscriberMarshalsOnItsExecutor() throws Exception {
+        FakeMarshaller m = new FakeMarshaller();
+        JAXBSubscriber<Item> subscriber = new JAXBSubscriber<>(writer(m, new StringWriter()), tasks::add, 4);
+        RecordingSubscription subscription = new RecordingSubscription();
+        subscriber.onSubscribe(subscription);
+        assertEquals(List.of(4L), subscription.requests);
+
+        subscriber.onNext(new Item(ITEM));
+        subscriber.onNext(new Item(ITEM));
+        subscriber.onNext(new Item(ITEM));
+        // nothing is marshalled on the thread of the publisher
+        assertEquals(0, m.getMarshalled());
+        runTasks();
+        assertEquals(3, m.getMarshalled());
+        assertEquals(List.of(4L, 2L), subscription.requests);
+
+        subscriber.onComplete();
+        assertFalse(subscriber.getResult().isDone());
+        runTasks();
+        assertEquals(Long.valueOf(3), subscriber.getResult().get());
+    }
+
+    @Test
+    public void marshallingFailureCancelsTheSubscription() throws Exception {
+        FakeMarshaller m = new FakeMarshaller();
+        JAXBSubscriber<Object> subscriber = new JAXBSubscriber<>(writer(m, new StringWriter()), tasks::add);
+        RecordingSubscription subscription = new RecordingSubscription();
+        subscriber.onSubscribe(subscription);
+        subscriber.onNext("not an item");
+        subscriber.onNext(new Item(ITEM));
+        runTasks();
+        assertTrue(subscription.cancelled);
+        assertEquals(0, m.getMarshalled());
+        try {
+            subscriber.getResult().get();
+            fail();
+        } catch (ExecutionException expected) {
+        }
+    }
+
+    @Test
+    public void publisherErrorCompletesTheResult() throws Exception {
+        JAXBSubscriber<Item> subscriber = new JAXBSubscriber<>(writer(new FakeMarshaller(), new StringWriter()), tasks::add);
+        subscriber.onSubscribe(new RecordingSubscription());
+        MarshalException error = new MarshalException("test");
+        subscriber.onNext(new Item(ITEM));
+        subscriber.onError(error);
+        runTasks();
+        try {
+            subscriber.getResult().get();
+            fail();
+        } catch (ExecutionException expected) {
+            assertSame(error, expected.getCause());
+        }
+    }
+
+    @Test
+    public void rejectedExecutionFailsTheSubscriber() throws Exception {
+        JAXBSubscriber<Item> subscriber = new JAXBSubscriber<>(writer(new FakeMarshaller(), new StringWriter()), executor);
+        RecordingSubscription subscription = new RecordingSubscription();
+        subscriber.onSubscribe(subscription);
+        executor.shutdown();
+        subscriber.onNext(new Item(ITEM));
+        assertTrue(subscriber.getResult().isCompletedExceptionally());
+        assertTrue(subscription.cancelled);
+    }
+
+    @Test
+    public void illegalArgumentsAreRejected() throws Exception {
+        JAXBStreamWriter w = writer(new FakeMarshaller(), new StringWriter());
+        assertRejected(() -> new JAXBSubscriber<Item>(null, executor));
+        assertRejected(() -> new JAXBSubscriber<Item>(w, null));
+        assertRejected(() -> new JAXBSubscriber<Item>(w, executor, 0));
+        JAXBStreamReader<Item> r = reader(document(1));
+        assertRejected(() -> new JAXBPublisher<>(null, executor));
+        assertRejected(() -> new JAXBPublisher<>(r, null));
+    }
+
+    private static void assertRejected(Runnable r) {
+        try {
+            r.run();
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private static final class RecordingSubscriber implements Flow.Subscriber<Item> {
+        Flow.Subscription subscription;
+        final List<Item> items = new ArrayList<>();
+        Throwable error;
+        boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Item item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    private static final class RecordingSubscription implements Flow.Subscription {
+        final List<Long> requests = new ArrayList<>();
+        boolean cancelled;
+
+        @Override
+        public void request(long n) {
+            requests.add(n);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
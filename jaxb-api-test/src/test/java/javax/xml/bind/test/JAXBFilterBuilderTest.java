@@ -0,0 +1,212 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import jaxb.test.fake.FakeUnmarshaller;
+import jaxb.test.fake.Item;
+import org.junit.Test;
+
+import javax.xml.bind.util.JAXBFilterBuilder;
+import javax.xml.namespace.QName;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.helpers.DefaultHandler;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+/*
+ * Tests of the filters built by JAXBFilterBuilder.
+ */
+public class JAXBFilterBuilderTest {
+
+    private static void parse(XMLFilterImpl filter, String xml, ContentHandler handler) throws Exception {
+        SAXParserFactory f = SAXParserFactory.newInstance();
+        f.setNamespaceAware(true);
+        filter.setParent(f.newSAXParser().getXMLReader());
+        filter.setContentHandler(handler);
+        filter.parse(new InputSource(new StringReader(xml)));
+    }
+
+    /** Runs the filter, serializes its output and reads it back. */
+    private static Item filter(XMLFilterImpl filter, String xml) throws Exception {
+        StringWriter out = new StringWriter();
+        TransformerHandler h = ((SAXTransformerFactory) SAXTransformerFactory.newInstance()).newTransformerHandler();
+        h.setResult(new StreamResult(out));
+        parse(filter, xml, h);
+        return (Item) new FakeUnmarshaller().unmarshal(new StreamSource(new StringReader(out.toString())));
+    }
+
+    private static List<String> events(XMLFilterImpl filter, String xml) throws Exception {
+        Recorder r = new Recorder();
+        parse(filter, xml, r);
+        return r.events;
+    }
+
+    @Test
+    public void rulesAreApplied() throws Exception {
+        XMLFilterImpl filter = new JAXBFilterBuilder()
+                .remapNamespace("urn:v1", "urn:v2")
+                .renameElement(new QName("urn:v1", "item"), new QName("urn:v2", "line", "o"))
+                .dropAttribute(new QName("", "legacyId"))
+                .pruneElement(new QName("urn:v1", "audit"))
+                .build();
+        Item expected = new Item(new QName("urn:v2", "order")).attr("id", "1")
+                .child(new Item(new QName("urn:v2", "line")).text("apple"))
+                .child(new Item(new QName("urn:v2", "total")).text("2"));
+        String xml = "<o:order xmlns:o='urn:v1' id='1' legacyId='x'>"
+                + "<o:item legacyId='y'>apple</o:item><o:audit><o:who/></o:audit><o:total>2</o:total>"
+                + "</o:order>";
+        assertEquals(expected, filter(filter, xml));
+        // the filter can be reused
+        assertEquals(expected, filter(filter, xml));
+    }
+
+    @Test
+    public void declarationsOfPrunedElementsDontLeak() throws Exception {
+        XMLFilterImpl filter = new JAXBFilterBuilder().pruneElement(new QName("urn:a", "audit")).build();
+        List<String> events = events(filter,
+                "<r><a:audit xmlns:a='urn:a' xmlns='urn:d'><a:x xmlns:b='urn:b'/></a:audit><c/></r>");
+        assertEquals(List.of("startElement({}r)", "startElement({}c)", "endElement({}c)", "endElement({}r)"), events);
+
+        events = events(filter, "<r xmlns:k='urn:k'><a:audit xmlns:a='urn:a'/><k:c/></r>");
+        assertEquals(List.of("startPrefixMapping(k=urn:k)", "startElement({}r)", "startElement({urn:k}c)",
+                "endElement({urn:k}c)", "endElement({}r)", "endPrefixMapping(k)"), events);
+    }
+
+    @Test
+    public void renamingIntoANamespaceKeepsTheDefaultNamespace() throws Exception {
+        XMLFilterImpl filter = new JAXBFilterBuilder()
+                .renameElement(new QName("", "old"), new QName("urn:new", "new"))
+                .build();
+        Item expected = new Item("r").child(new Item(new QName("urn:new", "new"))
+                .child(new Item("child").child(new Item(new QName("urn:new", "new")))));
+        assertEquals(expected, filter(filter, "<r><old><child><old/></child></old></r>"));
+
+        List<String> events = events(filter, "<old><child/></old>");
+        assertFalse(events.toString(), events.contains("startPrefixMapping(=urn:new)"));
+    }
+
+    @Test
+    public void renamingDoesntShadowPrefixesInScope() throws Exception {
+        XMLFilterImpl filter = new JAXBFilterBuilder()
+                .renameElement(new QName("", "old"), new QName("urn:x", "new", "p"))
+                .build();
+        Item expected = new Item(new QName("urn:p", "r"))
+                .child(new Item(new QName("urn:x", "new")).child(new Item(new QName("urn:p", "c"))));
+        assertEquals(expected, filter(filter, "<p:r xmlns:p='urn:p'><old><p:c/></old></p:r>"));
+    }
+
+    @Test
+    public void renamingReusesPrefixesInScope() throws Exception {
+        XMLFilterImpl filter = new JAXBFilterBuilder()
+                .renameElement(new QName("", "old"), new QName("urn:x", "new"))
+                .build();
+        List<String> events = events(filter, "<x:r xmlns:x='urn:x'><old/></x:r>");
+        assertEquals(List.of("startPrefixMapping(x=urn:x)", "startElement({urn:x}r)", "startElement({urn:x}new)",
+                "endElement({urn:x}new)", "endElement({urn:x}r)", "endPrefixMapping(x)"), events);
+    }
+
+    @Test
+    public void renamingOutOfTheDefaultNamespace() throws Exception {
+        XMLFilterImpl filter = new JAXBFilterBuilder()
+                .renameElement(new QName("urn:d", "old"), new QName("", "new"))
+                .build();
+        Item expected = new Item(new QName("urn:d", "r")).child(new Item("new"));
+        assertEquals(expected, filter(filter, "<r xmlns='urn:d'><old/></r>"));
+    }
+
+    @Test
+    public void nullRulesAreRejected() {
+        JAXBFilterBuilder b = new JAXBFilterBuilder();
+        QName name = new QName("a");
+        assertRejected(() -> b.renameElement(null, name));
+        assertRejected(() -> b.renameElement(name, null));
+        assertRejected(() -> b.remapNamespace(null, "urn:a"));
+        assertRejected(() -> b.remapNamespace("urn:a", null));
+        assertRejected(() -> b.dropAttribute(null));
+        assertRejected(() -> b.pruneElement(null));
+    }
+
+    private static void assertRejected(Runnable r) {
+        try {
+            r.run();
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    /** Records the element and namespace events. */
+    private static final class Recorder extends DefaultHandler {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri) {
+            events.add("startPrefixMapping(" + prefix + '=' + uri + ')');
+        }
+
+        @Override
+        public void endPrefixMapping(String prefix) {
+            events.add("endPrefixMapping(" + prefix + ')');
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) {
+            events.add("startElement({" + uri + '}' + localName + ')');
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            events.add("endElement({" + uri + '}' + localName + ')');
+        }
+    }
+}
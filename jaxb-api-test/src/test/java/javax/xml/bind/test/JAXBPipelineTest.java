@@ -0,0 +1,172 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import jaxb.test.fake.FakeContext;
+import jaxb.test.fake.FakeMarshaller;
+import jaxb.test.fake.FakeUnmarshaller;
+import jaxb.test.fake.Item;
+import org.junit.Test;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.util.JAXBPipeline;
+import javax.xml.namespace.QName;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamSource;
+import java.io.StringReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/*
+ * Tests of JAXBPipeline.
+ */
+public class JAXBPipelineTest {
+
+    private static Item order() {
+        return new Item(new QName("urn:v1", "order", "v1")).attr("id", "42")
+                .child(new Item(new QName("urn:v1", "line", "v1")).text("apple"))
+                .child(new Item(new QName("urn:v1", "line", "v1")).text("pear"));
+    }
+
+    private static Item orderV2() {
+        return new Item(new QName("urn:v2", "order")).attr("id", "42")
+                .child(new Item(new QName("urn:v2", "line")).text("apple"))
+                .child(new Item(new QName("urn:v2", "line")).text("pear"));
+    }
+
+    @Test
+    public void identity() throws JAXBException {
+        JAXBPipeline pipeline = new JAXBPipeline(new FakeContext(), new FakeContext());
+        assertNull(pipeline.getFilter());
+        assertNull(pipeline.getTemplates());
+        assertEquals(order(), pipeline.transform(order()));
+    }
+
+    @Test
+    public void pipelineIsReusable() throws JAXBException {
+        FakeMarshaller m = new FakeMarshaller();
+        FakeUnmarshaller u = new FakeUnmarshaller();
+        JAXBPipeline pipeline = new JAXBPipeline(m, u);
+        for (int i = 0; i < 3; i++) {
+            Item item = new Item("item").attr("n", Integer.toString(i));
+            assertEquals(item, pipeline.transform(item));
+        }
+        assertEquals(3, m.getMarshalled());
+    }
+
+    @Test
+    public void filterIsApplied() throws JAXBException {
+        XMLFilterImpl filter = new XMLFilterImpl() {
+            @Override
+            public void startPrefixMapping(String prefix, String uri) throws SAXException {
+                super.startPrefixMapping("", "urn:v2");
+            }
+
+            @Override
+            public void endPrefixMapping(String prefix) throws SAXException {
+                super.endPrefixMapping("");
+            }
+
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+                super.startElement("urn:v2", localName, localName, atts);
+            }
+
+            @Override
+            public void endElement(String uri, String localName, String qName) throws SAXException {
+                super.endElement("urn:v2", localName, localName);
+            }
+        };
+        JAXBPipeline pipeline = new JAXBPipeline(new FakeMarshaller(), new FakeUnmarshaller());
+        pipeline.setFilter(filter);
+        assertSame(filter, pipeline.getFilter());
+        assertEquals(orderV2(), pipeline.transform(order()));
+        assertEquals(orderV2(), pipeline.transform(order()));
+    }
+
+    @Test
+    public void templatesAreApplied() throws Exception {
+        String xsl = "<xsl:stylesheet version='1.0' xmlns:xsl='http://www.w3.org/1999/XSL/Transform'>"
+                + "<xsl:template match='*'>"
+                + "<xsl:element name='{local-name()}' namespace='urn:v2'>"
+                + "<xsl:copy-of select='@*'/><xsl:apply-templates/>"
+                + "</xsl:element>"
+                + "</xsl:template>"
+                + "</xsl:stylesheet>";
+        Templates templates = TransformerFactory.newInstance().newTemplates(new StreamSource(new StringReader(xsl)));
+        JAXBPipeline pipeline = new JAXBPipeline(new FakeMarshaller(), new FakeUnmarshaller());
+        pipeline.setTemplates(templates);
+        assertSame(templates, pipeline.getTemplates());
+        assertEquals(orderV2(), pipeline.transform(order()));
+        assertEquals(orderV2(), pipeline.transform(order()));
+
+        pipeline.setTemplates(null);
+        assertEquals(order(), pipeline.transform(order()));
+    }
+
+    @Test
+    public void nullArgumentsAreRejected() throws JAXBException {
+        assertRejected(() -> new JAXBPipeline(null, new FakeContext()));
+        assertRejected(() -> new JAXBPipeline(new FakeContext(), null));
+        assertRejected(() -> new JAXBPipeline(null, new FakeUnmarshaller()));
+        assertRejected(() -> new JAXBPipeline(new FakeMarshaller(), null));
+        JAXBPipeline pipeline = new JAXBPipeline(new FakeMarshaller(), new FakeUnmarshaller());
+        assertRejected(() -> pipeline.transform(null));
+    }
+
+    private interface Call {
+        Object run() throws JAXBException;
+    }
+
+    private static void assertRejected(Call call) throws JAXBException {
+        try {
+            call.run();
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
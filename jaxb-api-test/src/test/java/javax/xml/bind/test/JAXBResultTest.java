@@ -0,0 +1,121 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import jaxb.test.fake.FakeContext;
+import jaxb.test.fake.FakeUnmarshaller;
+import jaxb.test.fake.Item;
+import org.junit.Test;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.UnmarshallerHandler;
+import javax.xml.bind.util.JAXBResult;
+import javax.xml.namespace.QName;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamSource;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*
+ * Tests of JAXBResult.
+ */
+public class JAXBResultTest {
+
+    private static void transform(String xml, JAXBResult result) throws Exception {
+        Transformer t = TransformerFactory.newInstance().newTransformer();
+        t.transform(new StreamSource(new StringReader(xml)), result);
+    }
+
+    @Test
+    public void resultIsUnmarshalled() throws Exception {
+        JAXBResult result = new JAXBResult(new FakeContext());
+        transform("<r xmlns='urn:r' a='1'><c>text</c></r>", result);
+        Item expected = new Item(new QName("urn:r", "r")).attr("a", "1")
+                .child(new Item(new QName("urn:r", "c")).text("text"));
+        assertEquals(expected, result.getResult());
+    }
+
+    @Test
+    public void resetDiscardsThePreviousResult() throws Exception {
+        FakeUnmarshaller u = new FakeUnmarshaller();
+        JAXBResult result = new JAXBResult(u);
+        transform("<first/>", result);
+        assertEquals(new Item("first"), result.getResult());
+        UnmarshallerHandler handler = (UnmarshallerHandler) result.getHandler();
+
+        result.setSystemId("urn:first");
+        result.reset();
+        assertNotSame(handler, result.getHandler());
+        assertNull(result.getSystemId());
+        assertNull(result.getLexicalHandler());
+        try {
+            result.getResult();
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+
+        transform("<second/>", result);
+        assertEquals(new Item("second"), result.getResult());
+    }
+
+    @Test
+    public void resetKeepsTheUnmarshaller() throws Exception {
+        FakeUnmarshaller u = new FakeUnmarshaller();
+        JAXBResult result = new JAXBResult(u);
+        for (int i = 0; i < 3; i++) {
+            result.reset();
+            transform("<e" + i + "/>", result);
+            assertEquals(new Item("e" + i), result.getResult());
+        }
+        assertTrue(result.getHandler() instanceof UnmarshallerHandler);
+    }
+
+    @Test(expected = JAXBException.class)
+    public void nullUnmarshallerIsRejected() throws Exception {
+        new JAXBResult((Unmarshaller) null);
+    }
+}
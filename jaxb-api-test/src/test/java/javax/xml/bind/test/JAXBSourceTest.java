@@ -0,0 +1,355 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import jaxb.test.fake.FakeContext;
+import jaxb.test.fake.FakeMarshaller;
+import jaxb.test.fake.FakeUnmarshaller;
+import jaxb.test.fake.Item;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.util.JAXBSource;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stax.StAXSource;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.xml.sax.XMLReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*
+ * Tests of JAXBSource and of its direct and StAX variants.
+ */
+public class JAXBSourceTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static Item document() {
+        Item root = new Item(new QName("urn:root", "root", "r")).attr("a", "1");
+        for (int i = 0; i < 3; i++) {
+            // siblings in the same namespace, each declaring it
+            root.child(new Item(new QName("urn:item", "item", "p")).attr("id", Integer.toString(i)).text("text " + i));
+        }
+        root.child(new Item("plain").child(new Item(new QName("urn:item", "item", "p"))));
+        return root;
+    }
+
+    private static String transform(Source source) throws Exception {
+        StringWriter out = new StringWriter();
+        TransformerFactory.newInstance().newTransformer().transform(source, new StreamResult(out));
+        return out.toString();
+    }
+
+    private static Item parse(String xml) throws JAXBException {
+        return (Item) new FakeUnmarshaller().unmarshal(new StreamSource(new StringReader(xml)));
+    }
+
+    @Test
+    public void sourceRoundTrip() throws Exception {
+        assertEquals(document(), parse(transform(new JAXBSource(new FakeContext(), document()))));
+    }
+
+    @Test
+    public void resetSourceMarshalsTheNewObject() throws Exception {
+        JAXBSource source = new JAXBSource(new FakeContext(), document());
+        XMLReader reader = source.getXMLReader();
+        assertEquals(document(), parse(transform(source)));
+
+        Item other = new Item("other").text("x");
+        source.reset(other);
+        assertSame(reader, source.getXMLReader());
+        assertNull(reader.getContentHandler());
+        assertNull(reader.getErrorHandler());
+        assertNull(reader.getProperty("http://xml.org/sax/properties/lexical-handler"));
+        assertEquals(other, parse(transform(source)));
+    }
+
+    @Test
+    public void resetDirectSourceMarshalsTheNewObject() throws Exception {
+        JAXBSource source = JAXBSource.newDirectSource(new FakeMarshaller(), document());
+        transform(source);
+        source.reset(new Item("other"));
+        assertEquals(new Item("other"), parse(transform(source)));
+    }
+
+    @Test(expected = JAXBException.class)
+    public void resetRejectsNull() throws Exception {
+        new JAXBSource(new FakeContext(), document()).reset(null);
+    }
+
+    @Test
+    public void directSourceRoundTrip() throws Exception {
+        assertEquals(document(), parse(transform(JAXBSource.newDirectSource(new FakeMarshaller(), document()))));
+    }
+
+    @Test
+    public void staxSourceRoundTrip() throws Exception {
+        assertEquals(document(), parse(transform(JAXBSource.newStAXSource(new FakeMarshaller(), document(), executor))));
+    }
+
+    @Test
+    public void staxSourceScopesNamespaceBindings() throws Exception {
+        XMLEventReader reader = JAXBSource.newStAXSource(new FakeMarshaller(), document(), executor).getXMLEventReader();
+        int declarations = 0;
+        while (reader.hasNext()) {
+            XMLEvent e = reader.nextEvent();
+            if (e.isStartElement() && e.asStartElement().getName().getNamespaceURI().equals("urn:item")) {
+                assertTrue(e.asStartElement().getNamespaces().hasNext());
+                declarations++;
+            }
+        }
+        assertEquals(4, declarations);
+    }
+
+    @Test
+    public void staxSourceStartsAndEndsADocument() throws Exception {
+        for (boolean fragment : new boolean[] {false, true}) {
+            FakeMarshaller m = new FakeMarshaller();
+            m.setProperty(Marshaller.JAXB_FRAGMENT, fragment);
+            XMLEventReader reader = JAXBSource.newStAXSource(m, document(), executor).getXMLEventReader();
+            int starts = 0;
+            int ends = 0;
+            XMLEvent last = null;
+            assertTrue(reader.peek().isStartDocument());
+            while (reader.hasNext()) {
+                last = reader.nextEvent();
+                starts += last.isStartDocument() ? 1 : 0;
+                ends += last.isEndDocument() ? 1 : 0;
+            }
+            assertEquals(1, starts);
+            assertEquals(1, ends);
+            assertTrue(last.isEndDocument());
+            assertEquals(null, reader.peek());
+        }
+    }
+
+    @Test
+    public void staxSourceEndsOnABatchBoundary() throws Exception {
+        // the events of documents of every size up to two batches and a half,
+        // so that the end of the document falls at each position of a batch
+        for (int children = 0; children < 80; children++) {
+            for (boolean text : new boolean[] {false, true}) {
+                Item root = new Item("root");
+                if (text) {
+                    root.text("text");
+                }
+                for (int i = 0; i < children; i++) {
+                    root.child(new Item("item"));
+                }
+                XMLEventReader reader = JAXBSource.newStAXSource(new FakeMarshaller(), root, executor).getXMLEventReader();
+                int events = 0;
+                XMLEvent last = null;
+                while (reader.hasNext()) {
+                    last = reader.nextEvent();
+                    events++;
+                }
+                assertEquals(children + " children", 4 + 2 * children + (text ? 1 : 0), events);
+                assertTrue(last.isEndDocument());
+            }
+        }
+    }
+
+    @Test
+    public void staxSourceMarshalsOnDemand() throws Exception {
+        AtomicInteger produced = new AtomicInteger();
+        FakeMarshaller m = new FakeMarshaller() {
+            @Override
+            public void marshal(Object jaxbElement, XMLEventWriter writer) throws JAXBException {
+                super.marshal(jaxbElement, new CountingWriter(writer, produced));
+            }
+        };
+        Item root = new Item("root");
+        for (int i = 0; i < 10000; i++) {
+            root.child(new Item("item"));
+        }
+        XMLEventReader reader = JAXBSource.newStAXSource(m, root, executor).getXMLEventReader();
+        reader.nextEvent();
+        assertEquals(0, produced.get());
+        for (int i = 0; i < 10; i++) {
+            reader.nextEvent();
+        }
+        // wait for the marshaller to block
+        int seen;
+        do {
+            seen = produced.get();
+            Thread.sleep(50);
+        } while (seen != produced.get());
+        assertTrue(seen + " events produced", seen < 1000);
+
+        int events = 11;
+        while (reader.hasNext()) {
+            reader.nextEvent();
+            events++;
+        }
+        assertEquals(2 + 2 * 10001, events);
+    }
+
+    @Test
+    public void closingStopsTheMarshaller() throws Exception {
+        Item root = new Item("root");
+        for (int i = 0; i < 10000; i++) {
+            root.child(new Item("item"));
+        }
+        FakeMarshaller m = new FakeMarshaller();
+        XMLEventReader reader = JAXBSource.newStAXSource(m, root, executor).getXMLEventReader();
+        reader.nextEvent();
+        reader.nextEvent();
+        reader.close();
+        assertFalse(reader.hasNext());
+        // the single thread of the executor is released
+        executor.submit(() -> { }).get(10, TimeUnit.SECONDS);
+        assertEquals(0, m.getMarshalled());
+    }
+
+    @Test
+    public void marshallingErrorIsReportedByTheReader() throws Exception {
+        XMLEventReader reader = JAXBSource.newStAXSource(new FakeMarshaller(), "not an item", executor).getXMLEventReader();
+        assertTrue(reader.nextEvent().isStartDocument());
+        try {
+            reader.nextEvent();
+            fail();
+        } catch (XMLStreamException expected) {
+        }
+    }
+
+    @Test
+    public void nullArgumentsAreRejected() {
+        assertRejected(() -> JAXBSource.newStAXSource(null, document(), executor));
+        assertRejected(() -> JAXBSource.newStAXSource(new FakeMarshaller(), null, executor));
+        assertRejected(() -> JAXBSource.newStAXSource(new FakeMarshaller(), document(), null));
+        assertRejected(() -> JAXBSource.newDirectSource(null, document()));
+        assertRejected(() -> JAXBSource.newDirectSource(new FakeMarshaller(), null));
+    }
+
+    private interface Call {
+        Object run() throws JAXBException;
+    }
+
+    private static void assertRejected(Call call) {
+        try {
+            call.run();
+            fail();
+        } catch (JAXBException expected) {
+        }
+    }
+
+    /** Counts the events written. */
+    private static final class CountingWriter implements XMLEventWriter {
+        private final XMLEventWriter w;
+        private final AtomicInteger count;
+
+        CountingWriter(XMLEventWriter w, AtomicInteger count) {
+            this.w = w;
+            this.count = count;
+        }
+
+        @Override
+        public void add(XMLEvent event) throws XMLStreamException {
+            count.incrementAndGet();
+            w.add(event);
+        }
+
+        @Override
+        public void add(XMLEventReader reader) throws XMLStreamException {
+            w.add(reader);
+        }
+
+        @Override
+        public String getPrefix(String uri) throws XMLStreamException {
+            return w.getPrefix(uri);
+        }
+
+        @Override
+        public void setPrefix(String prefix, String uri) throws XMLStreamException {
+            w.setPrefix(prefix, uri);
+        }
+
+        @Override
+        public void setDefaultNamespace(String uri) throws XMLStreamException {
+            w.setDefaultNamespace(uri);
+        }
+
+        @Override
+        public void setNamespaceContext(NamespaceContext context) throws XMLStreamException {
+            w.setNamespaceContext(context);
+        }
+
+        @Override
+        public NamespaceContext getNamespaceContext() {
+            return w.getNamespaceContext();
+        }
+
+        @Override
+        public void flush() throws XMLStreamException {
+            w.flush();
+        }
+
+        @Override
+        public void close() throws XMLStreamException {
+            w.close();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import jaxb.test.fake.FakeContext;
+import jaxb.test.fake.FakeUnmarshaller;
+import jaxb.test.fake.Item;
+import org.junit.Test;
+
+import javax.xml.bind.DataBindingException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.util.JAXBStreamReader;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*
+ * Tests of JAXBStreamReader.newReader, reading records with the StAX cursor
+ * of the caller.
+ */
+public class JAXBStreamReaderTest {
+
+    private static final QName ITEM = new QName("urn:test", "item");
+
+    private static XMLStreamReader xsr(String xml) throws XMLStreamException {
+        return XMLInputFactory.newFactory().createXMLStreamReader(new StringReader(xml));
+    }
+
+    private static JAXBStreamReader<Item> reader(Unmarshaller u, String xml) throws XMLStreamException {
+        return JAXBStreamReader.newReader(u, xsr(xml), ITEM, Item.class);
+    }
+
+    private static Item item(String id) {
+        return new Item(ITEM).attr("id", id).text("text " + id);
+    }
+
+    private static List<Item> readAll(JAXBStreamReader<Item> reader) {
+        List<Item> items = new ArrayList<>();
+        while (reader.hasNext()) {
+            items.add(reader.next());
+        }
+        return items;
+    }
+
+    @Test
+    public void readsMatchingElementsInDocumentOrder() throws Exception {
+        FakeUnmarshaller u = new FakeUnmarshaller();
+        try (JAXBStreamReader<Item> reader = reader(u,
+                "<items xmlns='urn:test'><item id='1'>text 1</item><item id='2'>text 2</item><item id='3'>text 3</item></items>")) {
+            assertEquals(Arrays.asList(item("1"), item("2"), item("3")), readAll(reader));
+            assertFalse(reader.hasNext());
+        }
+        assertEquals(3, u.getUnmarshalled());
+    }
+
+    @Test
+    public void readsMatchingElementsAtAnyDepthAndSkipsOthers() throws Exception {
+        try (JAXBStreamReader<Item> reader = reader(new FakeUnmarshaller(),
+                "<?xml version='1.0'?><!-- c --><a xmlns='urn:test'><item id='1'>text 1</item>"
+                        + "<b><c><item id='2'>text 2</item></c><other/></b>"
+                        + "<item xmlns='urn:other' id='x'/><item id='3'>text 3</item></a>")) {
+            assertEquals(Arrays.asList(item("1"), item("2"), item("3")), readAll(reader));
+        }
+    }
+
+    @Test
+    public void consecutiveRecordsWithoutWhitespaceAreAllFound() throws Exception {
+        // the unmarshaller leaves the cursor on the start tag of the next record
+        try (JAXBStreamReader<Item> reader = reader(new FakeUnmarshaller(),
+                "<a xmlns='urn:test'><item id='1'>text 1</item><item id='2'>text 2</item></a>")) {
+            assertEquals(2, readAll(reader).size());
+        }
+    }
+
+    @Test
+    public void hasNextDoesNotUnmarshal() throws Exception {
+        FakeUnmarshaller u = new FakeUnmarshaller();
+        try (JAXBStreamReader<Item> reader = reader(u, "<a xmlns='urn:test'><item id='1'/><item id='2'/></a>")) {
+            assertTrue(reader.hasNext());
+            assertTrue(reader.hasNext());
+            assertEquals(0, u.getUnmarshalled());
+            assertEquals("1", reader.next().getAttribute("id"));
+            assertEquals(1, u.getUnmarshalled());
+        }
+    }
+
+    @Test
+    public void emptyDocumentHasNoElements() throws Exception {
+        try (JAXBStreamReader<Item> reader = reader(new FakeUnmarshaller(), "<a xmlns='urn:test'/>")) {
+            assertFalse(reader.hasNext());
+            try {
+                reader.next();
+                fail();
+            } catch (NoSuchElementException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void nextAfterTheEndThrows() throws Exception {
+        try (JAXBStreamReader<Item> reader = reader(new FakeUnmarshaller(), "<a xmlns='urn:test'><item id='1'/></a>")) {
+            reader.next();
+            try {
+                reader.next();
+                fail();
+            } catch (NoSuchElementException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void closeStopsReading() throws Exception {
+        JAXBStreamReader<Item> reader = reader(new FakeUnmarshaller(), "<a xmlns='urn:test'><item id='1'/><item id='2'/></a>");
+        assertTrue(reader.hasNext());
+        reader.close();
+        reader.close();
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void streamReturnsTheRemainingObjectsAndClosesTheReader() throws Exception {
+        JAXBStreamReader<Item> reader = reader(new FakeUnmarshaller(),
+                "<a xmlns='urn:test'><item id='1'/><item id='2'/><item id='3'/></a>");
+        reader.next();
+        try (Stream<Item> s = reader.stream()) {
+            assertEquals(Arrays.asList("2", "3"),
+                    s.map(i -> i.getAttribute("id")).collect(Collectors.toList()));
+        }
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void closingTheStreamEarlyClosesTheReader() throws Exception {
+        JAXBStreamReader<Item> reader = reader(new FakeUnmarshaller(),
+                "<a xmlns='urn:test'><item id='1'/><item id='2'/><item id='3'/></a>");
+        try (Stream<Item> s = reader.stream()) {
+            assertEquals("1", s.findFirst().get().getAttribute("id"));
+        }
+        assertFalse(reader.hasNext());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void removeIsNotSupported() throws Exception {
+        try (JAXBStreamReader<Item> reader = reader(new FakeUnmarshaller(), "<a xmlns='urn:test'><item id='1'/></a>")) {
+            reader.next();
+            reader.remove();
+        }
+    }
+
+    @Test
+    public void malformedDocumentIsReportedAsDataBindingException() throws Exception {
+        try (JAXBStreamReader<Item> reader = reader(new FakeUnmarshaller(),
+                "<a xmlns='urn:test'><item id='1'/><b></c></a>")) {
+            reader.next();
+            reader.hasNext();
+            fail();
+        } catch (DataBindingException expected) {
+            assertTrue(expected.getCause() instanceof XMLStreamException);
+        }
+    }
+
+    @Test
+    public void nullArgumentsAreRejected() throws Exception {
+        Unmarshaller u = new FakeContext().createUnmarshaller();
+        XMLStreamReader xsr = xsr("<a/>");
+        assertRejected(() -> JAXBStreamReader.newReader(null, xsr, ITEM, Item.class));
+        assertRejected(() -> JAXBStreamReader.newReader(u, null, ITEM, Item.class));
+        assertRejected(() -> JAXBStreamReader.newReader(u, xsr, null, Item.class));
+        assertRejected(() -> JAXBStreamReader.newReader(u, xsr, ITEM, null));
+    }
+
+    static void assertRejected(Runnable r) {
+        try {
+            r.run();
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import jaxb.test.fake.FakeContext;
+import jaxb.test.fake.FakeMarshaller;
+import jaxb.test.fake.FakeUnmarshaller;
+import jaxb.test.fake.Item;
+import org.junit.Test;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.util.JAXBStreamReader;
+import javax.xml.bind.util.JAXBStreamWriter;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*
+ * Tests of JAXBStreamWriter, reading its output back with JAXBStreamReader.
+ */
+public class JAXBStreamWriterTest {
+
+    private static final QName ITEMS = new QName("urn:test", "items", "t");
+    private static final QName ITEM = new QName("urn:test", "item", "t");
+
+    private static List<Item> items(int n) {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            items.add(new Item(ITEM).attr("id", Integer.toString(i)).text("café " + i));
+        }
+        return items;
+    }
+
+    private static List<Item> read(byte[] document) throws Exception {
+        XMLStreamReader xsr = XMLInputFactory.newFactory().createXMLStreamReader(new ByteArrayInputStream(document));
+        List<Item> items = new ArrayList<>();
+        try (JAXBStreamReader<Item> reader = JAXBStreamReader.newReader(new FakeUnmarshaller(), xsr, ITEM, Item.class)) {
+            reader.forEachRemaining(items::add);
+        }
+        return items;
+    }
+
+    private static byte[] write(String encoding, List<Item> items) throws Exception {
+        Marshaller m = new FakeContext().createMarshaller();
+        m.setProperty(Marshaller.JAXB_ENCODING, encoding);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XMLStreamWriter xsw = XMLOutputFactory.newFactory().createXMLStreamWriter(out, encoding);
+        try (JAXBStreamWriter w = JAXBStreamWriter.newWriter(m, xsw, ITEMS)) {
+            for (Item item : items) {
+                w.write(item);
+            }
+            assertEquals(items.size(), w.getCount());
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void roundTripInUtf8() throws Exception {
+        List<Item> items = items(10);
+        byte[] document = write("UTF-8", items);
+        assertTrue(new String(document, StandardCharsets.UTF_8).startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"));
+        assertEquals(items, read(document));
+    }
+
+    @Test
+    public void declarationNamesTheEncodingOfTheMarshaller() throws Exception {
+        List<Item> items = items(3);
+        byte[] document = write("ISO-8859-1", items);
+        String xml = new String(document, StandardCharsets.ISO_8859_1);
+        assertTrue(xml, xml.startsWith("<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>"));
+        assertTrue(xml, xml.contains("café 0"));
+        // parsed with the declared encoding rather than UTF-8
+        assertEquals(items, read(document));
+    }
+
+    @Test
+    public void namespacesAreDeclaredOnceOnTheWrapper() throws Exception {
+        StringWriter out = new StringWriter();
+        XMLStreamWriter xsw = XMLOutputFactory.newFactory().createXMLStreamWriter(out);
+        try (JAXBStreamWriter w = JAXBStreamWriter.newWriter(new FakeContext().createMarshaller(), xsw,
+                ITEMS, Collections.singletonMap("o", "urn:other"))) {
+            w.write(new Item(ITEM));
+            w.write(new Item(ITEM));
+        }
+        String xml = out.toString();
+        assertEquals(xml, xml.indexOf("xmlns:t="), xml.lastIndexOf("xmlns:t="));
+        assertTrue(xml, xml.contains("xmlns:o=\"urn:other\""));
+        assertTrue(xml, xml.endsWith("<t:item></t:item><t:item></t:item></t:items>"));
+    }
+
+    @Test
+    public void marshallerIsSwitchedToFragmentMode() throws Exception {
+        FakeMarshaller m = new FakeMarshaller();
+        JAXBStreamWriter.newWriter(m, XMLOutputFactory.newFactory().createXMLStreamWriter(new StringWriter()), ITEMS);
+        assertEquals(Boolean.TRUE, m.getProperty(Marshaller.JAXB_FRAGMENT));
+    }
+
+    @Test
+    public void writerIsFlushedEveryBatch() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XMLStreamWriter xsw = XMLOutputFactory.newFactory().createXMLStreamWriter(out, "UTF-8");
+        JAXBStreamWriter w = JAXBStreamWriter.newWriter(new FakeContext().createMarshaller(), xsw, ITEMS);
+        w.setBatchSize(2);
+        w.write(new Item(ITEM));
+        int afterOne = out.size();
+        w.write(new Item(ITEM));
+        assertTrue(out.size() > afterOne);
+        w.close();
+    }
+
+    @Test
+    public void writeAfterCloseThrows() throws Exception {
+        JAXBStreamWriter w = JAXBStreamWriter.newWriter(new FakeContext().createMarshaller(),
+                XMLOutputFactory.newFactory().createXMLStreamWriter(new StringWriter()), ITEMS);
+        w.close();
+        w.close();
+        try {
+            w.write(new Item(ITEM));
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @Test
+    public void illegalArgumentsAreRejected() throws Exception {
+        Marshaller m = new FakeContext().createMarshaller();
+        XMLStreamWriter xsw = XMLOutputFactory.newFactory().createXMLStreamWriter(new StringWriter());
+        assertRejected(() -> JAXBStreamWriter.newWriter(null, xsw, ITEMS));
+        assertRejected(() -> JAXBStreamWriter.newWriter(m, null, ITEMS));
+        assertRejected(() -> JAXBStreamWriter.newWriter(m, xsw, null));
+        assertRejected(() -> JAXBStreamWriter.newWriter(m, xsw, ITEMS, null));
+        JAXBStreamWriter w = JAXBStreamWriter.newWriter(m, xsw, ITEMS);
+        assertRejected(() -> w.write(null));
+        assertRejected(() -> w.setBatchSize(0));
+    }
+
+    private interface Call {
+        void run() throws JAXBException;
+    }
+
+    private static void assertRejected(Call call) throws JAXBException {
+        try {
+            call.run();
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.ValidationEvent;
+import javax.xml.bind.helpers.DefaultValidationEventHandler;
+import javax.xml.bind.helpers.ValidationEventImpl;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import jaxb.test.fake.FakeContext;
+import jaxb.test.fake.Item;
+import jaxb.test.jfr.ObjectFactory;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Tests that the API records its flight recorder events while a recording
+ * with the events enabled is running.
+ */
+public class JfrEventsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Recording recording;
+
+    private List<RecordedEvent> recorded;
+
+    @Before
+    public void setUp() {
+        recording = new Recording();
+        recording.enable("javax.xml.bind.ContextCreated");
+        recording.enable("javax.xml.bind.Marshal");
+        recording.enable("javax.xml.bind.Unmarshal");
+        recording.enable("javax.xml.bind.Validation");
+        recording.start();
+    }
+
+    @After
+    public void tearDown() {
+        recording.close();
+    }
+
+    @Test
+    public void contextCreatedFromClasses() throws Exception {
+        JAXBContext.newInstance(ObjectFactory.class);
+
+        RecordedEvent event = single(events("javax.xml.bind.ContextCreated"));
+        assertEquals("jaxb.properties", event.getString("discovery"));
+        assertEquals(FakeContext.class.getName(), event.getString("provider"));
+        assertEquals(null, event.getString("contextPath"));
+        assertEquals(1, event.getInt("classCount"));
+    }
+
+    @Test
+    public void contextCreatedFromContextPath() throws Exception {
+        JAXBContext.newInstance("jaxb.test.jfr");
+
+        RecordedEvent event = single(events("javax.xml.bind.ContextCreated"));
+        assertEquals("jaxb.properties", event.getString("discovery"));
+        assertEquals(FakeContext.class.getName(), event.getString("provider"));
+        assertEquals("jaxb.test.jfr", event.getString("contextPath"));
+        // the ObjectFactory found in the package
+        assertEquals(1, event.getInt("classCount"));
+    }
+
+    @Test
+    public void marshalAndUnmarshal() throws Exception {
+        JAXBContext context = new FakeContext();
+        Marshaller m = context.createMarshaller();
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        m.marshal(new Item("a").text("text"), os);
+        context.createUnmarshaller().unmarshal(new ByteArrayInputStream(os.toByteArray()));
+
+        RecordedEvent marshal = single(events("javax.xml.bind.Marshal"));
+        assertEquals(Item.class.getName(), marshal.getClass("type").getName());
+        assertEquals(os.size(), marshal.getLong("bytes"));
+
+        RecordedEvent unmarshal = single(events("javax.xml.bind.Unmarshal"));
+        assertEquals(Item.class.getName(), unmarshal.getClass("type").getName());
+        assertEquals(os.size(), unmarshal.getLong("bytes"));
+    }
+
+    @Test
+    public void validationEvents() throws Exception {
+        DefaultValidationEventHandler handler = new DefaultValidationEventHandler();
+        handler.handleEvent(new ValidationEventImpl(ValidationEvent.WARNING, "warning", null));
+        handler.handleEvent(new ValidationEventImpl(ValidationEvent.FATAL_ERROR, "fatal", null));
+
+        List<RecordedEvent> events = events("javax.xml.bind.Validation");
+        assertEquals(2, events.size());
+        assertEquals("WARNING", events.get(0).getString("severity"));
+        assertEquals("warning", events.get(0).getString("message"));
+        assertEquals("FATAL_ERROR", events.get(1).getString("severity"));
+        assertEquals("fatal", events.get(1).getString("message"));
+    }
+
+    @Test
+    public void nothingIsRecordedWhenDisabled() throws Exception {
+        recording.disable("javax.xml.bind.ContextCreated");
+        JAXBContext.newInstance(ObjectFactory.class);
+        assertTrue(events("javax.xml.bind.ContextCreated").isEmpty());
+    }
+
+    /**
+     * Returns the events of the given type, in order. The first call stops
+     * the recording.
+     */
+    private List<RecordedEvent> events(String name) throws Exception {
+        if (recorded == null) {
+            recording.stop();
+            Path file = folder.newFile("recording.jfr").toPath();
+            recording.dump(file);
+            recorded = RecordingFile.readAllEvents(file);
+            recorded.sort((a, b) -> a.getStartTime().compareTo(b.getStartTime()));
+        }
+        List<RecordedEvent> events = new ArrayList<>();
+        for (RecordedEvent event : recorded) {
+            if (event.getEventType().getName().equals(name)) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events) {
+        assertEquals(events.toString(), 1, events.size());
+        return events.get(0);
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import org.junit.Test;
+
+import javax.xml.bind.helpers.LatencyHistogram;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*
+ * Tests of LatencyHistogram. The bucket of a value is observed through the
+ * median of that value and Long.MAX_VALUE, which is the highest value of the
+ * bucket of the lower one.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void smallValuesAreExact() {
+        for (long v = 0; v < 32; v++) {
+            assertEquals(v, highestValueOfBucket(v));
+        }
+    }
+
+    @Test
+    public void bucketsAreAtMostOneSixteenthWide() {
+        Random random = new Random(42);
+        List<Long> values = new ArrayList<>();
+        for (int bits = 5; bits < 63; bits++) {
+            values.add(1L << bits);
+            values.add((1L << bits) - 1);
+            values.add((1L << bits) + 1);
+            values.add((1L << bits) + random.nextInt(1 << 4) * (1L << Math.max(0, bits - 4)));
+        }
+        for (int i = 0; i < 1000; i++) {
+            values.add(random.nextLong() >>> (1 + random.nextInt(62)));
+        }
+        for (long v : values) {
+            long highest = highestValueOfBucket(v);
+            assertTrue(v + " in bucket up to " + highest, highest >= v);
+            assertTrue(v + " in bucket up to " + highest, highest - v <= v / 16);
+        }
+    }
+
+    @Test
+    public void bucketsAreContiguous() {
+        int buckets = 32;
+        long v = 32;
+        while (true) {
+            long highest = highestValueOfBucket(v);
+            assertEquals(highest, highestValueOfBucket(highest));
+            buckets++;
+            if (highest == Long.MAX_VALUE) {
+                break;
+            }
+            // the next value starts the next bucket
+            v = highest + 1;
+            assertTrue(highestValueOfBucket(v) > highest);
+        }
+        assertEquals(960, buckets);
+    }
+
+    @Test
+    public void lastBucketEndsAtMaxValue() {
+        assertEquals(Long.MAX_VALUE, highestValueOfBucket(Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, highestValueOfBucket(Long.MAX_VALUE - Long.MAX_VALUE / 32));
+    }
+
+    @Test
+    public void percentiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v = 1; v <= 100; v++) {
+            h.record(v);
+        }
+        assertEquals(100, h.getCount());
+        assertEquals(5050, h.getTotal());
+        assertEquals(50.5, h.getMean(), 0);
+        assertEquals(100, h.getMax());
+        assertEquals(1, h.getValueAtPercentile(0));
+        assertEquals(1, h.getValueAtPercentile(1));
+        // 50 and 99 are counted in buckets of 50 to 51 and 96 to 99
+        assertEquals(51, h.getValueAtPercentile(50));
+        assertEquals(99, h.getValueAtPercentile(99));
+        assertEquals(100, h.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void percentileIsBoundedByMax() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(1000);
+        assertEquals(1000, h.getValueAtPercentile(50));
+        assertEquals(1000, h.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void emptyHistogram() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getMax());
+        assertTrue(Double.isNaN(h.getMean()));
+        assertEquals(0, h.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void negativeValuesAreRecordedAsZero() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(-5);
+        assertEquals(1, h.getCount());
+        assertEquals(0, h.getTotal());
+        assertEquals(0, h.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void illegalPercentiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (double p : new double[] {-1, 100.5, Double.NaN, Double.POSITIVE_INFINITY}) {
+            try {
+                h.getValueAtPercentile(p);
+                fail(String.valueOf(p));
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void reset() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(10);
+        h.record(1 << 20);
+        h.reset();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getTotal());
+        assertEquals(0, h.getMax());
+        assertEquals(0, h.getValueAtPercentile(50));
+        h.record(7);
+        assertEquals(7, h.getMax());
+    }
+
+    @Test
+    public void concurrentRecording() throws Exception {
+        final LatencyHistogram h = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 1; i <= 10000; i++) {
+                        h.record(thread * 10000 + i);
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(80000, h.getCount());
+        assertEquals(80000L * 80001 / 2, h.getTotal());
+        assertEquals(80000, h.getMax());
+    }
+
+    private static long highestValueOfBucket(long value) {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(value);
+        h.record(Long.MAX_VALUE);
+        return h.getValueAtPercentile(50);
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import org.junit.Test;
+
+import javax.xml.bind.ValidationEvent;
+import javax.xml.bind.helpers.LoggingValidationEventHandler;
+import javax.xml.bind.helpers.ValidationEventImpl;
+import javax.xml.bind.helpers.ValidationEventLocatorImpl;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*
+ * Tests of LoggingValidationEventHandler.
+ */
+public class LoggingValidationEventHandlerTest {
+
+    private static final long HOUR = 3600 * 1000;
+
+    private final Recorder recorder = new Recorder();
+    private final Logger logger = newLogger();
+
+    private Logger newLogger() {
+        // anonymous loggers aren't kept by the log manager
+        Logger l = Logger.getAnonymousLogger();
+        l.setUseParentHandlers(false);
+        l.addHandler(recorder);
+        return l;
+    }
+
+    private static ValidationEvent event(int severity, String message) {
+        ValidationEventLocatorImpl locator = new ValidationEventLocatorImpl();
+        locator.setLineNumber(12);
+        locator.setColumnNumber(3);
+        return new ValidationEventImpl(severity, message, locator);
+    }
+
+    @Test
+    public void warningsContinueAndErrorsStop() {
+        LoggingValidationEventHandler h = new LoggingValidationEventHandler(logger, 10, HOUR);
+        assertTrue(h.handleEvent(event(ValidationEvent.WARNING, "w")));
+        assertFalse(h.handleEvent(event(ValidationEvent.ERROR, "e")));
+        assertFalse(h.handleEvent(event(ValidationEvent.FATAL_ERROR, "f")));
+        assertEquals(1, h.getWarningCount());
+        assertEquals(1, h.getErrorCount());
+        assertEquals(1, h.getFatalErrorCount());
+
+        assertEquals(3, recorder.records.size());
+        assertEquals(Level.WARNING, recorder.records.get(0).getLevel());
+        assertEquals(Level.SEVERE, recorder.records.get(1).getLevel());
+        assertEquals(Level.SEVERE, recorder.records.get(2).getLevel());
+    }
+
+    @Test
+    public void recordsAreRenderedWhenPublished() {
+        LoggingValidationEventHandler h = new LoggingValidationEventHandler(logger, 10, HOUR);
+        h.handleEvent(event(ValidationEvent.ERROR, "unexpected element"));
+        LogRecord r = recorder.records.get(0);
+        assertEquals(logger.getName(), r.getLoggerName());
+        assertEquals(LoggingValidationEventHandler.class.getName(), r.getSourceClassName());
+        String text = recorder.text(0);
+        assertTrue(text, text.contains("unexpected element"));
+        assertTrue(text, text.contains("12"));
+    }
+
+    @Test
+    public void eventsAboveTheRateAreSuppressed() {
+        LoggingValidationEventHandler h = new LoggingValidationEventHandler(logger, 3, HOUR);
+        for (int i = 0; i < 10; i++) {
+            h.handleEvent(event(ValidationEvent.WARNING, "w" + i));
+        }
+        assertEquals(3, recorder.records.size());
+        assertEquals(10, h.getWarningCount());
+        assertEquals(7, h.getSuppressedCount());
+
+        // each severity has its own limit
+        for (int i = 0; i < 3; i++) {
+            h.handleEvent(event(ValidationEvent.ERROR, "e" + i));
+        }
+        assertEquals(6, recorder.records.size());
+        assertEquals(7, h.getSuppressedCount());
+    }
+
+    @Test
+    public void suppressedEventsAreReportedInTheNextInterval() throws InterruptedException {
+        LoggingValidationEventHandler h = new LoggingValidationEventHandler(logger, 2, 50);
+        for (int i = 0; i < 5; i++) {
+            h.handleEvent(event(ValidationEvent.WARNING, "w" + i));
+        }
+        assertEquals(2, recorder.records.size());
+        Thread.sleep(100);
+
+        h.handleEvent(event(ValidationEvent.WARNING, "next"));
+        assertEquals(4, recorder.records.size());
+        assertTrue(recorder.text(2), recorder.text(2).contains("3"));
+        assertTrue(recorder.text(3), recorder.text(3).contains("next"));
+        assertEquals(3, h.getSuppressedCount());
+    }
+
+    @Test
+    public void zeroRateOnlyCounts() {
+        LoggingValidationEventHandler h = new LoggingValidationEventHandler(logger, 0, HOUR);
+        h.handleEvent(event(ValidationEvent.WARNING, "w"));
+        assertEquals(0, recorder.records.size());
+        assertEquals(1, h.getSuppressedCount());
+    }
+
+    @Test
+    public void eventsBelowTheLevelOfTheLoggerAreOnlyCounted() {
+        logger.setLevel(Level.SEVERE);
+        LoggingValidationEventHandler h = new LoggingValidationEventHandler(logger, 0, HOUR);
+        h.handleEvent(event(ValidationEvent.WARNING, "w"));
+        assertEquals(0, recorder.records.size());
+        assertEquals(1, h.getWarningCount());
+        assertEquals(0, h.getSuppressedCount());
+    }
+
+    @Test
+    public void suppressedEventsAreReportedWhenCountsAreReset() {
+        LoggingValidationEventHandler h = new LoggingValidationEventHandler(logger, 1, HOUR);
+        for (int i = 0; i < 4; i++) {
+            h.handleEvent(event(ValidationEvent.ERROR, "e" + i));
+        }
+        assertEquals(1, recorder.records.size());
+        h.resetCounts();
+        assertEquals(2, recorder.records.size());
+        assertEquals(Level.SEVERE, recorder.records.get(1).getLevel());
+        assertTrue(recorder.text(1), recorder.text(1).contains("3"));
+
+        // reported once
+        h.resetCounts();
+        assertEquals(2, recorder.records.size());
+    }
+
+    @Test
+    public void countsCanBeReset() {
+        LoggingValidationEventHandler h = new LoggingValidationEventHandler(logger, 0, HOUR);
+        h.handleEvent(event(ValidationEvent.WARNING, "w"));
+        h.handleEvent(event(ValidationEvent.ERROR, "e"));
+        h.resetCounts();
+        assertEquals(0, h.getWarningCount());
+        assertEquals(0, h.getErrorCount());
+        assertEquals(0, h.getSuppressedCount());
+    }
+
+    @Test
+    public void invalidArgumentsAreRejected() {
+        assertRejected("logger", () -> new LoggingValidationEventHandler(null, 1, 1));
+        assertRejected("maxEvents", () -> new LoggingValidationEventHandler(logger, -1, 1));
+        assertRejected("interval", () -> new LoggingValidationEventHandler(logger, 1, 0));
+        assertRejected("event", () -> new LoggingValidationEventHandler().handleEvent(null));
+    }
+
+    private static void assertRejected(String parameter, Runnable r) {
+        try {
+            r.run();
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().startsWith(parameter + " "));
+        }
+    }
+
+    /** Keeps the published records. */
+    private static final class Recorder extends Handler {
+        final List<LogRecord> records = new ArrayList<>();
+
+        String text(int i) {
+            LogRecord r = records.get(i);
+            return MessageFormat.format(r.getMessage(), r.getParameters());
+        }
+
+        @Override
+        public void publish(LogRecord record) {
+            records.add(record);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
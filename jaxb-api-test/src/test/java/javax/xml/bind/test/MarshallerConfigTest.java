@@ -0,0 +1,276 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import org.junit.Test;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.PropertyException;
+import javax.xml.bind.UnmarshallerHandler;
+import javax.xml.bind.ValidationEventHandler;
+import javax.xml.bind.helpers.AbstractMarshallerImpl;
+import javax.xml.bind.helpers.AbstractUnmarshallerImpl;
+import javax.xml.bind.helpers.MarshallerConfig;
+import javax.xml.bind.helpers.UnmarshallerConfig;
+import javax.xml.transform.Result;
+import java.io.UnsupportedEncodingException;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*
+ * Tests of MarshallerConfig and UnmarshallerConfig, applied to and taken
+ * from AbstractMarshallerImpl and AbstractUnmarshallerImpl, and of the
+ * standard properties of AbstractMarshallerImpl.
+ */
+public class MarshallerConfigTest {
+
+    private static final ValidationEventHandler HANDLER = event -> true;
+
+    @Test
+    public void defaultConfigIsTheConfigOfNewMarshallers() throws JAXBException {
+        MarshallerConfig config = new TestMarshaller().getConfig();
+        assertEquals(MarshallerConfig.DEFAULT.getEncoding(), config.getEncoding());
+        assertEquals(MarshallerConfig.DEFAULT.getJavaEncoding(), config.getJavaEncoding());
+        assertEquals(MarshallerConfig.DEFAULT.isFormattedOutput(), config.isFormattedOutput());
+        assertEquals(MarshallerConfig.DEFAULT.isFragment(), config.isFragment());
+        assertNull(config.getSchemaLocation());
+        assertNull(config.getNoNSSchemaLocation());
+    }
+
+    @Test
+    public void configRoundTrip() throws JAXBException {
+        MarshallerConfig config = MarshallerConfig.builder()
+                .setEncoding("ISO-8859-1")
+                .setFormattedOutput(true)
+                .setFragment(true)
+                .setSchemaLocation("urn:a a.xsd")
+                .setNoNSSchemaLocation("b.xsd")
+                .setEventHandler(HANDLER)
+                .build();
+        TestMarshaller m = new TestMarshaller();
+        m.setConfig(config);
+
+        assertEquals("ISO-8859-1", m.getProperty(Marshaller.JAXB_ENCODING));
+        assertEquals(Boolean.TRUE, m.getProperty(Marshaller.JAXB_FORMATTED_OUTPUT));
+        assertEquals(Boolean.TRUE, m.getProperty(Marshaller.JAXB_FRAGMENT));
+        assertEquals("urn:a a.xsd", m.getProperty(Marshaller.JAXB_SCHEMA_LOCATION));
+        assertEquals("b.xsd", m.getProperty(Marshaller.JAXB_NO_NAMESPACE_SCHEMA_LOCATION));
+        assertSame(HANDLER, m.getEventHandler());
+
+        MarshallerConfig copy = m.getConfig();
+        assertEquals(config.getEncoding(), copy.getEncoding());
+        assertEquals(config.getSchemaLocation(), copy.getSchemaLocation());
+        assertEquals(config.getNoNSSchemaLocation(), copy.getNoNSSchemaLocation());
+        assertTrue(copy.isFormattedOutput());
+        assertTrue(copy.isFragment());
+        assertSame(HANDLER, copy.getEventHandler());
+
+        MarshallerConfig changed = copy.toBuilder().setFragment(false).build();
+        assertFalse(changed.isFragment());
+        assertEquals("ISO-8859-1", changed.getEncoding());
+    }
+
+    @Test
+    public void configResetsEventHandlerToDefault() throws JAXBException {
+        TestMarshaller m = new TestMarshaller();
+        ValidationEventHandler initial = m.getEventHandler();
+        m.setEventHandler(HANDLER);
+        m.setConfig(MarshallerConfig.DEFAULT);
+        assertEquals(initial.getClass(), m.getEventHandler().getClass());
+    }
+
+    @Test
+    public void encodingIsResolvedWhenBuilt() throws JAXBException {
+        MarshallerConfig config = MarshallerConfig.builder().setEncoding("UTF-16").build();
+        assertEquals("UTF-16", config.getJavaEncoding());
+        try {
+            MarshallerConfig.builder().setEncoding("no-such-encoding").build();
+            fail();
+        } catch (PropertyException e) {
+            assertTrue(e.getLinkedException() instanceof UnsupportedEncodingException);
+        }
+    }
+
+    @Test
+    public void configEncodingIsNotResolvedAgain() throws Exception {
+        MarshallerConfig config = MarshallerConfig.builder().setEncoding("UTF-16").build();
+        TestMarshaller m = new TestMarshaller();
+        m.setConfig(config);
+        assertSame(config.getJavaEncoding(), m.javaEncoding("UTF-16"));
+
+        m.setProperty(Marshaller.JAXB_ENCODING, "US-ASCII");
+        assertEquals("US-ASCII", m.javaEncoding("US-ASCII"));
+        try {
+            m.javaEncoding("no-such-encoding");
+            fail();
+        } catch (UnsupportedEncodingException expected) {
+        }
+    }
+
+    @Test
+    public void setPropertyDispatchesStandardProperties() throws PropertyException {
+        TestMarshaller m = new TestMarshaller();
+        m.setProperty(Marshaller.JAXB_ENCODING, "US-ASCII");
+        m.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+        m.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+        m.setProperty(Marshaller.JAXB_SCHEMA_LOCATION, "urn:a a.xsd");
+        m.setProperty(Marshaller.JAXB_NO_NAMESPACE_SCHEMA_LOCATION, "b.xsd");
+
+        assertEquals("US-ASCII", m.getProperty(Marshaller.JAXB_ENCODING));
+        assertEquals(Boolean.TRUE, m.getProperty(Marshaller.JAXB_FORMATTED_OUTPUT));
+        assertEquals(Boolean.TRUE, m.getProperty(Marshaller.JAXB_FRAGMENT));
+        assertEquals("urn:a a.xsd", m.getProperty(Marshaller.JAXB_SCHEMA_LOCATION));
+        assertEquals("b.xsd", m.getProperty(Marshaller.JAXB_NO_NAMESPACE_SCHEMA_LOCATION));
+    }
+
+    @Test
+    public void setPropertyRejectsWrongTypesAndNames() {
+        TestMarshaller m = new TestMarshaller();
+        assertRejected(m, Marshaller.JAXB_ENCODING, Boolean.TRUE);
+        assertRejected(m, Marshaller.JAXB_FORMATTED_OUTPUT, "true");
+        assertRejected(m, Marshaller.JAXB_FRAGMENT, null);
+        assertRejected(m, "jaxb.unknown", "value");
+        try {
+            m.getProperty("jaxb.unknown");
+            fail();
+        } catch (PropertyException expected) {
+        }
+        try {
+            m.setProperty(null, "value");
+            fail();
+        } catch (IllegalArgumentException | PropertyException expected) {
+            assertTrue(expected instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test
+    public void builderSetPropertyChecksLikeMarshaller() throws PropertyException {
+        MarshallerConfig config = MarshallerConfig.builder()
+                .setProperty(Marshaller.JAXB_ENCODING, "US-ASCII")
+                .setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE)
+                .build();
+        assertEquals("US-ASCII", config.getEncoding());
+        assertTrue(config.isFragment());
+        try {
+            MarshallerConfig.builder().setProperty(Marshaller.JAXB_FRAGMENT, "true");
+            fail();
+        } catch (PropertyException expected) {
+        }
+        try {
+            MarshallerConfig.builder().setProperty("jaxb.unknown", "value");
+            fail();
+        } catch (PropertyException expected) {
+        }
+    }
+
+    @Test
+    public void unmarshallerConfigGoesThroughSetters() throws JAXBException {
+        TestUnmarshaller u = new TestUnmarshaller();
+        UnmarshallerConfig config = UnmarshallerConfig.builder()
+                .setValidating(true)
+                .setEventHandler(HANDLER)
+                .build();
+        u.setConfig(config);
+        assertEquals(1, u.validatingCalls);
+        assertTrue(u.isValidating());
+        assertSame(HANDLER, u.getEventHandler());
+
+        UnmarshallerConfig copy = u.getConfig();
+        assertTrue(copy.isValidating());
+        assertSame(HANDLER, copy.getEventHandler());
+
+        u.setConfig(UnmarshallerConfig.DEFAULT);
+        assertEquals(2, u.validatingCalls);
+        assertFalse(u.isValidating());
+    }
+
+    private static void assertRejected(TestMarshaller m, String name, Object value) {
+        try {
+            m.setProperty(name, value);
+            fail(name + "=" + value);
+        } catch (PropertyException expected) {
+        }
+    }
+
+    static class TestMarshaller extends AbstractMarshallerImpl {
+        @Override
+        public void marshal(Object jaxbElement, Result result) {
+            throw new UnsupportedOperationException();
+        }
+
+        String javaEncoding(String encoding) throws UnsupportedEncodingException {
+            return getJavaEncoding(encoding);
+        }
+    }
+
+    static class TestUnmarshaller extends AbstractUnmarshallerImpl {
+        int validatingCalls;
+
+        @Override
+        public void setValidating(boolean validating) throws JAXBException {
+            validatingCalls++;
+            super.setValidating(validating);
+        }
+
+        @Override
+        protected Object unmarshal(XMLReader reader, InputSource source) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object unmarshal(Node node) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public UnmarshallerHandler getUnmarshallerHandler() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
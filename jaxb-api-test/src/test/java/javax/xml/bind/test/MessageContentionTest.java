@@ -0,0 +1,135 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import org.junit.After;
+import org.junit.Test;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import jaxb.test.contention.BlockingContextFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*
+ * Threads formatting the same message of the API must not wait for one
+ * another: the parsed message is copied for each call instead of being
+ * shared behind a lock. The provider fails with an exception whose
+ * toString() blocks one thread while its message is being formatted.
+ */
+public class MessageContentionTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        BlockingContextFactory.release();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void blockedFormattingDoesNotBlockOtherThreads() throws Exception {
+        FutureTask<String> first = new FutureTask<>(new Callable<String>() {
+            @Override
+            public String call() {
+                return failure();
+            }
+        });
+        Thread blocked = new Thread(first);
+        BlockingContextFactory.block(blocked);
+        blocked.start();
+        BlockingContextFactory.awaitBlocked();
+
+        Future<String> second = executor.submit(new Callable<String>() {
+            @Override
+            public String call() {
+                return failure();
+            }
+        });
+        String message = second.get(10, TimeUnit.SECONDS);
+        assertTrue(message, message.contains(BlockingContextFactory.BlockingException.class.getName()));
+        assertTrue(!first.isDone());
+
+        BlockingContextFactory.release();
+        assertEquals(message, first.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void concurrentFormattingGivesTheSameMessage() throws Exception {
+        String expected = failure();
+        List<Future<String>> messages = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            messages.add(executor.submit(new Callable<String>() {
+                @Override
+                public String call() {
+                    String last = null;
+                    for (int j = 0; j < 100; j++) {
+                        last = failure();
+                    }
+                    return last;
+                }
+            }));
+        }
+        for (Future<String> message : messages) {
+            assertEquals(expected, message.get(30, TimeUnit.SECONDS));
+        }
+    }
+
+    private static String failure() {
+        try {
+            JAXBContext.newInstance(BlockingContextFactory.Item.class);
+            fail();
+            return null;
+        } catch (JAXBException e) {
+            return e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import jaxb.test.fake.FakeContext;
+import jaxb.test.fake.Item;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import javax.xml.bind.DataBindingException;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.UnmarshalException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.util.JAXBStreamReader;
+import javax.xml.namespace.QName;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.ref.WeakReference;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*
+ * Tests of JAXBStreamReader.newParallelReader, and of the scanner splitting
+ * the document into records.
+ */
+public class ParallelStreamReaderTest {
+
+    private static final QName ITEM = new QName("item");
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(3);
+
+    @AfterClass
+    public static void shutdown() {
+        POOL.shutdown();
+    }
+
+    private static List<Item> read(byte[] document, boolean ordered) {
+        List<Item> items = new ArrayList<>();
+        try (JAXBStreamReader<Item> reader = JAXBStreamReader.newParallelReader(new FakeContext(),
+                new ByteArrayInputStream(document), ITEM, Item.class, POOL, ordered)) {
+            reader.forEachRemaining(items::add);
+        }
+        return items;
+    }
+
+    private static List<Item> read(String document) {
+        return read(document.getBytes(StandardCharsets.UTF_8), true);
+    }
+
+    private static Item item(String id) {
+        return new Item(ITEM).attr("id", id);
+    }
+
+    private static void assertRejected(String document) {
+        assertRejected(document.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static void assertRejected(byte[] document) {
+        try {
+            read(document, true);
+            fail();
+        } catch (DataBindingException e) {
+            assertTrue(e.getCause() instanceof UnmarshalException);
+        }
+    }
+
+    @Test
+    public void recordsAreReturnedInDocumentOrder() {
+        StringBuilder sb = new StringBuilder("<items>");
+        List<Item> expected = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            sb.append("<item id='").append(i).append("'>").append(i).append("</item>\n");
+            expected.add(item(Integer.toString(i)).text(Integer.toString(i)));
+        }
+        byte[] document = sb.append("</items>").toString().getBytes(StandardCharsets.UTF_8);
+        assertEquals(expected, read(document, true));
+
+        List<Item> unordered = read(document, false);
+        Collections.sort(unordered, (a, b) -> Integer.parseInt(a.getText()) - Integer.parseInt(b.getText()));
+        assertEquals(expected, unordered);
+    }
+
+    @Test
+    public void recordsWithOtherNamesAreSkipped() {
+        assertEquals(Arrays.asList(item("1"), item("2")),
+                read("<items><item id='1'/><other><item id='x'/></other><item id='2'/></items>"));
+    }
+
+    @Test
+    public void nestedRecordsAreReturnedWhole() {
+        assertEquals(Collections.singletonList(item("1").child(new Item("item").child(new Item("item")))),
+                read("<items><item id='1'><item><item/></item></item></items>"));
+    }
+
+    @Test
+    public void selfClosingRecordsAndRoot() {
+        assertEquals(Arrays.asList(item("1"), item("2")), read("<items><item id='1'/><item id='2' /></items>"));
+        assertEquals(Collections.emptyList(), read("<items/>"));
+        assertEquals(Collections.emptyList(), read("<items a='/'/>"));
+    }
+
+    @Test
+    public void quotedDelimitersInAttributes() {
+        assertEquals(Arrays.asList(item("a>b"), item("/>"), item("'\"")),
+                read("<items x='>'><item id='a>b'/><item id=\"/>\"></item><item id=\"'&quot;\"/></items>"));
+    }
+
+    @Test
+    public void commentsAreSkipped() {
+        assertEquals(Arrays.asList(item("1").text("a"), item("2")),
+                read("<!-- <items> --><items><!-- <item id='x'/> --><item id='1'>a<!-- </item> --></item>"
+                        + "<!----><item id='2'/><!-- -- > --></items><!-- after -->"));
+    }
+
+    @Test
+    public void cdataSectionsAreSkipped() {
+        assertEquals(Arrays.asList(item("1").text("</item><item>]]"), item("2")),
+                read("<items><![CDATA[<item id='x'/>]]><item id='1'><![CDATA[</item><item>]]]]></item><item id='2'/></items>"));
+    }
+
+    @Test
+    public void processingInstructionsAreSkipped() {
+        assertEquals(Arrays.asList(item("1"), item("2")),
+                read("<?xml version='1.0'?><?pi <items>?><items><?pi <item id='x'/>?><item id='1'><?pi </item>?></item>"
+                        + "<item id='2'/></items>"));
+    }
+
+    @Test
+    public void namespaceDeclarationsOfTheRootStayInScope() {
+        assertEquals(Collections.singletonList(new Item(new QName("urn:test", "item")).attr("id", "1")),
+                readAll("<t:items xmlns:t='urn:test'><t:item id='1'/></t:items>", new QName("urn:test", "item")));
+    }
+
+    private static List<Item> readAll(String document, QName name) {
+        List<Item> items = new ArrayList<>();
+        try (JAXBStreamReader<Item> reader = JAXBStreamReader.newParallelReader(new FakeContext(),
+                new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)), name, Item.class, POOL, true)) {
+            reader.forEachRemaining(items::add);
+        }
+        return items;
+    }
+
+    @Test
+    public void utf8ByteOrderMarkIsAccepted() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+        out.write("<items><item id='é'/></items>".getBytes(StandardCharsets.UTF_8));
+        assertEquals(Collections.singletonList(item("é")), read(out.toByteArray(), true));
+    }
+
+    @Test
+    public void singleByteEncodingIsAccepted() {
+        byte[] document = "<?xml version='1.0' encoding='ISO-8859-1'?><items><item id='é'/></items>"
+                .getBytes(StandardCharsets.ISO_8859_1);
+        assertEquals(Collections.singletonList(item("é")), read(document, true));
+    }
+
+    @Test
+    public void multiByteEncodingsAreRejected() {
+        assertRejected("<?xml version='1.0' encoding='UTF-16'?><items/>");
+        assertRejected("<?xml version='1.0' encoding='Shift_JIS'?><items/>");
+        assertRejected("<?xml version='1.0' encoding='no-such-charset'?><items/>");
+        assertRejected("<?xml version='1.0' encoding='IBM037'?><items/>");
+        assertRejected("<items><item/></items>".getBytes(StandardCharsets.UTF_16));
+        assertRejected("<items><item/></items>".getBytes(Charset.forName("UTF-32BE")));
+    }
+
+    @Test
+    public void malformedDocumentsAreRejected() {
+        assertRejected("<!DOCTYPE items><items/>");
+        assertRejected("<items><!DOCTYPE x><item/></items>");
+        assertRejected("<items><item>");
+        assertRejected("<items><item id='1'/>");
+        assertRejected("<items><!-- never closed");
+        assertRejected("<items><![CDATA[ never closed");
+        assertRejected("<items><![CDAT[x]]></items>");
+        assertRejected("text<items/>");
+        assertRejected("<items><></items>");
+        assertRejected("");
+    }
+
+    @Test
+    public void recordsAreCheckedByTheParser() {
+        try {
+            read("<items><item id='1'><a></b></item></items>");
+            fail();
+        } catch (DataBindingException expected) {
+        }
+    }
+
+    @Test
+    public void unmarshallersAreReleasedOnClose() throws Exception {
+        List<WeakReference<Unmarshaller>> created = Collections.synchronizedList(new ArrayList<>());
+        JAXBContext context = new FakeContext() {
+            @Override
+            public Unmarshaller createUnmarshaller() {
+                Unmarshaller u = super.createUnmarshaller();
+                created.add(new WeakReference<>(u));
+                return u;
+            }
+        };
+        StringBuilder sb = new StringBuilder("<items>");
+        for (int i = 0; i < 100; i++) {
+            sb.append("<item/>");
+        }
+        JAXBStreamReader<Item> reader = JAXBStreamReader.newParallelReader(context,
+                new ByteArrayInputStream(sb.append("</items>").toString().getBytes(StandardCharsets.UTF_8)),
+                ITEM, Item.class, POOL, true);
+        int n = 0;
+        while (reader.hasNext()) {
+            reader.next();
+            n++;
+        }
+        reader.close();
+        assertEquals(100, n);
+        assertTrue(created.size() + " unmarshallers", created.size() <= POOL.getParallelism() * 4);
+
+        // the reader is still reachable, the threads of the pool are still alive
+        for (int i = 0; i < 20 && !allCleared(created); i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        for (WeakReference<Unmarshaller> ref : created) {
+            assertNull(ref.get());
+        }
+        assertTrue(reader.toString() != null);
+    }
+
+    private static boolean allCleared(List<WeakReference<Unmarshaller>> refs) {
+        synchronized (refs) {
+            for (WeakReference<Unmarshaller> ref : refs) {
+                if (ref.get() != null) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
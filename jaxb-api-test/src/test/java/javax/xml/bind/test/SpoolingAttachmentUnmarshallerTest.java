@@ -0,0 +1,270 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.activation.DataHandler;
+import javax.activation.DataSource;
+import javax.xml.bind.attachment.AttachmentUnmarshaller;
+import javax.xml.bind.attachment.SpoolingAttachmentUnmarshaller;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*
+ * Tests of SpoolingAttachmentUnmarshaller and of the default streaming
+ * methods of AttachmentUnmarshaller.
+ */
+public class SpoolingAttachmentUnmarshallerTest {
+
+    private static final int THRESHOLD = 100;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] content(int length) {
+        byte[] b = new byte[length];
+        for (int i = 0; i < length; i++) {
+            b[i] = (byte) (i * 31);
+        }
+        return b;
+    }
+
+    private int spooled() {
+        return folder.getRoot().list().length;
+    }
+
+    private static byte[] read(InputStream in) throws IOException {
+        try (InputStream i = in) {
+            return i.readAllBytes();
+        }
+    }
+
+    private static byte[] read(ReadableByteChannel channel) throws IOException {
+        return read(Channels.newInputStream(channel));
+    }
+
+    private static byte[] read(ByteBuffer buffer) {
+        byte[] b = new byte[buffer.remaining()];
+        buffer.duplicate().get(b);
+        return b;
+    }
+
+    private static void assertContent(byte[] expected, AttachmentUnmarshaller u, String cid) throws IOException {
+        assertArrayEquals(expected, u.getAttachmentAsByteArray(cid));
+        assertArrayEquals(expected, read(u.getAttachmentAsInputStream(cid)));
+        assertArrayEquals(expected, read(u.getAttachmentAsChannel(cid)));
+        assertArrayEquals(expected, read(u.getAttachmentAsByteBuffer(cid)));
+        assertArrayEquals(expected, read(u.getAttachmentAsDataHandler(cid).getInputStream()));
+    }
+
+    @Test
+    public void attachmentsUpToTheThresholdStayInMemory() throws IOException {
+        try (SpoolingAttachmentUnmarshaller u = new SpoolingAttachmentUnmarshaller(true, THRESHOLD, folder.getRoot().toPath())) {
+            byte[] small = content(THRESHOLD);
+            u.addAttachment("small", "image/png", new ByteArrayInputStream(small));
+            assertEquals(0, spooled());
+            assertContent(small, u, "small");
+            assertEquals("image/png", u.getAttachmentAsDataHandler("small").getContentType());
+            assertTrue(u.getAttachmentAsByteBuffer("small").isReadOnly());
+        }
+    }
+
+    @Test
+    public void attachmentsAboveTheThresholdAreSpooled() throws IOException {
+        try (SpoolingAttachmentUnmarshaller u = new SpoolingAttachmentUnmarshaller(true, THRESHOLD, folder.getRoot().toPath())) {
+            byte[] large = content(THRESHOLD + 1);
+            u.addAttachment("large", null, new ByteArrayInputStream(large));
+            assertEquals(1, spooled());
+            assertContent(large, u, "large");
+            assertEquals("application/octet-stream", u.getAttachmentAsDataHandler("large").getContentType());
+
+            byte[] huge = content(100000);
+            u.addAttachment("huge", "text/plain", new ByteArrayInputStream(huge));
+            assertEquals(2, spooled());
+            assertContent(huge, u, "huge");
+        }
+        assertEquals(0, spooled());
+    }
+
+    @Test
+    public void zeroThresholdSpoolsEverythingButEmptyAttachments() throws IOException {
+        try (SpoolingAttachmentUnmarshaller u = new SpoolingAttachmentUnmarshaller(false, 0, folder.getRoot().toPath())) {
+            u.addAttachment("empty", null, new ByteArrayInputStream(new byte[0]));
+            assertEquals(0, spooled());
+            assertContent(new byte[0], u, "empty");
+            u.addAttachment("one", null, new ByteArrayInputStream(new byte[] {1}));
+            assertEquals(1, spooled());
+            assertContent(new byte[] {1}, u, "one");
+        }
+    }
+
+    @Test
+    public void replacedAttachmentsAreDeleted() throws IOException {
+        try (SpoolingAttachmentUnmarshaller u = new SpoolingAttachmentUnmarshaller(true, THRESHOLD, folder.getRoot().toPath())) {
+            u.addAttachment("a", null, new ByteArrayInputStream(content(1000)));
+            File first = folder.getRoot().listFiles()[0];
+            byte[] second = content(2000);
+            u.addAttachment("a", null, new ByteArrayInputStream(second));
+            assertEquals(1, spooled());
+            assertFalse(first.exists());
+            assertContent(second, u, "a");
+
+            u.addAttachment("a", null, new ByteArrayInputStream(content(10)));
+            assertEquals(0, spooled());
+        }
+    }
+
+    @Test
+    public void failedSpoolingLeavesNoFile() throws IOException {
+        InputStream failing = new InputStream() {
+            private int n;
+
+            @Override
+            public int read() throws IOException {
+                if (n++ == 1000) {
+                    throw new IOException("broken");
+                }
+                return 0;
+            }
+        };
+        try (SpoolingAttachmentUnmarshaller u = new SpoolingAttachmentUnmarshaller(true, THRESHOLD, folder.getRoot().toPath())) {
+            try {
+                u.addAttachment("a", null, failing);
+                fail();
+            } catch (IOException expected) {
+            }
+            assertEquals(0, spooled());
+        }
+    }
+
+    @Test
+    public void contentIdsAreLookedUpAsCidUris() throws IOException {
+        try (SpoolingAttachmentUnmarshaller u = new SpoolingAttachmentUnmarshaller(true)) {
+            byte[] data = content(10);
+            u.addAttachment("part 1+x@example.org", null, new ByteArrayInputStream(data));
+            assertArrayEquals(data, u.getAttachmentAsByteArray("part 1+x@example.org"));
+            assertArrayEquals(data, u.getAttachmentAsByteArray("cid:part%201+x@example.org"));
+            assertTrue(u.isXOPPackage());
+            try {
+                u.getAttachmentAsByteArray("cid:other");
+                fail();
+            } catch (IllegalArgumentException expected) {
+                assertTrue(expected.getMessage(), expected.getMessage().contains("cid:other"));
+            }
+        }
+    }
+
+    @Test
+    public void addingDoesntCloseTheStream() throws IOException {
+        boolean[] closed = new boolean[1];
+        InputStream in = new ByteArrayInputStream(content(10)) {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        try (SpoolingAttachmentUnmarshaller u = new SpoolingAttachmentUnmarshaller(false)) {
+            u.addAttachment("a", null, in);
+        }
+        assertFalse(closed[0]);
+    }
+
+    @Test
+    public void negativeThresholdIsRejected() {
+        try {
+            new SpoolingAttachmentUnmarshaller(true, -1, null);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("threshold"));
+        }
+    }
+
+    @Test
+    public void defaultStreamingMethodsUseTheOriginalOnes() throws IOException {
+        byte[] data = content(50);
+        AttachmentUnmarshaller u = new AttachmentUnmarshaller() {
+            @Override
+            public DataHandler getAttachmentAsDataHandler(String cid) {
+                return new DataHandler(new DataSource() {
+                    @Override
+                    public InputStream getInputStream() {
+                        return new ByteArrayInputStream(data);
+                    }
+
+                    @Override
+                    public OutputStream getOutputStream() throws IOException {
+                        throw new IOException();
+                    }
+
+                    @Override
+                    public String getContentType() {
+                        return "application/octet-stream";
+                    }
+
+                    @Override
+                    public String getName() {
+                        return cid;
+                    }
+                });
+            }
+
+            @Override
+            public byte[] getAttachmentAsByteArray(String cid) {
+                return data.clone();
+            }
+        };
+        assertContent(data, u, "cid:a");
+    }
+}
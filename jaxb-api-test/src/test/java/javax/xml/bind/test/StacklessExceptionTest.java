@@ -0,0 +1,153 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import org.junit.Test;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.MarshalException;
+import javax.xml.bind.TypeConstraintException;
+import javax.xml.bind.UnmarshalException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Tests of the constructors of JAXBException, MarshalException,
+ * UnmarshalException and TypeConstraintException taking a
+ * writableStackTrace flag.
+ */
+public class StacklessExceptionTest {
+
+    private static final Throwable LINKED = new IllegalStateException("linked");
+
+    @Test
+    public void jaxbExceptionWithoutStackTrace() {
+        assertStackless(new JAXBException("message", "code", LINKED, false));
+    }
+
+    @Test
+    public void marshalExceptionWithoutStackTrace() {
+        assertStackless(new MarshalException("message", "code", LINKED, false));
+    }
+
+    @Test
+    public void unmarshalExceptionWithoutStackTrace() {
+        assertStackless(new UnmarshalException("message", "code", LINKED, false));
+    }
+
+    @Test
+    public void typeConstraintExceptionWithoutStackTrace() {
+        TypeConstraintException e = new TypeConstraintException("message", "code", LINKED, false);
+        assertEquals(0, e.getStackTrace().length);
+        assertEquals("message", e.getMessage());
+        assertEquals("code", e.getErrorCode());
+        assertSame(LINKED, e.getLinkedException());
+        assertTrue(e.toString(), e.toString().contains(LINKED.toString()));
+        assertNotWritable(e);
+    }
+
+    @Test
+    public void writableStackTraceIsFilledIn() {
+        assertFilledIn(new JAXBException("message", "code", LINKED, true));
+        assertFilledIn(new MarshalException("message", "code", LINKED, true));
+        assertFilledIn(new UnmarshalException("message", "code", LINKED, true));
+        assertFilledIn(new TypeConstraintException("message", "code", LINKED, true));
+    }
+
+    @Test
+    public void nullArgumentsAreKept() {
+        JAXBException e = new UnmarshalException(null, null, null, false);
+        assertNull(e.getMessage());
+        assertNull(e.getErrorCode());
+        assertNull(e.getLinkedException());
+        assertNull(e.getCause());
+        assertEquals(UnmarshalException.class.getName(), e.toString());
+    }
+
+    @Test
+    public void suppressionIsStillEnabled() {
+        JAXBException e = new JAXBException("message", "code", null, false);
+        Exception suppressed = new Exception("suppressed");
+        e.addSuppressed(suppressed);
+        assertArrayEquals(new Throwable[] {suppressed}, e.getSuppressed());
+    }
+
+    @Test
+    public void linkedExceptionCanBeReplaced() {
+        JAXBException e = new MarshalException("message", "code", LINKED, false);
+        Exception other = new Exception("other");
+        e.setLinkedException(other);
+        assertSame(other, e.getLinkedException());
+        assertSame(other, e.getCause());
+    }
+
+    private static void assertStackless(JAXBException e) {
+        assertEquals(0, e.getStackTrace().length);
+        assertEquals("message", e.getMessage());
+        assertEquals("code", e.getErrorCode());
+        assertSame(LINKED, e.getLinkedException());
+        assertSame(LINKED, e.getCause());
+        assertTrue(e.toString(), e.toString().contains(LINKED.toString()));
+        assertNotWritable(e);
+
+        // the trace has no frames of its own, but still reports the cause
+        StringWriter trace = new StringWriter();
+        e.printStackTrace(new PrintWriter(trace));
+        assertTrue(trace.toString(), trace.toString().contains("Caused by: " + LINKED));
+    }
+
+    private static void assertNotWritable(Throwable e) {
+        e.setStackTrace(new StackTraceElement[] {new StackTraceElement("C", "m", "C.java", 1)});
+        assertEquals(0, e.getStackTrace().length);
+        e.fillInStackTrace();
+        assertEquals(0, e.getStackTrace().length);
+    }
+
+    private static void assertFilledIn(Throwable e) {
+        assertTrue(e.getStackTrace().length > 0);
+        assertEquals(StacklessExceptionTest.class.getName(), e.getStackTrace()[0].getClassName());
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import org.junit.Test;
+
+import javax.activation.DataHandler;
+import javax.activation.DataSource;
+import javax.xml.bind.attachment.ThresholdAttachmentMarshaller;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*
+ * Tests of ThresholdAttachmentMarshaller.
+ */
+public class ThresholdAttachmentMarshallerTest {
+
+    private static final int THRESHOLD = 100;
+
+    private static void assertStatistics(ThresholdAttachmentMarshaller m,
+                                         long inlinedCount, long inlinedBytes, long attachedCount, long attachedBytes) {
+        assertEquals("inlined count", inlinedCount, m.getInlinedCount());
+        assertEquals("inlined bytes", inlinedBytes, m.getInlinedBytes());
+        assertEquals("attached count", attachedCount, m.getAttachedCount());
+        assertEquals("attached bytes", attachedBytes, m.getAttachedBytes());
+    }
+
+    @Test
+    public void arraysBelowTheThresholdAreInlined() {
+        Recorder m = new Recorder(THRESHOLD);
+        byte[] data = new byte[200];
+        assertNull(m.addMtomAttachment(data, 10, THRESHOLD - 1, "application/octet-stream", "", "e"));
+        assertEquals(0, m.arrays);
+        assertEquals("cid:array", m.addMtomAttachment(data, 10, THRESHOLD, "application/octet-stream", "", "e"));
+        assertEquals(1, m.arrays);
+        assertStatistics(m, 1, THRESHOLD - 1, 1, THRESHOLD);
+    }
+
+    @Test
+    public void buffersBelowTheThresholdAreInlined() {
+        Recorder m = new Recorder(THRESHOLD);
+        assertNull(m.addMtomAttachment(ByteBuffer.allocateDirect(THRESHOLD - 1), "application/octet-stream", "", "e"));
+        assertEquals("cid:handler", m.addMtomAttachment(ByteBuffer.allocateDirect(THRESHOLD), "application/octet-stream", "", "e"));
+        assertEquals("cid:array", m.addMtomAttachment(ByteBuffer.allocate(THRESHOLD), "application/octet-stream", "", "e"));
+        assertEquals(1, m.handlers);
+        assertEquals(1, m.arrays);
+        assertStatistics(m, 1, THRESHOLD - 1, 2, 2 * THRESHOLD);
+    }
+
+    @Test
+    public void filesBelowTheThresholdAreInlined() throws IOException {
+        Recorder m = new Recorder(THRESHOLD);
+        Path small = Files.createTempFile("small", ".bin");
+        Path large = Files.createTempFile("large", ".bin");
+        try {
+            Files.write(small, new byte[THRESHOLD - 1]);
+            Files.write(large, new byte[THRESHOLD]);
+            assertNull(m.addMtomAttachment(small, "application/octet-stream", "", "e"));
+            assertEquals("cid:handler", m.addMtomAttachment(large, "application/octet-stream", "", "e"));
+            assertStatistics(m, 1, THRESHOLD - 1, 1, THRESHOLD);
+        } finally {
+            Files.delete(small);
+            Files.delete(large);
+        }
+    }
+
+    @Test
+    public void dataOfUnknownSizeIsAttached() {
+        Recorder m = new Recorder(THRESHOLD);
+        assertEquals("cid:handler", m.addMtomAttachment(new DataHandler(new Source()), "", "e"));
+        assertEquals("cid:handler", m.addMtomAttachment(
+                Channels.newChannel(new ByteArrayInputStream(new byte[1])), "application/octet-stream", "", "e"));
+        assertEquals(2, m.handlers);
+        assertStatistics(m, 0, 0, 2, 0);
+    }
+
+    @Test
+    public void declinedAttachmentsAreCountedAsInlined() {
+        Recorder m = new Recorder(THRESHOLD);
+        m.decline = true;
+        assertNull(m.addMtomAttachment(new byte[THRESHOLD], 0, THRESHOLD, "application/octet-stream", "", "e"));
+        assertNull(m.addMtomAttachment(new DataHandler(new Source()), "", "e"));
+        assertStatistics(m, 2, THRESHOLD, 0, 0);
+    }
+
+    @Test
+    public void zeroThresholdAttachesEverything() {
+        Recorder m = new Recorder(0);
+        assertEquals("cid:array", m.addMtomAttachment(new byte[0], 0, 0, "application/octet-stream", "", "e"));
+        assertStatistics(m, 0, 0, 1, 0);
+    }
+
+    @Test
+    public void statisticsCanBeReset() {
+        Recorder m = new Recorder(THRESHOLD);
+        m.addMtomAttachment(new byte[1], 0, 1, "application/octet-stream", "", "e");
+        m.addMtomAttachment(new byte[THRESHOLD], 0, THRESHOLD, "application/octet-stream", "", "e");
+        m.resetStatistics();
+        assertStatistics(m, 0, 0, 0, 0);
+    }
+
+    @Test
+    public void defaults() {
+        Recorder m = new Recorder();
+        assertEquals(ThresholdAttachmentMarshaller.DEFAULT_THRESHOLD, m.getThreshold());
+        assertTrue(m.isXOPPackage());
+    }
+
+    @Test
+    public void negativeThresholdIsRejected() {
+        try {
+            new Recorder(-1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("threshold"));
+        }
+    }
+
+    /** Counts the calls to the attach methods. */
+    private static final class Recorder extends ThresholdAttachmentMarshaller {
+        int arrays;
+        int handlers;
+        boolean decline;
+
+        Recorder() {
+        }
+
+        Recorder(long threshold) {
+            super(threshold);
+        }
+
+        @Override
+        protected String attach(DataHandler data, String elementNamespace, String elementLocalName) {
+            handlers++;
+            return decline ? null : "cid:handler";
+        }
+
+        @Override
+        protected String attach(byte[] data, int offset, int length, String mimeType,
+                                String elementNamespace, String elementLocalName) {
+            arrays++;
+            return decline ? null : "cid:array";
+        }
+
+        @Override
+        public String addSwaRefAttachment(DataHandler data) {
+            return "cid:swaref";
+        }
+    }
+
+    /** Data source whose size is unknown. */
+    private static final class Source implements DataSource {
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(new byte[10]);
+        }
+
+        @Override
+        public OutputStream getOutputStream() throws IOException {
+            throw new IOException();
+        }
+
+        @Override
+        public String getContentType() {
+            return "application/octet-stream";
+        }
+
+        @Override
+        public String getName() {
+            return "source";
+        }
+    }
+}
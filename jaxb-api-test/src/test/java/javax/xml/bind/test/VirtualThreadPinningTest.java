@@ -0,0 +1,133 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.test;
+
+import jaxb.test.pinning.PinningProbe;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Checks that the virtual threads parking during the static initialization
+ * and the discovery of the API are not pinned to their carrier by a monitor
+ * of the API. PinningProbe runs in a new JVM with -Djdk.tracePinnedThreads,
+ * which prints the stack of each pinned thread, marking the frames holding
+ * a monitor with "<== monitors".
+ *
+ * Skipped before JDK 21, and on JDKs which do not trace the canary of the
+ * probe, as monitors stopped pinning virtual threads in JDK 24.
+ */
+public class VirtualThreadPinningTest {
+
+    private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(60);
+
+    @Test
+    public void discoveryDoesNotPinVirtualThreads() throws Exception {
+        String version = System.getProperty("java.specification.version");
+        Assume.assumeTrue("virtual threads need JDK 21", !version.startsWith("1.") && Integer.parseInt(version) >= 21);
+
+        List<String> output = runProbe();
+        assertTrue("probe failed:\n" + output, output.contains(PinningProbe.DONE));
+
+        boolean traced = false;
+        List<String> pinned = new ArrayList<>();
+        for (String line : output) {
+            if (line.contains("<== monitors")) {
+                if (line.contains(PinningProbe.class.getName())) {
+                    traced = true;
+                } else if (line.contains("javax.xml.bind.")) {
+                    pinned.add(line.trim());
+                }
+            }
+        }
+        Assume.assumeTrue("pinned threads are not traced", traced);
+        assertEquals("monitors of the API held by parked virtual threads:\n" + output, new ArrayList<String>(), pinned);
+    }
+
+    /**
+     * Runs the probe with the modules and the class path of the tests.
+     */
+    private static List<String> runProbe() throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-Djdk.tracePinnedThreads=short");
+        String upgradePath = System.getProperty("jdk.module.upgrade.path");
+        if (upgradePath != null) {
+            command.add("--upgrade-module-path");
+            command.add(upgradePath);
+        }
+        String modulePath = System.getProperty("jdk.module.path");
+        if (modulePath != null) {
+            command.add("--module-path");
+            command.add(modulePath);
+        }
+        if (upgradePath != null || modulePath != null) {
+            command.add("--add-modules");
+            command.add("java.xml.bind");
+            command.add("--add-reads");
+            command.add("java.xml.bind=ALL-UNNAMED");
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(PinningProbe.class.getName());
+
+        Process probe = new ProcessBuilder(command).redirectErrorStream(true).start();
+        List<String> output = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(probe.getInputStream(), Charset.defaultCharset()))) {
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                output.add(line);
+            }
+        }
+        assertTrue("probe still running after " + TIMEOUT + " ms", probe.waitFor(TIMEOUT, TimeUnit.MILLISECONDS));
+        assertEquals("exit status of the probe:\n" + output, 0, probe.exitValue());
+        return output;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package jaxb.test.contention;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBContextFactory;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Provider which cannot be instantiated, failing with an exception whose
+ * {@code toString()} blocks in the thread set with {@link #block(Thread)}
+ * until {@link #release()}. The message of the {@code JAXBException}
+ * reporting the failure includes it, so that thread stops while the API
+ * formats the message.
+ */
+public class BlockingContextFactory implements JAXBContextFactory {
+
+    private static volatile Thread blocked;
+    private static volatile CountDownLatch entered = new CountDownLatch(1);
+    private static volatile CountDownLatch released = new CountDownLatch(1);
+
+    /**
+     * Blocks the given thread the next time it formats the exception.
+     */
+    public static void block(Thread thread) {
+        entered = new CountDownLatch(1);
+        released = new CountDownLatch(1);
+        blocked = thread;
+    }
+
+    /**
+     * Waits for the blocked thread to be formatting the exception.
+     */
+    public static void awaitBlocked() throws InterruptedException {
+        entered.await();
+    }
+
+    /**
+     * Lets the blocked thread go on.
+     */
+    public static void release() {
+        blocked = null;
+        released.countDown();
+    }
+
+    public BlockingContextFactory() throws BlockingException {
+        throw new BlockingException();
+    }
+
+    @Override
+    public JAXBContext createContext(Class<?>[] classesToBeBound, Map<String, ?> properties) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JAXBContext createContext(String contextPath, ClassLoader classLoader, Map<String, ?> properties) {
+        throw new UnsupportedOperationException();
+    }
+
+    public static class BlockingException extends Exception {
+        @Override
+        public String toString() {
+            if (Thread.currentThread() == blocked) {
+                entered.countDown();
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.toString();
+        }
+    }
+
+    /**
+     * Bound class, whose package configures this provider.
+     */
+    public static class Item {}
+}
@@ -0,0 +1,238 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package jaxb.test.fake;
+
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.MarshalException;
+import javax.xml.bind.helpers.AbstractMarshallerImpl;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Result;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.sax.SAXResult;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stax.StAXResult;
+import java.util.HashMap;
+import java.util.Map;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Marshaller of {@link FakeContext}. Elements in a namespace are written
+ * with the prefix of their name, declared where it is not in scope.
+ */
+public class FakeMarshaller extends AbstractMarshallerImpl {
+
+    private int marshalled;
+
+    /**
+     * @return the number of objects marshalled so far
+     */
+    public int getMarshalled() {
+        return marshalled;
+    }
+
+    @Override
+    public void marshal(Object jaxbElement, Result result) throws JAXBException {
+        try {
+            if (result instanceof SAXResult) {
+                write(jaxbElement, ((SAXResult) result).getHandler());
+            } else if (result instanceof StAXResult && ((StAXResult) result).getXMLStreamWriter() != null) {
+                marshal(jaxbElement, ((StAXResult) result).getXMLStreamWriter());
+            } else {
+                TransformerHandler h = ((SAXTransformerFactory) SAXTransformerFactory.newInstance()).newTransformerHandler();
+                h.getTransformer().setOutputProperty(OutputKeys.ENCODING, getEncoding());
+                h.getTransformer().setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, isFragment() ? "yes" : "no");
+                h.getTransformer().setOutputProperty(OutputKeys.INDENT, isFormattedOutput() ? "yes" : "no");
+                h.setResult(result);
+                write(jaxbElement, h);
+            }
+        } catch (SAXException | TransformerException e) {
+            throw new MarshalException(e);
+        }
+    }
+
+    @Override
+    public void marshal(Object jaxbElement, XMLStreamWriter writer) throws JAXBException {
+        try {
+            if (!isFragment()) {
+                writer.writeStartDocument();
+            }
+            write(item(jaxbElement), name(jaxbElement), writer, new HashMap<String, String>());
+            if (!isFragment()) {
+                writer.writeEndDocument();
+            }
+            marshalled++;
+        } catch (XMLStreamException e) {
+            throw new MarshalException(e);
+        }
+    }
+
+    @Override
+    public void marshal(Object jaxbElement, XMLEventWriter writer) throws JAXBException {
+        try {
+            XMLEventFactory f = XMLEventFactory.newFactory();
+            if (!isFragment()) {
+                writer.add(f.createStartDocument());
+            }
+            write(item(jaxbElement), name(jaxbElement), writer, f);
+            if (!isFragment()) {
+                writer.add(f.createEndDocument());
+            }
+            marshalled++;
+        } catch (XMLStreamException e) {
+            throw new MarshalException(e);
+        }
+    }
+
+    private void write(Object jaxbElement, ContentHandler handler) throws SAXException {
+        if (!isFragment()) {
+            handler.startDocument();
+        }
+        write(item(jaxbElement), name(jaxbElement), handler, new HashMap<String, String>());
+        if (!isFragment()) {
+            handler.endDocument();
+        }
+        marshalled++;
+    }
+
+    private static Item item(Object jaxbElement) {
+        Object value = jaxbElement instanceof JAXBElement ? ((JAXBElement<?>) jaxbElement).getValue() : jaxbElement;
+        if (!(value instanceof Item)) {
+            throw new IllegalArgumentException(String.valueOf(value));
+        }
+        return (Item) value;
+    }
+
+    private static QName name(Object jaxbElement) {
+        return jaxbElement instanceof JAXBElement ? ((JAXBElement<?>) jaxbElement).getName() : ((Item) jaxbElement).getName();
+    }
+
+    private static void write(Item item, QName name, ContentHandler h, Map<String, String> scope) throws SAXException {
+        String prefix = name.getPrefix();
+        String uri = name.getNamespaceURI();
+        boolean declare = !uri.equals(scope.containsKey(prefix) ? scope.get(prefix) : "");
+        Map<String, String> inner = scope;
+        if (declare) {
+            inner = new HashMap<>(scope);
+            inner.put(prefix, uri);
+            h.startPrefixMapping(prefix, uri);
+        }
+        String qName = prefix.isEmpty() ? name.getLocalPart() : prefix + ':' + name.getLocalPart();
+        AttributesImpl atts = new AttributesImpl();
+        for (Map.Entry<String, String> a : item.getAttributes().entrySet()) {
+            atts.addAttribute("", a.getKey(), a.getKey(), "CDATA", a.getValue());
+        }
+        h.startElement(uri, name.getLocalPart(), qName, atts);
+        String text = item.getText();
+        h.characters(text.toCharArray(), 0, text.length());
+        for (Item child : item.getChildren()) {
+            write(child, child.getName(), h, inner);
+        }
+        h.endElement(uri, name.getLocalPart(), qName);
+        if (declare) {
+            h.endPrefixMapping(prefix);
+        }
+    }
+
+    /**
+     * Relies on the namespace context of the writer, as implementations do.
+     */
+    private static void write(Item item, QName name, XMLEventWriter w, XMLEventFactory f) throws XMLStreamException {
+        String prefix = name.getPrefix();
+        String uri = name.getNamespaceURI();
+        String bound = w.getNamespaceContext().getNamespaceURI(prefix);
+        w.add(f.createStartElement(prefix, uri, name.getLocalPart()));
+        if (!uri.equals(bound == null ? "" : bound)) {
+            if (prefix.isEmpty()) {
+                w.add(f.createNamespace(uri));
+                w.setDefaultNamespace(uri);
+            } else {
+                w.add(f.createNamespace(prefix, uri));
+                w.setPrefix(prefix, uri);
+            }
+        }
+        for (Map.Entry<String, String> a : item.getAttributes().entrySet()) {
+            w.add(f.createAttribute(a.getKey(), a.getValue()));
+        }
+        if (!item.getText().isEmpty()) {
+            w.add(f.createCharacters(item.getText()));
+        }
+        for (Item child : item.getChildren()) {
+            write(child, child.getName(), w, f);
+        }
+        w.add(f.createEndElement(prefix, uri, name.getLocalPart()));
+    }
+
+    private static void write(Item item, QName name, XMLStreamWriter w, Map<String, String> scope) throws XMLStreamException {
+        String prefix = name.getPrefix();
+        String uri = name.getNamespaceURI();
+        // like implementations, reuse the bindings of the writer
+        String bound = w.getNamespaceContext().getNamespaceURI(prefix);
+        boolean declare = !uri.equals(scope.containsKey(prefix) ? scope.get(prefix) : bound == null ? "" : bound);
+        Map<String, String> inner = scope;
+        w.writeStartElement(prefix, name.getLocalPart(), uri);
+        if (declare) {
+            inner = new HashMap<>(scope);
+            inner.put(prefix, uri);
+            if (prefix.equals(XMLConstants.DEFAULT_NS_PREFIX)) {
+                w.writeDefaultNamespace(uri);
+            } else {
+                w.writeNamespace(prefix, uri);
+            }
+        }
+        for (Map.Entry<String, String> a : item.getAttributes().entrySet()) {
+            w.writeAttribute(a.getKey(), a.getValue());
+        }
+        w.writeCharacters(item.getText());
+        for (Item child : item.getChildren()) {
+            write(child, child.getName(), w, inner);
+        }
+        w.writeEndElement();
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package jaxb.test.fake;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.UnmarshalException;
+import javax.xml.bind.UnmarshallerHandler;
+import javax.xml.bind.helpers.AbstractUnmarshallerImpl;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Source;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXResult;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import org.w3c.dom.Node;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Unmarshaller of {@link FakeContext}, binding any element to an {@link Item}.
+ */
+public class FakeUnmarshaller extends AbstractUnmarshallerImpl {
+
+    private int unmarshalled;
+
+    /**
+     * @return the number of objects unmarshalled so far
+     */
+    public int getUnmarshalled() {
+        return unmarshalled;
+    }
+
+    @Override
+    protected Object unmarshal(XMLReader reader, InputSource source) throws JAXBException {
+        Handler handler = new Handler();
+        reader.setContentHandler(handler);
+        try {
+            reader.parse(source);
+        } catch (IOException | SAXException e) {
+            throw new UnmarshalException(e);
+        }
+        return handler.getResult();
+    }
+
+    @Override
+    public Object unmarshal(Node node) throws JAXBException {
+        return unmarshal(new DOMSource(node), Item.class).getValue();
+    }
+
+    @Override
+    public <T> JAXBElement<T> unmarshal(Source source, Class<T> expectedType) throws JAXBException {
+        Handler handler = new Handler();
+        try {
+            TransformerFactory.newInstance().newTransformer().transform(source, new SAXResult(handler));
+        } catch (TransformerException e) {
+            throw new UnmarshalException(e);
+        }
+        Item item = handler.getResult();
+        return new JAXBElement<T>(item.getName(), expectedType, expectedType.cast(item));
+    }
+
+    @Override
+    public Object unmarshal(XMLStreamReader reader) throws JAXBException {
+        return unmarshal(reader, Item.class).getValue();
+    }
+
+    @Override
+    public <T> JAXBElement<T> unmarshal(XMLStreamReader reader, Class<T> expectedType) throws JAXBException {
+        try {
+            if (reader.getEventType() == XMLStreamConstants.START_DOCUMENT) {
+                reader.nextTag();
+            }
+            if (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+                throw new UnmarshalException("not at a start tag: " + reader.getEventType());
+            }
+            Item item = read(reader);
+            // after the end tag, as the unmarshallers of JAXB implementations
+            if (reader.hasNext()) {
+                reader.next();
+            }
+            unmarshalled++;
+            return new JAXBElement<T>(item.getName(), expectedType, expectedType.cast(item));
+        } catch (XMLStreamException e) {
+            throw new UnmarshalException(e);
+        }
+    }
+
+    private static Item read(XMLStreamReader reader) throws XMLStreamException {
+        Item item = new Item(reader.getName());
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (reader.getAttributeNamespace(i) == null || reader.getAttributeNamespace(i).isEmpty()) {
+                item.attr(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+            }
+        }
+        while (true) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    item.child(read(reader));
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    item.text(reader.getText());
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    return item;
+                default:
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public UnmarshallerHandler getUnmarshallerHandler() {
+        return new Handler();
+    }
+
+    private class Handler extends DefaultHandler implements UnmarshallerHandler {
+        private final Deque<Item> open = new ArrayDeque<>();
+        private Item result;
+
+        @Override
+        public void startDocument() {
+            open.clear();
+            result = null;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) {
+            String prefix = qName.indexOf(':') < 0 ? "" : qName.substring(0, qName.indexOf(':'));
+            Item item = new Item(new QName(uri, localName, prefix));
+            for (int i = 0; i < atts.getLength(); i++) {
+                if (atts.getURI(i).isEmpty() && !atts.getQName(i).startsWith("xmlns")) {
+                    item.attr(atts.getLocalName(i), atts.getValue(i));
+                }
+            }
+            if (!open.isEmpty()) {
+                open.peek().child(item);
+            }
+            open.push(item);
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (!open.isEmpty()) {
+                open.peek().text(new String(ch, start, length));
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            Item item = open.pop();
+            if (open.isEmpty()) {
+                result = item;
+                unmarshalled++;
+            }
+        }
+
+        @Override
+        public Item getResult() {
+            if (result == null) {
+                throw new IllegalStateException("no element");
+            }
+            return result;
+        }
+    }
+}
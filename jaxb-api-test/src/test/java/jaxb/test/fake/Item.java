@@ -0,0 +1,134 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package jaxb.test.fake;
+
+import javax.xml.namespace.QName;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Element bound by {@link FakeContext}: a name, unqualified attributes,
+ * text and child elements. Text made only of whitespace is dropped.
+ */
+public final class Item {
+
+    private final QName name;
+    private final Map<String, String> attributes = new LinkedHashMap<>();
+    private final StringBuilder text = new StringBuilder();
+    private final List<Item> children = new ArrayList<>();
+
+    public Item(String localName) {
+        this(new QName(localName));
+    }
+
+    public Item(QName name) {
+        this.name = name;
+    }
+
+    public Item attr(String name, String value) {
+        attributes.put(name, value);
+        return this;
+    }
+
+    public Item text(String text) {
+        this.text.append(text);
+        return this;
+    }
+
+    public Item child(Item child) {
+        children.add(child);
+        return this;
+    }
+
+    public QName getName() {
+        return name;
+    }
+
+    public String getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    public Map<String, String> getAttributes() {
+        return Collections.unmodifiableMap(attributes);
+    }
+
+    public String getText() {
+        return text.toString().trim().isEmpty() ? "" : text.toString();
+    }
+
+    public List<Item> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Item)) {
+            return false;
+        }
+        Item other = (Item) o;
+        // the prefix of QName is not compared
+        return name.equals(other.name)
+                && attributes.equals(other.attributes)
+                && getText().equals(other.getText())
+                && children.equals(other.children);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, attributes, getText(), children);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("<").append(name);
+        for (Map.Entry<String, String> a : attributes.entrySet()) {
+            sb.append(' ').append(a.getKey()).append("=\"").append(a.getValue()).append('"');
+        }
+        sb.append('>').append(getText());
+        for (Item c : children) {
+            sb.append(c);
+        }
+        return sb.append("</>").toString();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package jaxb.test.pinning;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBContextFactory;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.Validator;
+import java.util.Map;
+
+/**
+ * Provider which sleeps while it is instantiated and while it creates a
+ * context, which parks a virtual thread in the middle of the discovery.
+ */
+public class ParkingContextFactory implements JAXBContextFactory {
+
+    public ParkingContextFactory() throws InterruptedException {
+        Thread.sleep(PinningProbe.PARK_MILLIS);
+    }
+
+    @Override
+    public JAXBContext createContext(Class<?>[] classesToBeBound, Map<String, ?> properties) throws JAXBException {
+        try {
+            Thread.sleep(PinningProbe.PARK_MILLIS);
+        } catch (InterruptedException e) {
+            throw new JAXBException(e);
+        }
+        return new JAXBContext() {
+            @Override
+            public Unmarshaller createUnmarshaller() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Marshaller createMarshaller() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Validator createValidator() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public JAXBContext createContext(String contextPath, ClassLoader classLoader, Map<String, ?> properties) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Bound class, whose package configures this provider.
+     */
+    public static class Item {}
+}
@@ -0,0 +1,125 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package jaxb.test.pinning;
+
+import javax.xml.bind.DatatypeConverter;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+
+import jaxb.test.pinning.failing.FailingContextFactory;
+import jaxb.test.stress.BlockingDatatypeFactory;
+
+/**
+ * Runs the static initialization and the discovery of the API on virtual
+ * threads which park at each step: while the default converter of
+ * {@link DatatypeConverter} is initialized, while a provider is instantiated
+ * and creates a context, and while the message of a discovery failure is
+ * formatted. Meant to be run with {@code -Djdk.tracePinnedThreads}, on JDK 21
+ * or later, by {@code VirtualThreadPinningTest}.
+ *
+ * A canary thread also parks holding a monitor, to show that pinned threads
+ * are traced. Prints {@link #DONE} if no thread failed.
+ */
+public final class PinningProbe {
+
+    public static final long PARK_MILLIS = 10;
+    public static final String DONE = "probe done";
+
+    private static final int THREADS = 4;
+    private static final Object CANARY = new Object();
+
+    private PinningProbe() {}
+
+    public static void main(String[] args) throws Exception {
+        // parks in the initialization of the default converter
+        System.setProperty("javax.xml.datatype.DatatypeFactory", BlockingDatatypeFactory.class.getName());
+
+        Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+        ThreadFactory factory = (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+
+        final List<Throwable> failures = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        threads.add(factory.newThread(() -> {
+            synchronized (CANARY) {
+                park();
+            }
+        }));
+        for (int t = 0; t < THREADS; t++) {
+            threads.add(factory.newThread(() -> {
+                try {
+                    DatatypeConverter.parseInt("42");
+                    JAXBContext.newInstance(ParkingContextFactory.Item.class);
+                    try {
+                        JAXBContext.newInstance(FailingContextFactory.Item.class);
+                        throw new AssertionError("no failure");
+                    } catch (JAXBException expected) {
+                        // FailingContextFactory.ParkingException in the message
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        for (Throwable e : failures) {
+            e.printStackTrace(System.out);
+        }
+        if (failures.isEmpty()) {
+            System.out.println(DONE);
+        }
+    }
+
+    private static void park() {
+        try {
+            Thread.sleep(PARK_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
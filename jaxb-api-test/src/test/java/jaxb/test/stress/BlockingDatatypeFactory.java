@@ -0,0 +1,140 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package jaxb.test.stress;
+
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.Duration;
+import javax.xml.datatype.XMLGregorianCalendar;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.GregorianCalendar;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Datatype factory which holds the thread creating it until another thread
+ * is done, or for at most {@link #MAX_WAIT} ms, so that a thread initializing
+ * {@code DatatypeConverterImpl} can be stopped in the middle of it.
+ *
+ * Selected with the {@code javax.xml.datatype.DatatypeFactory} system property;
+ * the methods delegate to the default factory.
+ */
+public class BlockingDatatypeFactory extends DatatypeFactory {
+
+    public static final long MAX_WAIT = 100;
+
+    private static volatile CountDownLatch created = new CountDownLatch(1);
+    private static volatile CountDownLatch released = new CountDownLatch(1);
+
+    private final DatatypeFactory delegate = DatatypeFactory.newDefaultInstance();
+
+    public BlockingDatatypeFactory() throws InterruptedException {
+        created.countDown();
+        released.await(MAX_WAIT, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Prepares the next instance.
+     */
+    public static void reset() {
+        created = new CountDownLatch(1);
+        released = new CountDownLatch(1);
+    }
+
+    /**
+     * Waits until a thread is creating an instance.
+     *
+     * @return false if no instance was created in time
+     */
+    public static boolean awaitCreation(long timeout) throws InterruptedException {
+        return created.await(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lets the thread creating an instance go on.
+     */
+    public static void release() {
+        released.countDown();
+    }
+
+    @Override
+    public Duration newDuration(String lexicalRepresentation) {
+        return delegate.newDuration(lexicalRepresentation);
+    }
+
+    @Override
+    public Duration newDuration(long durationInMilliSeconds) {
+        return delegate.newDuration(durationInMilliSeconds);
+    }
+
+    @Override
+    public Duration newDuration(boolean isPositive, BigInteger years, BigInteger months, BigInteger days,
+                                BigInteger hours, BigInteger minutes, BigDecimal seconds) {
+        return delegate.newDuration(isPositive, years, months, days, hours, minutes, seconds);
+    }
+
+    @Override
+    public XMLGregorianCalendar newXMLGregorianCalendar() {
+        return delegate.newXMLGregorianCalendar();
+    }
+
+    @Override
+    public XMLGregorianCalendar newXMLGregorianCalendar(String lexicalRepresentation) {
+        return delegate.newXMLGregorianCalendar(lexicalRepresentation);
+    }
+
+    @Override
+    public XMLGregorianCalendar newXMLGregorianCalendar(GregorianCalendar cal) {
+        return delegate.newXMLGregorianCalendar(cal);
+    }
+
+    @Override
+    public XMLGregorianCalendar newXMLGregorianCalendar(BigInteger year, int month, int day, int hour,
+                                                        int minute, int second, BigDecimal fractionalSecond,
+                                                        int timezone) {
+        return delegate.newXMLGregorianCalendar(year, month, day, hour, minute, second, fractionalSecond, timezone);
+    }
+
+    @Override
+    public XMLGregorianCalendar newXMLGregorianCalendar(int year, int month, int day, int hour,
+                                                        int minute, int second, int millisecond, int timezone) {
+        return delegate.newXMLGregorianCalendar(year, month, day, hour, minute, second, millisecond, timezone);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package jaxb.test.stress;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBContextFactory;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.UnmarshallerHandler;
+import javax.xml.bind.Validator;
+import javax.xml.bind.helpers.AbstractMarshallerImpl;
+import javax.xml.bind.helpers.AbstractUnmarshallerImpl;
+import javax.xml.namespace.QName;
+import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+/**
+ * Provider of contexts binding a single class, whose marshallers and
+ * unmarshallers fail if they are given another class, so that a context
+ * used for the wrong class is detected.
+ */
+public class StressContextFactory implements JAXBContextFactory {
+
+    public static final AtomicInteger CREATED = new AtomicInteger();
+
+    @Override
+    public JAXBContext createContext(Class<?>[] classesToBeBound, Map<String, ?> properties) throws JAXBException {
+        CREATED.incrementAndGet();
+        return new StressContext(classesToBeBound[0]);
+    }
+
+    @Override
+    public JAXBContext createContext(String contextPath, ClassLoader classLoader, Map<String, ?> properties) throws JAXBException {
+        throw new UnsupportedOperationException();
+    }
+
+    public static class StressContext extends JAXBContext {
+        private final Class<?> type;
+
+        StressContext(Class<?> type) {
+            this.type = type;
+        }
+
+        public Class<?> getType() {
+            return type;
+        }
+
+        @Override
+        public Unmarshaller createUnmarshaller() throws JAXBException {
+            return new AbstractUnmarshallerImpl() {
+                @Override
+                public <T> JAXBElement<T> unmarshal(Source source, Class<T> expectedType) throws JAXBException {
+                    check(expectedType);
+                    try {
+                        return new JAXBElement<T>(new QName("item"), expectedType, expectedType.newInstance());
+                    } catch (ReflectiveOperationException e) {
+                        throw new JAXBException(e);
+                    }
+                }
+
+                @Override
+                protected Object unmarshal(XMLReader reader, InputSource source) throws JAXBException {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public Object unmarshal(Node node) throws JAXBException {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public UnmarshallerHandler getUnmarshallerHandler() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public Marshaller createMarshaller() throws JAXBException {
+            return new AbstractMarshallerImpl() {
+                @Override
+                public void marshal(Object jaxbElement, Result result) throws JAXBException {
+                    check(jaxbElement instanceof JAXBElement
+                          ? ((JAXBElement<?>) jaxbElement).getDeclaredType() : jaxbElement.getClass());
+                }
+            };
+        }
+
+        @Override
+        public Validator createValidator() throws JAXBException {
+            throw new UnsupportedOperationException();
+        }
+
+        private void check(Class<?> actual) {
+            if (actual != type) {
+                throw new AssertionError("context of " + type.getName() + " used for " + actual.getName());
+            }
+        }
+    }
+}
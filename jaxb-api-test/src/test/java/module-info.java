@@ -43,6 +43,10 @@
  */
 module java.xml.bind.tests {
     requires java.xml.bind;
+    requires java.xml.bind.flow;
     requires java.logging;
+    requires jdk.jfr;
     requires junit;
+
+    provides javax.xml.bind.helpers.BindingMetrics with jaxb.test.metrics.TestBindingMetrics;
 }
\ No newline at end of file
@@ -56,6 +56,7 @@ import java.util.StringTokenizer;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.xml.bind.helpers.BindingMetrics;
 
 
 /**
@@ -87,6 +88,14 @@ class ContextFinder {
     // previous value of JAXBContext.JAXB_CONTEXT_FACTORY, using also this to ensure backwards compatibility
     private static final String JAXB_CONTEXT_FACTORY_DEPRECATED = "javax.xml.bind.context.factory";
 
+    // how the provider was found, as recorded in context creation events
+    private static final String JAXB_PROPERTIES = "jaxb.properties";
+    private static final String SYSTEM_PROPERTY = "system property";
+    private static final String SERVICE_LOADER = "ServiceLoader";
+    private static final String SERVICES_RESOURCE = "META-INF/services";
+    private static final String OSGI = "OSGi";
+    private static final String PLATFORM_DEFAULT = "platform default";
+
     private static final Logger logger;
 
     static {
@@ -249,6 +258,21 @@ class ContextFinder {
         }
     }
 
+    /**
+     * Reports the creation of a context to the flight recorder and the metrics provider.
+     */
+    private static JAXBContext created(Object event, long start, String discovery,
+                                       String contextPath, Class<?>[] classes, JAXBContext context) {
+        BindingMetrics metrics = BindingMetrics.getInstance();
+        try {
+            metrics.contextCreated(context, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            // the context was created, a failing provider must not lose it
+            logger.log(Level.WARNING, Messages.format(Messages.METRICS_FAILED, metrics.getClass().getName()), e);
+        }
+        return JfrEvents.contextCreated(event, discovery, contextPath, classes, context);
+    }
+
     private static Object instantiateProviderIfNecessary(final Class<?> implClass) throws JAXBException {
         try {
             if (JAXBContextFactory.class.isAssignableFrom(implClass)) {
@@ -322,6 +346,9 @@ class ContextFinder {
             throw new JAXBException(Messages.format(Messages.NO_PACKAGE_IN_CONTEXTPATH));
         }
 
+        Object event = JfrEvents.beginContextCreation();
+        long start = System.nanoTime();
+
         //ModuleUtil is mr-jar class, scans context path for jaxb classes on jdk9 and higher
         Class[] contextPathClasses = ModuleUtil.getClassesFromContextPath(contextPath, classLoader);
 
@@ -333,39 +360,48 @@ class ContextFinder {
         }
 
         if (factoryClassName != null) {
-            return newInstance(contextPath, contextPathClasses, factoryClassName, classLoader, properties);
+            return created(event, start, JAXB_PROPERTIES, contextPath, contextPathClasses,
+                    newInstance(contextPath, contextPathClasses, factoryClassName, classLoader, properties));
         }
 
 
         String factoryName = classNameFromSystemProperties();
-        if (factoryName != null) return newInstance(contextPath, contextPathClasses, factoryName, classLoader, properties);
+        if (factoryName != null) return created(event, start, SYSTEM_PROPERTY, contextPath, contextPathClasses,
+                newInstance(contextPath, contextPathClasses, factoryName, classLoader, properties));
 
         JAXBContextFactory obj = ServiceLoaderUtil.firstByServiceLoader(
                 JAXBContextFactory.class, logger, EXCEPTION_HANDLER);
 
         if (obj != null) {
             ModuleUtil.delegateAddOpensToImplModule(contextPathClasses, obj.getClass());
-            return obj.createContext(contextPath, classLoader, properties);
+            return created(event, start, SERVICE_LOADER, contextPath, contextPathClasses,
+                    obj.createContext(contextPath, classLoader, properties));
         }
 
         // to ensure backwards compatibility
         factoryName = firstByServiceLoaderDeprecated(JAXBContext.class, classLoader);
-        if (factoryName != null) return newInstance(contextPath, contextPathClasses, factoryName, classLoader, properties);
+        if (factoryName != null) return created(event, start, SERVICES_RESOURCE, contextPath, contextPathClasses,
+                newInstance(contextPath, contextPathClasses, factoryName, classLoader, properties));
 
         Class ctxFactory = (Class) ServiceLoaderUtil.lookupUsingOSGiServiceLoader(
                 "javax.xml.bind.JAXBContext", logger);
 
         if (ctxFactory != null) {
-            return newInstance(contextPath, contextPathClasses, ctxFactory, classLoader, properties);
+            return created(event, start, OSGI, contextPath, contextPathClasses,
+                    newInstance(contextPath, contextPathClasses, ctxFactory, classLoader, properties));
         }
 
         // else no provider found
         logger.fine("Trying to create the platform default provider");
-        return newInstance(contextPath, contextPathClasses, PLATFORM_DEFAULT_FACTORY_CLASS, classLoader, properties);
+        return created(event, start, PLATFORM_DEFAULT, contextPath, contextPathClasses,
+                newInstance(contextPath, contextPathClasses, PLATFORM_DEFAULT_FACTORY_CLASS, classLoader, properties));
     }
 
     static JAXBContext find(Class<?>[] classes, Map<String, ?> properties) throws JAXBException {
 
+        Object event = JfrEvents.beginContextCreation();
+        long start = System.nanoTime();
+
         // search for jaxb.properties in the class loader of each class first
         logger.fine("Searching jaxb.properties");
         for (final Class c : classes) {
@@ -388,37 +424,43 @@ class ContextFinder {
                                 jaxbPropertiesUrl,
                                 JAXBContext.JAXB_CONTEXT_FACTORY, JAXB_CONTEXT_FACTORY_DEPRECATED);
 
-                return newInstance(classes, properties, factoryClassName);
+                return created(event, start, JAXB_PROPERTIES, null, classes,
+                        newInstance(classes, properties, factoryClassName));
             }
 
         }
 
         String factoryClassName = classNameFromSystemProperties();
-        if (factoryClassName != null) return newInstance(classes, properties, factoryClassName);
+        if (factoryClassName != null) return created(event, start, SYSTEM_PROPERTY, null, classes,
+                newInstance(classes, properties, factoryClassName));
 
         JAXBContextFactory factory =
                 ServiceLoaderUtil.firstByServiceLoader(JAXBContextFactory.class, logger, EXCEPTION_HANDLER);
 
         if (factory != null) {
             ModuleUtil.delegateAddOpensToImplModule(classes, factory.getClass());
-            return factory.createContext(classes, properties);
+            return created(event, start, SERVICE_LOADER, null, classes,
+                    factory.createContext(classes, properties));
         }
 
         // to ensure backwards compatibility
         String className = firstByServiceLoaderDeprecated(JAXBContext.class, getContextClassLoader());
-        if (className != null) return newInstance(classes, properties, className);
+        if (className != null) return created(event, start, SERVICES_RESOURCE, null, classes,
+                newInstance(classes, properties, className));
 
         logger.fine("Trying to create the platform default provider");
         Class ctxFactoryClass =
                 (Class) ServiceLoaderUtil.lookupUsingOSGiServiceLoader("javax.xml.bind.JAXBContext", logger);
 
         if (ctxFactoryClass != null) {
-            return newInstance(classes, properties, ctxFactoryClass);
+            return created(event, start, OSGI, null, classes,
+                    newInstance(classes, properties, ctxFactoryClass));
         }
 
         // else no provider found
         logger.fine("Trying to create the platform default provider");
-        return newInstance(classes, properties, PLATFORM_DEFAULT_FACTORY_CLASS);
+        return created(event, start, PLATFORM_DEFAULT, null, classes,
+                newInstance(classes, properties, PLATFORM_DEFAULT_FACTORY_CLASS));
     }
 
 
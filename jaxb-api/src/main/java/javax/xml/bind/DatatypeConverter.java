@@ -40,6 +40,7 @@
 
 package javax.xml.bind;
 
+import java.util.concurrent.locks.ReentrantLock;
 import javax.xml.namespace.NamespaceContext;
 
 /**
@@ -111,6 +112,8 @@ final public class DatatypeConverter {
     // delegate to this instance of DatatypeConverter
     private static volatile DatatypeConverterInterface theConverter = null;
 
+    private static final ReentrantLock CONVERTER_LOCK = new ReentrantLock();
+
     private final static JAXBPermission SET_DATATYPE_CONVERTER_PERMISSION =
                            new JAXBPermission("setDatatypeConverter");
 
@@ -147,12 +150,29 @@ final public class DatatypeConverter {
             SecurityManager sm = System.getSecurityManager();
             if (sm != null)
                 sm.checkPermission(SET_DATATYPE_CONVERTER_PERMISSION);
-            theConverter = converter;
+            // a thread may have initialized the default converter meanwhile
+            setIfAbsent(converter);
         }
     }
 
-    private static synchronized void initConverter() {
-        theConverter = new DatatypeConverterImpl();
+    private static void initConverter() {
+        // the default converter is initialized outside the lock, as loading
+        // its class looks up a DatatypeFactory, which may read jars
+        setIfAbsent(DatatypeConverterImpl.theInstance);
+    }
+
+    private static void setIfAbsent( DatatypeConverterInterface converter ) {
+        // a lock rather than a monitor, not to pin the carrier of a virtual thread
+        CONVERTER_LOCK.lock();
+        try {
+            // checked again under the lock, not to replace a converter
+            // set by setDatatypeConverter or by another thread
+            if (theConverter == null) {
+                theConverter = converter;
+            }
+        } finally {
+            CONVERTER_LOCK.unlock();
+        }
     }
     
     /**
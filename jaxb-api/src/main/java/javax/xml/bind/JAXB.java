@@ -41,6 +41,7 @@
 package javax.xml.bind;
 
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.helpers.BindingMetrics;
 import javax.xml.namespace.QName;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
@@ -59,6 +60,8 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Class that defines convenience methods for common, simple use of JAXB.
@@ -146,9 +149,12 @@ public final class JAXB {
         WeakReference<Cache> c = cache;
         if(c!=null) {
             Cache d = c.get();
-            if(d!=null && d.type==type)
+            if(d!=null && d.type==type) {
+                cacheLookup(true);
                 return d.context;
+            }
         }
+        cacheLookup(false);
 
         // overwrite the cache
         Cache d = new Cache(type);
@@ -157,6 +163,19 @@ public final class JAXB {
         return d.context;
     }
 
+    /**
+     * Reports a lookup of {@link #cache} to the metrics provider.
+     */
+    private static void cacheLookup(boolean hit) {
+        BindingMetrics metrics = BindingMetrics.getInstance();
+        try {
+            metrics.cacheLookup(hit);
+        } catch (RuntimeException e) {
+            Logger.getLogger("javax.xml.bind").log(Level.WARNING,
+                Messages.format(Messages.METRICS_FAILED, metrics.getClass().getName()), e);
+        }
+    }
+
     /**
      * Reads in a Java object tree from the given XML input.
      *
@@ -122,6 +122,30 @@ public class JAXBException extends Exception {
         this.errorCode = errorCode;
         this.linkedException = exception;
     }
+
+    /**
+     * Construct a JAXBException with the specified detail message, vendor
+     * specific errorCode, and linkedException, optionally without a stack trace.
+     *
+     * <p>
+     * Filling in the stack trace is by far the most expensive part of creating
+     * an exception. Code which creates many exceptions only to catch and discard
+     * them, such as lenient processing of invalid documents, can create them
+     * without a stack trace. The detail message, errorCode and linkedException
+     * are kept, but {@link #getStackTrace()} returns an empty array.
+     *
+     * @param message a description of the exception
+     * @param errorCode a string specifying the vendor specific error code
+     * @param exception the linked exception
+     * @param writableStackTrace whether or not the stack trace should be
+     *        filled in, false for a lightweight exception
+     * @since JAXB 2.3.2
+     */
+    public JAXBException(String message, String errorCode, Throwable exception, boolean writableStackTrace) {
+        super( message, null, true, writableStackTrace );
+        this.errorCode = errorCode;
+        this.linkedException = exception;
+    }
     
     /** 
      * Get the vendor specific error code
@@ -40,8 +40,7 @@
 
 package javax.xml.bind;
 
-import java.text.MessageFormat;
-import java.util.ResourceBundle;
+import javax.xml.bind.internal.MessageCatalog;
 
 /**
  * Formats error messages.
@@ -68,9 +67,11 @@ class Messages
     
     /** Loads a string resource and formats it with specified arguments. */
     static String format( String property, Object[] args ) {
-        String text = ResourceBundle.getBundle(Messages.class.getName()).getString(property);
-        return MessageFormat.format(text,args);
+        return CATALOG.format(property, args);
     }
+
+    /** Messages of this package, parsed once per locale. */
+    private static final MessageCatalog CATALOG = new MessageCatalog(Messages.class.getName());
     
 //
 //
@@ -112,4 +113,7 @@ class Messages
 
     static final String JAXB_CLASSES_NOT_OPEN = // 1 arg
             "JAXBClasses.notOpen";
+
+    static final String METRICS_FAILED = // 1 arg
+            "BindingMetrics.Failed";
 }
@@ -131,6 +131,28 @@ public class TypeConstraintException extends java.lang.RuntimeException {
         this.errorCode = errorCode;
         this.linkedException = exception;
     }
+
+    /**
+     * Construct a TypeConstraintException with the specified detail message, vendor
+     * specific errorCode, and linkedException, optionally without a stack trace.
+     *
+     * <p>
+     * Like {@link JAXBException#JAXBException(String, String, Throwable, boolean)
+     * lightweight JAXBExceptions}, lightweight TypeConstraintExceptions keep their
+     * detail message, errorCode and linkedException, but have no stack trace.
+     *
+     * @param message a description of the exception
+     * @param errorCode a string specifying the vendor specific error code
+     * @param exception the linked exception
+     * @param writableStackTrace whether or not the stack trace should be
+     *        filled in, false for a lightweight exception
+     * @since JAXB 2.3.2
+     */
+    public TypeConstraintException(String message, String errorCode, Throwable exception, boolean writableStackTrace) {
+        super( message, null, true, writableStackTrace );
+        this.errorCode = errorCode;
+        this.linkedException = exception;
+    }
     
     /** 
      * Get the vendor specific error code
@@ -113,6 +113,24 @@ public class UnmarshalException extends JAXBException {
         super( message, errorCode, exception );
     }
 
+    /**
+     * Construct an UnmarshalException with the specified detail message, vendor
+     * specific errorCode, and linkedException, optionally without a stack trace.
+     *
+     * <p>
+     * See {@link JAXBException#JAXBException(String, String, Throwable, boolean)}.
+     *
+     * @param message a description of the exception
+     * @param errorCode a string specifying the vendor specific error code
+     * @param exception the linked exception
+     * @param writableStackTrace whether or not the stack trace should be
+     *        filled in, false for a lightweight exception
+     * @since JAXB 2.3.2
+     */
+    public UnmarshalException(String message, String errorCode, Throwable exception, boolean writableStackTrace) {
+        super( message, errorCode, exception, writableStackTrace );
+    }
+
 }
 
 
@@ -42,6 +42,9 @@ package javax.xml.bind.attachment;
 
 import javax.activation.DataHandler;
 import javax.xml.bind.Marshaller;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
 
 /**
  * <p>Enable JAXB marshalling to optimize storage of binary data.
@@ -167,6 +170,126 @@ public abstract class AttachmentMarshaller {
      */
     public abstract String addMtomAttachment(byte[] data, int offset, int length, String mimeType, String elementNamespace, String elementLocalName);
 
+    /**
+     * <p>Consider the remaining bytes of {@code data} for optimized binary storage as an attachment.
+     *
+     * <p>This overload lets binary content stay where it is, for instance in a direct
+     * or memory-mapped buffer, instead of being copied into a {@code byte[]}.
+     * The position of {@code data} is not changed.
+     *
+     * <p>The default implementation passes the backing array of a heap buffer to
+     * {@link #addMtomAttachment(byte[], int, int, String, String, String)} and
+     * wraps any other buffer into a {@link DataHandler} passed to
+     * {@link #addMtomAttachment(DataHandler, String, String)}, whose streams read
+     * the buffer without copying it as a whole. MIME-based package processors able
+     * to write a buffer directly should override this method.
+     *
+     * @param data
+     *      represents the data to be attached, from its position to its limit. Must be non-null.
+     *
+     * @param mimeType
+     *      If the data has an associated MIME type known to JAXB, that is passed
+     *      as this parameter. If none is known, "application/octet-stream".
+     *      This parameter may never be null.
+     *
+     * @param elementNamespace
+     *      the namespace URI of the element that encloses the base64Binary data.
+     *      Can be empty but never null.
+     *
+     * @param elementLocalName
+     *      The local name of the element. Always a non-null valid string.
+     *
+     * @return content-id URI, cid, to the attachment containing
+     *         {@code data} or null if data should be inlined.
+     *
+     * @see #addMtomAttachment(DataHandler, String, String)
+     * @since JAXB 2.3.2
+     */
+    public String addMtomAttachment(ByteBuffer data, String mimeType, String elementNamespace, String elementLocalName) {
+        if (data.hasArray()) {
+            return addMtomAttachment(data.array(), data.arrayOffset() + data.position(), data.remaining(),
+                                     mimeType, elementNamespace, elementLocalName);
+        }
+        return addMtomAttachment(new DataHandler(new ByteBufferDataSource(data, mimeType)),
+                                 elementNamespace, elementLocalName);
+    }
+
+    /**
+     * <p>Consider the content read from {@code data} for optimized binary storage as an attachment.
+     *
+     * <p>This overload lets binary content be streamed, for instance from a socket or
+     * a file, without reading it into memory first. A channel can be read only once,
+     * so an implementation must not read it unless it attaches its content,
+     * and should then read it exactly once.
+     *
+     * <p>The default implementation wraps the channel into a {@link DataHandler}
+     * passed to {@link #addMtomAttachment(DataHandler, String, String)}.
+     * The channel is not closed by this method, nor when the streams of the
+     * data handler are closed.
+     *
+     * @param data
+     *      represents the data to be attached. Must be non-null.
+     *
+     * @param mimeType
+     *      If the data has an associated MIME type known to JAXB, that is passed
+     *      as this parameter. If none is known, "application/octet-stream".
+     *      This parameter may never be null.
+     *
+     * @param elementNamespace
+     *      the namespace URI of the element that encloses the base64Binary data.
+     *      Can be empty but never null.
+     *
+     * @param elementLocalName
+     *      The local name of the element. Always a non-null valid string.
+     *
+     * @return content-id URI, cid, to the attachment containing
+     *         {@code data} or null if data should be inlined.
+     *
+     * @see #addMtomAttachment(DataHandler, String, String)
+     * @since JAXB 2.3.2
+     */
+    public String addMtomAttachment(ReadableByteChannel data, String mimeType, String elementNamespace, String elementLocalName) {
+        return addMtomAttachment(new DataHandler(new ChannelDataSource(data, mimeType)),
+                                 elementNamespace, elementLocalName);
+    }
+
+    /**
+     * <p>Consider the content of the file {@code data} for optimized binary storage as an attachment.
+     *
+     * <p>This overload lets binary content be sent from a file without reading it
+     * into memory first. MIME-based package processors can transfer the file
+     * directly, for instance with {@link java.nio.channels.FileChannel#transferTo}.
+     *
+     * <p>The default implementation wraps the file into a {@link DataHandler}
+     * passed to {@link #addMtomAttachment(DataHandler, String, String)}. The file
+     * is opened each time the content of the data handler is read.
+     *
+     * @param data
+     *      the file containing the data to be attached. Must be non-null.
+     *
+     * @param mimeType
+     *      If the data has an associated MIME type known to JAXB, that is passed
+     *      as this parameter. If none is known, "application/octet-stream".
+     *      This parameter may never be null.
+     *
+     * @param elementNamespace
+     *      the namespace URI of the element that encloses the base64Binary data.
+     *      Can be empty but never null.
+     *
+     * @param elementLocalName
+     *      The local name of the element. Always a non-null valid string.
+     *
+     * @return content-id URI, cid, to the attachment containing
+     *         {@code data} or null if data should be inlined.
+     *
+     * @see #addMtomAttachment(DataHandler, String, String)
+     * @since JAXB 2.3.2
+     */
+    public String addMtomAttachment(Path data, String mimeType, String elementNamespace, String elementLocalName) {
+        return addMtomAttachment(new DataHandler(new PathDataSource(data, mimeType)),
+                                 elementNamespace, elementLocalName);
+    }
+
     /**
      * <p>Read-only property that returns true if JAXB marshaller should enable XOP creation.
      *
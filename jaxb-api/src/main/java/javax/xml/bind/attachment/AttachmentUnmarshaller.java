@@ -41,6 +41,11 @@
 package javax.xml.bind.attachment;
 
 import javax.activation.DataHandler;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 
 /**
  * <p>Enables JAXB unmarshalling of a root document containing optimized binary data formats.</p>
@@ -140,6 +145,78 @@ public abstract class AttachmentUnmarshaller {
      */
     public abstract byte[] getAttachmentAsByteArray(String cid);
 
+    /**
+     * <p>Retrieve the attachment identified by content-id, {@code cid}, as a stream.
+     *
+     * <p>Unlike {@link #getAttachmentAsByteArray(String)}, this method doesn't require
+     * the whole attachment to be held in memory. The caller is responsible for
+     * closing the returned stream.
+     *
+     * <p>The default implementation returns the stream of the
+     * {@link #getAttachmentAsDataHandler(String) data handler} of the attachment.
+     *
+     * @param cid It is expected to be a valid lexical form of the XML Schema
+     * {@code xs:anyURI} datatype. If {@link #isXOPPackage()}{@code ==true},
+     * it must be a valid URI per the {@code cid:} URI scheme (see <a href="http://www.ietf.org/rfc/rfc2387.txt">RFC 2387</a>)
+     *
+     * @return stream reading the attachment identified by cid.
+     *
+     * @throws IllegalArgumentException if the attachment for the given cid is not found.
+     * @throws IOException if the attachment can't be read.
+     * @since JAXB 2.3.2
+     */
+    public InputStream getAttachmentAsInputStream(String cid) throws IOException {
+        return getAttachmentAsDataHandler(cid).getInputStream();
+    }
+
+    /**
+     * <p>Retrieve the attachment identified by content-id, {@code cid}, as a channel.
+     *
+     * <p>Unlike {@link #getAttachmentAsByteArray(String)}, this method doesn't require
+     * the whole attachment to be held in memory. The caller is responsible for
+     * closing the returned channel.
+     *
+     * <p>The default implementation returns a channel over
+     * {@link #getAttachmentAsInputStream(String)}.
+     *
+     * @param cid It is expected to be a valid lexical form of the XML Schema
+     * {@code xs:anyURI} datatype. If {@link #isXOPPackage()}{@code ==true},
+     * it must be a valid URI per the {@code cid:} URI scheme (see <a href="http://www.ietf.org/rfc/rfc2387.txt">RFC 2387</a>)
+     *
+     * @return channel reading the attachment identified by cid.
+     *
+     * @throws IllegalArgumentException if the attachment for the given cid is not found.
+     * @throws IOException if the attachment can't be read.
+     * @since JAXB 2.3.2
+     */
+    public ReadableByteChannel getAttachmentAsChannel(String cid) throws IOException {
+        return Channels.newChannel(getAttachmentAsInputStream(cid));
+    }
+
+    /**
+     * <p>Retrieve the attachment identified by content-id, {@code cid}, as a {@link ByteBuffer}.
+     *
+     * <p>Implementations storing attachments in files or off-heap memory can
+     * return a memory-mapped or direct buffer, so that the attachment is never
+     * copied onto the heap. The content of the buffer, from its position to its
+     * limit, must not be modified by the caller.
+     *
+     * <p>The default implementation wraps {@link #getAttachmentAsByteArray(String)}.
+     *
+     * @param cid It is expected to be a valid lexical form of the XML Schema
+     * {@code xs:anyURI} datatype. If {@link #isXOPPackage()}{@code ==true},
+     * it must be a valid URI per the {@code cid:} URI scheme (see <a href="http://www.ietf.org/rfc/rfc2387.txt">RFC 2387</a>)
+     *
+     * @return buffer containing the attachment identified by cid.
+     *
+     * @throws IllegalArgumentException if the attachment for the given cid is not found.
+     * @throws IOException if the attachment can't be read.
+     * @since JAXB 2.3.2
+     */
+    public ByteBuffer getAttachmentAsByteBuffer(String cid) throws IOException {
+        return ByteBuffer.wrap(getAttachmentAsByteArray(cid));
+    }
+
     /**
      * <p>Read-only property that returns true if JAXB unmarshaller needs to perform XOP processing.</p>
      *
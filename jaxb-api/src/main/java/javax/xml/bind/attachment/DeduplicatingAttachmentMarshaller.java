@@ -0,0 +1,321 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.attachment;
+
+import javax.activation.DataHandler;
+import javax.activation.DataSource;
+import javax.activation.FileDataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link AttachmentMarshaller} attaching identical binary data only once.
+ *
+ * <p>
+ * This class decorates the attachment marshaller of a MIME-based package
+ * processor. The content of each binary data is hashed with SHA-256, and the
+ * content-id returned by the decorated attachment marshaller for that content
+ * is returned again, instead of creating another attachment, whenever the same
+ * content with the same MIME type is seen again. A document carrying the same
+ * logo or certificate many times thus carries a single copy of it.
+ *
+ * <blockquote>
+ *    <pre>
+ *       DeduplicatingAttachmentMarshaller attachments =
+ *           new DeduplicatingAttachmentMarshaller(mimeMessage.getAttachmentMarshaller());
+ *       marshaller.setAttachmentMarshaller(attachments);
+ *    </pre>
+ * </blockquote>
+ *
+ * <p>
+ * The content-ids are remembered in a cache holding the most recently used
+ * entries, up to a maximum. A content-id is only valid within the package it
+ * was created for, so the cache must be {@link #clear() cleared} whenever the
+ * decorated attachment marshaller starts a new package. It can be kept for a
+ * whole session if the content-ids remain valid that long.
+ *
+ * <p>
+ * Only content that can be read again is hashed: byte arrays, buffers,
+ * files, and data handlers over a byte array, a buffer or a file. Any other
+ * data handler may read a stream, and a {@link ReadableByteChannel} can't be
+ * read twice, so they are passed to the decorated attachment marshaller as
+ * is, as is data whose content can't be read.
+ *
+ * <p>
+ * Instances are thread-safe if the decorated attachment marshaller is.
+ *
+ * @since JAXB 2.3.2
+ */
+public final class DeduplicatingAttachmentMarshaller extends AttachmentMarshaller {
+
+    /**
+     * Maximum number of remembered content-ids unless configured otherwise.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** Class of the data source of data handlers created over an object. */
+    private static final String OBJECT_DATA_SOURCE = "javax.activation.DataHandlerDataSource";
+
+    private final AttachmentMarshaller delegate;
+    private final Map<String, String> cids;
+    private long hits;
+
+    /**
+     * Creates a deduplicating attachment marshaller remembering
+     * up to {@link #DEFAULT_MAX_ENTRIES} content-ids.
+     *
+     * @param delegate the attachment marshaller creating the attachments
+     * @throws IllegalArgumentException if {@code delegate} is null
+     */
+    public DeduplicatingAttachmentMarshaller(AttachmentMarshaller delegate) {
+        this(delegate, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates a deduplicating attachment marshaller.
+     *
+     * @param delegate the attachment marshaller creating the attachments
+     * @param maxEntries the maximum number of remembered content-ids, must be positive
+     * @throws IllegalArgumentException if {@code delegate} is null
+     *      or if {@code maxEntries} is not positive
+     */
+    public DeduplicatingAttachmentMarshaller(AttachmentMarshaller delegate, final int maxEntries) {
+        if (delegate == null) {
+            throw new IllegalArgumentException(Messages.format(Messages.MUST_NOT_BE_NULL, "delegate"));
+        }
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException(Messages.format(Messages.MUST_BE_POSITIVE, "maxEntries", maxEntries));
+        }
+        this.delegate = delegate;
+        this.cids = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public String addMtomAttachment(DataHandler data, String elementNamespace, String elementLocalName) {
+        String key = key("mtom", data);
+        String cid = lookup(key);
+        if (cid == null) {
+            cid = remember(key, delegate.addMtomAttachment(data, elementNamespace, elementLocalName));
+        }
+        return cid;
+    }
+
+    @Override
+    public String addMtomAttachment(byte[] data, int offset, int length, String mimeType, String elementNamespace, String elementLocalName) {
+        MessageDigest md = newDigest();
+        md.update(data, offset, length);
+        String key = key("mtom", mimeType, md);
+        String cid = lookup(key);
+        if (cid == null) {
+            cid = remember(key, delegate.addMtomAttachment(data, offset, length, mimeType, elementNamespace, elementLocalName));
+        }
+        return cid;
+    }
+
+    @Override
+    public String addMtomAttachment(ByteBuffer data, String mimeType, String elementNamespace, String elementLocalName) {
+        MessageDigest md = newDigest();
+        md.update(data.duplicate());
+        String key = key("mtom", mimeType, md);
+        String cid = lookup(key);
+        if (cid == null) {
+            cid = remember(key, delegate.addMtomAttachment(data, mimeType, elementNamespace, elementLocalName));
+        }
+        return cid;
+    }
+
+    @Override
+    public String addMtomAttachment(ReadableByteChannel data, String mimeType, String elementNamespace, String elementLocalName) {
+        return delegate.addMtomAttachment(data, mimeType, elementNamespace, elementLocalName);
+    }
+
+    @Override
+    public String addMtomAttachment(Path data, String mimeType, String elementNamespace, String elementLocalName) {
+        String key = key("mtom", mimeType, data);
+        String cid = lookup(key);
+        if (cid == null) {
+            cid = remember(key, delegate.addMtomAttachment(data, mimeType, elementNamespace, elementLocalName));
+        }
+        return cid;
+    }
+
+    @Override
+    public String addSwaRefAttachment(DataHandler data) {
+        String key = key("swaref", data);
+        String cid = lookup(key);
+        if (cid == null) {
+            cid = remember(key, delegate.addSwaRefAttachment(data));
+        }
+        return cid;
+    }
+
+    @Override
+    public boolean isXOPPackage() {
+        return delegate.isXOPPackage();
+    }
+
+    /**
+     * Forgets all the content-ids, typically when a new package is started.
+     */
+    public void clear() {
+        synchronized (cids) {
+            cids.clear();
+        }
+    }
+
+    /**
+     * Gets the number of binary data that didn't need another attachment
+     * because their content had already been attached.
+     *
+     * @return the number of deduplicated binary data
+     */
+    public long getHitCount() {
+        synchronized (cids) {
+            return hits;
+        }
+    }
+
+    private String lookup(String key) {
+        if (key == null) {
+            return null;
+        }
+        synchronized (cids) {
+            String cid = cids.get(key);
+            if (cid != null) {
+                hits++;
+            }
+            return cid;
+        }
+    }
+
+    private String remember(String key, String cid) {
+        // a null cid means the data was inlined, which must be decided again next time
+        if (key != null && cid != null) {
+            synchronized (cids) {
+                cids.put(key, cid);
+            }
+        }
+        return cid;
+    }
+
+    /**
+     * Hashes the content of a data handler if it can be read again.
+     *
+     * @return the key, or null if the content isn't hashed
+     */
+    private static String key(String kind, DataHandler data) {
+        DataSource ds = data.getDataSource();
+        if (ds instanceof ByteBufferDataSource) {
+            MessageDigest md = newDigest();
+            md.update(((ByteBufferDataSource) ds).getBuffer());
+            return key(kind, data.getContentType(), md);
+        }
+        if (ds instanceof PathDataSource) {
+            return key(kind, data.getContentType(), ((PathDataSource) ds).getPath());
+        }
+        if (ds instanceof FileDataSource) {
+            return key(kind, data.getContentType(), ((FileDataSource) ds).getFile().toPath());
+        }
+        if (OBJECT_DATA_SOURCE.equals(ds.getClass().getName())) {
+            try {
+                // the content of a data handler created over an object is that object
+                Object content = data.getContent();
+                if (content instanceof byte[]) {
+                    MessageDigest md = newDigest();
+                    md.update((byte[]) content);
+                    return key(kind, data.getContentType(), md);
+                }
+            } catch (IOException e) {
+                // not hashed
+            }
+        }
+        return null;
+    }
+
+    private static String key(String kind, String mimeType, Path file) {
+        MessageDigest md = newDigest();
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buf = new byte[8192];
+            int n;
+            while ((n = in.read(buf)) >= 0) {
+                md.update(buf, 0, n);
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return key(kind, mimeType, md);
+    }
+
+    private static String key(String kind, String mimeType, MessageDigest md) {
+        byte[] digest = md.digest();
+        StringBuilder sb = new StringBuilder(kind.length() + String.valueOf(mimeType).length() + 2 + digest.length * 2);
+        sb.append(kind).append(' ').append(mimeType).append(' ');
+        for (byte b : digest) {
+            sb.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+        }
+        return sb.toString();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every implementation of the Java platform is required to support SHA-256
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.attachment;
+
+import javax.activation.DataHandler;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link AttachmentUnmarshaller} keeping small attachments in memory
+ * and spooling larger ones to temporary files.
+ *
+ * <p>
+ * The MIME-based package processor {@link #addAttachment(String, String, InputStream) adds}
+ * the attachments of a package before unmarshalling its root part. Attachments up to
+ * the threshold are kept in memory. Larger ones are written to a temporary file as they
+ * are read, so that no attachment is ever held in memory as a whole: they are read
+ * back as streams or channels, or as memory-mapped buffers by
+ * {@link #getAttachmentAsByteBuffer(String)}. Only {@link #getAttachmentAsByteArray(String)}
+ * loads a spooled attachment onto the heap.
+ *
+ * <blockquote>
+ *    <pre>
+ *       try (SpoolingAttachmentUnmarshaller attachments = new SpoolingAttachmentUnmarshaller(true)) {
+ *           for (MimePart part : message.getAttachments()) {
+ *               attachments.addAttachment(part.getContentId(), part.getContentType(), part.getInputStream());
+ *           }
+ *           unmarshaller.setAttachmentUnmarshaller(attachments);
+ *           Object o = unmarshaller.unmarshal(message.getRootPart());
+ *       }
+ *    </pre>
+ * </blockquote>
+ *
+ * <p>
+ * With a threshold of {@link Long#MAX_VALUE}, this class is a plain
+ * in-memory attachment unmarshaller.
+ *
+ * <p>
+ * The temporary files are deleted by {@link #close()}. Attachments can be
+ * added and retrieved concurrently.
+ *
+ * @since JAXB 2.3.2
+ */
+public class SpoolingAttachmentUnmarshaller extends AttachmentUnmarshaller implements Closeable {
+
+    /**
+     * Size above which attachments are spooled unless configured otherwise.
+     */
+    public static final long DEFAULT_THRESHOLD = 64 * 1024;
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private final boolean xopPackage;
+    private final long threshold;
+    private final Path directory;
+    private final Map<String, Attachment> attachments = new ConcurrentHashMap<String, Attachment>();
+
+    /**
+     * Creates an attachment unmarshaller with the {@link #DEFAULT_THRESHOLD default threshold},
+     * spooling to the default temporary-file directory.
+     *
+     * @param xopPackage the value of {@link #isXOPPackage()}
+     */
+    public SpoolingAttachmentUnmarshaller(boolean xopPackage) {
+        this(xopPackage, DEFAULT_THRESHOLD, null);
+    }
+
+    /**
+     * Creates an attachment unmarshaller.
+     *
+     * @param xopPackage the value of {@link #isXOPPackage()}
+     * @param threshold the size in bytes above which attachments are spooled, must not be negative
+     * @param directory the directory of the temporary files, or null for the default temporary-file directory
+     * @throws IllegalArgumentException if {@code threshold} is negative
+     */
+    public SpoolingAttachmentUnmarshaller(boolean xopPackage, long threshold, Path directory) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException(Messages.format(Messages.MUST_NOT_BE_NEGATIVE, "threshold", threshold));
+        }
+        this.xopPackage = xopPackage;
+        this.threshold = threshold;
+        this.directory = directory;
+    }
+
+    /**
+     * Adds an attachment, reading {@code content} to its end.
+     *
+     * <p>
+     * The stream is not closed by this method.
+     *
+     * @param contentId the content-id of the attachment, without the enclosing angle brackets
+     * @param contentType the MIME type of the attachment, or null if unknown
+     * @param content the content of the attachment
+     * @throws IOException if the content can't be read or spooled
+     */
+    public void addAttachment(String contentId, String contentType, InputStream content) throws IOException {
+        if (contentType == null) {
+            contentType = "application/octet-stream";
+        }
+        // content reaching the limit is either above the threshold or too large for an array
+        long limit = Math.min(threshold, MAX_ARRAY_SIZE - 1) + 1;
+        byte[] buf = new byte[(int) Math.min(BUFFER_SIZE, limit)];
+        int length = 0;
+        int n;
+        while ((n = content.read(buf, length, buf.length - length)) >= 0) {
+            length += n;
+            if (length == limit) {
+                put(contentId, new Attachment(contentType, spool(buf, length, content)));
+                return;
+            }
+            if (length == buf.length) {
+                buf = Arrays.copyOf(buf, (int) Math.min((long) buf.length * 2, limit));
+            }
+        }
+        put(contentId, new Attachment(contentType, Arrays.copyOf(buf, length)));
+    }
+
+    private void put(String contentId, Attachment a) {
+        Attachment previous = attachments.put(contentId, a);
+        if (previous != null) {
+            previous.delete();
+        }
+    }
+
+    private Path spool(byte[] head, int length, InputStream content) throws IOException {
+        Path file = directory == null
+            ? Files.createTempFile("jaxb", ".att")
+            : Files.createTempFile(directory, "jaxb", ".att");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            out.write(head, 0, length);
+            byte[] buf = head.length >= BUFFER_SIZE ? head : new byte[BUFFER_SIZE];
+            int n;
+            while ((n = content.read(buf)) >= 0) {
+                out.write(buf, 0, n);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    /**
+     * Looks up an attachment, accepting both {@code cid:} URIs and plain content-ids.
+     */
+    private Attachment lookup(String cid) {
+        Attachment a = attachments.get(cid);
+        if (a == null && cid.startsWith("cid:")) {
+            String id = cid.substring(4);
+            if (id.indexOf('%') >= 0) {
+                try {
+                    // RFC 2392: the content-id is URL-encoded, where '+' stands for itself
+                    id = URLDecoder.decode(id.replace("+", "%2B"), "UTF-8");
+                } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+                    // not encoded after all
+                }
+            }
+            a = attachments.get(id);
+        }
+        if (a == null) {
+            throw new IllegalArgumentException(Messages.format(Messages.ATTACHMENT_NOT_FOUND, cid));
+        }
+        return a;
+    }
+
+    @Override
+    public DataHandler getAttachmentAsDataHandler(String cid) {
+        Attachment a = lookup(cid);
+        return a.file == null
+            ? new DataHandler(new ByteBufferDataSource(ByteBuffer.wrap(a.content), a.contentType))
+            : new DataHandler(new PathDataSource(a.file, a.contentType));
+    }
+
+    @Override
+    public byte[] getAttachmentAsByteArray(String cid) {
+        Attachment a = lookup(cid);
+        if (a.file == null) {
+            return a.content.clone();
+        }
+        try {
+            return Files.readAllBytes(a.file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public InputStream getAttachmentAsInputStream(String cid) throws IOException {
+        Attachment a = lookup(cid);
+        return a.file == null ? new ByteArrayInputStream(a.content) : Files.newInputStream(a.file);
+    }
+
+    @Override
+    public ReadableByteChannel getAttachmentAsChannel(String cid) throws IOException {
+        Attachment a = lookup(cid);
+        return a.file == null
+            ? Channels.newChannel(new ByteArrayInputStream(a.content))
+            : FileChannel.open(a.file, StandardOpenOption.READ);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * The returned buffer is read-only. Spooled attachments are mapped
+     * into memory, which requires them to be smaller than 2GB.
+     */
+    @Override
+    public ByteBuffer getAttachmentAsByteBuffer(String cid) throws IOException {
+        Attachment a = lookup(cid);
+        if (a.file == null) {
+            return ByteBuffer.wrap(a.content).asReadOnlyBuffer();
+        }
+        try (FileChannel channel = FileChannel.open(a.file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    @Override
+    public boolean isXOPPackage() {
+        return xopPackage;
+    }
+
+    /**
+     * Removes all the attachments and deletes the temporary files.
+     *
+     * <p>
+     * Buffers returned by {@link #getAttachmentAsByteBuffer(String)} must no
+     * longer be used. Files that can't be deleted, for instance because they
+     * are still mapped on some platforms, are deleted when the virtual
+     * machine terminates.
+     */
+    @Override
+    public void close() {
+        for (Attachment a : attachments.values()) {
+            a.delete();
+        }
+        attachments.clear();
+    }
+
+    private static final class Attachment {
+        final String contentType;
+        /** Content kept in memory, null if spooled. */
+        final byte[] content;
+        /** Spooled content, null if kept in memory. */
+        final Path file;
+
+        Attachment(String contentType, byte[] content) {
+            this.contentType = contentType;
+            this.content = content;
+            this.file = null;
+        }
+
+        Attachment(String contentType, Path file) {
+            this.contentType = contentType;
+            this.content = null;
+            this.file = file;
+        }
+
+        void delete() {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    file.toFile().deleteOnExit();
+                }
+            }
+        }
+    }
+}
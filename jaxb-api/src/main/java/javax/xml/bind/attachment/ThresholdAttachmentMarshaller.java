@@ -0,0 +1,264 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.attachment;
+
+import javax.activation.DataHandler;
+import javax.activation.DataSource;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link AttachmentMarshaller} inlining small binary data and attaching larger ones.
+ *
+ * <p>
+ * Sending binary data as a MIME part saves the base64 encoding and its 33%
+ * expansion, but costs a part header, a boundary and a XOP reference, as well
+ * as the bookkeeping of the MIME-based package processor. Below a few hundred
+ * bytes this costs more than it saves. This class returns null, which lets the
+ * marshaller inline the data as base64Binary, whenever the size of the data is
+ * below the threshold, and calls {@link #attach(byte[], int, int, String, String, String)}
+ * or {@link #attach(DataHandler, String, String)} otherwise.
+ *
+ * <p>
+ * The size of byte arrays, buffers, files and data handlers created by the
+ * {@code addMtomAttachment} overloads of this package is known. Other data
+ * handlers and channels are always attached, since finding their size would
+ * require reading them.
+ *
+ * <p>
+ * The numbers of inlined and attached items and bytes are recorded, so that the
+ * threshold can be tuned from actual traffic. The statistics can be read and
+ * reset while marshalling is in progress.
+ *
+ * @since JAXB 2.3.2
+ */
+public abstract class ThresholdAttachmentMarshaller extends AttachmentMarshaller {
+
+    /**
+     * Threshold used unless configured otherwise, in bytes.
+     */
+    public static final long DEFAULT_THRESHOLD = 1024;
+
+    private final long threshold;
+
+    private final AtomicLong inlinedCount = new AtomicLong();
+    private final AtomicLong inlinedBytes = new AtomicLong();
+    private final AtomicLong attachedCount = new AtomicLong();
+    private final AtomicLong attachedBytes = new AtomicLong();
+
+    /**
+     * Creates an attachment marshaller with the {@link #DEFAULT_THRESHOLD default threshold}.
+     */
+    protected ThresholdAttachmentMarshaller() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Creates an attachment marshaller.
+     *
+     * @param threshold the size in bytes from which binary data is attached, must not be negative
+     * @throws IllegalArgumentException if {@code threshold} is negative
+     */
+    protected ThresholdAttachmentMarshaller(long threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException(Messages.format(Messages.MUST_NOT_BE_NEGATIVE, "threshold", threshold));
+        }
+        this.threshold = threshold;
+    }
+
+    /**
+     * Attaches binary data whose size is unknown or not below the threshold.
+     *
+     * @param data the data to be attached
+     * @param elementNamespace the namespace URI of the element that encloses the data
+     * @param elementLocalName the local name of the element that encloses the data
+     * @return content-id URI, cid, to the attachment containing {@code data}
+     *         or null if data should be inlined after all.
+     * @see #addMtomAttachment(DataHandler, String, String)
+     */
+    protected abstract String attach(DataHandler data, String elementNamespace, String elementLocalName);
+
+    /**
+     * Attaches binary data whose size is not below the threshold.
+     *
+     * @param data the array containing the data to be attached
+     * @param offset the offset of the data within the array
+     * @param length the length of the data
+     * @param mimeType the MIME type of the data, "application/octet-stream" if unknown
+     * @param elementNamespace the namespace URI of the element that encloses the data
+     * @param elementLocalName the local name of the element that encloses the data
+     * @return content-id URI, cid, to the attachment containing {@code data}
+     *         or null if data should be inlined after all.
+     * @see #addMtomAttachment(byte[], int, int, String, String, String)
+     */
+    protected abstract String attach(byte[] data, int offset, int length, String mimeType, String elementNamespace, String elementLocalName);
+
+    /**
+     * Gets the size from which binary data is attached.
+     *
+     * @return the threshold in bytes
+     */
+    public long getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Always returns true, since there is nothing to optimize otherwise.
+     *
+     * @return true
+     */
+    @Override
+    public boolean isXOPPackage() {
+        return true;
+    }
+
+    @Override
+    public String addMtomAttachment(DataHandler data, String elementNamespace, String elementLocalName) {
+        long size = sizeOf(data);
+        if (size >= 0 && size < threshold) {
+            return inline(size);
+        }
+        return record(attach(data, elementNamespace, elementLocalName), size);
+    }
+
+    @Override
+    public String addMtomAttachment(byte[] data, int offset, int length, String mimeType, String elementNamespace, String elementLocalName) {
+        if (length < threshold) {
+            return inline(length);
+        }
+        return record(attach(data, offset, length, mimeType, elementNamespace, elementLocalName), length);
+    }
+
+    @Override
+    public String addMtomAttachment(ByteBuffer data, String mimeType, String elementNamespace, String elementLocalName) {
+        if (data.remaining() < threshold) {
+            return inline(data.remaining());
+        }
+        return super.addMtomAttachment(data, mimeType, elementNamespace, elementLocalName);
+    }
+
+    /**
+     * Gets the size of the content of a data handler, if it can be known without reading it.
+     *
+     * @return the size in bytes, or -1 if unknown
+     */
+    private static long sizeOf(DataHandler data) {
+        DataSource ds = data.getDataSource();
+        if (ds instanceof ByteBufferDataSource) {
+            return ((ByteBufferDataSource) ds).size();
+        }
+        if (ds instanceof PathDataSource) {
+            try {
+                return Files.size(((PathDataSource) ds).getPath());
+            } catch (IOException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private String inline(long size) {
+        inlinedCount.incrementAndGet();
+        inlinedBytes.addAndGet(size);
+        return null;
+    }
+
+    private String record(String cid, long size) {
+        if (cid == null) {
+            return inline(Math.max(size, 0));
+        }
+        attachedCount.incrementAndGet();
+        if (size > 0) {
+            attachedBytes.addAndGet(size);
+        }
+        return cid;
+    }
+
+    /**
+     * Gets the number of binary data inlined so far.
+     *
+     * @return the number of inlined data
+     */
+    public long getInlinedCount() {
+        return inlinedCount.get();
+    }
+
+    /**
+     * Gets the number of bytes of binary data inlined so far,
+     * before base64 encoding. Inlined data whose size is unknown
+     * is not accounted for.
+     *
+     * @return the number of inlined bytes
+     */
+    public long getInlinedBytes() {
+        return inlinedBytes.get();
+    }
+
+    /**
+     * Gets the number of attachments created so far.
+     *
+     * @return the number of attachments
+     */
+    public long getAttachedCount() {
+        return attachedCount.get();
+    }
+
+    /**
+     * Gets the number of bytes attached so far.
+     * Attachments whose size is unknown are not accounted for.
+     *
+     * @return the number of attached bytes
+     */
+    public long getAttachedBytes() {
+        return attachedBytes.get();
+    }
+
+    /**
+     * Resets all the statistics to zero.
+     */
+    public void resetStatistics() {
+        inlinedCount.set(0);
+        inlinedBytes.set(0);
+        attachedCount.set(0);
+        attachedBytes.set(0);
+    }
+}
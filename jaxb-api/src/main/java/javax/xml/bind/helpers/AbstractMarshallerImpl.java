@@ -48,6 +48,7 @@ import javax.xml.bind.annotation.adapters.XmlAdapter;
 import javax.xml.bind.attachment.AttachmentMarshaller;
 import javax.xml.stream.XMLEventWriter;
 import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.Result;
 import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.sax.SAXResult;
 import javax.xml.transform.stream.StreamResult;
@@ -83,13 +84,17 @@ public abstract class AbstractMarshallerImpl implements Marshaller
 {
     /** handler that will be used to process errors and warnings during marshal */
     private ValidationEventHandler eventHandler = 
-        new DefaultValidationEventHandler();
+        LoggingValidationEventHandler.defaultHandler();
     
     //J2SE1.4 feature
     //private Charset encoding = null;
     
     /** store the value of the encoding property. */
     private String encoding = "UTF-8";
+
+    /** last encoding resolved by getJavaEncoding, and its Java name. */
+    private String resolvedEncoding = null;
+    private String javaEncoding = null;
     
     /** store the value of the schemaLocation property. */
     private String schemaLocation = null;
@@ -107,7 +112,8 @@ public abstract class AbstractMarshallerImpl implements Marshaller
         throws JAXBException {
             
         checkNotNull( obj, "obj", os, "os" );
-        marshal( obj, new StreamResult(os) );
+        BindingOperation op = BindingOperation.beginMarshal();
+        marshal( obj, new StreamResult(BindingOperation.count(op, os)), op );
     }
 
     public void marshal(Object jaxbElement, File output) throws JAXBException {
@@ -115,7 +121,8 @@ public abstract class AbstractMarshallerImpl implements Marshaller
         try {
             OutputStream os = new BufferedOutputStream(new FileOutputStream(output));
             try {
-                marshal( jaxbElement, new StreamResult(os) );
+                BindingOperation op = BindingOperation.beginMarshal();
+                marshal( jaxbElement, new StreamResult(BindingOperation.count(op, os)), op );
             } finally {
                 os.close();
             }
@@ -128,21 +135,40 @@ public abstract class AbstractMarshallerImpl implements Marshaller
         throws JAXBException {
             
         checkNotNull( obj, "obj", w, "writer" );
-        marshal( obj, new StreamResult(w) );
+        marshal( obj, new StreamResult(w), BindingOperation.beginMarshal() );
     }
     
     public final void marshal( Object obj, org.xml.sax.ContentHandler handler ) 
         throws JAXBException {
             
         checkNotNull( obj, "obj", handler, "handler" );
-        marshal( obj, new SAXResult(handler) );
+        marshal( obj, new SAXResult(handler), BindingOperation.beginMarshal() );
     }
     
     public final void marshal( Object obj, org.w3c.dom.Node node ) 
         throws JAXBException {
             
         checkNotNull( obj, "obj", node, "node" );
-        marshal( obj, new DOMResult(node) );
+        marshal( obj, new DOMResult(node), BindingOperation.beginMarshal() );
+    }
+
+    /**
+     * Marshals {@code obj}, measuring the operation unless {@code op} is null.
+     */
+    private void marshal( Object obj, Result result, BindingOperation op )
+        throws JAXBException {
+
+        if( op == null ) {
+            marshal( obj, result );
+            return;
+        }
+        boolean succeeded = false;
+        try {
+            marshal( obj, result );
+            succeeded = true;
+        } finally {
+            op.end( obj, succeeded );
+        }
     }
     
     /**
@@ -306,6 +332,21 @@ public abstract class AbstractMarshallerImpl implements Marshaller
      *      If this implementation couldn't find the Java encoding name.
      */
     protected String getJavaEncoding( String encoding ) throws UnsupportedEncodingException {
+        // marshallers mostly resolve the same encoding over and over
+        if( javaEncoding != null && encoding.equals( resolvedEncoding ) ) {
+            return javaEncoding;
+        }
+        String resolved = toJavaEncoding( encoding );
+        resolvedEncoding = encoding;
+        javaEncoding = resolved;
+        return resolved;
+    }
+
+    /*
+     * resolves an IANA encoding name to a Java one, also used to validate
+     * the encoding of a MarshallerConfig once when it is built.
+     */
+    static String toJavaEncoding( String encoding ) throws UnsupportedEncodingException {
         try {
             "1".getBytes(encoding);
             return encoding;
@@ -343,31 +384,23 @@ public abstract class AbstractMarshallerImpl implements Marshaller
                 Messages.format( Messages.MUST_NOT_BE_NULL, "name" ) );
         }
         
-        // recognize and handle four pre-defined properties.
-        if( JAXB_ENCODING.equals(name) ) {
-            checkString( name, value );
-            setEncoding( (String)value );
-            return;
-        }
-        if( JAXB_FORMATTED_OUTPUT.equals(name) ) {
-            checkBoolean( name, value );                    
-            setFormattedOutput((Boolean) value );
-            return;
-        }
-        if( JAXB_NO_NAMESPACE_SCHEMA_LOCATION.equals(name) ) {
-            checkString( name, value );
-            setNoNSSchemaLocation( (String)value );
-            return;
-        }
-        if( JAXB_SCHEMA_LOCATION.equals(name) ) {
-            checkString( name, value );
-            setSchemaLocation( (String)value );
-            return;
-        }
-        if( JAXB_FRAGMENT.equals(name) )  {
-            checkBoolean(name, value);
-            setFragment((Boolean) value );
-            return;
+        // recognize and handle the pre-defined properties.
+        switch( name ) {
+            case JAXB_ENCODING:
+                setEncoding( checkString( name, value ) );
+                return;
+            case JAXB_FORMATTED_OUTPUT:
+                setFormattedOutput( checkBoolean( name, value ) );
+                return;
+            case JAXB_NO_NAMESPACE_SCHEMA_LOCATION:
+                setNoNSSchemaLocation( checkString( name, value ) );
+                return;
+            case JAXB_SCHEMA_LOCATION:
+                setSchemaLocation( checkString( name, value ) );
+                return;
+            case JAXB_FRAGMENT:
+                setFragment( checkBoolean( name, value ) );
+                return;
         }
 
         throw new PropertyException(name, value);
@@ -387,17 +420,19 @@ public abstract class AbstractMarshallerImpl implements Marshaller
                 Messages.format( Messages.MUST_NOT_BE_NULL, "name" ) );
         }
         
-        // recognize and handle four pre-defined properties.
-        if( JAXB_ENCODING.equals(name) )
-            return getEncoding();
-        if( JAXB_FORMATTED_OUTPUT.equals(name) )
-            return isFormattedOutput()?Boolean.TRUE:Boolean.FALSE;
-        if( JAXB_NO_NAMESPACE_SCHEMA_LOCATION.equals(name) )
-            return getNoNSSchemaLocation();
-        if( JAXB_SCHEMA_LOCATION.equals(name) )
-            return getSchemaLocation();
-        if( JAXB_FRAGMENT.equals(name) )
-            return isFragment()?Boolean.TRUE:Boolean.FALSE;
+        // recognize and handle the pre-defined properties.
+        switch( name ) {
+            case JAXB_ENCODING:
+                return getEncoding();
+            case JAXB_FORMATTED_OUTPUT:
+                return Boolean.valueOf( isFormattedOutput() );
+            case JAXB_NO_NAMESPACE_SCHEMA_LOCATION:
+                return getNoNSSchemaLocation();
+            case JAXB_SCHEMA_LOCATION:
+                return getSchemaLocation();
+            case JAXB_FRAGMENT:
+                return Boolean.valueOf( isFragment() );
+        }
 
         throw new PropertyException(name);
     }
@@ -415,31 +450,88 @@ public abstract class AbstractMarshallerImpl implements Marshaller
         throws JAXBException {
         
         if( handler == null ) {
-            eventHandler = new DefaultValidationEventHandler();
+            eventHandler = LoggingValidationEventHandler.defaultHandler();
         } else {
             eventHandler = handler;
         }
     }
 
+    /**
+     * Applies a pre-validated configuration to this marshaller.
+     *
+     * <p>
+     * All the standard properties and the event handler are replaced by
+     * the values held by {@code config}. Since the configuration has been
+     * checked when it was built, no property name is looked up and no value
+     * is re-validated, which makes this method suitable to reset pooled
+     * marshallers before each use. The Java name of the encoding, resolved
+     * by the configuration, is returned by {@link #getJavaEncoding(String)}
+     * without being resolved again.
+     *
+     * @param config the configuration to apply, must not be null
+     * @throws JAXBException if an error was encountered while setting the
+     *      event handler
+     * @see MarshallerConfig
+     * @since JAXB 2.3.2
+     */
+    public void setConfig( MarshallerConfig config ) throws JAXBException {
+        if( config == null ) {
+            throw new IllegalArgumentException(
+                Messages.format( Messages.MUST_NOT_BE_NULL, "config" ) );
+        }
+
+        setEncoding( config.getEncoding() );
+        // resolved when the configuration was built
+        resolvedEncoding = config.getEncoding();
+        javaEncoding = config.getJavaEncoding();
+        setFormattedOutput( config.isFormattedOutput() );
+        setNoNSSchemaLocation( config.getNoNSSchemaLocation() );
+        setSchemaLocation( config.getSchemaLocation() );
+        setFragment( config.isFragment() );
+        setEventHandler( config.getEventHandler() );
+    }
+
+    /**
+     * Takes an immutable snapshot of the current configuration of this
+     * marshaller.
+     *
+     * @return the current configuration, never null
+     * @throws JAXBException if the current encoding is not supported or if
+     *      an error was encountered while getting the event handler
+     * @see MarshallerConfig
+     * @since JAXB 2.3.2
+     */
+    public MarshallerConfig getConfig() throws JAXBException {
+        return MarshallerConfig.builder()
+                .setEncoding( getEncoding() )
+                .setFormattedOutput( isFormattedOutput() )
+                .setNoNSSchemaLocation( getNoNSSchemaLocation() )
+                .setSchemaLocation( getSchemaLocation() )
+                .setFragment( isFragment() )
+                .setEventHandler( getEventHandler() )
+                .build();
+    }
 
 
 
     /*
      * assert that the given object is a Boolean
      */
-    private void checkBoolean( String name, Object value ) throws PropertyException {
+    static boolean checkBoolean( String name, Object value ) throws PropertyException {
         if(!(value instanceof Boolean))
             throw new PropertyException(
                 Messages.format( Messages.MUST_BE_BOOLEAN, name ) );
+        return (Boolean)value;
     }
     
     /*
      * assert that the given object is a String
      */
-    private void checkString( String name, Object value ) throws PropertyException {
+    static String checkString( String name, Object value ) throws PropertyException {
         if(!(value instanceof String))
             throw new PropertyException(
                 Messages.format( Messages.MUST_BE_STRING, name ) );
+        return (String)value;
     }
     
     /*
@@ -87,7 +87,7 @@ public abstract class AbstractUnmarshallerImpl implements Unmarshaller
 {    
     /** handler that will be used to process errors and warnings during unmarshal */
     private ValidationEventHandler eventHandler = 
-        new DefaultValidationEventHandler();
+        LoggingValidationEventHandler.defaultHandler();
     
     /** whether or not the unmarshaller will validate */
     protected boolean validating = false;
@@ -150,7 +150,25 @@ public abstract class AbstractUnmarshallerImpl implements Unmarshaller
         if( r == null )
             r = getXMLReader();
         
-        return unmarshal( r, source.getInputSource() );
+        return unmarshal( r, source.getInputSource(), BindingOperation.beginUnmarshal() );
+    }
+
+    /**
+     * Unmarshals an object, measuring the operation unless {@code op} is null.
+     */
+    private Object unmarshal( XMLReader reader, InputSource source, BindingOperation op ) throws JAXBException {
+        if( op == null )
+            return unmarshal( reader, source );
+
+        Object result = null;
+        boolean succeeded = false;
+        try {
+            result = unmarshal( reader, source );
+            succeeded = true;
+            return result;
+        } finally {
+            op.end( result, succeeded );
+        }
     }
 
     /**
@@ -167,7 +185,7 @@ public abstract class AbstractUnmarshallerImpl implements Unmarshaller
                 Messages.format( Messages.MUST_NOT_BE_NULL, "source" ) );
         }
 
-        return unmarshal( getXMLReader(), source );
+        return unmarshal( getXMLReader(), source, BindingOperation.beginUnmarshal() );
     }
         
 
@@ -205,8 +223,9 @@ public abstract class AbstractUnmarshallerImpl implements Unmarshaller
                 Messages.format( Messages.MUST_NOT_BE_NULL, "is" ) );
         }
 
-        InputSource isrc = new InputSource( is );
-        return unmarshal( isrc );
+        BindingOperation op = BindingOperation.beginUnmarshal();
+        InputSource isrc = new InputSource( BindingOperation.count(op, is) );
+        return unmarshal( getXMLReader(), isrc, op );
     }
 
     public final Object unmarshal( Reader reader ) throws JAXBException {
@@ -264,7 +283,7 @@ public abstract class AbstractUnmarshallerImpl implements Unmarshaller
         throws JAXBException {
         
         if( handler == null ) {
-            eventHandler = new DefaultValidationEventHandler();
+            eventHandler = LoggingValidationEventHandler.defaultHandler();
         } else {
             eventHandler = handler;
         }
@@ -299,7 +318,49 @@ public abstract class AbstractUnmarshallerImpl implements Unmarshaller
     public ValidationEventHandler getEventHandler() throws JAXBException {
         return eventHandler;
     }
-    
+
+    /**
+     * Applies a configuration to this unmarshaller.
+     *
+     * <p>
+     * The validating flag and the event handler are replaced by the values
+     * held by {@code config}, which makes this method suitable to reset
+     * pooled unmarshallers before each use.
+     *
+     * @param config the configuration to apply, must not be null
+     * @throws JAXBException if an error was encountered while setting the
+     *      event handler
+     * @see UnmarshallerConfig
+     * @since JAXB 2.3.2
+     */
+    public void setConfig( UnmarshallerConfig config ) throws JAXBException {
+        if( config == null ) {
+            throw new IllegalArgumentException(
+                Messages.format( Messages.MUST_NOT_BE_NULL, "config" ) );
+        }
+
+        // through the setters, which providers may override
+        setValidating( config.isValidating() );
+        setEventHandler( config.getEventHandler() );
+    }
+
+    /**
+     * Takes an immutable snapshot of the current configuration of this
+     * unmarshaller.
+     *
+     * @return the current configuration, never null
+     * @throws JAXBException if an error was encountered while getting the
+     *      event handler
+     * @see UnmarshallerConfig
+     * @since JAXB 2.3.2
+     */
+    public UnmarshallerConfig getConfig() throws JAXBException {
+        return UnmarshallerConfig.builder()
+                .setValidating( isValidating() )
+                .setEventHandler( getEventHandler() )
+                .build();
+    }
+
     
     /**
      * Creates an UnmarshalException from a SAXException.
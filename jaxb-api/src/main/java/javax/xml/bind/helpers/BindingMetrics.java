@@ -0,0 +1,169 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.helpers;
+
+import javax.xml.bind.JAXBContext;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Service provider interface receiving measurements of binding work.
+ *
+ * <p>
+ * The API reports to the instance returned by {@link #getInstance()}:
+ * <ul>
+ *   <li>the creation of contexts by {@link JAXBContext#newInstance(Class[])} and its variants,
+ *   <li>the marshal and unmarshal operations of {@link AbstractMarshallerImpl} and
+ *       {@link AbstractUnmarshallerImpl} that end up in the provider's
+ *       {@code marshal(Object, Result)} and {@code unmarshal(XMLReader, InputSource)},
+ *   <li>the lookups of the context cache of {@link javax.xml.bind.JAXB}.
+ * </ul>
+ *
+ * <p>
+ * The instance is the first provider of this service found by {@link ServiceLoader}
+ * the first time a measurement is reported, typically through a
+ * {@code META-INF/services/javax.xml.bind.helpers.BindingMetrics} resource or a
+ * {@code provides} clause of a module declaration. If there is none, measurements
+ * are ignored, and operations aren't timed nor their bytes counted.
+ * {@link HistogramBindingMetrics} is a ready-made implementation.
+ *
+ * <p>
+ * The methods of this class do nothing. Implementations override those they need.
+ * They are called on the thread doing the work, concurrently, and must return
+ * quickly and not throw any exception. Runtime exceptions they throw are logged
+ * and do not affect the work measured.
+ *
+ * @see HistogramBindingMetrics
+ * @since JAXB 2.3.2
+ */
+public abstract class BindingMetrics {
+
+    /**
+     * Creates an instance.
+     */
+    protected BindingMetrics() {
+    }
+
+    /**
+     * Gets the instance measurements are reported to.
+     *
+     * @return the discovered provider, or an instance ignoring all measurements
+     */
+    public static BindingMetrics getInstance() {
+        BindingMetrics metrics = Holder.INSTANCE;
+        return metrics == null ? NoMetrics.INSTANCE : metrics;
+    }
+
+    /**
+     * Gets the discovered provider.
+     *
+     * @return the provider, or null if there is none
+     */
+    static BindingMetrics provider() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Reports the creation of a context.
+     *
+     * @param context the created context
+     * @param durationNanos the time spent finding the provider and creating the context
+     */
+    public void contextCreated(JAXBContext context, long durationNanos) {
+    }
+
+    /**
+     * Reports a successful marshal operation.
+     *
+     * @param type the class of the marshalled object, the declared type of a {@code JAXBElement}
+     * @param durationNanos the duration of the operation
+     * @param bytes the number of bytes written, or -1 unless written to a stream or a file
+     */
+    public void marshalled(Class<?> type, long durationNanos, long bytes) {
+    }
+
+    /**
+     * Reports a successful unmarshal operation.
+     *
+     * @param type the class of the unmarshalled object, the declared type of a {@code JAXBElement},
+     *      or null if the operation returned null
+     * @param durationNanos the duration of the operation
+     * @param bytes the number of bytes read, or -1 unless read from a stream or a file
+     */
+    public void unmarshalled(Class<?> type, long durationNanos, long bytes) {
+    }
+
+    /**
+     * Reports a lookup in the context cache of {@link javax.xml.bind.JAXB}.
+     *
+     * @param hit true if the cached context was used, false if a context was created
+     */
+    public void cacheLookup(boolean hit) {
+    }
+
+    private static final class NoMetrics extends BindingMetrics {
+        static final BindingMetrics INSTANCE = new NoMetrics();
+    }
+
+    private static final class Holder {
+        static final BindingMetrics INSTANCE = AccessController.doPrivileged(new PrivilegedAction<BindingMetrics>() {
+            @Override
+            public BindingMetrics run() {
+                Logger logger = Logger.getLogger("javax.xml.bind");
+                try {
+                    Iterator<BindingMetrics> it = ServiceLoader.load(BindingMetrics.class).iterator();
+                    if (it.hasNext()) {
+                        BindingMetrics metrics = it.next();
+                        logger.log(Level.FINE, "Reporting binding metrics to {0}", metrics.getClass().getName());
+                        return metrics;
+                    }
+                } catch (ServiceConfigurationError e) {
+                    logger.log(Level.WARNING, e.getMessage(), e);
+                }
+                return null;
+            }
+        });
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.helpers;
+
+import javax.xml.bind.JAXBElement;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures a marshal or unmarshal operation for the flight recorder and the
+ * {@link BindingMetrics} provider.
+ *
+ * <p>
+ * {@link #beginMarshal()} and {@link #beginUnmarshal()} return null when
+ * neither is interested, so that unobserved operations cost a null check.
+ */
+final class BindingOperation {
+
+    private final boolean marshal;
+    private final Object event;
+    private final BindingMetrics metrics;
+    private final long start;
+    private long bytes = -1;
+
+    private BindingOperation(boolean marshal, Object event, BindingMetrics metrics) {
+        this.marshal = marshal;
+        this.event = event;
+        this.metrics = metrics;
+        this.start = metrics == null ? 0 : System.nanoTime();
+    }
+
+    static BindingOperation beginMarshal() {
+        return begin(true, JfrEvents.beginMarshal());
+    }
+
+    static BindingOperation beginUnmarshal() {
+        return begin(false, JfrEvents.beginUnmarshal());
+    }
+
+    private static BindingOperation begin(boolean marshal, Object event) {
+        BindingMetrics metrics = BindingMetrics.provider();
+        return event == null && metrics == null ? null : new BindingOperation(marshal, event, metrics);
+    }
+
+    /**
+     * Counts the bytes written by the operation, if any.
+     *
+     * @return {@code os}, or a stream counting the bytes written to it
+     */
+    static OutputStream count(BindingOperation op, OutputStream os) {
+        if (op == null) {
+            return os;
+        }
+        op.bytes = 0;
+        return op.new CountingOutputStream(os);
+    }
+
+    /**
+     * Counts the bytes read by the operation, if any.
+     *
+     * @return {@code is}, or a stream counting the bytes read from it
+     */
+    static InputStream count(BindingOperation op, InputStream is) {
+        if (op == null) {
+            return is;
+        }
+        op.bytes = 0;
+        return op.new CountingInputStream(is);
+    }
+
+    /**
+     * Reports the end of the operation.
+     *
+     * @param value the marshalled object, or the unmarshalled one
+     * @param succeeded whether the operation completed normally
+     */
+    void end(Object value, boolean succeeded) {
+        Class<?> type;
+        if (value instanceof JAXBElement) {
+            type = ((JAXBElement<?>) value).getDeclaredType();
+        } else {
+            type = value == null ? null : value.getClass();
+        }
+        if (metrics != null && succeeded) {
+            long duration = System.nanoTime() - start;
+            try {
+                if (marshal) {
+                    metrics.marshalled(type, duration, bytes);
+                } else {
+                    metrics.unmarshalled(type, duration, bytes);
+                }
+            } catch (RuntimeException e) {
+                // called in a finally block, where it would replace the outcome of the operation
+                Logger.getLogger("javax.xml.bind").log(Level.WARNING,
+                    Messages.format(Messages.METRICS_FAILED, metrics.getClass().getName()), e);
+            }
+        }
+        if (event != null) {
+            JfrEvents.end(event, type, Math.max(bytes, 0));
+        }
+    }
+
+    private final class CountingOutputStream extends FilterOutputStream {
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            bytes += len;
+        }
+    }
+
+    private final class CountingInputStream extends FilterInputStream {
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                bytes++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                bytes += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            bytes += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            // a reset would count bytes twice
+            return false;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.helpers;
+
+import java.text.MessageFormat;
+
+import javax.xml.bind.ValidationEvent;
+import javax.xml.bind.ValidationEventLocator;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXParseException;
+
+/**
+ * Immutable, compact implementation of the ValidationEvent interface.
+ *
+ * <p>
+ * An event created from a SAX {@link Locator} or a {@link SAXParseException}
+ * only copies the system id and the line and column numbers, packed into a
+ * single {@code long}. Its {@link CompactValidationEventLocator locator} is
+ * created the first time {@link #getLocator()} is called, so events which
+ * are counted or discarded without being inspected cost a single allocation.
+ *
+ * <blockquote>
+ *    <pre>
+ *       public void error(SAXParseException e) throws SAXException {
+ *           if (!handler.handleEvent(CompactValidationEvent.of(ValidationEvent.ERROR, e))) {
+ *               throw e;
+ *           }
+ *       }
+ *    </pre>
+ * </blockquote>
+ *
+ * <p>
+ * Instances can be shared freely among threads.
+ *
+ * @see ValidationEventImpl
+ * @since JAXB 2.3.2
+ */
+public final class CompactValidationEvent implements ValidationEvent {
+
+    private final int severity;
+    private final String message;
+    private final Throwable linkedException;
+    private final String systemId;
+    private final long position;
+
+    // created on demand; the locator being immutable, racing threads may only create it twice
+    private ValidationEventLocator locator;
+
+    /**
+     * Create a new CompactValidationEvent.
+     *
+     * @param severity the severity level
+     * @param message the text message
+     * @param locator the locator object, or null
+     * @param linkedException the linked exception, or null
+     * @throws IllegalArgumentException if an illegal severity field is supplied
+     */
+    public CompactValidationEvent(int severity, String message, ValidationEventLocator locator,
+                                  Throwable linkedException) {
+        this(severity, message, linkedException, null, CompactValidationEventLocator.NO_POSITION, locator);
+    }
+
+    private CompactValidationEvent(int severity, String message, Throwable linkedException,
+                                   String systemId, long position, ValidationEventLocator locator) {
+        if (severity != ValidationEvent.WARNING &&
+            severity != ValidationEvent.ERROR &&
+            severity != ValidationEvent.FATAL_ERROR) {
+            throw new IllegalArgumentException(
+                Messages.format(Messages.ILLEGAL_SEVERITY));
+        }
+        this.severity = severity;
+        this.message = message;
+        this.linkedException = linkedException;
+        this.systemId = systemId;
+        this.position = position;
+        this.locator = locator;
+    }
+
+    /**
+     * Create a new CompactValidationEvent at the current location of a SAX {@link Locator}.
+     *
+     * @param severity the severity level
+     * @param message the text message
+     * @param locator the SAX locator, or null if the location is unknown
+     * @param linkedException the linked exception, or null
+     * @return a new event, never null
+     * @throws IllegalArgumentException if an illegal severity field is supplied
+     */
+    public static CompactValidationEvent of(int severity, String message, Locator locator,
+                                            Throwable linkedException) {
+        if (locator == null) {
+            return new CompactValidationEvent(severity, message, linkedException, null,
+                                              CompactValidationEventLocator.NO_POSITION, null);
+        }
+        return new CompactValidationEvent(severity, message, linkedException, locator.getSystemId(),
+            CompactValidationEventLocator.pack(locator.getLineNumber(), locator.getColumnNumber()), null);
+    }
+
+    /**
+     * Create a new CompactValidationEvent reporting a {@link SAXParseException},
+     * with its message and location. The exception is the linked exception.
+     *
+     * @param severity the severity level
+     * @param e the exception, must not be null
+     * @return a new event, never null
+     * @throws IllegalArgumentException if an illegal severity field is supplied
+     *      or if the exception is null
+     */
+    public static CompactValidationEvent of(int severity, SAXParseException e) {
+        if (e == null) {
+            throw new IllegalArgumentException(
+                Messages.format(Messages.MUST_NOT_BE_NULL, "e"));
+        }
+        return new CompactValidationEvent(severity, e.getMessage(), e, e.getSystemId(),
+            CompactValidationEventLocator.pack(e.getLineNumber(), e.getColumnNumber()), null);
+    }
+
+    @Override
+    public int getSeverity() {
+        return severity;
+    }
+
+    @Override
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public Throwable getLinkedException() {
+        return linkedException;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * For events created from a SAX locator or exception, the locator is
+     * created by the first call.
+     */
+    @Override
+    public ValidationEventLocator getLocator() {
+        ValidationEventLocator l = locator;
+        if (l == null && (systemId != null || position != CompactValidationEventLocator.NO_POSITION)) {
+            l = new CompactValidationEventLocator(systemId, position);
+            locator = l;
+        }
+        return l;
+    }
+
+    /**
+     * Returns a string representation of this object in a format
+     * helpful to debugging.
+     *
+     * @see Object#equals(Object)
+     */
+    @Override
+    public String toString() {
+        String s;
+        switch (getSeverity()) {
+        case WARNING:   s = "WARNING"; break;
+        case ERROR: s = "ERROR"; break;
+        case FATAL_ERROR: s = "FATAL_ERROR"; break;
+        default: s = String.valueOf(getSeverity()); break;
+        }
+        return MessageFormat.format("[severity={0},message={1},locator={2}]",
+            new Object[]{
+                s,
+                getMessage(),
+                getLocator()
+            });
+    }
+}
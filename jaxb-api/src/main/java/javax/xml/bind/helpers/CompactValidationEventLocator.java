@@ -0,0 +1,249 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.helpers;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.text.MessageFormat;
+
+import javax.xml.bind.ValidationEventLocator;
+import org.w3c.dom.Node;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXParseException;
+
+/**
+ * Immutable, compact implementation of the ValidationEventLocator interface.
+ *
+ * <p>
+ * Unlike {@link ValidationEventLocatorImpl}, this locator keeps the system id
+ * as a string, which is only converted to a {@link URL} if {@link #getURL()}
+ * is called, and packs the line and column numbers into a single
+ * {@code long}. Creating it amounts to copying a few fields.
+ *
+ * <p>
+ * Instances can be shared freely among threads.
+ *
+ * @see ValidationEventLocatorImpl
+ * @see CompactValidationEvent
+ * @since JAXB 2.3.2
+ */
+public final class CompactValidationEventLocator implements ValidationEventLocator {
+
+    /** Line and column numbers, both unavailable. */
+    static final long NO_POSITION = pack(-1, -1);
+
+    private final String systemId;
+    private final long position;
+    private final Object object;
+    private final Node node;
+
+    /**
+     * Constructs an object that captures the location of a SAX {@link Locator}.
+     *
+     * @param loc the SAX Locator object that will be used to populate this
+     * event locator.
+     * @throws IllegalArgumentException if the Locator is null
+     */
+    public CompactValidationEventLocator(Locator loc) {
+        if (loc == null) {
+            throw new IllegalArgumentException(
+                Messages.format(Messages.MUST_NOT_BE_NULL, "loc"));
+        }
+        this.systemId = loc.getSystemId();
+        this.position = pack(loc.getLineNumber(), loc.getColumnNumber());
+        this.object = null;
+        this.node = null;
+    }
+
+    /**
+     * Constructs an object that captures the location of a {@link SAXParseException}.
+     *
+     * @param e the SAXParseException object that will be used to populate this
+     * event locator.
+     * @throws IllegalArgumentException if the SAXParseException is null
+     */
+    public CompactValidationEventLocator(SAXParseException e) {
+        if (e == null) {
+            throw new IllegalArgumentException(
+                Messages.format(Messages.MUST_NOT_BE_NULL, "e"));
+        }
+        this.systemId = e.getSystemId();
+        this.position = pack(e.getLineNumber(), e.getColumnNumber());
+        this.object = null;
+        this.node = null;
+    }
+
+    /**
+     * Constructs an object for the given position in a document.
+     *
+     * @param systemId the system id of the document, or null if unavailable
+     * @param lineNumber the line number, or -1 if unavailable
+     * @param columnNumber the column number, or -1 if unavailable
+     */
+    public CompactValidationEventLocator(String systemId, int lineNumber, int columnNumber) {
+        this(systemId, pack(lineNumber, columnNumber));
+    }
+
+    CompactValidationEventLocator(String systemId, long position) {
+        this.systemId = systemId;
+        this.position = position;
+        this.object = null;
+        this.node = null;
+    }
+
+    /**
+     * Constructs an object that points to a DOM Node.
+     *
+     * @param node the DOM Node object that will be used to populate this
+     * event locator.
+     * @throws IllegalArgumentException if the Node is null
+     */
+    public CompactValidationEventLocator(Node node) {
+        if (node == null) {
+            throw new IllegalArgumentException(
+                Messages.format(Messages.MUST_NOT_BE_NULL, "node"));
+        }
+        this.systemId = null;
+        this.position = NO_POSITION;
+        this.object = null;
+        this.node = node;
+    }
+
+    /**
+     * Constructs an object that points to a JAXB content object.
+     *
+     * @param object the Object that will be used to populate this
+     * event locator.
+     * @throws IllegalArgumentException if the Object is null
+     */
+    public CompactValidationEventLocator(Object object) {
+        if (object == null) {
+            throw new IllegalArgumentException(
+                Messages.format(Messages.MUST_NOT_BE_NULL, "object"));
+        }
+        this.systemId = null;
+        this.position = NO_POSITION;
+        this.object = object;
+        this.node = null;
+    }
+
+    static long pack(int lineNumber, int columnNumber) {
+        return ((long) lineNumber << 32) | (columnNumber & 0xFFFFFFFFL);
+    }
+
+    static int lineNumber(long position) {
+        return (int) (position >> 32);
+    }
+
+    static int columnNumber(long position) {
+        return (int) position;
+    }
+
+    /**
+     * Gets the system id of the document, as given.
+     *
+     * @return the system id, or null if unavailable
+     */
+    public String getSystemId() {
+        return systemId;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * The URL is created from the system id on each call, null if the
+     * system id is not an absolute URL.
+     */
+    @Override
+    public URL getURL() {
+        if (systemId == null) {
+            return null;
+        }
+        try {
+            return new URL(systemId);
+        } catch (MalformedURLException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public int getOffset() {
+        // none of the sources provides an offset
+        return -1;
+    }
+
+    @Override
+    public int getLineNumber() {
+        return lineNumber(position);
+    }
+
+    @Override
+    public int getColumnNumber() {
+        return columnNumber(position);
+    }
+
+    @Override
+    public Object getObject() {
+        return object;
+    }
+
+    @Override
+    public Node getNode() {
+        return node;
+    }
+
+    /**
+     * Returns a string representation of this object in a format
+     * helpful to debugging.
+     *
+     * @see Object#equals(Object)
+     */
+    @Override
+    public String toString() {
+        return MessageFormat.format("[node={0},object={1},url={2},line={3},col={4},offset={5}]",
+            getNode(),
+            getObject(),
+            getURL(),
+            String.valueOf(getLineNumber()),
+            String.valueOf(getColumnNumber()),
+            String.valueOf(getOffset()));
+    }
+}
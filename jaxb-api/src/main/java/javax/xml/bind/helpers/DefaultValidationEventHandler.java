@@ -76,6 +76,7 @@ public class DefaultValidationEventHandler implements ValidationEventHandler {
         if( event == null ) {
             throw new IllegalArgumentException();
         }
+        JfrEvents.validationEvent(event);
 
         // calculate the severity prefix and return value        
         String severity = null;
@@ -116,8 +117,8 @@ public class DefaultValidationEventHandler implements ValidationEventHandler {
      * Calculate a location message for the event
      * 
      */
-    private String getLocation(ValidationEvent event) {
-        StringBuffer msg = new StringBuffer();
+    static String getLocation(ValidationEvent event) {
+        StringBuilder msg = new StringBuilder();
         
         ValidationEventLocator locator = event.getLocator();
         
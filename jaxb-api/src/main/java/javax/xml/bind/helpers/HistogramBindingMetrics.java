@@ -0,0 +1,243 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.helpers;
+
+import javax.xml.bind.JAXBContext;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link BindingMetrics} keeping counters and latency histograms in memory.
+ *
+ * <p>
+ * Marshal and unmarshal operations are counted by type, with their latency and
+ * the number of bytes processed, so that the types driving the binding work can
+ * be told apart. Types are identified by class name; those beyond
+ * {@link #MAX_TYPES} are counted under the empty name. Context creations and the
+ * lookups of the context cache of {@link javax.xml.bind.JAXB} are counted too.
+ *
+ * <p>
+ * The measurements of the API are reported to a subclass registered as the
+ * provider of {@link BindingMetrics}, which typically exposes the statistics
+ * to a monitoring system:
+ *
+ * <blockquote>
+ *    <pre>
+ *       public class ExportedMetrics extends HistogramBindingMetrics {
+ *           public ExportedMetrics() {
+ *               registry.register("jaxb", this);
+ *           }
+ *       }
+ *    </pre>
+ * </blockquote>
+ *
+ * <p>
+ * Measurements are recorded without locking.
+ *
+ * @see LatencyHistogram
+ * @since JAXB 2.3.2
+ */
+public class HistogramBindingMetrics extends BindingMetrics {
+
+    /**
+     * Maximum number of types counted separately.
+     */
+    public static final int MAX_TYPES = 1024;
+
+    private final Map<String, Statistics> marshalled = new ConcurrentHashMap<String, Statistics>();
+    private final Map<String, Statistics> unmarshalled = new ConcurrentHashMap<String, Statistics>();
+    private final LatencyHistogram contextCreations = new LatencyHistogram();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    /**
+     * Creates an instance with no measurements.
+     */
+    public HistogramBindingMetrics() {
+    }
+
+    @Override
+    public void contextCreated(JAXBContext context, long durationNanos) {
+        contextCreations.record(durationNanos);
+    }
+
+    @Override
+    public void marshalled(Class<?> type, long durationNanos, long bytes) {
+        statistics(marshalled, type).record(durationNanos, bytes);
+    }
+
+    @Override
+    public void unmarshalled(Class<?> type, long durationNanos, long bytes) {
+        statistics(unmarshalled, type).record(durationNanos, bytes);
+    }
+
+    @Override
+    public void cacheLookup(boolean hit) {
+        (hit ? cacheHits : cacheMisses).increment();
+    }
+
+    private static Statistics statistics(Map<String, Statistics> map, Class<?> type) {
+        String name = type == null ? "" : type.getName();
+        Statistics s = map.get(name);
+        if (s == null) {
+            if (map.size() >= MAX_TYPES) {
+                name = "";
+            }
+            Statistics created = new Statistics();
+            s = map.putIfAbsent(name, created);
+            if (s == null) {
+                s = created;
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Gets the statistics of the marshal operations.
+     *
+     * @return an unmodifiable snapshot of the statistics, by class name
+     */
+    public Map<String, Statistics> getMarshalStatistics() {
+        return Collections.unmodifiableMap(new HashMap<String, Statistics>(marshalled));
+    }
+
+    /**
+     * Gets the statistics of the unmarshal operations.
+     *
+     * @return an unmodifiable snapshot of the statistics, by class name
+     */
+    public Map<String, Statistics> getUnmarshalStatistics() {
+        return Collections.unmodifiableMap(new HashMap<String, Statistics>(unmarshalled));
+    }
+
+    /**
+     * Gets the latency of context creations.
+     *
+     * @return the histogram of the durations in nanoseconds
+     */
+    public LatencyHistogram getContextCreationLatency() {
+        return contextCreations;
+    }
+
+    /**
+     * Gets the number of lookups of the context cache of {@link javax.xml.bind.JAXB}.
+     *
+     * @return the number of lookups
+     */
+    public long getCacheLookupCount() {
+        return cacheHits.sum() + cacheMisses.sum();
+    }
+
+    /**
+     * Gets the ratio of the lookups of the context cache of {@link javax.xml.bind.JAXB}
+     * which found the context.
+     *
+     * @return the ratio between 0 and 1, or {@code NaN} if there was no lookup
+     */
+    public double getCacheHitRatio() {
+        long hits = cacheHits.sum();
+        long lookups = hits + cacheMisses.sum();
+        return lookups == 0 ? Double.NaN : (double) hits / lookups;
+    }
+
+    /**
+     * Forgets all the measurements.
+     */
+    public void reset() {
+        marshalled.clear();
+        unmarshalled.clear();
+        contextCreations.reset();
+        cacheHits.reset();
+        cacheMisses.reset();
+    }
+
+    /**
+     * Statistics of the operations on one type.
+     */
+    public static final class Statistics {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder bytes = new LongAdder();
+
+        Statistics() {
+        }
+
+        void record(long durationNanos, long byteCount) {
+            latency.record(durationNanos);
+            if (byteCount > 0) {
+                bytes.add(byteCount);
+            }
+        }
+
+        /**
+         * Gets the number of operations.
+         *
+         * @return the count
+         */
+        public long getCount() {
+            return latency.getCount();
+        }
+
+        /**
+         * Gets the number of bytes processed by the operations on streams and files.
+         *
+         * @return the number of bytes
+         */
+        public long getBytes() {
+            return bytes.sum();
+        }
+
+        /**
+         * Gets the latency of the operations.
+         *
+         * @return the histogram of the durations in nanoseconds
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        @Override
+        public String toString() {
+            return "[bytes=" + getBytes() + ",latency=" + latency + "]";
+        }
+    }
+}
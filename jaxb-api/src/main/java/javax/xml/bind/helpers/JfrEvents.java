@@ -0,0 +1,86 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.helpers;
+
+import javax.xml.bind.ValidationEvent;
+
+/**
+ * Intended to be overridden on JDK11, with JEP 238 multi-release class copy.
+ * Records marshal and unmarshal operations and validation events as JDK Flight
+ * Recorder events there, records nothing here.
+ */
+final class JfrEvents {
+
+    private JfrEvents() {}
+
+    /**
+     * Starts timing a marshal operation.
+     *
+     * @return the event to pass to {@link #end}, null if the operation isn't recorded
+     */
+    static Object beginMarshal() {
+        return null;
+    }
+
+    /**
+     * Starts timing an unmarshal operation.
+     *
+     * @return the event to pass to {@link #end}, null if the operation isn't recorded
+     */
+    static Object beginUnmarshal() {
+        return null;
+    }
+
+    /**
+     * Records the end of an operation.
+     *
+     * @param event the event returned when the operation began, not null
+     * @param type the class of the marshalled or unmarshalled object, or null
+     * @param bytes the number of bytes written or read, 0 if unknown
+     */
+    static void end(Object event, Class<?> type, long bytes) {
+    }
+
+    /**
+     * Records a validation event handled by one of the handlers of this package.
+     */
+    static void validationEvent(ValidationEvent event) {
+    }
+}
@@ -0,0 +1,335 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.helpers;
+
+import javax.xml.bind.ValidationEvent;
+import javax.xml.bind.ValidationEventHandler;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * <p>
+ * Validation event handler logging events with {@code java.util.logging}
+ * instead of printing them.
+ *
+ * <p>
+ * Like {@link DefaultValidationEventHandler}, this handler causes the unmarshal
+ * and validate operations to fail on the first error or fatal error. Events are
+ * logged to the {@code javax.xml.bind} logger unless configured otherwise,
+ * warnings at level {@link Level#WARNING}, errors and fatal errors at level
+ * {@link Level#SEVERE}.
+ *
+ * <p>
+ * Nothing is formatted unless the logger accepts the level of the event, and
+ * even then the message is only rendered when the log record is published.
+ * At most a given number of events of each severity are logged per interval;
+ * the others are only counted, and their number is logged when the next
+ * interval starts or when the counters are {@link #resetCounts() reset}.
+ * All the events are counted, so that the counters can be
+ * checked at the end of a lenient operation.
+ *
+ * <p>
+ * Setting the {@code javax.xml.bind.helpers.LoggingValidationEventHandler}
+ * system property to {@code true} makes a shared instance of this handler the
+ * default handler of {@link AbstractMarshallerImpl} and {@link AbstractUnmarshallerImpl}
+ * in place of {@link DefaultValidationEventHandler}.
+ *
+ * <p>
+ * Instances are thread-safe.
+ *
+ * @see DefaultValidationEventHandler
+ * @since JAXB 2.3.2
+ */
+public class LoggingValidationEventHandler extends DefaultValidationEventHandler {
+
+    /**
+     * Number of events of each severity logged per interval unless configured otherwise.
+     */
+    public static final int DEFAULT_MAX_EVENTS = 10;
+
+    /**
+     * Length of the interval in milliseconds unless configured otherwise.
+     */
+    public static final long DEFAULT_INTERVAL = 1000;
+
+    private static final String DEFAULT_PROPERTY = "javax.xml.bind.helpers.LoggingValidationEventHandler";
+
+    private static final Object WARNING_TEXT = Messages.lazy(Messages.WARNING);
+    private static final Object ERROR_TEXT = Messages.lazy(Messages.ERROR);
+    private static final Object FATAL_ERROR_TEXT = Messages.lazy(Messages.FATAL_ERROR);
+
+    private final Logger logger;
+    private final int maxEvents;
+    private final long interval;
+
+    // indexed by severity
+    private final Window[] windows = { new Window(), new Window(), new Window() };
+    private final LongAdder[] counts = { new LongAdder(), new LongAdder(), new LongAdder() };
+    private final LongAdder suppressed = new LongAdder();
+
+    /**
+     * Creates a handler logging to the {@code javax.xml.bind} logger, with the
+     * {@link #DEFAULT_MAX_EVENTS default rate}.
+     */
+    public LoggingValidationEventHandler() {
+        this(Logger.getLogger("javax.xml.bind"), DEFAULT_MAX_EVENTS, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Creates a handler.
+     *
+     * @param logger the logger of the events, must not be null
+     * @param maxEvents the maximum number of events of each severity logged per interval,
+     *      must not be negative
+     * @param interval the length of the interval in milliseconds, must be positive
+     * @throws IllegalArgumentException if {@code logger} is null or if any number is out of range
+     */
+    public LoggingValidationEventHandler(Logger logger, int maxEvents, long interval) {
+        if (logger == null) {
+            throw new IllegalArgumentException(Messages.format(Messages.MUST_NOT_BE_NULL, "logger"));
+        }
+        if (maxEvents < 0) {
+            throw new IllegalArgumentException(Messages.format(Messages.MUST_NOT_BE_NEGATIVE, "maxEvents", maxEvents));
+        }
+        if (interval <= 0) {
+            throw new IllegalArgumentException(Messages.format(Messages.MUST_BE_POSITIVE, "interval", interval));
+        }
+        this.logger = logger;
+        this.maxEvents = maxEvents;
+        this.interval = TimeUnit.MILLISECONDS.toNanos(interval);
+    }
+
+    @Override
+    public boolean handleEvent(ValidationEvent event) {
+        if (event == null) {
+            throw new IllegalArgumentException(Messages.format(Messages.MUST_NOT_BE_NULL, "event"));
+        }
+        JfrEvents.validationEvent(event);
+
+        int severity = event.getSeverity();
+        Level level;
+        switch (severity) {
+            case ValidationEvent.WARNING:
+                level = Level.WARNING;
+                break;
+            case ValidationEvent.ERROR:
+            case ValidationEvent.FATAL_ERROR:
+                level = Level.SEVERE;
+                break;
+            default:
+                assert false :
+                    Messages.format(Messages.UNRECOGNIZED_SEVERITY, severity);
+                return false;
+        }
+        counts[severity].increment();
+
+        if (logger.isLoggable(level)) {
+            Window w = windows[severity];
+            long skipped = w.roll(System.nanoTime(), interval);
+            if (skipped > 0) {
+                log(level, "handleEvent", Messages.lazy(Messages.SUPPRESSED_EVENTS, skipped, severityText(severity)));
+            }
+            if (w.acquire(maxEvents)) {
+                log(level, "handleEvent",
+                    Messages.lazy(Messages.LOGGED_EVENT, severityText(severity), event.getMessage(), new Location(event)));
+            } else {
+                suppressed.increment();
+            }
+        }
+
+        // fail on the first error or fatal error
+        return severity == ValidationEvent.WARNING;
+    }
+
+    private void log(Level level, String method, Object text) {
+        // the text is only rendered if the record is published
+        LogRecord record = new LogRecord(level, "{0}");
+        record.setParameters(new Object[] { text });
+        record.setLoggerName(logger.getName());
+        record.setSourceClassName(LoggingValidationEventHandler.class.getName());
+        record.setSourceMethodName(method);
+        logger.log(record);
+    }
+
+    private static Object severityText(int severity) {
+        switch (severity) {
+            case ValidationEvent.WARNING:
+                return WARNING_TEXT;
+            case ValidationEvent.ERROR:
+                return ERROR_TEXT;
+            default:
+                return FATAL_ERROR_TEXT;
+        }
+    }
+
+    /**
+     * Gets the number of warnings handled so far.
+     *
+     * @return the number of events of severity {@link ValidationEvent#WARNING}
+     */
+    public long getWarningCount() {
+        return counts[ValidationEvent.WARNING].sum();
+    }
+
+    /**
+     * Gets the number of errors handled so far.
+     *
+     * @return the number of events of severity {@link ValidationEvent#ERROR}
+     */
+    public long getErrorCount() {
+        return counts[ValidationEvent.ERROR].sum();
+    }
+
+    /**
+     * Gets the number of fatal errors handled so far.
+     *
+     * @return the number of events of severity {@link ValidationEvent#FATAL_ERROR}
+     */
+    public long getFatalErrorCount() {
+        return counts[ValidationEvent.FATAL_ERROR].sum();
+    }
+
+    /**
+     * Gets the number of events which were not logged because of the rate limit.
+     *
+     * @return the number of suppressed events
+     */
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+
+    /**
+     * Resets all the counters to zero.
+     *
+     * <p>
+     * The number of events suppressed in the current interval is logged first,
+     * as no later event may start a new interval to report it.
+     */
+    public void resetCounts() {
+        for (int severity = ValidationEvent.WARNING; severity <= ValidationEvent.FATAL_ERROR; severity++) {
+            long skipped = windows[severity].flush();
+            if (skipped > 0) {
+                Level level = severity == ValidationEvent.WARNING ? Level.WARNING : Level.SEVERE;
+                log(level, "resetCounts", Messages.lazy(Messages.SUPPRESSED_EVENTS, skipped, severityText(severity)));
+            }
+        }
+        for (LongAdder c : counts) {
+            c.reset();
+        }
+        suppressed.reset();
+    }
+
+    /**
+     * Gets the handler to use when none has been set.
+     */
+    static ValidationEventHandler defaultHandler() {
+        return DefaultHolder.SHARED != null ? DefaultHolder.SHARED : new DefaultValidationEventHandler();
+    }
+
+    private static final class DefaultHolder {
+        static final LoggingValidationEventHandler SHARED =
+            Boolean.parseBoolean(AccessController.doPrivileged(new PrivilegedAction<String>() {
+                @Override
+                public String run() {
+                    return System.getProperty(DEFAULT_PROPERTY);
+                }
+            })) ? new LoggingValidationEventHandler() : null;
+    }
+
+    /**
+     * Counts the events of one severity logged in the current interval.
+     */
+    private static final class Window {
+        private final AtomicLong start = new AtomicLong(System.nanoTime());
+        private final AtomicLong logged = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+
+        /**
+         * Starts a new interval if the current one is over.
+         *
+         * @return the number of events skipped during the previous interval
+         */
+        long roll(long now, long interval) {
+            long s = start.get();
+            if (now - s >= interval && start.compareAndSet(s, now)) {
+                logged.set(0);
+                return skipped.getAndSet(0);
+            }
+            return 0;
+        }
+
+        /**
+         * Takes the events skipped so far, without starting a new interval.
+         */
+        long flush() {
+            return skipped.getAndSet(0);
+        }
+
+        boolean acquire(int max) {
+            if (logged.incrementAndGet() <= max) {
+                return true;
+            }
+            skipped.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Location of an event, formatted on demand.
+     */
+    private static final class Location {
+        private final ValidationEvent event;
+
+        Location(ValidationEvent event) {
+            this.event = event;
+        }
+
+        @Override
+        public String toString() {
+            return getLocation(event);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.helpers;
+
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.PropertyException;
+import javax.xml.bind.ValidationEventHandler;
+import java.io.UnsupportedEncodingException;
+
+/**
+ * Immutable snapshot of the standard {@link Marshaller} configuration.
+ *
+ * <p>
+ * A {@code MarshallerConfig} is built and validated once, and can then be
+ * applied to any number of {@link AbstractMarshallerImpl} instances through
+ * {@link AbstractMarshallerImpl#setConfig(MarshallerConfig)}. Applying a
+ * configuration copies a fixed set of already checked values, so marshallers
+ * kept in a pool can be reconfigured per request without looking up
+ * property names or re-validating property values.
+ *
+ * <blockquote>
+ *    <pre>
+ *       MarshallerConfig config = MarshallerConfig.builder()
+ *           .setEncoding("UTF-8")
+ *           .setFormattedOutput(true)
+ *           .build();
+ *
+ *       // for each request
+ *       AbstractMarshallerImpl m = pool.borrow();
+ *       m.setConfig(config);
+ *    </pre>
+ * </blockquote>
+ *
+ * @see AbstractMarshallerImpl
+ * @see UnmarshallerConfig
+ * @since JAXB 2.3.2
+ */
+public final class MarshallerConfig {
+
+    /**
+     * Configuration holding the default value of every property,
+     * as found on a newly created {@link AbstractMarshallerImpl}.
+     */
+    public static final MarshallerConfig DEFAULT = new MarshallerConfig(new Builder(), "UTF-8");
+
+    private final String encoding;
+    private final String javaEncoding;
+    private final String schemaLocation;
+    private final String noNSSchemaLocation;
+    private final boolean formattedOutput;
+    private final boolean fragment;
+    private final ValidationEventHandler eventHandler;
+
+    private MarshallerConfig(Builder builder, String javaEncoding) {
+        this.encoding = builder.encoding;
+        this.javaEncoding = javaEncoding;
+        this.schemaLocation = builder.schemaLocation;
+        this.noNSSchemaLocation = builder.noNSSchemaLocation;
+        this.formattedOutput = builder.formattedOutput;
+        this.fragment = builder.fragment;
+        this.eventHandler = builder.eventHandler;
+    }
+
+    /**
+     * Creates a new builder initialized with the default configuration.
+     *
+     * @return a new builder, never null
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Creates a new builder initialized with the values of this configuration.
+     *
+     * @return a new builder, never null
+     */
+    public Builder toBuilder() {
+        Builder b = new Builder();
+        b.encoding = encoding;
+        b.schemaLocation = schemaLocation;
+        b.noNSSchemaLocation = noNSSchemaLocation;
+        b.formattedOutput = formattedOutput;
+        b.fragment = fragment;
+        b.eventHandler = eventHandler;
+        return b;
+    }
+
+    /**
+     * @return the value of the {@link Marshaller#JAXB_ENCODING} property, never null
+     */
+    public String getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Gets the Java name of the encoding, resolved once when this
+     * configuration was built.
+     *
+     * @return the Java encoding name, as returned by
+     *      {@link AbstractMarshallerImpl#getJavaEncoding(String)}, never null
+     */
+    public String getJavaEncoding() {
+        return javaEncoding;
+    }
+
+    /**
+     * @return the value of the {@link Marshaller#JAXB_SCHEMA_LOCATION} property
+     * or null if it hasn't been set
+     */
+    public String getSchemaLocation() {
+        return schemaLocation;
+    }
+
+    /**
+     * @return the value of the {@link Marshaller#JAXB_NO_NAMESPACE_SCHEMA_LOCATION}
+     * property or null if it hasn't been set
+     */
+    public String getNoNSSchemaLocation() {
+        return noNSSchemaLocation;
+    }
+
+    /**
+     * @return the value of the {@link Marshaller#JAXB_FORMATTED_OUTPUT} property
+     */
+    public boolean isFormattedOutput() {
+        return formattedOutput;
+    }
+
+    /**
+     * @return the value of the {@link Marshaller#JAXB_FRAGMENT} property
+     */
+    public boolean isFragment() {
+        return fragment;
+    }
+
+    /**
+     * @return the event handler to install, or null to install the default one
+     */
+    public ValidationEventHandler getEventHandler() {
+        return eventHandler;
+    }
+
+    /**
+     * Builds {@link MarshallerConfig} instances.
+     *
+     * <p>
+     * Builders are not thread-safe. The configurations they build are.
+     */
+    public static final class Builder {
+
+        private String encoding = "UTF-8";
+        private String schemaLocation = null;
+        private String noNSSchemaLocation = null;
+        private boolean formattedOutput = false;
+        private boolean fragment = false;
+        private ValidationEventHandler eventHandler = null;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the output encoding.
+         *
+         * @param encoding an IANA encoding name, must not be null
+         * @return this builder
+         */
+        public Builder setEncoding(String encoding) {
+            if (encoding == null) {
+                throw new IllegalArgumentException(
+                    Messages.format(Messages.MUST_NOT_BE_NULL, "encoding"));
+            }
+            this.encoding = encoding;
+            return this;
+        }
+
+        /**
+         * @param location the schemaLocation value, may be null
+         * @return this builder
+         */
+        public Builder setSchemaLocation(String location) {
+            this.schemaLocation = location;
+            return this;
+        }
+
+        /**
+         * @param location the noNamespaceSchemaLocation value, may be null
+         * @return this builder
+         */
+        public Builder setNoNSSchemaLocation(String location) {
+            this.noNSSchemaLocation = location;
+            return this;
+        }
+
+        /**
+         * @param v value of the formatted output flag
+         * @return this builder
+         */
+        public Builder setFormattedOutput(boolean v) {
+            this.formattedOutput = v;
+            return this;
+        }
+
+        /**
+         * @param v value of the fragment flag
+         * @return this builder
+         */
+        public Builder setFragment(boolean v) {
+            this.fragment = v;
+            return this;
+        }
+
+        /**
+         * @param handler the event handler, or null to use the default one
+         * @return this builder
+         */
+        public Builder setEventHandler(ValidationEventHandler handler) {
+            this.eventHandler = handler;
+            return this;
+        }
+
+        /**
+         * Sets one of the standard {@link Marshaller} properties by name,
+         * performing the same checks as {@link AbstractMarshallerImpl#setProperty(String, Object)}.
+         *
+         * @param name one of the {@code JAXB_*} property names defined by {@link Marshaller}
+         * @param value the property value
+         * @return this builder
+         * @throws PropertyException if the property is not a standard one
+         *      or if the value has the wrong type
+         * @throws IllegalArgumentException if the name is null
+         */
+        public Builder setProperty(String name, Object value) throws PropertyException {
+            if (name == null) {
+                throw new IllegalArgumentException(
+                    Messages.format(Messages.MUST_NOT_BE_NULL, "name"));
+            }
+
+            switch (name) {
+                case Marshaller.JAXB_ENCODING:
+                    return setEncoding(AbstractMarshallerImpl.checkString(name, value));
+                case Marshaller.JAXB_FORMATTED_OUTPUT:
+                    return setFormattedOutput(AbstractMarshallerImpl.checkBoolean(name, value));
+                case Marshaller.JAXB_NO_NAMESPACE_SCHEMA_LOCATION:
+                    return setNoNSSchemaLocation(AbstractMarshallerImpl.checkString(name, value));
+                case Marshaller.JAXB_SCHEMA_LOCATION:
+                    return setSchemaLocation(AbstractMarshallerImpl.checkString(name, value));
+                case Marshaller.JAXB_FRAGMENT:
+                    return setFragment(AbstractMarshallerImpl.checkBoolean(name, value));
+                default:
+                    throw new PropertyException(name, value);
+            }
+        }
+
+        /**
+         * Validates the collected values and creates the configuration.
+         *
+         * @return a new immutable configuration
+         * @throws PropertyException if the encoding is not supported by this platform
+         */
+        public MarshallerConfig build() throws PropertyException {
+            String javaEncoding;
+            try {
+                javaEncoding = AbstractMarshallerImpl.toJavaEncoding(encoding);
+            } catch (UnsupportedEncodingException e) {
+                PropertyException pe = new PropertyException(Marshaller.JAXB_ENCODING, (Object) encoding);
+                pe.setLinkedException(e);
+                throw pe;
+            }
+            return new MarshallerConfig(this, javaEncoding);
+        }
+    }
+}
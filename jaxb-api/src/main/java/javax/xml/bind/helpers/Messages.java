@@ -40,8 +40,7 @@
 
 package javax.xml.bind.helpers;
 
-import java.text.MessageFormat;
-import java.util.ResourceBundle;
+import javax.xml.bind.internal.MessageCatalog;
 
 /**
  * Formats error messages.
@@ -68,9 +67,24 @@ class Messages
     
     /** Loads a string resource and formats it with specified arguments. */
     static String format( String property, Object[] args ) {
-        String text = ResourceBundle.getBundle(Messages.class.getName()).getString(property);
-        return MessageFormat.format(text,args);
+        return CATALOG.format(property, args);
     }
+
+    /**
+     * Returns an object formatting the message when converted to a string,
+     * for messages which may well never be rendered, such as log messages.
+     */
+    static Object lazy( final String property, final Object... args ) {
+        return new Object() {
+            @Override
+            public String toString() {
+                return format(property, args);
+            }
+        };
+    }
+
+    /** Messages of this package, parsed once per locale. */
+    private static final MessageCatalog CATALOG = new MessageCatalog(Messages.class.getName());
     
 //
 //
@@ -104,9 +118,24 @@ class Messages
     static final String FATAL_ERROR = // 0 args
         "DefaultValidationEventHandler.FatalError";
         
+    static final String LOGGED_EVENT = // 3 args
+        "LoggingValidationEventHandler.LoggedEvent";
+
+    static final String SUPPRESSED_EVENTS = // 2 args
+        "LoggingValidationEventHandler.SuppressedEvents";
+
     static final String ILLEGAL_SEVERITY = // 0 args
         "ValidationEventImpl.IllegalSeverity";
         
     static final String MUST_NOT_BE_NULL = // 1 arg
         "Shared.MustNotBeNull";
+
+    static final String MUST_NOT_BE_NEGATIVE = // 2 args
+        "Shared.MustNotBeNegative";
+
+    static final String MUST_BE_POSITIVE = // 2 args
+        "Shared.MustBePositive";
+
+    static final String METRICS_FAILED = // 1 arg
+        "BindingMetrics.Failed";
 }
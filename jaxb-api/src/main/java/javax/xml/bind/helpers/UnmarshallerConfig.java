@@ -0,0 +1,150 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.helpers;
+
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.ValidationEventHandler;
+
+/**
+ * Immutable snapshot of the {@link Unmarshaller} configuration managed by
+ * {@link AbstractUnmarshallerImpl}.
+ *
+ * <p>
+ * This is the unmarshalling counterpart of {@link MarshallerConfig}. A
+ * configuration is built once and applied to pooled unmarshallers through
+ * {@link AbstractUnmarshallerImpl#setConfig(UnmarshallerConfig)}.
+ *
+ * @see AbstractUnmarshallerImpl
+ * @see MarshallerConfig
+ * @since JAXB 2.3.2
+ */
+public final class UnmarshallerConfig {
+
+    /**
+     * Configuration holding the default values,
+     * as found on a newly created {@link AbstractUnmarshallerImpl}.
+     */
+    public static final UnmarshallerConfig DEFAULT = new UnmarshallerConfig(new Builder());
+
+    private final boolean validating;
+    private final ValidationEventHandler eventHandler;
+
+    private UnmarshallerConfig(Builder builder) {
+        this.validating = builder.validating;
+        this.eventHandler = builder.eventHandler;
+    }
+
+    /**
+     * Creates a new builder initialized with the default configuration.
+     *
+     * @return a new builder, never null
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Creates a new builder initialized with the values of this configuration.
+     *
+     * @return a new builder, never null
+     */
+    public Builder toBuilder() {
+        Builder b = new Builder();
+        b.validating = validating;
+        b.eventHandler = eventHandler;
+        return b;
+    }
+
+    /**
+     * @return whether the unmarshaller validates during unmarshal operations
+     */
+    public boolean isValidating() {
+        return validating;
+    }
+
+    /**
+     * @return the event handler to install, or null to install the default one
+     */
+    public ValidationEventHandler getEventHandler() {
+        return eventHandler;
+    }
+
+    /**
+     * Builds {@link UnmarshallerConfig} instances.
+     *
+     * <p>
+     * Builders are not thread-safe. The configurations they build are.
+     */
+    public static final class Builder {
+
+        private boolean validating = false;
+        private ValidationEventHandler eventHandler = null;
+
+        private Builder() {
+        }
+
+        /**
+         * @param validating true if the unmarshaller should validate during unmarshal
+         * @return this builder
+         */
+        public Builder setValidating(boolean validating) {
+            this.validating = validating;
+            return this;
+        }
+
+        /**
+         * @param handler the event handler, or null to use the default one
+         * @return this builder
+         */
+        public Builder setEventHandler(ValidationEventHandler handler) {
+            this.eventHandler = handler;
+            return this;
+        }
+
+        /**
+         * Creates the configuration.
+         *
+         * @return a new immutable configuration
+         */
+        public UnmarshallerConfig build() {
+            return new UnmarshallerConfig(this);
+        }
+    }
+}
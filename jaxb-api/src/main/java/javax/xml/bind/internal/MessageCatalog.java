@@ -0,0 +1,121 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.internal;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Messages of a resource bundle, each parsed once per locale.
+ *
+ * <p>
+ * This class is shared by the {@code Messages} classes of the API packages
+ * and is not part of the API. Its package is not exported.
+ *
+ * <p>
+ * Messages without any argument or quote are kept as strings, which are
+ * returned as is. Other messages are parsed into a {@link MessageFormat},
+ * which is not thread-safe, and cloned for each call, so that threads
+ * formatting the same message neither wait for one another nor hold any
+ * lock while the arguments are converted to strings.
+ */
+public final class MessageCatalog {
+
+    private final String bundleName;
+
+    /** Messages of the current default locale, replaced when the default locale changes. */
+    private volatile Formats formats;
+
+    /**
+     * @param bundleName the base name of the resource bundle,
+     *      which must belong to this module
+     */
+    public MessageCatalog(String bundleName) {
+        this.bundleName = bundleName;
+    }
+
+    /**
+     * Loads a string resource and formats it with the given arguments.
+     *
+     * @param property the key of the message
+     * @param args the arguments, or null if the message has none
+     * @return the formatted message
+     */
+    public String format(String property, Object[] args) {
+        Locale locale = Locale.getDefault();
+        Locale formatLocale = Locale.getDefault(Locale.Category.FORMAT);
+        Formats f = formats;
+        if (f == null || !f.locale.equals(locale) || !f.formatLocale.equals(formatLocale)) {
+            f = new Formats(ResourceBundle.getBundle(bundleName, locale), locale, formatLocale);
+            formats = f;
+        }
+        return f.format(property, args);
+    }
+
+    private static final class Formats {
+        private final ResourceBundle bundle;
+        private final Locale locale;
+        private final Locale formatLocale;
+        private final ConcurrentHashMap<String, Object> parsed = new ConcurrentHashMap<String, Object>();
+
+        Formats(ResourceBundle bundle, Locale locale, Locale formatLocale) {
+            this.bundle = bundle;
+            this.locale = locale;
+            this.formatLocale = formatLocale;
+        }
+
+        String format(String property, Object[] args) {
+            Object f = parsed.get(property);
+            if (f == null) {
+                String text = bundle.getString(property);
+                f = text.indexOf('{') < 0 && text.indexOf('\'') < 0 ? text : new MessageFormat(text, formatLocale);
+                parsed.putIfAbsent(property, f);
+            }
+            if (f instanceof String) {
+                return (String) f;
+            }
+            // the cached format is never used directly, only copied
+            MessageFormat copy = (MessageFormat) ((MessageFormat) f).clone();
+            return copy.format(args, new StringBuffer(), null).toString();
+        }
+    }
+}
@@ -0,0 +1,351 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.util;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.UnmarshalException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.UnmarshallerHandler;
+import org.xml.sax.SAXException;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Unmarshals a document received in chunks, without blocking.
+ *
+ * <p>
+ * An {@code AsyncUnmarshaller} is fed with the bytes of a document as they
+ * arrive, typically from non-blocking I/O. Each chunk is parsed right away as
+ * far as it goes and the resulting events are sent to the
+ * {@link UnmarshallerHandler} of the unmarshaller, so neither a blocking
+ * thread nor a buffer holding the whole document is needed.
+ * Once the last chunk has been fed, {@link #complete()} ends the document
+ * and completes the {@link #getResult() result}.
+ *
+ * <blockquote>
+ *    <pre>
+ *       AsyncUnmarshaller&lt;Order&gt; async =
+ *           new AsyncUnmarshaller&lt;Order&gt;(jaxbContext.createUnmarshaller(), Order.class);
+ *       async.getResult().thenAccept(order -&gt; ...);
+ *
+ *       // on the I/O thread, as data arrives
+ *       async.feed(buffer);
+ *       ...
+ *       // at the end of the request body
+ *       async.complete();
+ *    </pre>
+ * </blockquote>
+ *
+ * <p>
+ * The encoding is detected from the byte order mark or the XML declaration,
+ * as a regular parser does. The built-in parser handles elements,
+ * attributes, namespaces, character data, CDATA sections, comments,
+ * processing instructions and the predefined entities, and checks that the
+ * document is namespace-well-formed, but doesn't support DTDs. Schema validation, if enabled on the unmarshaller, is performed by
+ * its {@link UnmarshallerHandler}.
+ *
+ * <p>
+ * Constructs such as tags, comments and processing instructions are
+ * buffered until they are complete, and rejected when they are longer
+ * than the {@link #setMaxMarkupLength(int) maximum markup length}. Since
+ * character data is reported as it arrives, the memory used by the parser
+ * is bounded whatever the input.
+ *
+ * <p>
+ * Errors never escape from {@link #feed(ByteBuffer)} or {@link #complete()}:
+ * they complete the result exceptionally with an {@link UnmarshalException},
+ * after which any further input is ignored.
+ *
+ * <p>
+ * Instances are not thread-safe: {@code feed} and {@code complete} must not
+ * be called concurrently, which is the natural way of calling them from an
+ * I/O event loop. The result may be completed on the thread calling
+ * {@code complete}.
+ *
+ * @param <T> the type of the unmarshalled object
+ * @see Unmarshaller#getUnmarshallerHandler()
+ * @since JAXB 2.3.2
+ */
+public final class AsyncUnmarshaller<T> {
+
+    /**
+     * Maximum length, in characters, of a tag, comment or processing
+     * instruction unless configured otherwise with {@link #setMaxMarkupLength(int)}.
+     */
+    public static final int DEFAULT_MAX_MARKUP_LENGTH = 1024 * 1024;
+
+    private static final Pattern ENCODING = Pattern.compile(
+        "\\A<\\?xml\\s[^?]*encoding\\s*=\\s*[\"']([A-Za-z0-9._:-]+)[\"']");
+
+    /** Longest prolog examined to find the declared encoding. */
+    private static final int MAX_DECLARATION = 1024;
+
+    private final UnmarshallerHandler handler;
+    private final Class<T> declaredType;
+    private final PushParser parser;
+    private final CompletableFuture<T> result = new CompletableFuture<T>();
+
+    // bytes not decoded yet
+    private byte[] bytes = new byte[0];
+    private int length;
+
+    private CharsetDecoder decoder;
+    private CharBuffer chars;
+    private boolean completed;
+    private int maxMarkupLength = DEFAULT_MAX_MARKUP_LENGTH;
+
+    /**
+     * Creates an asynchronous unmarshaller.
+     *
+     * @param unmarshaller the unmarshaller whose {@link UnmarshallerHandler}
+     *      receives the document, must not be null. It must not be used
+     *      for anything else until the result is completed.
+     * @param declaredType the type of the expected result, must not be null.
+     *      If the unmarshalled object is a {@link JAXBElement} whose value
+     *      is an instance of this type, the value is the result.
+     * @throws IllegalArgumentException if any of the parameters is null
+     */
+    public AsyncUnmarshaller(Unmarshaller unmarshaller, Class<T> declaredType) {
+        JAXBStreamReader.checkNotNull(unmarshaller, "unmarshaller");
+        JAXBStreamReader.checkNotNull(declaredType, "declaredType");
+        this.handler = unmarshaller.getUnmarshallerHandler();
+        this.declaredType = declaredType;
+        this.parser = new PushParser(handler, maxMarkupLength);
+    }
+
+    /**
+     * Gets the maximum length of a tag, comment or processing instruction.
+     *
+     * @return the maximum length in characters, always positive
+     */
+    public int getMaxMarkupLength() {
+        return maxMarkupLength;
+    }
+
+    /**
+     * Sets the maximum length of a tag, comment or processing instruction.
+     * A longer construct completes the result exceptionally.
+     *
+     * @param maxMarkupLength the maximum length in characters, must be positive
+     * @throws IllegalArgumentException if {@code maxMarkupLength} is not positive
+     */
+    public void setMaxMarkupLength(int maxMarkupLength) {
+        if (maxMarkupLength < 1) {
+            throw new IllegalArgumentException(
+                Messages.format(Messages.ASYNC_ILLEGAL_MAX_MARKUP_LENGTH, maxMarkupLength));
+        }
+        this.maxMarkupLength = maxMarkupLength;
+        parser.setMaxMarkupLength(maxMarkupLength);
+    }
+
+    /**
+     * Gets the result of the unmarshalling.
+     *
+     * @return a future completed with the unmarshalled object
+     *      once the document has been completed, never null
+     */
+    public CompletableFuture<T> getResult() {
+        return result;
+    }
+
+    /**
+     * Parses the next chunk of the document.
+     *
+     * <p>
+     * All the remaining bytes of {@code chunk} are consumed. The buffer isn't
+     * retained once this method returns, so it can be reused for the next
+     * chunk.
+     *
+     * @param chunk the next bytes of the document, must not be null
+     * @throws IllegalArgumentException if {@code chunk} is null
+     * @throws IllegalStateException if {@link #complete()} has been called
+     */
+    public void feed(ByteBuffer chunk) {
+        JAXBStreamReader.checkNotNull(chunk, "chunk");
+        if (completed) {
+            throw new IllegalStateException(Messages.format(Messages.ASYNC_COMPLETED));
+        }
+        if (result.isDone()) {
+            chunk.position(chunk.limit());
+            return;
+        }
+
+        int n = chunk.remaining();
+        if (bytes.length < length + n) {
+            bytes = Arrays.copyOf(bytes, Math.max(length + n, bytes.length * 2));
+        }
+        chunk.get(bytes, length, n);
+        length += n;
+
+        try {
+            if (decoder == null && !detectEncoding(false)) {
+                return;
+            }
+            decode(false);
+        } catch (SAXException | CharacterCodingException | RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Signals the end of the document and completes the result.
+     *
+     * <p>
+     * Calling this method more than once has no effect.
+     */
+    public void complete() {
+        if (completed) {
+            return;
+        }
+        completed = true;
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            if (decoder == null) {
+                detectEncoding(true);
+            }
+            decode(true);
+            parser.end();
+            result.complete(convert(handler.getResult()));
+        } catch (SAXException | CharacterCodingException | JAXBException | RuntimeException e) {
+            fail(e);
+        }
+        bytes = null;
+        chars = null;
+    }
+
+    private T convert(Object o) throws JAXBException {
+        if (o == null || declaredType.isInstance(o)) {
+            return declaredType.cast(o);
+        }
+        if (o instanceof JAXBElement) {
+            Object value = ((JAXBElement<?>) o).getValue();
+            if (value == null || declaredType.isInstance(value)) {
+                return declaredType.cast(value);
+            }
+        }
+        throw new UnmarshalException(Messages.format(
+            Messages.ASYNC_UNEXPECTED_RESULT, o.getClass().getName(), declaredType.getName()));
+    }
+
+    /**
+     * Chooses the decoder, see XML 1.0 appendix F.
+     *
+     * @return false if more bytes are needed
+     */
+    private boolean detectEncoding(boolean last) throws SAXException {
+        if (length < 4 && !last) {
+            return false;
+        }
+        Charset cs = StandardCharsets.UTF_8;
+        int b0 = length > 0 ? bytes[0] & 0xFF : -1;
+        int b1 = length > 1 ? bytes[1] & 0xFF : -1;
+        if ((b0 == 0xFE && b1 == 0xFF) || (b0 == 0xFF && b1 == 0xFE)) {
+            // the UTF-16 decoder consumes the byte order mark
+            cs = StandardCharsets.UTF_16;
+        } else if (b0 == 0x00 && b1 == 0x3C) {
+            cs = StandardCharsets.UTF_16BE;
+        } else if (b0 == 0x3C && b1 == 0x00) {
+            cs = StandardCharsets.UTF_16LE;
+        } else if (b0 == '<' && b1 == '?') {
+            String prolog = new String(bytes, 0, Math.min(length, MAX_DECLARATION), StandardCharsets.ISO_8859_1);
+            int end = prolog.indexOf("?>");
+            if (end < 0 && !last && length < MAX_DECLARATION) {
+                return false;
+            }
+            Matcher m = ENCODING.matcher(end < 0 ? prolog : prolog.substring(0, end));
+            if (m.find()) {
+                try {
+                    cs = Charset.forName(m.group(1));
+                } catch (IllegalArgumentException e) {
+                    throw new SAXException(Messages.format(Messages.PARSER_UNSUPPORTED_ENCODING, m.group(1)));
+                }
+            }
+        }
+        decoder = cs.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+        return true;
+    }
+
+    private void decode(boolean last) throws SAXException, CharacterCodingException {
+        ByteBuffer in = ByteBuffer.wrap(bytes, 0, length);
+        int capacity = (int) (length * decoder.maxCharsPerByte()) + 16;
+        if (chars == null || chars.capacity() < capacity) {
+            chars = CharBuffer.allocate(capacity);
+        }
+        while (true) {
+            chars.clear();
+            CoderResult cr = decoder.decode(in, chars, last);
+            if (cr.isError()) {
+                cr.throwException();
+            }
+            if (last && cr.isUnderflow()) {
+                cr = decoder.flush(chars);
+            }
+            chars.flip();
+            parser.push(chars);
+            if (!cr.isOverflow()) {
+                break;
+            }
+        }
+
+        // keep an incomplete character for the next chunk
+        length = in.remaining();
+        System.arraycopy(bytes, in.position(), bytes, 0, length);
+    }
+
+    private void fail(Exception e) {
+        result.completeExceptionally(e instanceof JAXBException ? e : new UnmarshalException(e));
+    }
+}
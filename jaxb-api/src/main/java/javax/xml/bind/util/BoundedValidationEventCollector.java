@@ -0,0 +1,285 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.util;
+
+import javax.xml.bind.ValidationEvent;
+import javax.xml.bind.ValidationEventHandler;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link ValidationEventHandler} collecting a bounded number of events.
+ *
+ * <p>
+ * Only the first events, up to a maximum, are retained by a
+ * {@link ValidationEventCollector} and returned by {@link #getEvents()}.
+ * All the events are counted by severity and by key, and can be passed
+ * to a consumer as they occur. Memory usage is therefore bounded, however
+ * many errors a document contains, which makes lenient processing of large
+ * or untrusted documents safe.
+ *
+ * <p>
+ * Unless configured otherwise, the key of an event is its severity followed
+ * by the class name of its linked exception, if any, such as
+ * {@code "ERROR org.xml.sax.SAXParseException"}. A key function should
+ * likewise return a small number of distinct values: messages, which usually
+ * include names and values from the document, would soon exhaust the
+ * {@link #MAX_KEYS} distinct keys counted.
+ *
+ * <blockquote>
+ *    <pre>
+ *       BoundedValidationEventCollector collector = new BoundedValidationEventCollector(100);
+ *       unmarshaller.setEventHandler(collector);
+ *       unmarshaller.unmarshal(file);
+ *       if (collector.hasEvents()) {
+ *           report(collector.getEvents(), collector.getTotalCount(), collector.getCountsByKey());
+ *       }
+ *    </pre>
+ * </blockquote>
+ *
+ * <p>
+ * Like {@link ValidationEventCollector}, this collector lets processing go on
+ * after warnings and errors, and halts it on fatal errors.
+ *
+ * <p>
+ * Events can be handled concurrently. Only the retained events are stored
+ * under a lock, the others are counted without locking. {@link #reset()}
+ * must not be called while events are handled.
+ *
+ * @since JAXB 2.3.2
+ */
+public class BoundedValidationEventCollector implements ValidationEventHandler {
+
+    /**
+     * Maximum number of distinct keys counted. The events whose key
+     * comes after that are counted under the empty key.
+     */
+    public static final int MAX_KEYS = 1024;
+
+    private static final String[] SEVERITIES = { "WARNING", "ERROR", "FATAL_ERROR" };
+
+    private static final Function<ValidationEvent, String> SEVERITY_AND_CAUSE = new Function<ValidationEvent, String>() {
+        @Override
+        public String apply(ValidationEvent event) {
+            String severity = SEVERITIES[event.getSeverity()];
+            Throwable cause = event.getLinkedException();
+            return cause == null ? severity : severity + ' ' + cause.getClass().getName();
+        }
+    };
+
+    private final int maxEvents;
+    /** The retained events, guarded by itself. */
+    private final ValidationEventCollector retained = new ValidationEventCollector();
+    /** Number of events offered to {@link #retained}. */
+    private final AtomicInteger handled = new AtomicInteger();
+    private final LongAdder[] counts = { new LongAdder(), new LongAdder(), new LongAdder() };
+    private final Map<String, LongAdder> keys = new ConcurrentHashMap<String, LongAdder>();
+    private final Function<? super ValidationEvent, String> keyFunction;
+    private final Consumer<? super ValidationEvent> consumer;
+
+    /**
+     * Creates a collector retaining up to {@code maxEvents} events,
+     * and counting them by severity and linked exception.
+     *
+     * @param maxEvents the maximum number of retained events, must not be negative
+     * @throws IllegalArgumentException if {@code maxEvents} is negative
+     */
+    public BoundedValidationEventCollector(int maxEvents) {
+        this(maxEvents, null, null);
+    }
+
+    /**
+     * Creates a collector.
+     *
+     * @param maxEvents the maximum number of retained events, must not be negative
+     * @param keyFunction computes the key under which an event is counted,
+     *      or null to count events by severity and linked exception
+     * @param consumer receives each event as it is handled, or null for none.
+     *      It is called on the thread handling the event and must not
+     *      throw any exception.
+     * @throws IllegalArgumentException if {@code maxEvents} is negative
+     */
+    public BoundedValidationEventCollector(int maxEvents,
+                                           Function<? super ValidationEvent, String> keyFunction,
+                                           Consumer<? super ValidationEvent> consumer) {
+        if (maxEvents < 0) {
+            throw new IllegalArgumentException(Messages.format(Messages.COLLECTOR_ILLEGAL_MAX_EVENTS, maxEvents));
+        }
+        this.maxEvents = maxEvents;
+        this.keyFunction = keyFunction == null ? SEVERITY_AND_CAUSE : keyFunction;
+        this.consumer = consumer;
+    }
+
+    /**
+     * Return an array containing the retained errors and warnings,
+     * in the order they were retained.
+     *
+     * @return
+     *      a copy of the first collected errors and warnings or an empty array
+     *      if there weren't any
+     * @see ValidationEventCollector#getEvents()
+     */
+    public ValidationEvent[] getEvents() {
+        synchronized (retained) {
+            return retained.getEvents();
+        }
+    }
+
+    /**
+     * Clear all collected errors and warnings, and reset all the counts.
+     */
+    public void reset() {
+        synchronized (retained) {
+            retained.reset();
+        }
+        handled.set(0);
+        for (LongAdder c : counts) {
+            c.reset();
+        }
+        keys.clear();
+    }
+
+    /**
+     * Returns true if at least one event was handled since the collector
+     * was created or reset, whether it was retained or not.
+     *
+     * @return true if {@link #getTotalCount()} is not zero
+     */
+    public boolean hasEvents() {
+        return getTotalCount() > 0;
+    }
+
+    @Override
+    public boolean handleEvent(ValidationEvent event) {
+        int severity = event.getSeverity();
+        if (severity < ValidationEvent.WARNING || severity > ValidationEvent.FATAL_ERROR) {
+            throw new InternalError(Messages.format(Messages.UNRECOGNIZED_SEVERITY, severity));
+        }
+
+        // once full, the count is no longer incremented, so it can't overflow
+        if (handled.get() < maxEvents && handled.getAndIncrement() < maxEvents) {
+            synchronized (retained) {
+                retained.handleEvent(event);
+            }
+        }
+        counts[severity].increment();
+        count(keyFunction.apply(event));
+        if (consumer != null) {
+            consumer.accept(event);
+        }
+
+        // halt on fatal errors only
+        return severity != ValidationEvent.FATAL_ERROR;
+    }
+
+    private void count(String key) {
+        if (key == null) {
+            key = "";
+        }
+        LongAdder c = keys.get(key);
+        if (c == null) {
+            if (keys.size() >= MAX_KEYS) {
+                key = "";
+            }
+            LongAdder created = new LongAdder();
+            c = keys.putIfAbsent(key, created);
+            if (c == null) {
+                c = created;
+            }
+        }
+        c.increment();
+    }
+
+    /**
+     * Gets the number of events handled since the collector was created or reset,
+     * whether they were retained or not.
+     *
+     * @return the total number of events
+     */
+    public long getTotalCount() {
+        return counts[ValidationEvent.WARNING].sum()
+             + counts[ValidationEvent.ERROR].sum()
+             + counts[ValidationEvent.FATAL_ERROR].sum();
+    }
+
+    /**
+     * Gets the number of events of a severity handled since the collector
+     * was created or reset.
+     *
+     * @param severity {@link ValidationEvent#WARNING}, {@link ValidationEvent#ERROR}
+     *      or {@link ValidationEvent#FATAL_ERROR}
+     * @return the number of events of that severity
+     * @throws IllegalArgumentException if {@code severity} is not a valid severity
+     */
+    public long getCount(int severity) {
+        if (severity < ValidationEvent.WARNING || severity > ValidationEvent.FATAL_ERROR) {
+            throw new IllegalArgumentException(Messages.format(Messages.UNRECOGNIZED_SEVERITY, severity));
+        }
+        return counts[severity].sum();
+    }
+
+    /**
+     * Gets the number of events that were counted but not retained.
+     *
+     * @return the number of dropped events
+     */
+    public long getDroppedCount() {
+        return Math.max(0, getTotalCount() - maxEvents);
+    }
+
+    /**
+     * Gets the number of events handled for each key since the collector
+     * was created or reset.
+     *
+     * @return a snapshot of the counts, never null
+     */
+    public Map<String, Long> getCountsByKey() {
+        Map<String, Long> snapshot = new HashMap<String, Long>();
+        for (Map.Entry<String, LongAdder> e : keys.entrySet()) {
+            snapshot.put(e.getKey(), e.getValue().sum());
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.util;
+
+import javax.xml.bind.DataBindingException;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.util.NoSuchElementException;
+
+/**
+ * {@link JAXBStreamReader} driven by a StAX cursor.
+ *
+ * <p>
+ * The cursor is only ever advanced up to the start tag of the next
+ * matching element. The unmarshaller then consumes the element
+ * and leaves the cursor right after its end tag.
+ */
+final class CursorStreamReader<T> extends JAXBStreamReader<T> {
+
+    private final Unmarshaller unmarshaller;
+    private final XMLStreamReader reader;
+    private final String namespaceURI;
+    private final String localName;
+    private final Class<T> declaredType;
+
+    /**
+     * True if the cursor sits on the start tag of an element
+     * that hasn't been unmarshalled yet.
+     */
+    private boolean positioned;
+    private boolean closed;
+
+    CursorStreamReader(Unmarshaller unmarshaller, XMLStreamReader reader,
+                       QName elementName, Class<T> declaredType) {
+        this.unmarshaller = unmarshaller;
+        this.reader = reader;
+        this.namespaceURI = elementName.getNamespaceURI();
+        this.localName = elementName.getLocalPart();
+        this.declaredType = declaredType;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        if (positioned) {
+            return true;
+        }
+        try {
+            int event = reader.getEventType();
+            while (true) {
+                if (event == XMLStreamConstants.START_ELEMENT && matches()) {
+                    positioned = true;
+                    return true;
+                }
+                if (event == XMLStreamConstants.END_DOCUMENT || !reader.hasNext()) {
+                    return false;
+                }
+                event = reader.next();
+            }
+        } catch (XMLStreamException e) {
+            throw new DataBindingException(e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        positioned = false;
+        try {
+            return unmarshaller.unmarshal(reader, declaredType).getValue();
+        } catch (JAXBException e) {
+            throw new DataBindingException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        positioned = false;
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new DataBindingException(e);
+        }
+    }
+
+    private boolean matches() {
+        if (!localName.equals(reader.getLocalName())) {
+            return false;
+        }
+        String ns = reader.getNamespaceURI();
+        return namespaceURI.equals(ns == null ? "" : ns);
+    }
+}
@@ -0,0 +1,476 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.util;
+
+import javax.xml.namespace.QName;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.NamespaceSupport;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds SAX filters performing simple streaming rewrites of marshalled
+ * or unmarshalled documents.
+ *
+ * <p>
+ * The supported rewrites are renaming elements, remapping namespace URIs,
+ * dropping attributes and pruning whole subtrees. However many rules are
+ * added, {@link #build()} compiles them into a single {@link XMLFilterImpl},
+ * which looks up each name once per event, without building a tree or
+ * running a stylesheet.
+ *
+ * <blockquote>
+ *    <pre>
+ *       XMLFilterImpl filter = new JAXBFilterBuilder()
+ *           .remapNamespace("urn:orders:v1", "urn:orders:v2")
+ *           .renameElement(new QName("urn:orders:v1", "item"), new QName("urn:orders:v2", "line", "o"))
+ *           .dropAttribute(new QName("", "legacyId"))
+ *           .pruneElement(new QName("urn:orders:v1", "audit"))
+ *           .build();
+ *    </pre>
+ * </blockquote>
+ *
+ * <p>
+ * The filter can be used wherever SAX events flow:
+ * <ul>
+ *   <li>between a {@link JAXBSource} and its consumer, by setting the
+ *       {@link JAXBSource#getXMLReader() reader} of the source as the
+ *       {@link XMLFilterImpl#setParent(org.xml.sax.XMLReader) parent} of
+ *       the filter and passing {@code new SAXSource(filter, source.getInputSource())}
+ *       to the consumer;</li>
+ *   <li>in front of a {@link JAXBResult} or any {@link javax.xml.bind.UnmarshallerHandler},
+ *       by setting it as the {@link XMLFilterImpl#setContentHandler(org.xml.sax.ContentHandler)
+ *       content handler} of the filter and sending the events to the filter;</li>
+ *   <li>in a {@link JAXBPipeline}.</li>
+ * </ul>
+ *
+ * <p>
+ * All the rules match the names of the incoming events. Renamed elements
+ * take the namespace URI and local name of their new name, other element
+ * and attribute names as well as namespace declarations are subject to the
+ * namespace remapping. Attributes are dropped from all the elements. Pruned
+ * elements are removed along with their content and namespace declarations,
+ * including the declarations reported just before them.
+ *
+ * <p>
+ * A builder can be used to build any number of filters. The filters keep
+ * some state while processing a document, so each one must only be used
+ * by one thread at a time.
+ *
+ * @since JAXB 2.3.2
+ */
+public final class JAXBFilterBuilder {
+
+    private final Map<String, Map<String, QName>> renames = new HashMap<String, Map<String, QName>>();
+    private final Map<String, String> namespaces = new HashMap<String, String>();
+    private final Map<String, Set<String>> droppedAttributes = new HashMap<String, Set<String>>();
+    private final Map<String, Set<String>> prunedElements = new HashMap<String, Set<String>>();
+
+    /**
+     * Creates a builder without any rule.
+     */
+    public JAXBFilterBuilder() {
+    }
+
+    /**
+     * Renames an element.
+     *
+     * <p>
+     * The prefix of {@code to} is used in the qualified name of the element,
+     * and a declaration of that prefix is reported around the element if it
+     * isn't in scope already. If the prefix is bound to another namespace URI
+     * at that point, or if it is empty while {@code to} has a namespace URI,
+     * another prefix is generated instead, so that the namespaces of the
+     * content of the element are left unchanged.
+     *
+     * @param from the name of the element to rename, must not be null
+     * @param to the new name of the element, must not be null
+     * @return this builder
+     * @throws IllegalArgumentException if any of the parameters is null
+     */
+    public JAXBFilterBuilder renameElement(QName from, QName to) {
+        JAXBStreamReader.checkNotNull(from, "from");
+        JAXBStreamReader.checkNotNull(to, "to");
+        Map<String, QName> locals = renames.get(from.getNamespaceURI());
+        if (locals == null) {
+            locals = new HashMap<String, QName>();
+            renames.put(from.getNamespaceURI(), locals);
+        }
+        locals.put(from.getLocalPart(), to);
+        return this;
+    }
+
+    /**
+     * Replaces a namespace URI by another one.
+     *
+     * <p>
+     * Prefixes are left unchanged, so that QName values such as
+     * {@code xsi:type} remain valid.
+     *
+     * @param from the namespace URI to replace, must not be null
+     * @param to the replacing namespace URI, must not be null
+     * @return this builder
+     * @throws IllegalArgumentException if any of the parameters is null
+     */
+    public JAXBFilterBuilder remapNamespace(String from, String to) {
+        JAXBStreamReader.checkNotNull(from, "from");
+        JAXBStreamReader.checkNotNull(to, "to");
+        namespaces.put(from, to);
+        return this;
+    }
+
+    /**
+     * Drops an attribute from all the elements.
+     *
+     * @param name the name of the attribute, must not be null
+     * @return this builder
+     * @throws IllegalArgumentException if {@code name} is null
+     */
+    public JAXBFilterBuilder dropAttribute(QName name) {
+        JAXBStreamReader.checkNotNull(name, "name");
+        add(droppedAttributes, name);
+        return this;
+    }
+
+    /**
+     * Removes all the elements with the given name, along with their content.
+     *
+     * @param name the name of the elements, must not be null
+     * @return this builder
+     * @throws IllegalArgumentException if {@code name} is null
+     */
+    public JAXBFilterBuilder pruneElement(QName name) {
+        JAXBStreamReader.checkNotNull(name, "name");
+        add(prunedElements, name);
+        return this;
+    }
+
+    private static void add(Map<String, Set<String>> names, QName name) {
+        Set<String> locals = names.get(name.getNamespaceURI());
+        if (locals == null) {
+            locals = new HashSet<String>();
+            names.put(name.getNamespaceURI(), locals);
+        }
+        locals.add(name.getLocalPart());
+    }
+
+    /**
+     * Compiles the rules added so far into a filter.
+     *
+     * <p>
+     * Rules added to this builder afterwards don't affect the returned filter.
+     *
+     * @return a new filter, never null
+     */
+    public XMLFilterImpl build() {
+        return new CompiledFilter(this);
+    }
+
+    private static <V> Map<String, V> copy(Map<String, V> map) {
+        return map.isEmpty() ? Collections.<String, V>emptyMap() : new HashMap<String, V>(map);
+    }
+
+    /**
+     * Applies all the rules of a builder in one pass.
+     */
+    private static final class CompiledFilter extends XMLFilterImpl {
+
+        private final Map<String, Map<String, QName>> renames;
+        private final Map<String, String> namespaces;
+        private final Map<String, Set<String>> droppedAttributes;
+        private final Map<String, Set<String>> prunedElements;
+
+        private final AttributesImpl attributes = new AttributesImpl();
+
+        /** Depth within the pruned subtree being skipped, 0 outside of it. */
+        private int pruned;
+
+        /** Mappings of the pruned element whose end is still to be skipped. */
+        private int prunedMappings;
+
+        /** Prefix and URI of the mappings reported before the next element. */
+        private final List<String> pending = new ArrayList<String>();
+
+        /** Namespaces in scope in the filtered document. */
+        private final NamespaceSupport scope = new NamespaceSupport();
+
+        /** For each open element, its new name if renamed, and the prefix declared for it. */
+        private final List<QName> openNames = new ArrayList<QName>();
+        private final List<String> openDeclarations = new ArrayList<String>();
+
+        CompiledFilter(JAXBFilterBuilder builder) {
+            Map<String, Map<String, QName>> r = new HashMap<String, Map<String, QName>>();
+            for (Map.Entry<String, Map<String, QName>> e : builder.renames.entrySet()) {
+                r.put(e.getKey(), new HashMap<String, QName>(e.getValue()));
+            }
+            Map<String, Set<String>> d = new HashMap<String, Set<String>>();
+            for (Map.Entry<String, Set<String>> e : builder.droppedAttributes.entrySet()) {
+                d.put(e.getKey(), new HashSet<String>(e.getValue()));
+            }
+            Map<String, Set<String>> p = new HashMap<String, Set<String>>();
+            for (Map.Entry<String, Set<String>> e : builder.prunedElements.entrySet()) {
+                p.put(e.getKey(), new HashSet<String>(e.getValue()));
+            }
+            this.renames = copy(r);
+            this.namespaces = copy(builder.namespaces);
+            this.droppedAttributes = copy(d);
+            this.prunedElements = copy(p);
+        }
+
+        private static boolean contains(Map<String, Set<String>> names, String uri, String localName) {
+            if (names.isEmpty()) {
+                return false;
+            }
+            Set<String> locals = names.get(uri);
+            return locals != null && locals.contains(localName);
+        }
+
+        private QName renamed(String uri, String localName) {
+            if (renames.isEmpty()) {
+                return null;
+            }
+            Map<String, QName> locals = renames.get(uri);
+            return locals == null ? null : locals.get(localName);
+        }
+
+        private String remap(String uri) {
+            if (namespaces.isEmpty()) {
+                return uri;
+            }
+            String to = namespaces.get(uri);
+            return to == null ? uri : to;
+        }
+
+        private static String qName(QName name) {
+            String prefix = name.getPrefix();
+            return prefix.length() == 0 ? name.getLocalPart() : prefix + ':' + name.getLocalPart();
+        }
+
+        @Override
+        public void startDocument() throws SAXException {
+            pruned = 0;
+            prunedMappings = 0;
+            pending.clear();
+            scope.reset();
+            openNames.clear();
+            openDeclarations.clear();
+            super.startDocument();
+        }
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri) throws SAXException {
+            // held back until the element tells whether it is pruned
+            if (pruned == 0) {
+                pending.add(prefix);
+                pending.add(uri);
+            }
+        }
+
+        @Override
+        public void endPrefixMapping(String prefix) throws SAXException {
+            if (pruned > 0) {
+                return;
+            }
+            if (prunedMappings > 0) {
+                prunedMappings--;
+                return;
+            }
+            super.endPrefixMapping(prefix);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+            if (pruned > 0) {
+                pruned++;
+                return;
+            }
+            if (contains(prunedElements, uri, localName)) {
+                pruned = 1;
+                prunedMappings = pending.size() / 2;
+                pending.clear();
+                return;
+            }
+            scope.pushContext();
+            for (int i = 0; i < pending.size(); i += 2) {
+                String prefix = pending.get(i);
+                String to = remap(pending.get(i + 1));
+                scope.declarePrefix(prefix, to);
+                super.startPrefixMapping(prefix, to);
+            }
+            pending.clear();
+
+            Attributes filtered = filter(atts);
+            QName to = renamed(uri, localName);
+            if (to == null) {
+                openNames.add(null);
+                openDeclarations.add(null);
+                super.startElement(remap(uri), localName, qName, filtered);
+                return;
+            }
+            String ns = to.getNamespaceURI();
+            String prefix = to.getPrefix();
+            String declared = null;
+            if (ns.length() == 0) {
+                prefix = "";
+                String bound = scope.getURI("");
+                if (bound != null && bound.length() > 0) {
+                    declared = "";
+                }
+            } else if (prefix.length() == 0 || (scope.getURI(prefix) != null && !ns.equals(scope.getURI(prefix)))) {
+                prefix = scope.getPrefix(ns);
+                if (prefix == null) {
+                    prefix = newPrefix();
+                    declared = prefix;
+                }
+            } else if (scope.getURI(prefix) == null) {
+                declared = prefix;
+            }
+            if (declared != null) {
+                scope.declarePrefix(declared, ns);
+                super.startPrefixMapping(declared, ns);
+            }
+            QName name = new QName(ns, to.getLocalPart(), prefix);
+            openNames.add(name);
+            openDeclarations.add(declared);
+            super.startElement(ns, name.getLocalPart(), qName(name), filtered);
+        }
+
+        private String newPrefix() {
+            for (int i = 1; ; i++) {
+                String prefix = "ns" + i;
+                if (scope.getURI(prefix) == null) {
+                    return prefix;
+                }
+            }
+        }
+
+        private Attributes filter(Attributes atts) {
+            int n = atts.getLength();
+            int i = 0;
+            for (; i < n; i++) {
+                String uri = atts.getURI(i);
+                if (contains(droppedAttributes, uri, atts.getLocalName(i)) || !remap(uri).equals(uri)
+                        || (isNamespaceDeclaration(atts.getQName(i)) && !remap(atts.getValue(i)).equals(atts.getValue(i)))) {
+                    break;
+                }
+            }
+            if (i == n) {
+                // nothing to change, which is by far the most common case
+                return atts;
+            }
+            attributes.clear();
+            for (i = 0; i < n; i++) {
+                String uri = atts.getURI(i);
+                String localName = atts.getLocalName(i);
+                if (!contains(droppedAttributes, uri, localName)) {
+                    String qName = atts.getQName(i);
+                    String value = isNamespaceDeclaration(qName) ? remap(atts.getValue(i)) : atts.getValue(i);
+                    attributes.addAttribute(remap(uri), localName, qName, atts.getType(i), value);
+                }
+            }
+            return attributes;
+        }
+
+        /**
+         * Tells whether an attribute is a namespace declaration, which is
+         * reported as such when the namespace-prefixes feature is enabled.
+         */
+        private static boolean isNamespaceDeclaration(String qName) {
+            return qName.startsWith("xmlns") && (qName.length() == 5 || qName.charAt(5) == ':');
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            if (pruned > 0) {
+                pruned--;
+                return;
+            }
+            int last = openNames.size() - 1;
+            QName name = openNames.remove(last);
+            String declared = openDeclarations.remove(last);
+            if (name == null) {
+                super.endElement(remap(uri), localName, qName);
+            } else {
+                super.endElement(name.getNamespaceURI(), name.getLocalPart(), qName(name));
+            }
+            if (declared != null) {
+                super.endPrefixMapping(declared);
+            }
+            scope.popContext();
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            if (pruned == 0) {
+                super.characters(ch, start, length);
+            }
+        }
+
+        @Override
+        public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+            if (pruned == 0) {
+                super.ignorableWhitespace(ch, start, length);
+            }
+        }
+
+        @Override
+        public void processingInstruction(String target, String data) throws SAXException {
+            if (pruned == 0) {
+                super.processingInstruction(target, data);
+            }
+        }
+
+        @Override
+        public void skippedEntity(String name) throws SAXException {
+            if (pruned == 0) {
+                super.skippedEntity(name);
+            }
+        }
+    }
+}
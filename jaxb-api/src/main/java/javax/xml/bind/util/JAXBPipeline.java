@@ -0,0 +1,232 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.util;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.UnmarshallerHandler;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXResult;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+/**
+ * Converts JAXB objects of one model into JAXB objects of another model
+ * without serializing them.
+ *
+ * <p>
+ * The usual way of doing this combines a {@link JAXBSource}, a
+ * {@link javax.xml.transform.Transformer} and a {@link JAXBResult}. A
+ * pipeline connects the marshaller of the source model directly to the
+ * {@link UnmarshallerHandler} of the target model instead, so the SAX
+ * events produced by marshalling are consumed as they are produced, and
+ * no transformer is involved unless a stylesheet is needed.
+ *
+ * <blockquote>
+ *    <pre>
+ *       JAXBPipeline pipeline = new JAXBPipeline(contextV1, contextV2);
+ *       pipeline.setFilter(renamingFilter);   // optional
+ *
+ *       OrderV2 o2 = (OrderV2) pipeline.transform(orderV1);
+ *    </pre>
+ * </blockquote>
+ *
+ * <p>
+ * Each object goes through the following stages:
+ * <ol>
+ *   <li>It is marshalled to SAX events.</li>
+ *   <li>The events go through the {@link #setFilter(XMLFilterImpl) filter},
+ *       if any, which can rename elements or remap namespaces.</li>
+ *   <li>They are transformed by the {@link #setTemplates(Templates) stylesheet},
+ *       if any. Without a stylesheet, this stage is skipped altogether,
+ *       as opposed to running an identity transformation.</li>
+ *   <li>They are unmarshalled into the resulting object.</li>
+ * </ol>
+ *
+ * <p>
+ * A pipeline uses a single marshaller and a single unmarshaller, and is
+ * therefore not thread-safe. It can be reused for any number of objects.
+ *
+ * @see JAXBSource
+ * @see JAXBResult
+ * @since JAXB 2.3.2
+ */
+public final class JAXBPipeline {
+
+    private final Marshaller marshaller;
+    private final Unmarshaller unmarshaller;
+
+    private XMLFilterImpl filter;
+    private Templates templates;
+    private SAXTransformerFactory transformerFactory;
+
+    /**
+     * Creates a pipeline from objects of {@code source} to objects of {@code target}.
+     *
+     * @param source the context of the objects to transform, must not be null
+     * @param target the context of the resulting objects, must not be null
+     * @throws JAXBException if the marshaller or the unmarshaller can't be created
+     * @throws IllegalArgumentException if any of the parameters is null
+     */
+    public JAXBPipeline(JAXBContext source, JAXBContext target) throws JAXBException {
+        this(checkContext(source, "source").createMarshaller(),
+             checkContext(target, "target").createUnmarshaller());
+    }
+
+    /**
+     * Creates a pipeline with the given marshaller and unmarshaller.
+     *
+     * <p>
+     * It is the caller's responsibility not to use them for other purposes
+     * while they are used by this pipeline.
+     *
+     * @param marshaller marshals the objects to transform, must not be null
+     * @param unmarshaller creates the resulting objects, must not be null
+     * @throws IllegalArgumentException if any of the parameters is null
+     */
+    public JAXBPipeline(Marshaller marshaller, Unmarshaller unmarshaller) {
+        JAXBStreamReader.checkNotNull(marshaller, "marshaller");
+        JAXBStreamReader.checkNotNull(unmarshaller, "unmarshaller");
+        this.marshaller = marshaller;
+        this.unmarshaller = unmarshaller;
+    }
+
+    private static JAXBContext checkContext(JAXBContext context, String name) {
+        JAXBStreamReader.checkNotNull(context, name);
+        return context;
+    }
+
+    /**
+     * Sets the SAX filter applied to the marshalled events.
+     *
+     * <p>
+     * The content handler of the filter is set by the pipeline for each
+     * transformation.
+     *
+     * @param filter the filter, or null for none
+     * @see JAXBFilterBuilder
+     */
+    public void setFilter(XMLFilterImpl filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Gets the SAX filter applied to the marshalled events.
+     *
+     * @return the filter, or null if there is none
+     */
+    public XMLFilterImpl getFilter() {
+        return filter;
+    }
+
+    /**
+     * Sets the stylesheet applied to the marshalled events.
+     *
+     * <p>
+     * The stylesheet is run by a {@link TransformerHandler}, which builds
+     * whatever the stylesheet needs from the incoming events. Compiled
+     * {@link Templates} are thread-safe and can be shared among pipelines.
+     *
+     * @param templates the compiled stylesheet, or null to skip the transformation
+     */
+    public void setTemplates(Templates templates) {
+        this.templates = templates;
+    }
+
+    /**
+     * Gets the stylesheet applied to the marshalled events.
+     *
+     * @return the compiled stylesheet, or null if there is none
+     */
+    public Templates getTemplates() {
+        return templates;
+    }
+
+    /**
+     * Transforms an object.
+     *
+     * @param contentObject the object to transform, must not be null.
+     *      It must be an object the marshaller can marshal.
+     * @return the object unmarshalled from the transformed events, never null
+     * @throws JAXBException if the object can't be marshalled, transformed
+     *      or unmarshalled
+     * @throws IllegalArgumentException if {@code contentObject} is null
+     */
+    public Object transform(Object contentObject) throws JAXBException {
+        JAXBStreamReader.checkNotNull(contentObject, "contentObject");
+
+        UnmarshallerHandler result = unmarshaller.getUnmarshallerHandler();
+        ContentHandler head = result;
+        if (templates != null) {
+            TransformerHandler th = newTransformerHandler();
+            th.setResult(new SAXResult(head));
+            head = th;
+        }
+        if (filter != null) {
+            filter.setContentHandler(head);
+            head = filter;
+        }
+
+        marshaller.marshal(contentObject, head);
+        return result.getResult();
+    }
+
+    private TransformerHandler newTransformerHandler() throws JAXBException {
+        try {
+            if (transformerFactory == null) {
+                TransformerFactory tf = TransformerFactory.newInstance();
+                if (!tf.getFeature(SAXTransformerFactory.FEATURE)) {
+                    throw new JAXBException(
+                        Messages.format(Messages.PIPELINE_NO_SAX_TRANSFORMER, tf.getClass().getName()));
+                }
+                transformerFactory = (SAXTransformerFactory) tf;
+            }
+            return transformerFactory.newTransformerHandler(templates);
+        } catch (TransformerConfigurationException e) {
+            throw new JAXBException(e);
+        }
+    }
+}
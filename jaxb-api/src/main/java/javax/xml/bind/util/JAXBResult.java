@@ -127,6 +127,7 @@ public class JAXBResult extends SAXResult {
             throw new JAXBException( 
                 Messages.format( Messages.RESULT_NULL_UNMARSHALLER ) );
             
+        this.unmarshaller = _unmarshaller;
         this.unmarshallerHandler = _unmarshaller.getUnmarshallerHandler();
         
         super.setHandler(unmarshallerHandler);
@@ -136,7 +137,33 @@ public class JAXBResult extends SAXResult {
      * Unmarshaller that will be used to unmarshal
      * the input documents.
      */
-    private final UnmarshallerHandler unmarshallerHandler;
+    private final Unmarshaller unmarshaller;
+
+    /**
+     * Handler receiving the current input document.
+     */
+    private UnmarshallerHandler unmarshallerHandler;
+
+    /**
+     * Prepares this result to receive another document.
+     *
+     * <p>
+     * A new {@link UnmarshallerHandler} is obtained from the same
+     * {@link Unmarshaller}, and the result of the previous transformation
+     * is discarded. This allows a result to be pooled, for example one per
+     * thread, along with its unmarshaller, and reused for each message
+     * instead of being created anew. A result must not be reset while
+     * a transformation is writing to it.
+     *
+     * @since JAXB 2.3.2
+     */
+    public void reset() {
+        this.unmarshallerHandler = unmarshaller.getUnmarshallerHandler();
+
+        super.setHandler(unmarshallerHandler);
+        super.setLexicalHandler(null);
+        super.setSystemId(null);
+    }
 
     /**
      * Gets the unmarshalled object created by the transformation.
@@ -55,7 +55,10 @@ import org.xml.sax.helpers.XMLFilterImpl;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.stax.StAXSource;
+import java.util.concurrent.Executor;
 import org.xml.sax.XMLFilter;
 
 /**
@@ -100,6 +103,13 @@ import org.xml.sax.XMLFilter;
  * method shall be used only for being parsed by the XMLReader object
  * returned by the getXMLReader.
  *
+ * <p>
+ * By default, SAX events go through an intermediate filter so that the
+ * {@link ContentHandler} can be replaced while parsing. Sources created by
+ * {@link #newDirectSource(Marshaller, Object)} skip that layer, and
+ * {@link #newStAXSource(Marshaller, Object, Executor)} exposes the same content to
+ * consumers that read StAX events.
+ *
  * @author
  * 	Kohsuke Kawaguchi (kohsuke.kawaguchi@sun.com)
  * @since 1.6
@@ -150,7 +160,12 @@ public class JAXBSource extends SAXSource {
      */
     public JAXBSource( Marshaller marshaller, Object contentObject ) 
         throws JAXBException {
-            
+        this( marshaller, contentObject, false );
+    }
+
+    private JAXBSource( Marshaller marshaller, Object contentObject, boolean direct )
+        throws JAXBException {
+
         if( marshaller == null )
             throw new JAXBException( 
                 Messages.format( Messages.SOURCE_NULL_MARSHALLER ) );
@@ -161,14 +176,136 @@ public class JAXBSource extends SAXSource {
             
         this.marshaller = marshaller;
         this.contentObject = contentObject;
+        this.direct = direct;
         
         super.setXMLReader(pseudoParser);
         // pass a dummy InputSource. We don't care
         super.setInputSource(new InputSource());
     }
     
+    /**
+     * Creates a {@link javax.xml.transform.Source} that marshals
+     * straight to the {@link ContentHandler} of its consumer.
+     *
+     * <p>
+     * Each SAX event of the marshaller is delivered directly to the content
+     * handler set on {@link #getXMLReader()}, instead of being relayed by an
+     * intermediate filter. The content handler must therefore be set before
+     * parsing starts and must not be replaced while parsing, which is how
+     * JAXP transformers use a {@code SAXSource}.
+     *
+     * @param   marshaller
+     *      A marshaller instance that will be used to marshal
+     *      <code>contentObject</code> into XML. It must not be null.
+     * @param   contentObject
+     *      An instance of a JAXB-generated class. It must not be null.
+     * @return a new source, never null
+     * @throws JAXBException if either of the parameters is null.
+     * @since JAXB 2.3.2
+     */
+    public static JAXBSource newDirectSource( Marshaller marshaller, Object contentObject )
+        throws JAXBException {
+        return new JAXBSource( marshaller, contentObject, true );
+    }
+
+    /**
+     * Creates a {@link StAXSource} for the given content object.
+     *
+     * <p>
+     * The returned source reads {@link javax.xml.stream.events.XMLEvent}s
+     * and suits transformers and other consumers that support StAX input.
+     * The object isn't marshalled until events past the start of the
+     * document are read. It is then marshalled on {@code executor} with
+     * {@link Marshaller#marshal(Object, javax.xml.stream.XMLEventWriter)},
+     * which waits while the reader is a few batches of events behind, so the
+     * events are produced as they are consumed and the document is never
+     * held in memory as a whole. In {@link Marshaller#JAXB_FRAGMENT fragment}
+     * mode, the events still start and end with a document.
+     * A marshalling error is reported as an
+     * {@link javax.xml.stream.XMLStreamException} by the event reader.
+     *
+     * <p>
+     * The event reader of the source must either be read up to the end of
+     * the document or be closed, which stops the marshaller. Otherwise the
+     * marshaller keeps waiting, and holds a thread of {@code executor}.
+     *
+     * @param   marshaller
+     *      A marshaller instance that will be used to marshal
+     *      <code>contentObject</code> into XML. It must not be null.
+     * @param   contentObject
+     *      An instance of a JAXB-generated class. It must not be null.
+     * @param   executor
+     *      Runs the marshaller. It must not be null, and must not run
+     *      the marshaller on the thread reading the events.
+     * @return a new source, never null
+     * @throws JAXBException if any of the parameters is null.
+     * @since JAXB 2.3.2
+     */
+    public static StAXSource newStAXSource( Marshaller marshaller, Object contentObject, Executor executor )
+        throws JAXBException {
+
+        if( marshaller == null )
+            throw new JAXBException(
+                Messages.format( Messages.SOURCE_NULL_MARSHALLER ) );
+
+        if( contentObject == null )
+            throw new JAXBException(
+                Messages.format( Messages.SOURCE_NULL_CONTENT ) );
+
+        if( executor == null )
+            throw new JAXBException(
+                Messages.format( Messages.MUST_NOT_BE_NULL, "executor" ) );
+
+        try {
+            return new StAXSource( new MarshallingEventReader( marshaller, contentObject, executor ) );
+        } catch( XMLStreamException e ) {
+            // can't happen, the reader starts with a start document event
+            throw new JAXBException( e );
+        }
+    }
+
+    /**
+     * Replaces the object this source marshals, so that the source can be
+     * reused for another transformation.
+     *
+     * <p>
+     * The handlers set on {@link #getXMLReader()} by the previous consumer
+     * are cleared. The marshaller and the XMLReader are kept, so a source
+     * can be pooled, for example one per thread, and reset for each message
+     * instead of being created anew. A source must not be reset while it is
+     * being parsed.
+     *
+     * @param   contentObject
+     *      An instance of a JAXB-generated class, which will be
+     *      used as a {@link javax.xml.transform.Source} (by marshalling it into XML).  It must
+     *      not be null.
+     * @throws JAXBException if the content object is null.
+     * @since JAXB 2.3.2
+     */
+    public void reset( Object contentObject ) throws JAXBException {
+        if( contentObject == null )
+            throw new JAXBException(
+                Messages.format( Messages.SOURCE_NULL_CONTENT ) );
+
+        this.contentObject = contentObject;
+
+        pseudoParser.setContentHandler(null);
+        pseudoParser.setErrorHandler(null);
+        pseudoParser.setDTDHandler(null);
+        pseudoParser.setEntityResolver(null);
+        try {
+            pseudoParser.setProperty("http://xml.org/sax/properties/lexical-handler", null);
+        } catch( SAXException e ) {
+            // the pseudo parser always recognizes this property
+            throw new JAXBException(e);
+        }
+        super.setXMLReader(pseudoParser);
+    }
+
     private final Marshaller marshaller;
-    private final Object contentObject;
+    private Object contentObject;
+    // true if events go straight to the content handler, without the repeater
+    private final boolean direct;
     
     // this object will pretend as an XMLReader.
     // no matter what parameter is specified to the parse method,
@@ -256,8 +393,12 @@ public class JAXBSource extends SAXSource {
             // parses a content object by using the given marshaller
             // SAX events will be sent to the repeater, and the repeater
             // will further forward it to an appropriate component.
+            // In the direct mode, they go straight to that component.
             try {
-                marshaller.marshal( contentObject, (XMLFilterImpl)repeater );
+                ContentHandler handler = repeater.getContentHandler();
+                if( !direct || handler == null )
+                    handler = (XMLFilterImpl)repeater;
+                marshaller.marshal( contentObject, handler );
             } catch( JAXBException e ) {
                 // wrap it to a SAXException
                 SAXParseException se =
@@ -0,0 +1,293 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.util;
+
+import javax.xml.bind.DataBindingException;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Unmarshals the repeated elements of a large document one at a time.
+ *
+ * <p>
+ * Documents such as {@code <orders><order/><order/>...</orders>} are often
+ * too large to be unmarshalled as a whole. A {@code JAXBStreamReader} walks
+ * such a document with a StAX cursor and unmarshals each element with the
+ * requested name only when the next object is asked for, so only one record
+ * is held in memory at any time.
+ *
+ * <blockquote>
+ *    <pre>
+ *       XMLStreamReader xsr = xmlInputFactory.createXMLStreamReader(in);
+ *       try (JAXBStreamReader&lt;Order&gt; orders = JAXBStreamReader.newReader(
+ *               jaxbContext.createUnmarshaller(), xsr,
+ *               new QName("urn:orders", "order"), Order.class)) {
+ *           while (orders.hasNext()) {
+ *               process(orders.next());
+ *           }
+ *       }
+ *    </pre>
+ * </blockquote>
+ *
+ * <p>
+ * Reading is driven by the consumer: nothing is parsed ahead of what
+ * {@link #hasNext()} and {@link #next()} require, and {@link #close()} stops
+ * the processing at any point. The same objects are also available as a
+ * sequential {@link Stream} through {@link #stream()}.
+ *
+ * <p>
+ * Documents made of many independent records can also be unmarshalled
+ * on several threads with {@link #newParallelReader newParallelReader}.
+ *
+ * <p>
+ * Errors reported by the underlying unmarshaller or StAX parser are wrapped
+ * into {@link DataBindingException}, since the {@link Iterator} methods
+ * can't throw checked exceptions.
+ *
+ * <p>
+ * Instances are not thread-safe.
+ *
+ * @param <T> the type of the unmarshalled objects
+ * @see Unmarshaller#unmarshal(XMLStreamReader, Class)
+ * @since JAXB 2.3.2
+ */
+public abstract class JAXBStreamReader<T> implements Iterator<T>, Closeable {
+
+    JAXBStreamReader() {
+    }
+
+    /**
+     * Creates a reader that unmarshals, in document order, every element
+     * named {@code elementName} found by the given StAX cursor.
+     *
+     * <p>
+     * The {@code reader} can be positioned anywhere in the document.
+     * Matching elements are looked up from its current event onwards,
+     * whatever their depth. Each matching element is unmarshalled with
+     * {@link Unmarshaller#unmarshal(XMLStreamReader, Class)}, which consumes
+     * its whole subtree.
+     *
+     * <p>
+     * The returned reader owns {@code unmarshaller} and {@code reader} until
+     * it is closed. Closing it closes {@code reader}, but not the underlying
+     * input source.
+     *
+     * @param unmarshaller the unmarshaller used for every element, must not be null
+     * @param reader the StAX cursor over the document, must not be null
+     * @param elementName the name of the repeated element, must not be null
+     * @param declaredType the class the elements are bound to, must not be null
+     * @param <T> the type of the unmarshalled objects
+     * @return a new reader, never null
+     * @throws IllegalArgumentException if any of the parameters is null
+     */
+    public static <T> JAXBStreamReader<T> newReader(Unmarshaller unmarshaller,
+                                                    XMLStreamReader reader,
+                                                    QName elementName,
+                                                    Class<T> declaredType) {
+        checkNotNull(unmarshaller, "unmarshaller");
+        checkNotNull(reader, "reader");
+        checkNotNull(elementName, "elementName");
+        checkNotNull(declaredType, "declaredType");
+
+        return new CursorStreamReader<T>(unmarshaller, reader, elementName, declaredType);
+    }
+
+    /**
+     * Creates a reader that unmarshals the records of a large document
+     * concurrently, using the common {@link ForkJoinPool} and delivering
+     * the objects in document order.
+     *
+     * <p>
+     * This is a shortcut for
+     * {@link #newParallelReader(JAXBContext, InputStream, QName, Class, ForkJoinPool, boolean)}.
+     *
+     * @param context the context unmarshallers are created from, must not be null
+     * @param in the document, must not be null
+     * @param elementName the name of the records, must not be null
+     * @param declaredType the class the records are bound to, must not be null
+     * @param <T> the type of the unmarshalled objects
+     * @return a new reader, never null
+     * @throws IllegalArgumentException if any of the parameters is null
+     */
+    public static <T> JAXBStreamReader<T> newParallelReader(JAXBContext context,
+                                                            InputStream in,
+                                                            QName elementName,
+                                                            Class<T> declaredType) {
+        return newParallelReader(context, in, elementName, declaredType, ForkJoinPool.commonPool(), true);
+    }
+
+    /**
+     * Creates a reader that unmarshals the records of a large document
+     * concurrently.
+     *
+     * <p>
+     * This mode is meant for documents made of many independent records,
+     * such as {@code <orders><order/><order/>...</orders>}. Only the
+     * children of the root element named {@code elementName} are
+     * unmarshalled, other children are ignored. The reader splits the input
+     * into records as it is consumed and hands each of them to {@code pool},
+     * where it is unmarshalled with an {@link Unmarshaller} created from
+     * {@code context} and reused by later records. A bounded number of records is
+     * in flight at any time, so memory use doesn't depend on the size of
+     * the document.
+     *
+     * <p>
+     * When {@code ordered} is true, objects are returned in document order.
+     * Otherwise they are returned as soon as they are unmarshalled, which
+     * keeps all the workers busy even when some records take much longer
+     * than others.
+     *
+     * <p>
+     * Records are located without parsing the document, so the following
+     * restrictions apply:
+     * <ul>
+     *   <li>The document must be encoded in UTF-8 or in another ASCII
+     *       compatible, single-byte encoding.</li>
+     *   <li>The document must not have a DOCTYPE declaration.</li>
+     *   <li>Each record must be unmarshallable on its own. In-scope
+     *       namespace declarations of the root element are preserved,
+     *       but attributes such as {@code xml:base} inherited from the
+     *       root element are not visible to the unmarshaller.</li>
+     * </ul>
+     *
+     * <p>
+     * Closing the returned reader cancels the pending records,
+     * but doesn't close {@code in}.
+     *
+     * @param context the context unmarshallers are created from, must not be null
+     * @param in the document, must not be null
+     * @param elementName the name of the records, must not be null
+     * @param declaredType the class the records are bound to, must not be null
+     * @param pool the pool the records are unmarshalled on, must not be null
+     * @param ordered true to return the objects in document order
+     * @param <T> the type of the unmarshalled objects
+     * @return a new reader, never null
+     * @throws IllegalArgumentException if any of the parameters is null
+     */
+    public static <T> JAXBStreamReader<T> newParallelReader(JAXBContext context,
+                                                            InputStream in,
+                                                            QName elementName,
+                                                            Class<T> declaredType,
+                                                            ForkJoinPool pool,
+                                                            boolean ordered) {
+        checkNotNull(context, "context");
+        checkNotNull(in, "in");
+        checkNotNull(elementName, "elementName");
+        checkNotNull(declaredType, "declaredType");
+        checkNotNull(pool, "pool");
+
+        return new ParallelStreamReader<T>(context, in, elementName, declaredType, pool, ordered);
+    }
+
+    /**
+     * Returns true if another element is available.
+     *
+     * <p>
+     * This method may advance the underlying parser up to the start of
+     * the next matching element. It returns false once the end of the
+     * document is reached or after this reader is closed.
+     *
+     * @throws DataBindingException if the document can't be read
+     */
+    public abstract boolean hasNext();
+
+    /**
+     * Unmarshals the next element.
+     *
+     * @return the value of the next element, which may be null for a nil element
+     * @throws java.util.NoSuchElementException if there are no more elements
+     * @throws DataBindingException if the element can't be unmarshalled
+     */
+    public abstract T next();
+
+    /**
+     * Stops the processing and releases the underlying parser.
+     *
+     * <p>
+     * Calling this method more than once has no effect.
+     *
+     * @throws DataBindingException if the underlying parser can't be closed
+     */
+    public abstract void close();
+
+    /**
+     * Always throws {@link UnsupportedOperationException}.
+     */
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns the remaining objects as a sequential, ordered {@link Stream}.
+     *
+     * <p>
+     * The stream is lazy and shares the state of this reader. Closing the
+     * stream closes this reader.
+     *
+     * @return a stream over the remaining objects, never null
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+                .onClose(new Runnable() {
+                    @Override
+                    public void run() {
+                        close();
+                    }
+                });
+    }
+
+    static void checkNotNull(Object o, String name) {
+        if (o == null) {
+            throw new IllegalArgumentException(
+                Messages.format(Messages.MUST_NOT_BE_NULL, name));
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.util;
+
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.MarshalException;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Marshals a large collection document one item at a time.
+ *
+ * <p>
+ * A {@code JAXBStreamWriter} writes the XML declaration and the start tag
+ * of a wrapper element once, then marshals every item passed to
+ * {@link #write(Object)} as a fragment into the same {@link XMLStreamWriter}.
+ * {@link #close()} ends the wrapper element and the document. Items are not
+ * retained, so a document of any size can be produced with only the current
+ * item in memory.
+ *
+ * <blockquote>
+ *    <pre>
+ *       XMLStreamWriter xsw = xmlOutputFactory.createXMLStreamWriter(out, "UTF-8");
+ *       Map&lt;String,String&gt; ns = Collections.singletonMap("o", "urn:orders");
+ *       try (JAXBStreamWriter w = JAXBStreamWriter.newWriter(
+ *               jaxbContext.createMarshaller(), xsw,
+ *               new QName("urn:orders", "orders", "o"), ns)) {
+ *           for (Order order : orders) {
+ *               w.write(order);
+ *           }
+ *       }
+ *    </pre>
+ * </blockquote>
+ *
+ * <p>
+ * Namespace declarations passed to the factory method are written once on
+ * the wrapper element and bound on the underlying writer, so that items in
+ * those namespaces can reuse them instead of declaring them over and over.
+ *
+ * <p>
+ * The underlying writer is flushed after every {@link #getBatchSize() batch}
+ * of items, which bounds the amount of output buffered by the writer without
+ * paying the cost of a flush per item.
+ *
+ * <p>
+ * Instances are not thread-safe.
+ *
+ * @see Marshaller#JAXB_FRAGMENT
+ * @see JAXBStreamReader
+ * @since JAXB 2.3.2
+ */
+public final class JAXBStreamWriter implements AutoCloseable {
+
+    /**
+     * Number of items written between two flushes unless configured
+     * otherwise with {@link #setBatchSize(int)}.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final Marshaller marshaller;
+    private final XMLStreamWriter writer;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private long count;
+    private boolean closed;
+
+    private JAXBStreamWriter(Marshaller marshaller, XMLStreamWriter writer) {
+        this.marshaller = marshaller;
+        this.writer = writer;
+    }
+
+    /**
+     * Creates a writer that wraps the items into an element named
+     * {@code rootName}.
+     *
+     * <p>
+     * This is a shortcut for {@link #newWriter(Marshaller, XMLStreamWriter, QName, Map)}
+     * with no additional namespace declaration.
+     *
+     * @param marshaller the marshaller used for every item, must not be null
+     * @param writer the StAX writer receiving the document, must not be null
+     * @param rootName the name of the wrapper element, must not be null
+     * @return a new writer, never null
+     * @throws JAXBException if the prolog and the wrapper element can't be written
+     * @throws IllegalArgumentException if any of the parameters is null
+     */
+    public static JAXBStreamWriter newWriter(Marshaller marshaller,
+                                             XMLStreamWriter writer,
+                                             QName rootName) throws JAXBException {
+        return newWriter(marshaller, writer, rootName, Collections.<String, String>emptyMap());
+    }
+
+    /**
+     * Creates a writer that wraps the items into an element named
+     * {@code rootName} declaring the given namespaces.
+     *
+     * <p>
+     * This method sets {@link Marshaller#JAXB_FRAGMENT} on {@code marshaller}
+     * and writes the XML declaration followed by the start tag of the
+     * wrapper element. The declaration names the {@link Marshaller#JAXB_ENCODING}
+     * of {@code marshaller}, UTF-8 if it has none, which must be the
+     * encoding {@code writer} was created with. The returned writer owns
+     * {@code marshaller} and {@code writer} until it is closed.
+     *
+     * @param marshaller the marshaller used for every item, must not be null
+     * @param writer the StAX writer receiving the document, must not be null
+     * @param rootName the name of the wrapper element, must not be null.
+     *      Its prefix is used for the wrapper element.
+     * @param namespaces namespace URIs keyed by prefix to declare on the
+     *      wrapper element, must not be null. The empty prefix declares
+     *      the default namespace.
+     * @return a new writer, never null
+     * @throws JAXBException if the prolog and the wrapper element can't be written
+     * @throws IllegalArgumentException if any of the parameters is null
+     */
+    public static JAXBStreamWriter newWriter(Marshaller marshaller,
+                                             XMLStreamWriter writer,
+                                             QName rootName,
+                                             Map<String, String> namespaces) throws JAXBException {
+        JAXBStreamReader.checkNotNull(marshaller, "marshaller");
+        JAXBStreamReader.checkNotNull(writer, "writer");
+        JAXBStreamReader.checkNotNull(rootName, "rootName");
+        JAXBStreamReader.checkNotNull(namespaces, "namespaces");
+
+        Object encoding = marshaller.getProperty(Marshaller.JAXB_ENCODING);
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+
+        JAXBStreamWriter w = new JAXBStreamWriter(marshaller, writer);
+        w.writeStart(encoding == null ? "UTF-8" : encoding.toString(), rootName, namespaces);
+        return w;
+    }
+
+    private void writeStart(String encoding, QName rootName, Map<String, String> namespaces) throws JAXBException {
+        String prefix = rootName.getPrefix();
+        String uri = rootName.getNamespaceURI();
+        try {
+            writer.writeStartDocument(encoding, "1.0");
+            writer.writeStartElement(prefix, rootName.getLocalPart(), uri);
+            if (!XMLConstants.NULL_NS_URI.equals(uri) && !uri.equals(namespaces.get(prefix))) {
+                writeNamespace(prefix, uri);
+            }
+            for (Map.Entry<String, String> e : namespaces.entrySet()) {
+                writeNamespace(e.getKey(), e.getValue());
+            }
+        } catch (XMLStreamException e) {
+            throw new MarshalException(e);
+        }
+    }
+
+    private void writeNamespace(String prefix, String uri) throws XMLStreamException {
+        if (XMLConstants.DEFAULT_NS_PREFIX.equals(prefix)) {
+            writer.setDefaultNamespace(uri);
+            writer.writeDefaultNamespace(uri);
+        } else {
+            writer.setPrefix(prefix, uri);
+            writer.writeNamespace(prefix, uri);
+        }
+    }
+
+    /**
+     * Marshals one item as the next child of the wrapper element.
+     *
+     * @param item the item to marshal, must not be null. It must be an
+     *      object that {@link Marshaller#marshal(Object, XMLStreamWriter)}
+     *      accepts, such as a root element or a
+     *      {@link javax.xml.bind.JAXBElement}.
+     * @throws JAXBException if the item can't be marshalled
+     * @throws IllegalArgumentException if {@code item} is null
+     * @throws IllegalStateException if this writer has been closed
+     */
+    public void write(Object item) throws JAXBException {
+        JAXBStreamReader.checkNotNull(item, "item");
+        checkOpen();
+
+        marshaller.marshal(item, writer);
+        if (++count % batchSize == 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Flushes the underlying writer.
+     *
+     * @throws JAXBException if the writer can't be flushed
+     * @throws IllegalStateException if this writer has been closed
+     */
+    public void flush() throws JAXBException {
+        checkOpen();
+        try {
+            writer.flush();
+        } catch (XMLStreamException e) {
+            throw new MarshalException(e);
+        }
+    }
+
+    /**
+     * Ends the wrapper element and the document, then flushes and
+     * closes the underlying writer.
+     *
+     * <p>
+     * As for {@link XMLStreamWriter#close()}, the output stream or writer
+     * the {@link XMLStreamWriter} was created on is not closed.
+     * Calling this method more than once has no effect.
+     *
+     * @throws JAXBException if the end of the document can't be written
+     */
+    @Override
+    public void close() throws JAXBException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.flush();
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new MarshalException(e);
+        }
+    }
+
+    /**
+     * Gets the number of items written so far.
+     *
+     * @return the number of successful calls to {@link #write(Object)}
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the number of items written between two flushes
+     * of the underlying writer.
+     *
+     * @return the batch size, always positive
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Sets the number of items written between two flushes
+     * of the underlying writer.
+     *
+     * @param batchSize the batch size, must be positive
+     * @throws IllegalArgumentException if {@code batchSize} is not positive
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException(
+                Messages.format(Messages.STREAM_WRITER_ILLEGAL_BATCH_SIZE, batchSize));
+        }
+        this.batchSize = batchSize;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException(
+                Messages.format(Messages.STREAM_WRITER_CLOSED));
+        }
+    }
+
+}
@@ -0,0 +1,532 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.util;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Characters;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import org.xml.sax.helpers.NamespaceSupport;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link XMLEventReader} over the events of a marshalled object.
+ *
+ * <p>
+ * Nothing is marshalled until an event past the start of the document is
+ * requested, so creating a {@link javax.xml.transform.stax.StAXSource} over
+ * this reader is cheap. The object is then marshalled on the executor, which
+ * hands the events over to the reader in batches. The marshaller waits
+ * while {@link #MAX_BATCHES} batches are ready, so only a bounded part of
+ * the document is held in memory whatever its size.
+ *
+ * <p>
+ * Closing the reader stops the marshaller at its next event. A reader that
+ * is neither read up to the end of the document nor closed keeps the
+ * marshaller waiting.
+ */
+final class MarshallingEventReader implements XMLEventReader {
+
+    /** Number of events handed over at once. */
+    static final int BATCH_SIZE = 64;
+
+    /** Number of batches ready before the marshaller waits. */
+    static final int MAX_BATCHES = 2;
+
+    private final Marshaller marshaller;
+    private final Object contentObject;
+    private final Executor executor;
+    private final XMLEventFactory factory = XMLEventFactory.newFactory();
+
+    /** Start and end of the document, the marshaller doesn't write them in fragment mode. */
+    private final XMLEvent startDocument;
+    private final XMLEvent endDocument;
+
+    // shared with the marshaller, guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition ready = lock.newCondition();
+    private final Condition taken = lock.newCondition();
+    private final ArrayDeque<List<XMLEvent>> batches = new ArrayDeque<List<XMLEvent>>();
+    private boolean done;
+    private boolean closed;
+    private XMLStreamException error;
+
+    // only accessed by the reader
+    private boolean started;
+    private boolean startDocumentRead;
+    private List<XMLEvent> batch = Collections.emptyList();
+    private int index;
+
+    MarshallingEventReader(Marshaller marshaller, Object contentObject, Executor executor) {
+        this.marshaller = marshaller;
+        this.contentObject = contentObject;
+        this.executor = executor;
+        // StAXSource reads the system id from the location of the first event
+        factory.setLocation(new Location() {
+            @Override
+            public int getLineNumber() {
+                return -1;
+            }
+
+            @Override
+            public int getColumnNumber() {
+                return -1;
+            }
+
+            @Override
+            public int getCharacterOffset() {
+                return -1;
+            }
+
+            @Override
+            public String getPublicId() {
+                return null;
+            }
+
+            @Override
+            public String getSystemId() {
+                return null;
+            }
+        });
+        this.startDocument = factory.createStartDocument();
+        this.endDocument = factory.createEndDocument();
+    }
+
+    /**
+     * Returns the next event without consuming it, or null at the end.
+     */
+    private XMLEvent fetch() throws XMLStreamException {
+        if (!startDocumentRead) {
+            return startDocument;
+        }
+        if (index < batch.size()) {
+            return batch.get(index);
+        }
+        if (!started) {
+            started = true;
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        produce();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                throw new XMLStreamException(e);
+            }
+        }
+        lock.lock();
+        try {
+            while (batches.isEmpty() && !done && !closed) {
+                ready.await();
+            }
+            if (closed) {
+                return null;
+            }
+            if (!batches.isEmpty()) {
+                batch = batches.removeFirst();
+                index = 0;
+                taken.signal();
+                return batch.get(0);
+            }
+            if (error != null) {
+                throw error;
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new XMLStreamException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public XMLEvent nextEvent() throws XMLStreamException {
+        XMLEvent e = fetch();
+        if (e == null) {
+            throw new NoSuchElementException();
+        }
+        if (!startDocumentRead) {
+            startDocumentRead = true;
+        } else {
+            index++;
+        }
+        return e;
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            return fetch() != null;
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public XMLEvent peek() throws XMLStreamException {
+        return fetch();
+    }
+
+    @Override
+    public Object next() {
+        try {
+            return nextEvent();
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getElementText() throws XMLStreamException {
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            XMLEvent e = nextEvent();
+            switch (e.getEventType()) {
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    sb.append(e.asCharacters().getData());
+                    break;
+                case XMLStreamConstants.COMMENT:
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    return sb.toString();
+                default:
+                    throw new XMLStreamException(Messages.format(Messages.SCANNER_MALFORMED), e.getLocation());
+            }
+        }
+    }
+
+    @Override
+    public XMLEvent nextTag() throws XMLStreamException {
+        while (true) {
+            XMLEvent e = nextEvent();
+            if (e.isStartElement() || e.isEndElement()) {
+                return e;
+            }
+            boolean ignorable = e.getEventType() == XMLStreamConstants.COMMENT
+                || e.getEventType() == XMLStreamConstants.PROCESSING_INSTRUCTION
+                || e.getEventType() == XMLStreamConstants.SPACE
+                || (e.isCharacters() && ((Characters) e).isWhiteSpace());
+            if (!ignorable) {
+                throw new XMLStreamException(Messages.format(Messages.SCANNER_MALFORMED), e.getLocation());
+            }
+        }
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        throw new IllegalArgumentException(name);
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            batches.clear();
+            ready.signalAll();
+            taken.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        batch = Collections.emptyList();
+    }
+
+    /**
+     * Runs on the executor.
+     */
+    private void produce() {
+        Collector collector = new Collector();
+        XMLStreamException failure = null;
+        try {
+            marshaller.marshal(contentObject, collector);
+            collector.end();
+        } catch (JAXBException e) {
+            failure = new XMLStreamException(e);
+        } catch (XMLStreamException e) {
+            failure = e;
+        } catch (RuntimeException e) {
+            failure = new XMLStreamException(e);
+        }
+        lock.lock();
+        try {
+            done = true;
+            error = failure;
+            ready.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands a batch over to the reader, waiting while enough are ready.
+     */
+    private void publish(List<XMLEvent> events) throws XMLStreamException {
+        lock.lock();
+        try {
+            while (batches.size() >= MAX_BATCHES && !closed) {
+                taken.await();
+            }
+            if (closed) {
+                // stops the marshaller
+                throw new XMLStreamException(Messages.format(Messages.EVENT_READER_CLOSED));
+            }
+            batches.addLast(events);
+            ready.signal();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new XMLStreamException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Receives the events from the marshaller.
+     */
+    private final class Collector implements XMLEventWriter {
+
+        /** In-scope namespace bindings, one context per open element. */
+        private final NamespaceSupport namespaces = new NamespaceSupport();
+        private NamespaceContext context;
+
+        private List<XMLEvent> events = new ArrayList<XMLEvent>(BATCH_SIZE);
+        private boolean first = true;
+        private boolean ended;
+
+        /**
+         * Start of the last element, held back while the marshaller adds
+         * its attributes and namespace declarations as separate events.
+         */
+        private StartElement open;
+        private final List<Attribute> attributes = new ArrayList<Attribute>();
+        private final List<Namespace> declarations = new ArrayList<Namespace>();
+        private boolean merged;
+
+        @Override
+        public void add(XMLEvent event) throws XMLStreamException {
+            if (first) {
+                first = false;
+                // the start of the document has already been reported
+                if (event.isStartDocument()) {
+                    return;
+                }
+            }
+            if (open != null && (event.isAttribute() || event.isNamespace())) {
+                if (event.isNamespace()) {
+                    declare((Namespace) event);
+                    declarations.add((Namespace) event);
+                } else {
+                    attributes.add((Attribute) event);
+                }
+                merged = true;
+                return;
+            }
+            reportOpen();
+            if (event.isStartElement()) {
+                open = event.asStartElement();
+                namespaces.pushContext();
+                for (Iterator<?> it = open.getNamespaces(); it.hasNext(); ) {
+                    Namespace ns = (Namespace) it.next();
+                    declare(ns);
+                    declarations.add(ns);
+                }
+                for (Iterator<?> it = open.getAttributes(); it.hasNext(); ) {
+                    attributes.add((Attribute) it.next());
+                }
+                return;
+            }
+            if (event.isEndElement()) {
+                namespaces.popContext();
+            } else if (event.isNamespace()) {
+                declare((Namespace) event);
+            } else if (event.isEndDocument()) {
+                ended = true;
+            }
+            append(event);
+        }
+
+        /**
+         * Reports the held back start of element with all its attributes and declarations.
+         */
+        private void reportOpen() throws XMLStreamException {
+            if (open == null) {
+                return;
+            }
+            XMLEvent start = open;
+            if (merged) {
+                QName name = open.getName();
+                start = factory.createStartElement(name.getPrefix(), name.getNamespaceURI(), name.getLocalPart(),
+                        attributes.iterator(), declarations.iterator(), open.getNamespaceContext());
+            }
+            open = null;
+            attributes.clear();
+            declarations.clear();
+            merged = false;
+            append(start);
+        }
+
+        private void append(XMLEvent event) throws XMLStreamException {
+            events.add(event);
+            if (events.size() == BATCH_SIZE) {
+                publish(events);
+                events = new ArrayList<XMLEvent>(BATCH_SIZE);
+            }
+        }
+
+        private void declare(Namespace ns) {
+            namespaces.declarePrefix(ns.getPrefix(), ns.getNamespaceURI());
+        }
+
+        @Override
+        public void add(XMLEventReader reader) throws XMLStreamException {
+            while (reader.hasNext()) {
+                add(reader.nextEvent());
+            }
+        }
+
+        /**
+         * Hands the last events over, ending the document if the marshaller didn't.
+         */
+        void end() throws XMLStreamException {
+            reportOpen();
+            if (!ended) {
+                events.add(endDocument);
+            }
+            // empty when the last event filled a batch
+            if (!events.isEmpty()) {
+                publish(events);
+            }
+        }
+
+        @Override
+        public String getPrefix(String uri) {
+            if (uri.equals(namespaces.getURI(""))) {
+                return "";
+            }
+            String prefix = namespaces.getPrefix(uri);
+            if (prefix == null && context != null) {
+                prefix = context.getPrefix(uri);
+            }
+            return prefix;
+        }
+
+        @Override
+        public void setPrefix(String prefix, String uri) {
+            namespaces.declarePrefix(prefix, uri);
+        }
+
+        @Override
+        public void setDefaultNamespace(String uri) {
+            namespaces.declarePrefix("", uri);
+        }
+
+        @Override
+        public void setNamespaceContext(NamespaceContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public NamespaceContext getNamespaceContext() {
+            return new NamespaceContext() {
+                @Override
+                public String getNamespaceURI(String prefix) {
+                    String uri = namespaces.getURI(prefix);
+                    if (uri == null && context != null) {
+                        uri = context.getNamespaceURI(prefix);
+                    }
+                    return uri;
+                }
+
+                @Override
+                public String getPrefix(String uri) {
+                    return Collector.this.getPrefix(uri);
+                }
+
+                @Override
+                public Iterator<String> getPrefixes(String uri) {
+                    String prefix = getPrefix(uri);
+                    return prefix == null
+                        ? Collections.<String>emptyIterator()
+                        : Collections.singletonList(prefix).iterator();
+                }
+            };
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -40,8 +40,7 @@
 
 package javax.xml.bind.util;
 
-import java.text.MessageFormat;
-import java.util.ResourceBundle;
+import javax.xml.bind.internal.MessageCatalog;
 
 /**
  * Formats error messages.
@@ -68,9 +67,11 @@ class Messages
     
     /** Loads a string resource and formats it with specified arguments. */
     static String format( String property, Object[] args ) {
-        String text = ResourceBundle.getBundle(Messages.class.getName()).getString(property);
-        return MessageFormat.format(text,args);
+        return CATALOG.format(property, args);
     }
+
+    /** Messages of this package, parsed once per locale. */
+    private static final MessageCatalog CATALOG = new MessageCatalog(Messages.class.getName());
     
 //
 //
@@ -94,5 +95,71 @@ class Messages
         
     static final String SOURCE_NULL_MARSHALLER = // 0 arg
         "JAXBSource.NullMarshaller";
+
+    static final String EVENT_READER_CLOSED = // 0 args
+        "JAXBSource.EventReaderClosed";
+
+    static final String MUST_NOT_BE_NULL = // 1 arg
+        "Shared.MustNotBeNull";
+
+    static final String STREAM_WRITER_CLOSED = // 0 args
+        "JAXBStreamWriter.Closed";
+
+    static final String STREAM_WRITER_ILLEGAL_BATCH_SIZE = // 1 arg
+        "JAXBStreamWriter.IllegalBatchSize";
+
+    static final String ASYNC_COMPLETED = // 0 args
+        "AsyncUnmarshaller.Completed";
+
+    static final String ASYNC_UNEXPECTED_RESULT = // 2 args
+        "AsyncUnmarshaller.UnexpectedResult";
+
+    static final String PARSER_DTD = // 0 args
+        "PushParser.DTD";
+
+    static final String PARSER_MISMATCHED_TAG = // 2 args
+        "PushParser.MismatchedTag";
+
+    static final String PARSER_UNBOUND_PREFIX = // 1 arg
+        "PushParser.UnboundPrefix";
+
+    static final String PARSER_UNDEFINED_ENTITY = // 1 arg
+        "PushParser.UndefinedEntity";
+
+    static final String PARSER_UNSUPPORTED_ENCODING = // 1 arg
+        "PushParser.UnsupportedEncoding";
+
+    static final String PARSER_ILLEGAL_NAME = // 1 arg
+        "PushParser.IllegalName";
+
+    static final String PARSER_DUPLICATE_ATTRIBUTE = // 1 arg
+        "PushParser.DuplicateAttribute";
+
+    static final String PARSER_ILLEGAL_CHARACTER = // 1 arg
+        "PushParser.IllegalCharacter";
+
+    static final String PARSER_MARKUP_TOO_LONG = // 1 arg
+        "PushParser.MarkupTooLong";
+
+    static final String ASYNC_ILLEGAL_MAX_MARKUP_LENGTH = // 1 arg
+        "AsyncUnmarshaller.IllegalMaxMarkupLength";
+
+    static final String SCANNER_UNEXPECTED_EOF = // 0 args
+        "RecordScanner.UnexpectedEOF";
+
+    static final String SCANNER_MALFORMED = // 0 args
+        "RecordScanner.Malformed";
+
+    static final String SCANNER_DTD = // 0 args
+        "RecordScanner.DTD";
+
+    static final String SCANNER_UNSUPPORTED_ENCODING = // 1 arg
+        "RecordScanner.UnsupportedEncoding";
+
+    static final String PIPELINE_NO_SAX_TRANSFORMER = // 1 arg
+        "JAXBPipeline.NoSAXTransformer";
+
+    static final String COLLECTOR_ILLEGAL_MAX_EVENTS = // 1 arg
+        "BoundedValidationEventCollector.IllegalMaxEvents";
         
 }
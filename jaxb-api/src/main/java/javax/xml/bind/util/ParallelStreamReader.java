@@ -0,0 +1,273 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.util;
+
+import javax.xml.bind.DataBindingException;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * {@link JAXBStreamReader} unmarshalling the records of a document
+ * concurrently.
+ *
+ * <p>
+ * The consumer thread splits the input into records with a
+ * {@link RecordScanner} and submits each of them to the pool, keeping
+ * at most a few records per worker in flight. Each task borrows an
+ * {@link Unmarshaller} from a pool owned by the reader and returns it when
+ * done, so there are never more unmarshallers than records unmarshalled at
+ * the same time. Nothing is attached to the threads of the pool: closing
+ * the reader drops the idle unmarshallers.
+ */
+final class ParallelStreamReader<T> extends JAXBStreamReader<T> {
+
+    /** Result of a record that doesn't have the requested name. */
+    private static final Object SKIP = new Object();
+
+    /** Marks the absence of a buffered value, which may itself be null. */
+    private static final Object NONE = new Object();
+
+    /** Number of records in flight per worker. */
+    private static final int WINDOW_PER_WORKER = 4;
+
+    private final RecordScanner scanner;
+    private final String namespaceURI;
+    private final String localName;
+    private final Class<T> declaredType;
+    private final JAXBContext context;
+    private final ForkJoinPool pool;
+    private final boolean ordered;
+    private final int window;
+
+    /** Idle unmarshallers and StAX factories, borrowed by the tasks. */
+    private final ConcurrentLinkedQueue<Worker> workers = new ConcurrentLinkedQueue<Worker>();
+
+    /** Submitted tasks, in submission order. */
+    private final ArrayDeque<Future<Object>> inFlight = new ArrayDeque<Future<Object>>();
+    /** Tasks in completion order, when results don't have to be ordered. */
+    private final CompletionService<Object> completed;
+
+    private Object nextValue = NONE;
+    private boolean eof;
+    private volatile boolean closed;
+
+    ParallelStreamReader(JAXBContext context, InputStream in, QName elementName,
+                         Class<T> declaredType, ForkJoinPool pool, boolean ordered) {
+        this.scanner = new RecordScanner(in);
+        this.namespaceURI = elementName.getNamespaceURI();
+        this.localName = elementName.getLocalPart();
+        this.declaredType = declaredType;
+        this.context = context;
+        this.pool = pool;
+        this.ordered = ordered;
+        this.window = pool.getParallelism() * WINDOW_PER_WORKER;
+        this.completed = ordered ? null : new ExecutorCompletionService<Object>(pool);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        while (nextValue == NONE) {
+            fill();
+            if (inFlight.isEmpty()) {
+                return false;
+            }
+            Object v = take();
+            if (v != SKIP) {
+                nextValue = v;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T v = (T) nextValue;
+        nextValue = NONE;
+        return v;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        nextValue = NONE;
+        for (Future<Object> f : inFlight) {
+            f.cancel(false);
+        }
+        inFlight.clear();
+        workers.clear();
+    }
+
+    /**
+     * Submits records until the window is full or the input is exhausted.
+     */
+    private void fill() {
+        while (!eof && inFlight.size() < window) {
+            final InputStream record;
+            try {
+                record = scanner.next();
+            } catch (IOException | JAXBException e) {
+                eof = true;
+                throw new DataBindingException(e);
+            }
+            if (record == null) {
+                eof = true;
+                return;
+            }
+
+            Callable<Object> task = new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    return unmarshal(record);
+                }
+            };
+            if (ordered) {
+                // FutureTask reports the exception thrown by the task as is,
+                // ForkJoinTask may wrap it
+                FutureTask<Object> f = new FutureTask<Object>(task);
+                pool.execute(f);
+                inFlight.add(f);
+            } else {
+                inFlight.add(completed.submit(task));
+            }
+        }
+    }
+
+    /**
+     * Waits for the next result, in document order or in completion order.
+     */
+    private Object take() {
+        try {
+            Future<Object> f;
+            if (ordered) {
+                f = inFlight.remove();
+            } else {
+                f = completed.take();
+                inFlight.remove(f);
+            }
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataBindingException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new DataBindingException(cause);
+        }
+    }
+
+    /**
+     * Runs on a worker thread.
+     */
+    private Object unmarshal(InputStream record) throws JAXBException, XMLStreamException {
+        Worker w = workers.poll();
+        if (w == null) {
+            w = new Worker(context.createUnmarshaller());
+        }
+        XMLStreamReader reader = w.factory.createXMLStreamReader(record);
+        try {
+            // root element, then the record
+            reader.nextTag();
+            reader.nextTag();
+
+            String ns = reader.getNamespaceURI();
+            if (!localName.equals(reader.getLocalName())
+                    || !namespaceURI.equals(ns == null ? "" : ns)) {
+                return SKIP;
+            }
+            return w.unmarshaller.unmarshal(reader, declaredType).getValue();
+        } finally {
+            reader.close();
+            release(w);
+        }
+    }
+
+    private void release(Worker w) {
+        if (!closed) {
+            workers.offer(w);
+            if (closed) {
+                // raced with close()
+                workers.clear();
+            }
+        }
+    }
+
+    private static final class Worker {
+        final Unmarshaller unmarshaller;
+        final XMLInputFactory factory;
+
+        Worker(Unmarshaller unmarshaller) {
+            this.unmarshaller = unmarshaller;
+            this.factory = XMLInputFactory.newFactory();
+            this.factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        }
+    }
+}
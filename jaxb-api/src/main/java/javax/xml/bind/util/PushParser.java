@@ -0,0 +1,709 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.util;
+
+import org.xml.sax.ContentHandler;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.NamespaceSupport;
+
+import java.nio.CharBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Incremental, namespace aware XML parser fed with characters as they
+ * arrive and reporting SAX events to a {@link ContentHandler}.
+ *
+ * <p>
+ * Characters are buffered until a whole construct is available: a tag,
+ * a processing instruction or a comment. Character data and CDATA sections
+ * are reported as soon as they are received, so only the construct being
+ * received is held in memory.
+ *
+ * <p>
+ * This parser supports what data binding needs: elements, attributes,
+ * namespaces, character and predefined entity references, CDATA sections,
+ * comments and processing instructions. DTDs are rejected, so no entity
+ * other than the predefined ones can be referenced. Documents that are not
+ * namespace-well-formed are rejected, as a validating parser would reject
+ * them, except for the few checks that need a DTD.
+ *
+ * <p>
+ * A construct longer than the maximum markup length is rejected, which
+ * bounds the memory used whatever the input.
+ */
+final class PushParser implements Locator {
+
+    private static final int CONTENT = 0;
+    private static final int CDATA = 1;
+
+    private final ContentHandler handler;
+    private final NamespaceSupport namespaces = new NamespaceSupport();
+    private final AttributesImpl atts = new AttributesImpl();
+    private final ArrayDeque<String> open = new ArrayDeque<String>();
+    private final List<String> attNames = new ArrayList<String>();
+    private final List<String> attValues = new ArrayList<String>();
+    private final String[] parts = new String[3];
+
+    /** Received characters, from the start of the pending construct. */
+    private final StringBuilder buf = new StringBuilder();
+    private int pos;
+    /** Where the search for the end of the pending construct resumes. */
+    private int resume;
+    private int mode = CONTENT;
+
+    private char[] text = new char[256];
+
+    private boolean started;
+    private boolean consumed;
+    private boolean rootSeen;
+    private boolean pendingCR;
+
+    private int line = 1;
+    private int column = 1;
+
+    private int maxMarkupLength;
+
+    PushParser(ContentHandler handler, int maxMarkupLength) {
+        this.handler = handler;
+        this.maxMarkupLength = maxMarkupLength;
+    }
+
+    void setMaxMarkupLength(int maxMarkupLength) {
+        this.maxMarkupLength = maxMarkupLength;
+    }
+
+    /**
+     * Parses the given characters, after those of the previous calls.
+     */
+    void push(CharBuffer chars) throws SAXException {
+        start();
+        while (chars.hasRemaining()) {
+            char c = chars.get();
+            // end-of-line handling, see XML 1.0 section 2.11
+            if (c == '\r') {
+                buf.append('\n');
+                pendingCR = true;
+                continue;
+            }
+            if (!(c == '\n' && pendingCR)) {
+                if ((c < 0x20 && c != '\t' && c != '\n') || c == '\uFFFE' || c == '\uFFFF') {
+                    throw error(Messages.format(Messages.PARSER_ILLEGAL_CHARACTER, String.format("%04X", (int) c)));
+                }
+                buf.append(c);
+            }
+            pendingCR = false;
+        }
+        if (!consumed && buf.length() > 0 && buf.charAt(0) == '\uFEFF') {
+            buf.deleteCharAt(0);
+        }
+        parse(false);
+        compact();
+        if (buf.length() > maxMarkupLength) {
+            throw error(Messages.format(Messages.PARSER_MARKUP_TOO_LONG, maxMarkupLength));
+        }
+    }
+
+    /**
+     * Parses the rest of the document and reports its end.
+     */
+    void end() throws SAXException {
+        start();
+        parse(true);
+        if (pos < buf.length() || mode == CDATA || !open.isEmpty() || !rootSeen) {
+            throw error(Messages.format(Messages.SCANNER_UNEXPECTED_EOF));
+        }
+        handler.endDocument();
+    }
+
+    private void start() throws SAXException {
+        if (!started) {
+            started = true;
+            handler.setDocumentLocator(this);
+            handler.startDocument();
+        }
+    }
+
+    private void compact() {
+        if (pos > 0) {
+            buf.delete(0, pos);
+            resume = Math.max(0, resume - pos);
+            pos = 0;
+        }
+    }
+
+    private void parse(boolean last) throws SAXException {
+        while (pos < buf.length()) {
+            boolean complete;
+            if (mode == CDATA) {
+                complete = cdata();
+            } else if (buf.charAt(pos) != '<') {
+                complete = text(last);
+            } else if (pos + 1 == buf.length()) {
+                complete = false;
+            } else {
+                char c = buf.charAt(pos + 1);
+                if (c == '/') {
+                    complete = endTag();
+                } else if (c == '?') {
+                    complete = processingInstruction();
+                } else if (c == '!') {
+                    complete = declaration();
+                } else {
+                    complete = startTag();
+                }
+            }
+            if (!complete) {
+                return;
+            }
+        }
+    }
+
+    private boolean text(boolean last) throws SAXException {
+        int lt = buf.indexOf("<", Math.max(pos, resume));
+        if (lt >= 0) {
+            characters(pos, lt);
+            advance(lt);
+            return true;
+        }
+
+        // report what has been received, except an incomplete reference
+        // and what may be the start of "]]>", which is not allowed in content
+        int end = buf.length();
+        if (!last) {
+            int amp = buf.lastIndexOf("&");
+            if (amp >= pos && buf.indexOf(";", amp) < 0) {
+                end = amp;
+            }
+            while (end > pos && end > buf.length() - 2 && buf.charAt(end - 1) == ']') {
+                end--;
+            }
+        }
+        characters(pos, end);
+        advance(end);
+        resume = buf.length();
+        return last;
+    }
+
+    private boolean cdata() throws SAXException {
+        int end = buf.indexOf("]]>", Math.max(pos, resume));
+        if (end < 0) {
+            // the last two characters may start the terminator
+            int safe = buf.length() - 2;
+            if (safe > pos) {
+                reportCharacters(pos, safe);
+                advance(safe);
+            }
+            resume = pos;
+            return false;
+        }
+        reportCharacters(pos, end);
+        advance(end + 3);
+        mode = CONTENT;
+        return true;
+    }
+
+    private boolean declaration() throws SAXException {
+        int comment = lookingAt("<!--");
+        if (comment > 0) {
+            int end = buf.indexOf("-->", Math.max(pos + 4, resume));
+            if (end < 0) {
+                resume = Math.max(pos + 4, buf.length() - 2);
+                return false;
+            }
+            if (buf.indexOf("--", pos + 4) < end) {
+                throw error(Messages.format(Messages.SCANNER_MALFORMED));
+            }
+            advance(end + 3);
+            return true;
+        }
+        int cdata = lookingAt("<![CDATA[");
+        if (cdata > 0) {
+            if (open.isEmpty()) {
+                throw error(Messages.format(Messages.SCANNER_MALFORMED));
+            }
+            advance(pos + 9);
+            mode = CDATA;
+            return true;
+        }
+        int doctype = lookingAt("<!DOCTYPE");
+        if (doctype > 0) {
+            throw error(Messages.format(Messages.PARSER_DTD));
+        }
+        if (comment < 0 && cdata < 0 && doctype < 0) {
+            throw error(Messages.format(Messages.SCANNER_MALFORMED));
+        }
+        return false;
+    }
+
+    private boolean processingInstruction() throws SAXException {
+        int end = buf.indexOf("?>", Math.max(pos + 2, resume));
+        if (end < 0) {
+            resume = Math.max(pos + 2, buf.length() - 1);
+            return false;
+        }
+        int i = pos + 2;
+        int nameEnd = nameEnd(i, end);
+        String target = buf.substring(i, nameEnd);
+        checkName(target, false);
+        if (target.equalsIgnoreCase("xml")) {
+            // the XML declaration, only allowed at the very beginning
+            if (consumed) {
+                throw error(Messages.format(Messages.SCANNER_MALFORMED));
+            }
+        } else {
+            handler.processingInstruction(target, buf.substring(skipWhitespace(nameEnd, end), end));
+        }
+        advance(end + 2);
+        return true;
+    }
+
+    private boolean startTag() throws SAXException {
+        // find the end of the tag, outside of attribute values
+        int gt = -1;
+        char quote = 0;
+        for (int i = pos + 1; i < buf.length(); i++) {
+            char c = buf.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                gt = i;
+                break;
+            }
+        }
+        if (gt < 0) {
+            return false;
+        }
+
+        if (open.isEmpty() && rootSeen) {
+            throw error(Messages.format(Messages.SCANNER_MALFORMED));
+        }
+        rootSeen = true;
+
+        boolean empty = buf.charAt(gt - 1) == '/';
+        int limit = empty ? gt - 1 : gt;
+        int i = pos + 1;
+        int nameEnd = nameEnd(i, limit);
+        String qName = buf.substring(i, nameEnd);
+        checkName(qName, true);
+
+        attNames.clear();
+        attValues.clear();
+        i = skipWhitespace(nameEnd, limit);
+        while (i < limit) {
+            int attEnd = i;
+            while (attEnd < limit && buf.charAt(attEnd) != '=' && !isWhitespace(buf.charAt(attEnd))) {
+                attEnd++;
+            }
+            String name = buf.substring(i, attEnd);
+            checkName(name, true);
+            if (attNames.contains(name)) {
+                throw error(Messages.format(Messages.PARSER_DUPLICATE_ATTRIBUTE, name));
+            }
+            i = skipWhitespace(attEnd, limit);
+            if (i == limit || buf.charAt(i) != '=') {
+                throw error(Messages.format(Messages.SCANNER_MALFORMED));
+            }
+            i = skipWhitespace(i + 1, limit);
+            char q = i < limit ? buf.charAt(i) : 0;
+            if (q != '"' && q != '\'') {
+                throw error(Messages.format(Messages.SCANNER_MALFORMED));
+            }
+            int valueEnd = buf.indexOf(String.valueOf(q), i + 1);
+            if (valueEnd < 0 || valueEnd >= limit) {
+                throw error(Messages.format(Messages.SCANNER_MALFORMED));
+            }
+            attNames.add(name);
+            attValues.add(attributeValue(i + 1, valueEnd));
+            i = valueEnd + 1;
+            if (i < limit && !isWhitespace(buf.charAt(i))) {
+                throw error(Messages.format(Messages.SCANNER_MALFORMED));
+            }
+            i = skipWhitespace(i, limit);
+        }
+
+        namespaces.pushContext();
+        for (int a = 0; a < attNames.size(); a++) {
+            String name = attNames.get(a);
+            if (name.equals("xmlns")) {
+                namespaces.declarePrefix("", attValues.get(a));
+                handler.startPrefixMapping("", attValues.get(a));
+            } else if (name.startsWith("xmlns:")) {
+                String prefix = name.substring(6);
+                if (attValues.get(a).isEmpty()) {
+                    throw error(Messages.format(Messages.PARSER_UNBOUND_PREFIX, prefix));
+                }
+                namespaces.declarePrefix(prefix, attValues.get(a));
+                handler.startPrefixMapping(prefix, attValues.get(a));
+            }
+        }
+
+        atts.clear();
+        for (int a = 0; a < attNames.size(); a++) {
+            String name = attNames.get(a);
+            if (!name.equals("xmlns") && !name.startsWith("xmlns:")) {
+                processName(name, true);
+                // distinct prefixes may be bound to the same namespace
+                if (atts.getIndex(parts[0], parts[1]) >= 0) {
+                    throw error(Messages.format(Messages.PARSER_DUPLICATE_ATTRIBUTE, name));
+                }
+                atts.addAttribute(parts[0], parts[1], parts[2], "CDATA", attValues.get(a));
+            }
+        }
+
+        processName(qName, false);
+        handler.startElement(parts[0], parts[1], parts[2], atts);
+        if (empty) {
+            endElement(qName);
+        } else {
+            open.push(qName);
+        }
+        advance(gt + 1);
+        return true;
+    }
+
+    private boolean endTag() throws SAXException {
+        int gt = buf.indexOf(">", Math.max(pos + 2, resume));
+        if (gt < 0) {
+            resume = buf.length();
+            return false;
+        }
+        int nameEnd = nameEnd(pos + 2, gt);
+        String qName = buf.substring(pos + 2, nameEnd);
+        if (skipWhitespace(nameEnd, gt) != gt) {
+            throw error(Messages.format(Messages.SCANNER_MALFORMED));
+        }
+        String expected = open.peek();
+        if (!qName.equals(expected)) {
+            throw error(Messages.format(Messages.PARSER_MISMATCHED_TAG, expected, qName));
+        }
+        open.pop();
+        endElement(qName);
+        advance(gt + 1);
+        return true;
+    }
+
+    private void endElement(String qName) throws SAXException {
+        processName(qName, false);
+        handler.endElement(parts[0], parts[1], parts[2]);
+        Enumeration<?> e = namespaces.getDeclaredPrefixes();
+        while (e.hasMoreElements()) {
+            handler.endPrefixMapping((String) e.nextElement());
+        }
+        namespaces.popContext();
+    }
+
+    private void processName(String qName, boolean attribute) throws SAXException {
+        String[] p = namespaces.processName(qName, new String[3], attribute);
+        if (p == null) {
+            int colon = qName.indexOf(':');
+            throw error(Messages.format(Messages.PARSER_UNBOUND_PREFIX,
+                colon < 0 ? "" : qName.substring(0, colon)));
+        }
+        parts[0] = p[0];
+        parts[1] = p[1];
+        parts[2] = p[2];
+    }
+
+    /**
+     * Reports character data, outside of the root element it must be whitespace.
+     */
+    private void characters(int from, int to) throws SAXException {
+        if (from == to) {
+            return;
+        }
+        if (open.isEmpty()) {
+            for (int i = from; i < to; i++) {
+                if (!isWhitespace(buf.charAt(i))) {
+                    throw error(Messages.format(Messages.SCANNER_MALFORMED));
+                }
+            }
+            return;
+        }
+        int cdataEnd = buf.indexOf("]]>", from);
+        if (cdataEnd >= 0 && cdataEnd + 3 <= to) {
+            throw error(Messages.format(Messages.SCANNER_MALFORMED));
+        }
+        int n = unescape(from, to, false);
+        handler.characters(text, 0, n);
+    }
+
+    private void reportCharacters(int from, int to) throws SAXException {
+        if (from == to) {
+            return;
+        }
+        ensureText(to - from);
+        buf.getChars(from, to, text, 0);
+        handler.characters(text, 0, to - from);
+    }
+
+    private String attributeValue(int from, int to) throws SAXException {
+        int n = unescape(from, to, true);
+        return new String(text, 0, n);
+    }
+
+    /**
+     * Copies the given range to {@link #text}, replacing references.
+     */
+    private int unescape(int from, int to, boolean attribute) throws SAXException {
+        ensureText(to - from);
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            char c = buf.charAt(i);
+            if (c == '&') {
+                int semi = buf.indexOf(";", i);
+                if (semi < 0 || semi >= to) {
+                    throw error(Messages.format(Messages.SCANNER_MALFORMED));
+                }
+                String name = buf.substring(i + 1, semi);
+                n = reference(name, n);
+                i = semi;
+            } else if (attribute && c == '<') {
+                throw error(Messages.format(Messages.SCANNER_MALFORMED));
+            } else if (attribute && (c == '\n' || c == '\t')) {
+                // attribute-value normalization, see XML 1.0 section 3.3.3
+                text[n++] = ' ';
+            } else {
+                text[n++] = c;
+            }
+        }
+        return n;
+    }
+
+    private int reference(String name, int n) throws SAXException {
+        if (name.startsWith("#")) {
+            int cp = codePoint(name);
+            if (!isXmlChar(cp)) {
+                throw error(Messages.format(Messages.PARSER_UNDEFINED_ENTITY, name));
+            }
+            // a reference is longer than the characters it stands for
+            return n + Character.toChars(cp, text, n);
+        }
+        switch (name) {
+            case "lt":
+                text[n] = '<';
+                break;
+            case "gt":
+                text[n] = '>';
+                break;
+            case "amp":
+                text[n] = '&';
+                break;
+            case "quot":
+                text[n] = '"';
+                break;
+            case "apos":
+                text[n] = '\'';
+                break;
+            default:
+                throw error(Messages.format(Messages.PARSER_UNDEFINED_ENTITY, name));
+        }
+        return n + 1;
+    }
+
+    /**
+     * Parses a character reference, see XML 1.0 section 4.1.
+     *
+     * @return the referenced code point, or -1 if it is out of range
+     */
+    private int codePoint(String name) throws SAXException {
+        boolean hex = name.startsWith("#x");
+        int from = hex ? 2 : 1;
+        if (from == name.length()) {
+            throw error(Messages.format(Messages.PARSER_UNDEFINED_ENTITY, name));
+        }
+        int cp = 0;
+        for (int i = from; i < name.length(); i++) {
+            // unlike Character.digit, only ASCII digits without a sign
+            char c = name.charAt(i);
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            } else if (hex && c >= 'a' && c <= 'f') {
+                digit = c - 'a' + 10;
+            } else if (hex && c >= 'A' && c <= 'F') {
+                digit = c - 'A' + 10;
+            } else {
+                throw error(Messages.format(Messages.PARSER_UNDEFINED_ENTITY, name));
+            }
+            cp = cp * (hex ? 16 : 10) + digit;
+            if (cp > Character.MAX_CODE_POINT) {
+                return -1;
+            }
+        }
+        return cp;
+    }
+
+    /**
+     * Tells whether a code point is a legal character, see XML 1.0 section 2.2.
+     */
+    private static boolean isXmlChar(int cp) {
+        return cp == '\t' || cp == '\n' || cp == '\r'
+            || (cp >= 0x20 && cp <= 0xD7FF) || (cp >= 0xE000 && cp <= 0xFFFD)
+            || (cp >= 0x10000 && cp <= Character.MAX_CODE_POINT);
+    }
+
+    private void ensureText(int length) {
+        if (text.length < length) {
+            text = new char[Math.max(length, text.length * 2)];
+        }
+    }
+
+    /**
+     * Tells whether the pending construct starts with {@code s}.
+     *
+     * @return 1 if it does, -1 if it doesn't, 0 if more characters are needed
+     */
+    private int lookingAt(String s) {
+        int available = Math.min(s.length(), buf.length() - pos);
+        for (int i = 0; i < available; i++) {
+            if (buf.charAt(pos + i) != s.charAt(i)) {
+                return -1;
+            }
+        }
+        return available == s.length() ? 1 : 0;
+    }
+
+    /**
+     * Checks a name, see XML 1.0 section 2.3 and Namespaces in XML 1.0 section 3.
+     */
+    private void checkName(String name, boolean qualified) throws SAXException {
+        boolean legal = !name.isEmpty() && isNameStartChar(name.charAt(0));
+        for (int i = 1; legal && i < name.length(); i++) {
+            legal = isNameChar(name.charAt(i));
+        }
+        if (legal && qualified) {
+            int colon = name.indexOf(':');
+            legal = colon < 0 || (colon > 0 && colon < name.length() - 1 && name.indexOf(':', colon + 1) < 0);
+        }
+        if (!legal) {
+            throw error(Messages.format(Messages.PARSER_ILLEGAL_NAME, name));
+        }
+    }
+
+    private static boolean isNameStartChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == ':'
+            || (c >= '\u00C0' && c <= '\u00D6') || (c >= '\u00D8' && c <= '\u00F6')
+            || (c >= '\u00F8' && c <= '\u02FF') || (c >= '\u0370' && c <= '\u037D')
+            || (c >= '\u037F' && c <= '\u1FFF') || (c >= '\u200C' && c <= '\u200D')
+            || (c >= '\u2070' && c <= '\u218F') || (c >= '\u2C00' && c <= '\u2FEF')
+            || (c >= '\u3001' && c <= '\uD7FF') || (c >= '\uF900' && c <= '\uFDCF')
+            || (c >= '\uFDF0' && c <= '\uFFFD')
+            // supplementary characters, up to U+EFFFF
+            || (c >= '\uD800' && c <= '\uDFFF');
+    }
+
+    private static boolean isNameChar(char c) {
+        return isNameStartChar(c) || (c >= '0' && c <= '9') || c == '-' || c == '.' || c == '\u00B7'
+            || (c >= '\u0300' && c <= '\u036F') || (c >= '\u203F' && c <= '\u2040');
+    }
+
+    private int nameEnd(int from, int to) {
+        int i = from;
+        while (i < to && !isWhitespace(buf.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private int skipWhitespace(int from, int to) {
+        int i = from;
+        while (i < to && isWhitespace(buf.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Consumes the pending characters up to {@code to}, keeping track of the location.
+     */
+    private void advance(int to) {
+        for (int i = pos; i < to; i++) {
+            if (buf.charAt(i) == '\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+        }
+        if (to > pos) {
+            consumed = true;
+        }
+        pos = to;
+        resume = 0;
+    }
+
+    private SAXParseException error(String message) {
+        return new SAXParseException(message, this);
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\t';
+    }
+
+    @Override
+    public String getPublicId() {
+        return null;
+    }
+
+    @Override
+    public String getSystemId() {
+        return null;
+    }
+
+    @Override
+    public int getLineNumber() {
+        return line;
+    }
+
+    @Override
+    public int getColumnNumber() {
+        return column;
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.util;
+
+import javax.xml.bind.UnmarshalException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits a document into its top-level records without parsing it.
+ *
+ * <p>
+ * The scanner works on raw bytes and only recognizes as much markup as
+ * needed to find where each child of the root element starts and ends:
+ * tags, quoted attribute values, comments, CDATA sections and processing
+ * instructions. Every record is returned as a standalone document made of
+ * the prolog, the start tag of the root element (so that namespace
+ * declarations stay in scope), the record itself and the end tag of the root
+ * element. Well-formedness of the records is left to the parser.
+ *
+ * <p>
+ * Delimiters are matched byte by byte, so the document must use an ASCII
+ * compatible encoding in which no byte of a multi-byte character can be
+ * mistaken for a delimiter: UTF-8 or any single-byte encoding. DTDs
+ * aren't supported, since entities declared there could expand to markup.
+ */
+final class RecordScanner {
+
+    private static final Pattern ENCODING = Pattern.compile(
+        "\\A(?:\u00EF\u00BB\u00BF)?<\\?xml\\s[^?]*encoding\\s*=\\s*[\"']([A-Za-z0-9._:-]+)[\"']");
+
+    private static final String DELIMITERS = "<>/?!-[]='\"";
+
+    // packed terminators matched by skipUntil
+    private static final int COMMENT_END = ('-' << 16) | ('-' << 8) | '>';
+    private static final int CDATA_END = (']' << 16) | (']' << 8) | '>';
+    private static final int PI_END = ('?' << 8) | '>';
+
+    private final InputStream in;
+    private final byte[] buf = new byte[8192];
+    private int pos;
+    private int limit;
+
+    // bytes of the current record, or of the prolog
+    private byte[] rec = new byte[1024];
+    private int recLen;
+    private boolean recording;
+
+    // prolog and start tag of the root element, and its end tag
+    private byte[] head;
+    private byte[] tail;
+    private boolean done;
+
+    RecordScanner(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Returns the next record wrapped into a standalone document,
+     * or null once the end of the root element has been reached.
+     */
+    InputStream next() throws IOException, UnmarshalException {
+        if (head == null) {
+            readProlog();
+        }
+        while (!done) {
+            int b = read();
+            if (b == -1) {
+                throw new UnmarshalException(Messages.format(Messages.SCANNER_UNEXPECTED_EOF));
+            }
+            if (b != '<') {
+                // character data between records
+                continue;
+            }
+            int c = read();
+            if (c == '/') {
+                skipTag();
+                done = true;
+            } else if (c == '!') {
+                skipDeclaration();
+            } else if (c == '?') {
+                skipUntil(PI_END, 0xFFFF);
+            } else {
+                return readRecord(c);
+            }
+        }
+        return null;
+    }
+
+    private InputStream readRecord(int c) throws IOException, UnmarshalException {
+        if (c == '>' || c == -1) {
+            throw new UnmarshalException(Messages.format(Messages.SCANNER_MALFORMED));
+        }
+        recLen = 0;
+        recording = true;
+        append('<');
+        append(c);
+
+        int depth = skipTag() ? 0 : 1;
+        while (depth > 0) {
+            int b = read();
+            if (b == -1) {
+                throw new UnmarshalException(Messages.format(Messages.SCANNER_UNEXPECTED_EOF));
+            }
+            if (b != '<') {
+                continue;
+            }
+            c = read();
+            if (c == '/') {
+                skipTag();
+                depth--;
+            } else if (c == '!') {
+                skipDeclaration();
+            } else if (c == '?') {
+                skipUntil(PI_END, 0xFFFF);
+            } else if (!skipTag()) {
+                depth++;
+            }
+        }
+        recording = false;
+
+        // the record keeps the buffer, head and tail are shared by all records
+        InputStream record = new ByteArrayInputStream(rec, 0, recLen);
+        rec = new byte[Math.max(1024, recLen)];
+        return new SequenceInputStream(new ByteArrayInputStream(head),
+            new SequenceInputStream(record, new ByteArrayInputStream(tail)));
+    }
+
+    /**
+     * Reads everything up to and including the start tag of the root element.
+     */
+    private void readProlog() throws IOException, UnmarshalException {
+        recLen = 0;
+        recording = true;
+
+        int b = read();
+        if (b == 0xEF) {
+            if (read() != 0xBB || read() != 0xBF) {
+                throw new UnmarshalException(Messages.format(Messages.SCANNER_MALFORMED));
+            }
+            b = read();
+        } else if (b == 0xFE || b == 0xFF || b == 0x00) {
+            throw new UnmarshalException(
+                Messages.format(Messages.SCANNER_UNSUPPORTED_ENCODING, "UTF-16/UTF-32"));
+        }
+
+        while (true) {
+            while (isWhitespace(b)) {
+                b = read();
+            }
+            if (b == -1) {
+                throw new UnmarshalException(Messages.format(Messages.SCANNER_UNEXPECTED_EOF));
+            }
+            if (b != '<') {
+                throw new UnmarshalException(Messages.format(Messages.SCANNER_MALFORMED));
+            }
+            int c = read();
+            if (c == '?') {
+                skipUntil(PI_END, 0xFFFF);
+            } else if (c == '!') {
+                skipDeclaration();
+            } else {
+                readRootTag(c);
+                break;
+            }
+            b = read();
+        }
+
+        recording = false;
+        head = Arrays.copyOf(rec, recLen);
+        checkEncoding();
+    }
+
+    private void readRootTag(int c) throws IOException, UnmarshalException {
+        int nameStart = recLen - 1;
+        while (c != -1 && c != '/' && c != '>' && !isWhitespace(c)) {
+            c = read();
+        }
+        int nameEnd = recLen - 1;
+        if (c == -1 || nameEnd == nameStart) {
+            throw new UnmarshalException(Messages.format(Messages.SCANNER_MALFORMED));
+        }
+
+        tail = new byte[nameEnd - nameStart + 3];
+        tail[0] = '<';
+        tail[1] = '/';
+        System.arraycopy(rec, nameStart, tail, 2, nameEnd - nameStart);
+        tail[tail.length - 1] = '>';
+
+        if (c == '/') {
+            if (read() != '>') {
+                throw new UnmarshalException(Messages.format(Messages.SCANNER_MALFORMED));
+            }
+            done = true;
+        } else if (c != '>') {
+            done = skipTag();
+        }
+    }
+
+    private void checkEncoding() throws UnmarshalException {
+        Matcher m = ENCODING.matcher(new String(head, StandardCharsets.ISO_8859_1));
+        if (!m.find()) {
+            // UTF-8 by default
+            return;
+        }
+        String name = m.group(1);
+        boolean supported;
+        try {
+            Charset cs = Charset.forName(name);
+            if (StandardCharsets.UTF_8.equals(cs)) {
+                supported = true;
+            } else {
+                CharsetEncoder enc = cs.newEncoder();
+                supported = enc.maxBytesPerChar() == 1
+                    && Arrays.equals(DELIMITERS.getBytes(StandardCharsets.US_ASCII), DELIMITERS.getBytes(cs));
+            }
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            supported = false;
+        }
+        if (!supported) {
+            throw new UnmarshalException(
+                Messages.format(Messages.SCANNER_UNSUPPORTED_ENCODING, name));
+        }
+    }
+
+    /**
+     * Skips the rest of a tag, honoring quoted attribute values.
+     *
+     * @return true if the tag is an empty-element tag
+     */
+    private boolean skipTag() throws IOException, UnmarshalException {
+        int quote = 0;
+        int prev = 0;
+        while (true) {
+            int b = read();
+            if (b == -1) {
+                throw new UnmarshalException(Messages.format(Messages.SCANNER_UNEXPECTED_EOF));
+            }
+            if (quote != 0) {
+                if (b == quote) {
+                    quote = 0;
+                }
+            } else if (b == '"' || b == '\'') {
+                quote = b;
+            } else if (b == '>') {
+                return prev == '/';
+            }
+            prev = b;
+        }
+    }
+
+    /**
+     * Skips a comment or a CDATA section, after {@code <!} has been read.
+     */
+    private void skipDeclaration() throws IOException, UnmarshalException {
+        int c = read();
+        if (c == '-' && read() == '-') {
+            skipUntil(COMMENT_END, 0xFFFFFF);
+        } else if (c == '[') {
+            for (int i = 0; i < 6; i++) {
+                if (read() != "CDATA[".charAt(i)) {
+                    throw new UnmarshalException(Messages.format(Messages.SCANNER_MALFORMED));
+                }
+            }
+            skipUntil(CDATA_END, 0xFFFFFF);
+        } else if (c == 'D') {
+            throw new UnmarshalException(Messages.format(Messages.SCANNER_DTD));
+        } else {
+            throw new UnmarshalException(Messages.format(Messages.SCANNER_MALFORMED));
+        }
+    }
+
+    /**
+     * Skips bytes until the last ones read match the packed terminator.
+     */
+    private void skipUntil(int terminator, int mask) throws IOException, UnmarshalException {
+        int window = 0;
+        while (true) {
+            int b = read();
+            if (b == -1) {
+                throw new UnmarshalException(Messages.format(Messages.SCANNER_UNEXPECTED_EOF));
+            }
+            window = ((window << 8) | b) & mask;
+            if (window == terminator) {
+                return;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pos == limit) {
+            int n = in.read(buf, 0, buf.length);
+            if (n <= 0) {
+                return -1;
+            }
+            pos = 0;
+            limit = n;
+        }
+        int b = buf[pos++] & 0xFF;
+        if (recording) {
+            append(b);
+        }
+        return b;
+    }
+
+    private void append(int b) {
+        if (recLen == rec.length) {
+            rec = Arrays.copyOf(rec, rec.length * 2);
+        }
+        rec[recLen++] = (byte) b;
+    }
+
+    private static boolean isWhitespace(int b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+}
@@ -52,4 +52,5 @@ module java.xml.bind {
     exports javax.xml.bind.util;
 
     uses javax.xml.bind.JAXBContextFactory;
+    uses javax.xml.bind.helpers.BindingMetrics;
 }
@@ -0,0 +1,162 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind;
+
+import java.util.Optional;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Records the creation of contexts as JDK Flight Recorder events.
+ *
+ * <p>
+ * The {@code javax.xml.bind.ContextCreated} event is disabled by default. It is
+ * recorded once enabled in the recording settings, for instance with
+ * {@code jfr configure +javax.xml.bind.ContextCreated#enabled=true}.
+ * Nothing is allocated until a recording is started, and nothing is
+ * recorded when the {@code jdk.jfr} module isn't available.
+ */
+final class JfrEvents {
+
+    private static final boolean AVAILABLE = linkFlightRecorder();
+
+    private JfrEvents() {}
+
+    static Object beginContextCreation() {
+        return AVAILABLE && Recorder.isInitialized() ? Recorder.begin() : null;
+    }
+
+    static JAXBContext contextCreated(Object event, String discovery, String contextPath, Class<?>[] classes,
+                                      JAXBContext context) {
+        if (event != null) {
+            Recorder.end(event, discovery, contextPath, classes, context);
+        }
+        return context;
+    }
+
+    /**
+     * Makes the {@code jdk.jfr} module readable by this module.
+     *
+     * @return whether the events can be recorded
+     */
+    private static boolean linkFlightRecorder() {
+        try {
+            Module module = JfrEvents.class.getModule();
+            if (!module.isNamed()) {
+                // the unnamed module reads every module
+                Class.forName("jdk.jfr.Event", false, null);
+                return true;
+            }
+            Optional<Module> jfr = ModuleLayer.boot().findModule("jdk.jfr");
+            if (jfr.isPresent()) {
+                module.addReads(jfr.get());
+                return true;
+            }
+            return false;
+        } catch (ClassNotFoundException | LinkageError | SecurityException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Only loaded once {@code jdk.jfr} is known to be readable.
+     */
+    private static final class Recorder {
+
+        /**
+         * Checks whether a recording was ever started. Events are only created
+         * once it was: creating the first one would initialize the flight
+         * recorder, which takes hundreds of milliseconds.
+         */
+        static boolean isInitialized() {
+            return FlightRecorder.isInitialized();
+        }
+
+        static Object begin() {
+            ContextCreated event = new ContextCreated();
+            if (!event.isEnabled()) {
+                return null;
+            }
+            event.begin();
+            return event;
+        }
+
+        static void end(Object e, String discovery, String contextPath, Class<?>[] classes, JAXBContext context) {
+            ContextCreated event = (ContextCreated) e;
+            event.end();
+            if (event.shouldCommit()) {
+                event.discovery = discovery;
+                event.provider = context == null ? null : context.getClass().getName();
+                event.contextPath = contextPath;
+                event.classCount = classes == null ? 0 : classes.length;
+                event.commit();
+            }
+        }
+    }
+
+    @Name("javax.xml.bind.ContextCreated")
+    @Label("JAXB Context Created")
+    @Category({"Java Application", "JAXB"})
+    @Description("Discovery of the JAXB provider and creation of a JAXBContext")
+    @Enabled(false)
+    static final class ContextCreated extends Event {
+
+        @Label("Discovery")
+        @Description("How the provider was found")
+        String discovery;
+
+        @Label("Provider")
+        @Description("Class of the created context")
+        String provider;
+
+        @Label("Context Path")
+        String contextPath;
+
+        @Label("Class Count")
+        @Description("Number of classes the context was created from, or found in its context path")
+        int classCount;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2018 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package javax.xml.bind.helpers;
+
+import javax.xml.bind.ValidationEvent;
+import java.util.Optional;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Records marshal and unmarshal operations and validation events as
+ * JDK Flight Recorder events.
+ *
+ * <p>
+ * The {@code javax.xml.bind.Marshal}, {@code javax.xml.bind.Unmarshal} and
+ * {@code javax.xml.bind.Validation} events are disabled by default, and must be
+ * enabled in the recording settings. Operations are recorded when they go
+ * through the methods of {@link AbstractMarshallerImpl} and
+ * {@link AbstractUnmarshallerImpl} that end up in the provider's
+ * {@code marshal(Object, Result)} and {@code unmarshal(XMLReader, InputSource)}.
+ * The number of bytes is only known for streams and files. Validation events
+ * are recorded when handled by {@link DefaultValidationEventHandler} or
+ * {@link LoggingValidationEventHandler}. No event is created until a
+ * recording is started.
+ */
+final class JfrEvents {
+
+    private static final boolean AVAILABLE = linkFlightRecorder();
+
+    private JfrEvents() {}
+
+    static Object beginMarshal() {
+        return AVAILABLE && Recorder.isInitialized() ? Recorder.beginMarshal() : null;
+    }
+
+    static Object beginUnmarshal() {
+        return AVAILABLE && Recorder.isInitialized() ? Recorder.beginUnmarshal() : null;
+    }
+
+    static void end(Object event, Class<?> type, long bytes) {
+        Recorder.end(event, type, bytes);
+    }
+
+    static void validationEvent(ValidationEvent event) {
+        if (AVAILABLE && Recorder.isInitialized()) {
+            Recorder.validationEvent(event);
+        }
+    }
+
+    /**
+     * Makes the {@code jdk.jfr} module readable by this module.
+     *
+     * @return whether the events can be recorded
+     */
+    private static boolean linkFlightRecorder() {
+        try {
+            Module module = JfrEvents.class.getModule();
+            if (!module.isNamed()) {
+                // the unnamed module reads every module
+                Class.forName("jdk.jfr.Event", false, null);
+                return true;
+            }
+            Optional<Module> jfr = ModuleLayer.boot().findModule("jdk.jfr");
+            if (jfr.isPresent()) {
+                module.addReads(jfr.get());
+                return true;
+            }
+            return false;
+        } catch (ClassNotFoundException | LinkageError | SecurityException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Only loaded once {@code jdk.jfr} is known to be readable.
+     */
+    private static final class Recorder {
+
+        /**
+         * Checks whether a recording was ever started, so as not to initialize
+         * the flight recorder by creating events, which is slow.
+         */
+        static boolean isInitialized() {
+            return FlightRecorder.isInitialized();
+        }
+
+        static Object beginMarshal() {
+            return begin(new Marshal());
+        }
+
+        static Object beginUnmarshal() {
+            return begin(new Unmarshal());
+        }
+
+        private static Object begin(Operation event) {
+            if (!event.isEnabled()) {
+                return null;
+            }
+            event.begin();
+            return event;
+        }
+
+        static void end(Object e, Class<?> type, long bytes) {
+            Operation event = (Operation) e;
+            event.end();
+            if (event.shouldCommit()) {
+                event.type = type;
+                event.bytes = bytes;
+                event.commit();
+            }
+        }
+
+        static void validationEvent(ValidationEvent e) {
+            Validation event = new Validation();
+            if (event.shouldCommit()) {
+                switch (e.getSeverity()) {
+                    case ValidationEvent.WARNING:
+                        event.severity = "WARNING";
+                        break;
+                    case ValidationEvent.ERROR:
+                        event.severity = "ERROR";
+                        break;
+                    default:
+                        event.severity = "FATAL_ERROR";
+                        break;
+                }
+                event.message = e.getMessage();
+                event.commit();
+            }
+        }
+    }
+
+    abstract static class Operation extends Event {
+
+        @Label("Type")
+        @Description("Class of the marshalled or unmarshalled object, declared type of a JAXBElement")
+        Class<?> type;
+
+        @Label("Bytes")
+        @Description("Bytes written or read, 0 unless the operation used a stream or a file")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("javax.xml.bind.Marshal")
+    @Label("JAXB Marshal")
+    @Category({"Java Application", "JAXB"})
+    @Enabled(false)
+    static final class Marshal extends Operation {
+    }
+
+    @Name("javax.xml.bind.Unmarshal")
+    @Label("JAXB Unmarshal")
+    @Category({"Java Application", "JAXB"})
+    @Enabled(false)
+    static final class Unmarshal extends Operation {
+    }
+
+    @Name("javax.xml.bind.Validation")
+    @Label("JAXB Validation Event")
+    @Category({"Java Application", "JAXB"})
+    @Description("Warning or error reported while marshalling or unmarshalling")
+    @Enabled(false)
+    static final class Validation extends Event {
+
+        @Label("Severity")
+        String severity;
+
+        @Label("Message")
+        String message;
+    }
+}